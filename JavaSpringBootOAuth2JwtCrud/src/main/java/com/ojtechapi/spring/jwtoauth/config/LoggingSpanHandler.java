@@ -0,0 +1,109 @@
+package com.ojtechapi.spring.jwtoauth.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local span exporter: every finished observation whose name starts with one of
+ * tracing.logging.include is written as one log line on the "spans" logger, with a trace
+ * id shared by nested observations, its own and its parent's span id, duration, tags and
+ * error. Nesting follows the observation scopes, so a Gemini call made while a match stage
+ * is running shows up as a child of that stage (and of the HTTP request, if any).
+ *
+ * Turn it off with tracing.logging.enabled=false, or silence the "spans" logger.
+ */
+@Component
+public class LoggingSpanHandler implements ObservationHandler<Observation.Context> {
+
+    private static final Logger spans = LoggerFactory.getLogger("spans");
+
+    @Value("${tracing.logging.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracing.logging.include:gemini.,match.}")
+    private List<String> include;
+
+    private static final class Span {
+        private final String traceId;
+        private final String spanId;
+        private final String parentId;
+        private final long startNanos = System.nanoTime();
+
+        private Span(String traceId, String spanId, String parentId) {
+            this.traceId = traceId;
+            this.spanId = spanId;
+            this.parentId = parentId;
+        }
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return enabled;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        Span parent = parentSpan(context);
+        String traceId = parent != null ? parent.traceId : randomHex(16);
+        context.put(Span.class, new Span(traceId, randomHex(8), parent != null ? parent.spanId : null));
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Span span = context.get(Span.class);
+        if (span == null || !included(context.getName()) || !spans.isInfoEnabled()) {
+            return;
+        }
+        StringJoiner tags = new StringJoiner(",", "{", "}");
+        for (KeyValue keyValue : context.getLowCardinalityKeyValues()) {
+            tags.add(keyValue.getKey() + "=" + keyValue.getValue());
+        }
+        for (KeyValue keyValue : context.getHighCardinalityKeyValues()) {
+            tags.add(keyValue.getKey() + "=" + keyValue.getValue());
+        }
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - span.startNanos);
+        Throwable error = context.getError();
+        spans.info("span name={} trace={} span={} parent={} duration_ms={} tags={}{}",
+                context.getName(), span.traceId, span.spanId, span.parentId != null ? span.parentId : "-",
+                durationMicros / 1000.0, tags,
+                error != null ? " error=" + error.getClass().getSimpleName() + ": " + error.getMessage() : "");
+    }
+
+    private static Span parentSpan(Observation.Context context) {
+        ObservationView parent = context.getParentObservation();
+        return parent != null ? parent.getContextView().get(Span.class) : null;
+    }
+
+    private boolean included(String name) {
+        if (name == null) {
+            return false;
+        }
+        for (String prefix : include) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            int b = random.nextInt(256);
+            hex.append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.ojtechapi.spring.jwtoauth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Enables @Scheduled batch jobs such as the nightly match refresh (BatchRematchService)
+}
@@ -3,6 +3,8 @@ package com.ojtechapi.spring.jwtoauth.config;
 import java.util.Arrays;
 import java.util.Optional;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -119,7 +121,9 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth ->
-                        auth.requestMatchers("/api/auth/**").permitAll()
+                        // Async dispatches resume requests that were already authorized
+                        auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                .requestMatchers("/api/auth/**").permitAll()
                                 .requestMatchers("/auth/api/auth/**").permitAll()
                                 .requestMatchers("/oauth2/**").permitAll()
                                 .requestMatchers("/login/**").permitAll()
@@ -130,6 +134,9 @@ public class SecurityConfig {
                                 .requestMatchers("/swagger-resources/**").permitAll()
                                 .requestMatchers("/webjars/**").permitAll()
                                 .requestMatchers("/h2-console/**").permitAll()
+                                .requestMatchers("/actuator/health").permitAll()
+                                // Metrics name students, queues and caches: admins (and scrapers with an admin token) only
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                                 .requestMatchers("/uploads/**").permitAll()
                                 .requestMatchers("/api/public/cloudinary/**").permitAll()
                                 .requestMatchers("/api/public/**").permitAll()
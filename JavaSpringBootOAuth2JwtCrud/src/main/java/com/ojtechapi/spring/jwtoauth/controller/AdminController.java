@@ -41,13 +41,24 @@ import com.ojtechapi.spring.jwtoauth.entities.JobModeration;
 import com.ojtechapi.spring.jwtoauth.entities.JobPerformanceMetrics;
 import com.ojtechapi.spring.jwtoauth.entities.Role;
 import com.ojtechapi.spring.jwtoauth.entities.User;
+import com.ojtechapi.spring.jwtoauth.repositories.ArchivedJobRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.JobApplicationRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.RoleRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.UserRepository;
 import com.ojtechapi.spring.jwtoauth.service.EmailService;
 import com.ojtechapi.spring.jwtoauth.service.UserService;
+import com.ojtechapi.spring.jwtoauth.service.impl.BatchRematchService;
+import com.ojtechapi.spring.jwtoauth.service.impl.CVRegenerationService;
+import com.ojtechapi.spring.jwtoauth.service.impl.GeminiReplayHarness;
+import com.ojtechapi.spring.jwtoauth.service.impl.JobArchiveService;
+import com.ojtechapi.spring.jwtoauth.service.impl.MatchRetentionService;
 import com.ojtechapi.spring.jwtoauth.service.interfaces.AdminJobService;
+import com.ojtechapi.spring.jwtoauth.services.llm.AnalysisMemo;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmScheduler;
+import com.ojtechapi.spring.jwtoauth.services.queue.MatchTaskWorker;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentEncoder;
+import com.ojtechapi.spring.jwtoauth.services.similarity.SimilarJobIndex;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -77,6 +88,39 @@ public class AdminController {
     
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private LlmScheduler llmScheduler;
+
+    @Autowired
+    private AnalysisMemo analysisMemo;
+
+    @Autowired
+    private BatchRematchService batchRematchService;
+
+    @Autowired
+    private CVRegenerationService cvRegenerationService;
+
+    @Autowired
+    private MatchRetentionService matchRetentionService;
+
+    @Autowired
+    private JobArchiveService jobArchiveService;
+
+    @Autowired
+    private ArchivedJobRepository archivedJobRepository;
+
+    @Autowired
+    private GeminiReplayHarness replayHarness;
+
+    @Autowired
+    private MatchTaskWorker matchTaskWorker;
+
+    @Autowired
+    private SimilarJobIndex similarJobIndex;
+
+    @Autowired
+    private CVContentEncoder cvContentEncoder;
     
     @Autowired
     private com.ojtechapi.spring.jwtoauth.repositories.NLOProfileRepository NLOProfileRepository;
@@ -842,6 +886,236 @@ public class AdminController {
         }
     }
 
+    // ==============================================
+    // LLM Scheduler Endpoints
+    // ==============================================
+
+    @GetMapping("/llm/scheduler")
+    public ResponseEntity<?> getLlmSchedulerStatus() {
+        return ResponseEntity.ok(llmScheduler.getStatus());
+    }
+
+    @PutMapping("/llm/scheduler/concurrency")
+    public ResponseEntity<?> setLlmConcurrency(@RequestParam int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Concurrency limit must be at least 1"));
+        }
+        llmScheduler.setMaxConcurrency(limit);
+        return ResponseEntity.ok(llmScheduler.getStatus());
+    }
+
+    /**
+     * Hit ratio of the cross-student analysis memo per call type
+     */
+    @GetMapping("/llm/memo")
+    public ResponseEntity<?> getAnalysisMemoStatus() {
+        return ResponseEntity.ok(analysisMemo.getStatus());
+    }
+
+    /**
+     * Drops memoized analyses, e.g. after a prompt change
+     */
+    @DeleteMapping("/llm/memo")
+    public ResponseEntity<?> clearAnalysisMemo() {
+        analysisMemo.clear();
+        return ResponseEntity.ok(new MessageResponse("Analysis memo cleared"));
+    }
+
+    /**
+     * Replays recorded Gemini traffic through the matching pipeline and returns the
+     * throughput / latency / hit-rate / score-drift report. Only available when the
+     * server runs against recordings (gemini.replay.path).
+     */
+    @PostMapping("/llm/replay")
+    public ResponseEntity<?> runReplay(@RequestParam(defaultValue = "4") int concurrency,
+                                       @RequestParam(required = false) String baseline) {
+        if (!replayHarness.isAvailable()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Replay is not active on this server"));
+        }
+        return ResponseEntity.ok(replayHarness.run(concurrency, baseline));
+    }
+
+    /**
+     * Match task queue counts by status, plus this node's worker state
+     */
+    @GetMapping("/match-queue")
+    public ResponseEntity<?> getMatchQueueStatus() {
+        return ResponseEntity.ok(matchTaskWorker.getStatus());
+    }
+
+    // ==============================================
+    // Similar Jobs Endpoints
+    // ==============================================
+
+    @GetMapping("/similar-jobs")
+    public ResponseEntity<?> getSimilarJobsStatus() {
+        return ResponseEntity.ok(similarJobIndex.getStatus());
+    }
+
+    /**
+     * Rebuilds the similar-jobs index from the database
+     */
+    @PostMapping("/similar-jobs/rebuild")
+    public ResponseEntity<?> rebuildSimilarJobs() {
+        similarJobIndex.rebuild();
+        return ResponseEntity.ok(similarJobIndex.getStatus());
+    }
+
+    // ==============================================
+    // CV Content Encoding Endpoints
+    // ==============================================
+
+    @GetMapping("/cv-encoding/status")
+    public ResponseEntity<?> getCvEncodingStatus() {
+        return ResponseEntity.ok(cvContentEncoder.getStatus());
+    }
+
+    /**
+     * Encodes every CV whose stored gzip copy is missing or stale, in the background
+     */
+    @PostMapping("/cv-encoding/backfill")
+    public ResponseEntity<?> backfillCvEncoding() {
+        if (!cvContentEncoder.startBackfill()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("CV content encoding backfill is already running"));
+        }
+        return ResponseEntity.accepted().body(new MessageResponse("CV content encoding backfill started"));
+    }
+
+    // ==============================================
+    // CV Regeneration Endpoints
+    // ==============================================
+
+    @GetMapping("/cv-regeneration/status")
+    public ResponseEntity<?> getCvRegenerationStatus() {
+        return ResponseEntity.ok(cvRegenerationService.getStatus());
+    }
+
+    /**
+     * Re-renders every student's active CV from their profile, e.g. after a template change.
+     * By default a paused or failed run is resumed; newRun=true starts over from the first student.
+     */
+    @PostMapping("/cv-regeneration/start")
+    public ResponseEntity<?> startCvRegeneration(@RequestParam(defaultValue = "false") boolean newRun) {
+        if (cvRegenerationService.isRunning()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("CV regeneration is already running"));
+        }
+        cvRegenerationService.startManually(newRun);
+        return ResponseEntity.accepted().body(new MessageResponse("CV regeneration started"));
+    }
+
+    @PostMapping("/cv-regeneration/pause")
+    public ResponseEntity<?> pauseCvRegeneration() {
+        if (!cvRegenerationService.requestPause()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("CV regeneration is not running on this node"));
+        }
+        return ResponseEntity.ok(new MessageResponse("CV regeneration will pause after the current chunk"));
+    }
+
+    // ==============================================
+    // Batch Rematch Endpoints
+    // ==============================================
+
+    @GetMapping("/rematch/status")
+    public ResponseEntity<?> getRematchStatus() {
+        return ResponseEntity.ok(batchRematchService.getStatus());
+    }
+
+    /**
+     * Starts the batch rematch now, outside the nightly window. By default a paused or
+     * failed run is resumed; newRun=true starts over from the first student.
+     */
+    @PostMapping("/rematch/start")
+    public ResponseEntity<?> startRematch(@RequestParam(defaultValue = "false") boolean newRun) {
+        if (batchRematchService.isRunning()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Batch rematch is already running"));
+        }
+        batchRematchService.startManually(newRun);
+        return ResponseEntity.accepted().body(new MessageResponse("Batch rematch started"));
+    }
+
+    @PostMapping("/rematch/pause")
+    public ResponseEntity<?> pauseRematch() {
+        if (!batchRematchService.requestPause()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Batch rematch is not running on this node"));
+        }
+        return ResponseEntity.ok(new MessageResponse("Batch rematch will pause after the current student"));
+    }
+
+    // ==============================================
+    // Match Retention Endpoints
+    // ==============================================
+
+    @GetMapping("/match-retention/status")
+    public ResponseEntity<?> getMatchRetentionStatus() {
+        return ResponseEntity.ok(matchRetentionService.getStatus());
+    }
+
+    /**
+     * Runs match retention now. By default an interrupted run is resumed; newRun=true
+     * starts over with the inactive-job phase.
+     */
+    @PostMapping("/match-retention/start")
+    public ResponseEntity<?> startMatchRetention(@RequestParam(defaultValue = "false") boolean newRun) {
+        if (matchRetentionService.isRunning()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Match retention is already running"));
+        }
+        matchRetentionService.startManually(newRun);
+        return ResponseEntity.accepted().body(new MessageResponse("Match retention started"));
+    }
+
+    // ==============================================
+    // Job Archive Endpoints
+    // ==============================================
+
+    @GetMapping("/archive/status")
+    public ResponseEntity<?> getArchiveStatus() {
+        return ResponseEntity.ok(jobArchiveService.getStatus());
+    }
+
+    /**
+     * Archives inactive jobs now. By default an interrupted run is resumed.
+     */
+    @PostMapping("/archive/start")
+    public ResponseEntity<?> startArchive(@RequestParam(defaultValue = "false") boolean newRun) {
+        if (jobArchiveService.isRunning()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Job archive is already running"));
+        }
+        jobArchiveService.startManually(newRun);
+        return ResponseEntity.accepted().body(new MessageResponse("Job archive started"));
+    }
+
+    /**
+     * Archived jobs, most recently archived first; employerId narrows to one employer
+     */
+    @GetMapping("/archive/jobs")
+    public ResponseEntity<?> getArchivedJobs(@RequestParam(required = false) UUID employerId,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, Math.min(size, 100), Sort.by("archivedAt").descending());
+        return ResponseEntity.ok(employerId != null
+                ? archivedJobRepository.findByEmployerId(employerId, pageable)
+                : archivedJobRepository.findAll(pageable));
+    }
+
+    @GetMapping("/archive/jobs/{id}")
+    public ResponseEntity<?> getArchivedJob(@PathVariable UUID id,
+                                            @RequestParam(defaultValue = "50") int matchLimit) {
+        return ResponseEntity.ok(jobArchiveService.getArchivedJob(id, Math.max(1, Math.min(matchLimit, 500))));
+    }
+
+    /**
+     * Moves an archived job with its applications and matches back into the live tables.
+     * The job stays inactive until it is reactivated.
+     */
+    @PostMapping("/archive/jobs/{id}/restore")
+    public ResponseEntity<?> restoreArchivedJob(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(jobArchiveService.restore(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     // ==============================================
     // Helper Methods
     // ==============================================
@@ -1,5 +1,8 @@
 package com.ojtechapi.spring.jwtoauth.controller;
 
+import com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion;
+import com.ojtechapi.spring.jwtoauth.dtos.CVRevisionDto;
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.entities.CV;
 import com.ojtechapi.spring.jwtoauth.entities.Certification;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
@@ -12,14 +15,26 @@ import com.ojtechapi.spring.jwtoauth.security.CurrentUser;
 import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsImpl;
 import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
 import com.ojtechapi.spring.jwtoauth.services.ResumeHtmlGeneratorService;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentCache;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentServer;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentVariant;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVRevisionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -29,12 +44,19 @@ import java.util.*;
 @RequestMapping("/api/cvs")
 public class CVController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CVController.class);
+
     private final CVRepository cvRepository;
     private final StudentProfileRepository studentProfileRepository;
     private final CertificationRepository certificationRepository;
     private final WorkExperienceRepository workExperienceRepository;
     private final JobMatchService jobMatchService;
     private final ResumeHtmlGeneratorService resumeHtmlGeneratorService;
+    private final CVContentServer cvContentServer;
+    private final CVRevisionService cvRevisionService;
+
+    // Content endpoints are per user: browsers may keep a copy but must revalidate it (ETag)
+    private static final CacheControl CONTENT_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
 
     @Autowired
     public CVController(CVRepository cvRepository, 
@@ -42,24 +64,29 @@ public class CVController {
                         CertificationRepository certificationRepository,
                         WorkExperienceRepository workExperienceRepository,
                         JobMatchService jobMatchService,
-                        ResumeHtmlGeneratorService resumeHtmlGeneratorService) {
+                        ResumeHtmlGeneratorService resumeHtmlGeneratorService,
+                        CVContentServer cvContentServer,
+                        CVRevisionService cvRevisionService) {
         this.cvRepository = cvRepository;
         this.studentProfileRepository = studentProfileRepository;
         this.certificationRepository = certificationRepository;
         this.workExperienceRepository = workExperienceRepository;
         this.jobMatchService = jobMatchService;
         this.resumeHtmlGeneratorService = resumeHtmlGeneratorService;
+        this.cvContentServer = cvContentServer;
+        this.cvRevisionService = cvRevisionService;
     }
 
     @GetMapping
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<List<CV>> getAllCVs(@CurrentUser UserDetailsImpl currentUser) {
-        Optional<StudentProfile> studentOpt = studentProfileRepository.findByUserId(currentUser.getId());
-        if (studentOpt.isEmpty()) {
+    public ResponseEntity<List<CVSummaryDto>> getAllCVs(@CurrentUser UserDetailsImpl currentUser) {
+        Optional<UUID> studentIdOpt = studentProfileRepository.findIdByUserId(currentUser.getId());
+        if (studentIdOpt.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found");
         }
         
-        List<CV> cvs = cvRepository.findByStudent(studentOpt.get());
+        // Summaries only: content is loaded per CV by the detail and content endpoints
+        List<CVSummaryDto> cvs = cvRepository.findSummariesByStudentId(studentIdOpt.get());
         return ResponseEntity.ok(cvs);
     }
 
@@ -80,38 +107,15 @@ public class CVController {
     }
     
     /**
-     * PUBLIC endpoint for anyone to view a student's CV by ID (used in emails)
-     * No authentication required - allows employers to view CV from email links
-     * Returns JSON data that will be rendered by the frontend
+     * PUBLIC endpoint formerly used by the CV viewer page; moved to /api/public/cvs/{id}/data,
+     * which redirects to the current, cacheable version of the CV
      */
     @GetMapping("/{id}/data")
-    public ResponseEntity<String> getPublicCVData(@PathVariable UUID id) {
-        System.out.println("📄 Public CV data request for ID: " + id);
-        
-        Optional<CV> cvOpt = cvRepository.findById(id);
-        if (cvOpt.isEmpty()) {
-            System.out.println("❌ CV not found: " + id);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found");
-        }
-        
-        CV cv = cvOpt.get();
-        
-        // Only return active CVs publicly
-        if (!cv.isActive()) {
-            System.out.println("❌ CV is not active: " + id);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found or not available");
-        }
-        
-        // Return parsed resume JSON data
-        if (cv.getParsedResume() != null && !cv.getParsedResume().trim().isEmpty()) {
-            System.out.println("✅ Returning CV data for: " + id + " (length: " + cv.getParsedResume().length() + ")");
-            return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(cv.getParsedResume());
-        }
-        
-        System.out.println("❌ CV content not available for: " + id);
-        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV content not available");
+    public ResponseEntity<Void> getPublicCVData(@PathVariable UUID id) {
+        return ResponseEntity.status(HttpStatus.MOVED_PERMANENTLY)
+            .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/public/cvs/{id}/data").buildAndExpand(id).toUri())
+            .build();
     }
     
     /**
@@ -153,24 +157,16 @@ public class CVController {
      */
     @GetMapping("/employer/view/{id}/content")
     @PreAuthorize("hasRole('NLO')")
-    public ResponseEntity<String> getStudentCVContent(@PathVariable UUID id) {
-        Optional<CV> cvOpt = cvRepository.findById(id);
-        if (cvOpt.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found");
-        }
-        
-        CV cv = cvOpt.get();
+    public ResponseEntity<byte[]> getStudentCVContent(@PathVariable UUID id, WebRequest request) {
+        CVContentVersion version = cvRepository.findContentVersionById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found"));
         
         // Only return active CVs to employers
-        if (!cv.isActive()) {
+        if (!version.isActive()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found or not active");
         }
         
-        if (cv.getParsedResume() == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV content not found");
-        }
-        
-        return ResponseEntity.ok(cv.getParsedResume());
+        return conditionalContent(version, CVContentVariant.EMPLOYER, request);
     }
 
     /**
@@ -335,26 +331,16 @@ public class CVController {
         }
         
         // Store the content in the parsedResume field without conversion
-        // The frontend will handle parsing and display
-        cv.setParsedResume(content);
-        cv.setLastUpdated(LocalDateTime.now());
+        // The frontend will handle parsing and display. Recorded as a revision; an autosave
+        // with nothing new writes nothing and needs no rematching
+        if (!cvRevisionService.update(cv, cv.getHtmlContent(), content, currentUser.getId())) {
+            return ResponseEntity.ok(cv);
+        }
         
         CV updatedCV = cvRepository.save(cv);
         
         // Trigger job matching for the student after CV content update
-        try {
-            // First, recalculate all existing matches with updated CV data
-            jobMatchService.recalculateMatchesForStudent(cv.getStudent().getId());
-            System.out.println("Recalculated existing job matches after CV content update for student: " + cv.getStudent().getId());
-            
-            // Then, find new matches for jobs that don't have matches yet
-            jobMatchService.findMatchesForStudent(cv.getStudent().getId(), null);
-            System.out.println("Job matching completed successfully after CV content update for student: " + cv.getStudent().getId());
-        } catch (Exception e) {
-            // Log error but don't fail the CV update
-            System.err.println("Error during job matching after CV content update: " + e.getMessage());
-            e.printStackTrace();
-        }
+        recalculateMatches(cv, "CV content update");
         
         return ResponseEntity.ok(updatedCV);
     }
@@ -385,27 +371,80 @@ public class CVController {
         }
         
         // Store the HTML content
-        cv.setHtmlContent(htmlContent);
-        cv.setLastUpdated(LocalDateTime.now());
+        if (!cvRevisionService.update(cv, htmlContent, cv.getParsedResume(), currentUser.getId())) {
+            return ResponseEntity.ok(cv);
+        }
         
         CV updatedCV = cvRepository.save(cv);
         
         // Trigger job matching for the student after CV HTML content update
+        recalculateMatches(cv, "CV HTML content update");
+        
+        return ResponseEntity.ok(updatedCV);
+    }
+    
+    /**
+     * The revisions of a CV's content, newest first, without the content itself
+     */
+    @GetMapping("/{id}/revisions")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<List<CVRevisionDto>> getCVRevisions(@PathVariable UUID id,
+                                                              @CurrentUser UserDetailsImpl currentUser) {
+        CV cv = ownCV(id, currentUser, "access");
+        return ResponseEntity.ok(cvRevisionService.listRevisions(cv.getId()));
+    }
+    
+    /**
+     * One revision of a CV with its content
+     */
+    @GetMapping("/{id}/revisions/{revisionNumber}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<CVRevisionDto> getCVRevision(@PathVariable UUID id, @PathVariable int revisionNumber,
+                                                       @CurrentUser UserDetailsImpl currentUser) {
+        CV cv = ownCV(id, currentUser, "access");
+        return ResponseEntity.ok(cvRevisionService.getRevision(cv.getId(), revisionNumber));
+    }
+    
+    /**
+     * Restores the content of an earlier revision. The restore is itself a new revision,
+     * so it can be undone the same way
+     */
+    @PostMapping("/{id}/revisions/{revisionNumber}/rollback")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<CV> rollbackCV(@PathVariable UUID id, @PathVariable int revisionNumber,
+                                         @CurrentUser UserDetailsImpl currentUser) {
+        CV cv = ownCV(id, currentUser, "update");
+        if (!cvRevisionService.rollback(cv, revisionNumber, currentUser.getId())) {
+            return ResponseEntity.ok(cv);
+        }
+        
+        CV updatedCV = cvRepository.save(cv);
+        recalculateMatches(cv, "CV rollback");
+        return ResponseEntity.ok(updatedCV);
+    }
+    
+    private CV ownCV(UUID id, UserDetailsImpl currentUser, String action) {
+        CV cv = cvRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found"));
+        if (!cv.getStudent().getUser().getId().equals(currentUser.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You don't have permission to " + action + " this CV");
+        }
+        return cv;
+    }
+    
+    private void recalculateMatches(CV cv, String change) {
         try {
             // First, recalculate all existing matches with updated CV data
             jobMatchService.recalculateMatchesForStudent(cv.getStudent().getId());
-            System.out.println("Recalculated existing job matches after CV HTML content update for student: " + cv.getStudent().getId());
+            logger.info("Recalculated existing job matches after {} for student: {}", change, cv.getStudent().getId());
             
             // Then, find new matches for jobs that don't have matches yet
             jobMatchService.findMatchesForStudent(cv.getStudent().getId(), null);
-            System.out.println("Job matching completed successfully after CV HTML content update for student: " + cv.getStudent().getId());
+            logger.info("Job matching completed successfully after {} for student: {}", change, cv.getStudent().getId());
         } catch (Exception e) {
             // Log error but don't fail the CV update
-            System.err.println("Error during job matching after CV HTML content update: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error during job matching after {} for student: {}", change, cv.getStudent().getId(), e);
         }
-        
-        return ResponseEntity.ok(updatedCV);
     }
     
     /**
@@ -413,98 +452,79 @@ public class CVController {
      */
     @GetMapping("/{id}/content")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<String> getCVContent(@PathVariable UUID id, @CurrentUser UserDetailsImpl currentUser) {
-        try {
-            Optional<CV> cvOpt = cvRepository.findById(id);
-            if (cvOpt.isEmpty()) {
-                System.out.println("CVController - getCVContent - CV not found with ID: " + id);
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found");
-            }
-            
-            CV cv = cvOpt.get();
-            if (!cv.getStudent().getUser().getId().equals(currentUser.getId())) {
-                System.out.println("CVController - getCVContent - Permission denied for user: " + currentUser.getId());
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You don't have permission to access this CV");
-            }
-            
-            // First check if HTML content is available
-            if (cv.getHtmlContent() != null && !cv.getHtmlContent().trim().isEmpty()) {
-                System.out.println("CVController - getCVContent - Returning HTML content");
-                return ResponseEntity.ok()
-                    .contentType(MediaType.TEXT_HTML)
-                    .body(cv.getHtmlContent());
-            }
-            
-            // Fall back to JSON content
-            if (cv.getParsedResume() == null) {
-                System.out.println("CVController - getCVContent - CV has null parsedResume field");
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV content not found");
-            }
-            
-            // Log the content type and preview for debugging
-            String content = cv.getParsedResume();
-            
-            // Handle potentially invalid content gracefully
-            try {
-                String preview = content.length() > 100 ? content.substring(0, 100) + "..." : content;
-                System.out.println("CVController - getCVContent - Raw content preview: " + preview);
-                
-                // Detect content type - either JSON or HTML
-                MediaType contentType;
-                if (content.trim().startsWith("{") || content.trim().startsWith("[")) {
-                    contentType = MediaType.APPLICATION_JSON;
-                    System.out.println("CVController - getCVContent - Detected JSON content");
-                } else {
-                    contentType = MediaType.TEXT_HTML;
-                    System.out.println("CVController - getCVContent - Detected HTML content");
-                }
-                
-                // Return the raw content (JSON or HTML) and let the frontend handle it
-                return ResponseEntity.ok()
-                    .contentType(contentType)
-                    .body(content);
-            } catch (Exception e) {
-                System.err.println("CVController - getCVContent - Error processing content: " + e.getMessage());
-                
-                // If content is causing errors, try to sanitize it before returning
-                try {
-                    // Try to sanitize the content if it's invalid
-                    if (content == null) {
-                        System.err.println("CVController - getCVContent - Content is null");
-                        return ResponseEntity.ok()
-                            .contentType(MediaType.TEXT_PLAIN)
-                            .body("{}"); // Return empty JSON object
-                    }
-                    
-                    // If it looks like JSON but might be corrupted, try to validate/fix it
-                    if (content.contains("{") && content.contains("}")) {
-                        System.err.println("CVController - getCVContent - Attempting to sanitize JSON content");
-                        
-                        // Return minimal valid JSON
-                        return ResponseEntity.ok()
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body("{}");
-                    } else {
-                        // For any other type, return empty JSON
-                        System.err.println("CVController - getCVContent - Returning empty JSON for non-JSON content");
-                        return ResponseEntity.ok()
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body("{}");
-                    }
-                } catch (Exception sanitizeError) {
-                    System.err.println("CVController - getCVContent - Failed to sanitize content: " + sanitizeError.getMessage());
-                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error processing CV content");
-                }
-            }
-        } catch (ResponseStatusException rse) {
-            // Rethrow ResponseStatusException as is
-            throw rse;
-        } catch (Exception e) {
-            // Log any unexpected errors
-            System.err.println("CVController - getCVContent - Unexpected error: " + e.getMessage());
-            e.printStackTrace();
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving CV content: " + e.getMessage());
+    public ResponseEntity<byte[]> getCVContent(@PathVariable UUID id, @CurrentUser UserDetailsImpl currentUser,
+                                               WebRequest request) {
+        CVContentVersion version = cvRepository.findContentVersionById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found"));
+        if (!currentUser.getId().equals(version.getOwnerUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You don't have permission to access this CV");
+        }
+        
+        // HTML if available, else the parsed resume (JSON or HTML); the frontend handles either
+        return conditionalContent(version, CVContentVariant.CONTENT, request);
+    }
+
+    /**
+     * The CV as HTML: the stored HTML if there is any, otherwise the parsed resume JSON
+     * rendered through the resume template. A render is written straight to the response
+     * as it is produced, and kept in the content cache for the next requests for the same
+     * CV version and coding.
+     */
+    @GetMapping("/{id}/render")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<StreamingResponseBody> renderCV(@PathVariable UUID id,
+                                                         @CurrentUser UserDetailsImpl currentUser,
+                                                         WebRequest request) {
+        CVContentVersion version = cvRepository.findContentVersionById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "CV not found"));
+        if (!currentUser.getId().equals(version.getOwnerUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You don't have permission to access this CV");
         }
+
+        boolean gzip = CVContentServer.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = cvContentServer.etag(version, CVContentVariant.RENDER, gzip);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        CVContentServer.Body body = cvContentServer.open(version, CVContentVariant.RENDER, gzip);
+        return contentResponse(etag, body.getContentType(), body.getEncoding()).body(body::writeTo);
+    }
+
+    /**
+     * Answers a GET for one representation (variant) of a CV version, gzip-coded if the
+     * client accepts it. A matching If-None-Match gets a 304 decided from the version
+     * alone; otherwise the body comes from CVContentServer, which only loads the CV when
+     * neither the content cache nor the stored encoded copy has it.
+     */
+    private ResponseEntity<byte[]> conditionalContent(CVContentVersion version, CVContentVariant variant,
+                                                      WebRequest request) {
+        boolean gzip = CVContentServer.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = cvContentServer.etag(version, variant, gzip);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        CVContentCache.Content content = cvContentServer.get(version, variant, gzip);
+        return contentResponse(etag, content.getContentType(), content.getEncoding()).body(content.getBody());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(CONTENT_CACHE_CONTROL)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+
+    private static ResponseEntity.BodyBuilder contentResponse(String etag, MediaType contentType, String encoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CONTENT_CACHE_CONTROL)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(contentType);
+        if (encoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return response;
     }
 
     @DeleteMapping("/{id}")
@@ -868,13 +888,13 @@ public class CVController {
 
     @GetMapping("/me")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<List<CV>> getCurrentUserCVs(@CurrentUser UserDetailsImpl currentUser) {
-        Optional<StudentProfile> studentOpt = studentProfileRepository.findByUserId(currentUser.getId());
-        if (studentOpt.isEmpty()) {
+    public ResponseEntity<List<CVSummaryDto>> getCurrentUserCVs(@CurrentUser UserDetailsImpl currentUser) {
+        Optional<UUID> studentIdOpt = studentProfileRepository.findIdByUserId(currentUser.getId());
+        if (studentIdOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
-        List<CV> cvs = cvRepository.findByStudent(studentOpt.get());
+        List<CVSummaryDto> cvs = cvRepository.findSummariesByStudentId(studentIdOpt.get());
         return ResponseEntity.ok(cvs);
     }
     
@@ -883,73 +903,30 @@ public class CVController {
      */
     @GetMapping("/me/content")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<String> getCurrentUserCVContent(@CurrentUser UserDetailsImpl currentUser) {
-        try {
-            Optional<StudentProfile> studentOpt = studentProfileRepository.findByUserId(currentUser.getId());
-            if (studentOpt.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found");
-            }
-            
-            StudentProfile student = studentOpt.get();
-            
-            // Check if the student has an active CV
-            UUID activeCvId = student.getActiveCvId();
-            if (activeCvId == null) {
-                // Find most recent CV if no active CV is set
-                List<CV> cvs = cvRepository.findByStudentOrderByLastUpdatedDesc(student);
-                if (cvs.isEmpty()) {
-                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No CV found");
-                }
-                
-                // Use the most recent CV
-                CV cv = cvs.get(0);
-                
-                // First check if HTML content is available
-                if (cv.getHtmlContent() != null && !cv.getHtmlContent().trim().isEmpty()) {
-                    return ResponseEntity.ok()
-                        .contentType(MediaType.TEXT_HTML)
-                        .body(cv.getHtmlContent());
-                }
-                
-                // Fall back to parsed resume content
-                if (cv.getParsedResume() == null) {
-                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV content not found");
-                }
-                
-                return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(cv.getParsedResume());
-            }
-            
-            // Get the active CV
-            Optional<CV> cvOpt = cvRepository.findById(activeCvId);
-            if (cvOpt.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Active CV not found");
-            }
-            
-            CV cv = cvOpt.get();
-            
-            // First check if HTML content is available
-            if (cv.getHtmlContent() != null && !cv.getHtmlContent().trim().isEmpty()) {
-                return ResponseEntity.ok()
-                    .contentType(MediaType.TEXT_HTML)
-                    .body(cv.getHtmlContent());
-            }
-            
-            // Fall back to parsed resume content
-            if (cv.getParsedResume() == null) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "CV content not found");
+    public ResponseEntity<byte[]> getCurrentUserCVContent(@CurrentUser UserDetailsImpl currentUser, WebRequest request) {
+        Optional<StudentProfile> studentOpt = studentProfileRepository.findByUserId(currentUser.getId());
+        if (studentOpt.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found");
+        }
+        
+        StudentProfile student = studentOpt.get();
+        
+        // Check if the student has an active CV
+        UUID activeCvId = student.getActiveCvId();
+        CVContentVersion version;
+        if (activeCvId == null) {
+            // Use the most recent CV if no active CV is set
+            List<CVContentVersion> latest = cvRepository.findContentVersionsByStudentId(student.getId(), PageRequest.of(0, 1));
+            if (latest.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No CV found");
             }
-            
-            return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(cv.getParsedResume());
-        } catch (ResponseStatusException rse) {
-            throw rse;
-        } catch (Exception e) {
-            System.err.println("CVController - getCurrentUserCVContent - Error: " + e.getMessage());
-            e.printStackTrace();
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving CV content");
+            version = latest.get(0);
+        } else {
+            version = cvRepository.findContentVersionById(activeCvId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Active CV not found"));
         }
+        
+        // HTML if available, else the parsed resume
+        return conditionalContent(version, CVContentVariant.ME, request);
     }
 } 
@@ -24,12 +24,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.ojtechapi.spring.jwtoauth.dtos.EmailDraftDTO;
 import com.ojtechapi.spring.jwtoauth.dtos.responses.JobApplicationResponseDTO;
 import com.ojtechapi.spring.jwtoauth.dtos.responses.MessageResponse;
 import com.ojtechapi.spring.jwtoauth.entities.ApplicationStatus;
 import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterStatus;
 import com.ojtechapi.spring.jwtoauth.entities.Job;
 import com.ojtechapi.spring.jwtoauth.entities.JobApplication;
 import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
@@ -47,6 +49,9 @@ import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
 import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsImpl;
 import com.ojtechapi.spring.jwtoauth.service.EmailService;
 import com.ojtechapi.spring.jwtoauth.services.CoverLetterService;
+import com.ojtechapi.spring.jwtoauth.services.coverletter.CoverLetterPrefetcher;
+import com.ojtechapi.spring.jwtoauth.services.coverletter.CoverLetterWorker;
+import com.ojtechapi.spring.jwtoauth.services.resume.PublicCVService;
 
 @RestController
 @RequestMapping("/api/applications")
@@ -72,6 +77,15 @@ public class JobApplicationController {
     
     @Autowired
     private CoverLetterService coverLetterService;
+
+    @Autowired
+    private CoverLetterWorker coverLetterWorker;
+
+    @Autowired
+    private CoverLetterPrefetcher coverLetterPrefetcher;
+
+    @Value("${cover-letter.email-wait-ms:30000}")
+    private long coverLetterEmailWaitMs;
     
     @Autowired
     private JobMatchRepository jobMatchRepository;
@@ -82,6 +96,9 @@ public class JobApplicationController {
     @Autowired
     private StudentEmailTrackingRepository emailTrackingRepository;
 
+    @Autowired
+    private PublicCVService publicCVService;
+
     @GetMapping
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<List<JobApplicationResponseDTO>> getStudentApplications() {
@@ -162,19 +179,23 @@ public class JobApplicationController {
         }
 
         CV cv = cvOpt.get();
-        
-        // Always generate a cover letter automatically
-        String coverLetter = coverLetterService.generateCoverLetter(studentProfile.getId(), jobId, cvId);
 
-        // Create application with PENDING status (appliedAt and lastUpdatedAt will be set after email is sent)
+        // Create application with PENDING status (appliedAt and lastUpdatedAt will be set after email is sent).
+        // A letter prepared while the student viewed the job is used as is; otherwise it is
+        // generated in the background and clients poll or subscribe for it.
+        Optional<String> preparedCoverLetter = coverLetterPrefetcher.getPrepared(studentProfile, job, cvId);
         JobApplication application = new JobApplication();
         application.setStudent(studentProfile);
         application.setJob(job);
         application.setCv(cv);
-        application.setCoverLetter(coverLetter);
+        application.setCoverLetter(preparedCoverLetter.orElse(null));
+        application.setCoverLetterStatus(preparedCoverLetter.isPresent() ? CoverLetterStatus.READY : CoverLetterStatus.PENDING);
         // Do not set appliedAt and lastUpdatedAt yet - they will be set when email is successfully sent
 
         application = jobApplicationRepository.save(application);
+        if (preparedCoverLetter.isEmpty()) {
+            coverLetterWorker.submit(application.getId(), studentProfile.getId(), jobId, cvId);
+        }
         
         // Find and mark any job matches as viewed
         List<JobMatch> jobMatches = jobMatchRepository.findByStudentIdAndJobId(studentProfile.getId(), jobId);
@@ -266,12 +287,53 @@ public class JobApplicationController {
             throw new BadRequestException("No CV provided or set as active");
         }
 
-        // Generate cover letter
-        String coverLetter = coverLetterService.generateCoverLetter(studentProfile.getId(), jobId, cvId);
+        Job job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found"));
+
+        // Use the letter prepared while the student was viewing the job, if any
+        UUID selectedCvId = cvId;
+        String coverLetter = coverLetterPrefetcher.getPrepared(studentProfile, job, cvId)
+                .orElseGet(() -> coverLetterService.generateCoverLetter(studentProfile.getId(), jobId, selectedCvId));
         
         return ResponseEntity.ok(Map.of("coverLetter", coverLetter));
     }
     
+    /**
+     * Streaming variant of generate-cover-letter for clients that accept text/event-stream:
+     * "chunk" events carry the text as Gemini writes it, the final "cover-letter" event the
+     * complete letter. The letter is stored on the student's unsent application for the
+     * job, if any, and kept as the prepared letter for applying.
+     */
+    @PostMapping(value = "/generate-cover-letter/{jobId}", produces = "text/event-stream")
+    @PreAuthorize("hasRole('STUDENT')")
+    public SseEmitter streamCoverLetter(@PathVariable UUID jobId,
+            @RequestBody(required = false) Map<String, String> requestData) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        StudentProfile studentProfile = studentProfileRepository.findByUserId(userDetails.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Student profile not found"));
+        Job job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found"));
+
+        UUID cvId;
+        if (requestData != null && requestData.containsKey("cvId")) {
+            cvId = UUID.fromString(requestData.get("cvId"));
+        } else if (studentProfile.getActiveCvId() != null) {
+            cvId = studentProfile.getActiveCvId();
+        } else {
+            throw new BadRequestException("No CV provided or set as active");
+        }
+
+        return coverLetterWorker.stream(studentProfile.getId(), jobId, cvId, coverLetter -> {
+            jobApplicationRepository.findByStudentAndJob(studentProfile, job)
+                    .filter(application -> !Boolean.TRUE.equals(application.getEmailSent()))
+                    .ifPresent(application -> jobApplicationRepository.updateCoverLetter(
+                            application.getId(), coverLetter, CoverLetterStatus.READY));
+            coverLetterPrefetcher.put(studentProfile, job, cvId, coverLetter);
+        });
+    }
+    
     @GetMapping("/{applicationId}/prepare-email")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<EmailDraftDTO> prepareApplicationEmail(@PathVariable UUID applicationId) {
@@ -290,6 +352,7 @@ public class JobApplicationController {
         if (!application.getStudent().getUser().getId().equals(userId)) {
             throw new BadRequestException("Unauthorized access to this application");
         }
+        application = awaitCoverLetter(application);
         
         StudentProfile student = application.getStudent();
         Job job = application.getJob();
@@ -301,8 +364,9 @@ public class JobApplicationController {
         String emailBody = generateEmailBody(studentName, job.getTitle(), application.getCoverLetter());
         String subject = "Job Application for " + job.getTitle() + " - " + studentName;
         
-        // Generate CV view URL - points to frontend public viewer
+        // Generate CV view URL - points to frontend public viewer, whose CV is readied for the click
         String cvUrl = frontendUrl + "/cv/" + cv.getId();
+        publicCVService.prepare(cv);
         
         // Get email from User entity (primary source) or fallback to StudentProfile email
         String studentEmail = student.getUser() != null ? student.getUser().getEmail() : student.getEmail();
@@ -362,6 +426,7 @@ public class JobApplicationController {
         if (!application.getStudent().getUser().getId().equals(userId)) {
             throw new BadRequestException("Unauthorized access to this application");
         }
+        application = awaitCoverLetter(application);
         
         StudentProfile student = application.getStudent();
         
@@ -390,8 +455,9 @@ public class JobApplicationController {
         
         String studentName = student.getFirstName() + " " + student.getLastName();
         
-        // Generate CV view URL - points to frontend public viewer
+        // Generate CV view URL - points to frontend public viewer, whose CV is readied for the click
         String cvUrl = frontendUrl + "/cv/" + cv.getId();
+        publicCVService.prepare(cv);
         
         // Get email from User entity (primary source) or fallback to StudentProfile email
         String studentEmail = student.getUser() != null ? student.getUser().getEmail() : student.getEmail();
@@ -461,6 +527,83 @@ public class JobApplicationController {
         }
     }
     
+    /**
+     * Cover letter status of one of the student's applications; the letter is included
+     * once it is READY
+     */
+    @GetMapping("/{applicationId}/cover-letter")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> getCoverLetter(@PathVariable UUID applicationId) {
+        JobApplication application = findOwnApplication(applicationId);
+        Map<String, Object> body = new HashMap<>();
+        body.put("applicationId", applicationId);
+        body.put("status", application.getCoverLetterStatus());
+        body.put("coverLetter", application.getCoverLetterStatus() == CoverLetterStatus.READY
+                ? application.getCoverLetter() : null);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Server-sent event stream that delivers one "cover-letter" event when the letter is
+     * READY or FAILED
+     */
+    @GetMapping(value = "/{applicationId}/cover-letter/events", produces = "text/event-stream")
+    @PreAuthorize("hasRole('STUDENT')")
+    public SseEmitter streamCoverLetterStatus(@PathVariable UUID applicationId) {
+        findOwnApplication(applicationId);
+        return coverLetterWorker.subscribe(applicationId);
+    }
+
+    /**
+     * Queues generation again for a letter that FAILED
+     */
+    @PostMapping("/{applicationId}/cover-letter/retry")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<?> retryCoverLetter(@PathVariable UUID applicationId) {
+        JobApplication application = findOwnApplication(applicationId);
+        if (application.getCoverLetterStatus() != CoverLetterStatus.FAILED) {
+            throw new BadRequestException("Cover letter is " + application.getCoverLetterStatus());
+        }
+        jobApplicationRepository.updateCoverLetterStatus(applicationId, CoverLetterStatus.PENDING);
+        coverLetterWorker.submit(applicationId, application.getStudent().getId(), application.getJob().getId(),
+                application.getCv().getId());
+        return ResponseEntity.accepted().body(Map.of("applicationId", applicationId,
+                "status", CoverLetterStatus.PENDING));
+    }
+
+    private JobApplication findOwnApplication(UUID applicationId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        JobApplication application = jobApplicationRepository.findById(applicationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
+        if (!application.getStudent().getUser().getId().equals(userDetails.getId())) {
+            throw new BadRequestException("Unauthorized access to this application");
+        }
+        return application;
+    }
+
+    /**
+     * Emails need the cover letter: wait for a PENDING one (up to cover-letter.email-wait-ms)
+     * and return the application reloaded with it
+     */
+    private JobApplication awaitCoverLetter(JobApplication application) {
+        if (application.getCoverLetterStatus() == CoverLetterStatus.READY) {
+            return application;
+        }
+        CoverLetterStatus status = application.getCoverLetterStatus() == CoverLetterStatus.PENDING
+                ? coverLetterWorker.awaitReady(application.getId(), coverLetterEmailWaitMs)
+                : application.getCoverLetterStatus();
+        if (status == CoverLetterStatus.PENDING) {
+            throw new BadRequestException("The cover letter is still being generated. Please try again shortly.");
+        }
+        if (status == CoverLetterStatus.FAILED) {
+            throw new BadRequestException("Cover letter generation failed. Please retry the cover letter first.");
+        }
+        return jobApplicationRepository.findById(application.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
+    }
+    
     private String generateEmailBody(String studentName, String jobTitle, String coverLetter) {
         // If a cover letter is provided, use it as-is since it's already a complete, formatted letter
         if (coverLetter != null && !coverLetter.trim().isEmpty()) {
@@ -574,8 +717,9 @@ public class JobApplicationController {
 
         // Prepare student information
         String studentName = studentProfile.getFirstName() + " " + studentProfile.getLastName();
-        // Generate CV view URL - points to frontend public viewer
+        // Generate CV view URL - points to frontend public viewer, whose CV is readied for the click
         String cvUrl = frontendUrl + "/cv/" + cv.getId();
+        publicCVService.prepare(cv);
         System.out.println("Generated CV URL: " + cvUrl);
         System.out.println("   Frontend URL: " + frontendUrl);
         System.out.println("   CV ID: " + cv.getId());
@@ -8,6 +8,8 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -28,6 +30,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ojtechapi.spring.jwtoauth.dtos.SimilarJobDto;
 import com.ojtechapi.spring.jwtoauth.dtos.responses.JobMatchResponseDTO;
 import com.ojtechapi.spring.jwtoauth.dtos.responses.JobResponseDTO;
 import com.ojtechapi.spring.jwtoauth.dtos.responses.MessageResponse;
@@ -35,6 +38,7 @@ import com.ojtechapi.spring.jwtoauth.entities.Company;
 import com.ojtechapi.spring.jwtoauth.entities.NLOProfile;
 import com.ojtechapi.spring.jwtoauth.entities.Job;
 import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskType;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
 import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
 import com.ojtechapi.spring.jwtoauth.repositories.CompanyRepository;
@@ -42,12 +46,20 @@ import com.ojtechapi.spring.jwtoauth.repositories.NLOProfileRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
 import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsImpl;
-import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.coverletter.CoverLetterPrefetcher;
+import com.ojtechapi.spring.jwtoauth.services.resume.PublicCVService;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.queue.MatchTaskQueue;
+import com.ojtechapi.spring.jwtoauth.services.ranking.JobCandidateRanking;
+import com.ojtechapi.spring.jwtoauth.services.similarity.MinHashLshIndex;
+import com.ojtechapi.spring.jwtoauth.services.similarity.SimilarJobIndex;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/jobs")
 public class JobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
     
     @Autowired
     private JobRepository jobRepository;
@@ -62,7 +74,13 @@ public class JobController {
     private CompanyRepository companyRepository;
     
     @Autowired
-    private JobMatchService jobMatchService;
+    private MatchTaskQueue matchTaskQueue;
+    
+    @Autowired
+    private JobCandidateRanking jobCandidateRanking;
+    
+    @Autowired
+    private SimilarJobIndex similarJobIndex;
     
     @Autowired
     private com.ojtechapi.spring.jwtoauth.repositories.CVRepository cvRepository;
@@ -70,6 +88,12 @@ public class JobController {
     @Autowired
     private com.ojtechapi.spring.jwtoauth.services.CoverLetterService coverLetterService;
     
+    @Autowired
+    private CoverLetterPrefetcher coverLetterPrefetcher;
+    
+    @Autowired
+    private PublicCVService publicCVService;
+    
     @org.springframework.beans.factory.annotation.Value("${backend.base-url}")
     private String baseUrl;
     
@@ -127,6 +151,13 @@ public class JobController {
                             .collect(Collectors.toList());
                         
                         response.setJobMatches(matchDTOs);
+                        
+                        // A strong match is likely to be applied for: prepare the cover letter now
+                        studentMatches.stream()
+                            .map(JobMatch::getMatchScore)
+                            .filter(score -> score != null)
+                            .max(Double::compare)
+                            .ifPresent(score -> coverLetterPrefetcher.onJobViewed(studentProfile.getId(), job.getId(), score));
                     }
                     
                     // Don't include applications for students viewing jobs
@@ -222,6 +253,73 @@ public class JobController {
         return ResponseEntity.ok(new JobResponseDTO(job));
     }
     
+    /**
+     * Active jobs with similar skills and description, most similar first
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarJobs(@PathVariable UUID id, @RequestParam(defaultValue = "5") int limit) {
+        Optional<Job> jobOpt = jobRepository.findById(id);
+        if (jobOpt.isEmpty() || !jobOpt.get().isActive()) {
+            throw new ResourceNotFoundException("Job not found");
+        }
+        
+        List<MinHashLshIndex.Match> matches = similarJobIndex.similarTo(id, Math.max(1, Math.min(limit, 20)));
+        Map<UUID, Job> jobsById = jobRepository.findAllById(
+                matches.stream().map(MinHashLshIndex.Match::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Job::getId, job -> job));
+        
+        List<SimilarJobDto> similarJobs = new ArrayList<>();
+        for (MinHashLshIndex.Match match : matches) {
+            Job similar = jobsById.get(match.getId());
+            if (similar != null && similar.isActive()) {
+                similarJobs.add(new SimilarJobDto(new JobResponseDTO(similar), match.getSimilarity()));
+            }
+        }
+        return ResponseEntity.ok(similarJobs);
+    }
+    
+    /**
+     * Best-matching students for one of the employer's jobs, highest score first.
+     * Paginate with the nextCursor of the previous page.
+     */
+    @GetMapping("/{id}/candidates")
+    @PreAuthorize("hasRole('NLO')")
+    public ResponseEntity<?> getTopCandidates(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean verifiedOnly
+    ) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        UUID userId = userDetails.getId();
+
+        Optional<NLOProfile> NLOProfileOpt = NLOProfileRepository.findByUserId(userId);
+        if (NLOProfileOpt.isEmpty()) {
+            throw new ResourceNotFoundException("Employer profile not found");
+        }
+
+        NLOProfile NLOProfile = NLOProfileOpt.get();
+        
+        Optional<Job> jobOpt = jobRepository.findById(id);
+        if (jobOpt.isEmpty()) {
+            throw new ResourceNotFoundException("Job not found");
+        }
+        
+        // Check if the employer owns the job
+        if (!jobOpt.get().getEmployer().getId().equals(NLOProfile.getId())) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("You are not authorized to view candidates for this job"));
+        }
+        
+        try {
+            int pageSize = Math.max(1, Math.min(limit, 100));
+            return ResponseEntity.ok(jobCandidateRanking.page(id, cursor, pageSize, verifiedOnly));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/search")
     public ResponseEntity<Page<Job>> searchJobs(
             @RequestParam(required = false) String keyword,
@@ -317,14 +415,13 @@ public class JobController {
         
         job = jobRepository.save(job);
         
-        // Call job matching service for students with CVs
+        // Queue matching for students with CVs; workers on any node pick the tasks up
         List<StudentProfile> studentsWithCVs = studentProfileRepository.findAllWithActiveCVs();
         for (StudentProfile student : studentsWithCVs) {
             try {
-                List<JobMatch> matches = jobMatchService.findMatchesForStudent(student.getId(), 0.0);
-                System.out.println("Job matches updated for student: " + student.getId() + ", Matches found: " + matches.size());
+                matchTaskQueue.enqueue(MatchTaskType.MATCH_STUDENT, student.getId(), LlmLane.BATCH);
             } catch (Exception e) {
-                System.err.println("Error updating job matches for student " + student.getId() + ": " + e.getMessage());
+                logger.error("Error queueing job matching for student {}", student.getId(), e);
             }
         }
         
@@ -525,16 +622,18 @@ public class JobController {
         
         com.ojtechapi.spring.jwtoauth.entities.CV cv = cvOpt.get();
         
-        // Generate cover letter
-        String coverLetter = coverLetterService.generateCoverLetter(student.getId(), id, cvId);
+        // Use the letter prepared while the student was viewing the job, if any
+        String coverLetter = coverLetterPrefetcher.getPrepared(student, job, cvId)
+                .orElseGet(() -> coverLetterService.generateCoverLetter(student.getId(), id, cvId));
         
         // Build email draft
         String studentName = student.getFirstName() + " " + student.getLastName();
         String emailBody = generateEmailBody(studentName, job.getTitle(), coverLetter);
         String subject = "Job Application for " + job.getTitle() + " - " + studentName;
         
-        // Generate CV view URL - use frontend URL for CV viewer
+        // Generate CV view URL - use frontend URL for CV viewer, whose CV is readied for the click
         String cvUrl = frontendUrl + "/cv/" + cv.getId();
+        publicCVService.prepare(cv);
         
         // Get email from User entity or fallback
         String studentEmail = student.getUser() != null ? student.getUser().getEmail() : student.getEmail();
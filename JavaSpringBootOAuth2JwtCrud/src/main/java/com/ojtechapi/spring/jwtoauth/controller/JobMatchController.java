@@ -1,6 +1,7 @@
 package com.ojtechapi.spring.jwtoauth.controller;
 
 import com.ojtechapi.spring.jwtoauth.dtos.JobMatchDto;
+import com.ojtechapi.spring.jwtoauth.dtos.JobMatchRunResult;
 import com.ojtechapi.spring.jwtoauth.entities.Job;
 import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
@@ -10,14 +11,21 @@ import com.ojtechapi.spring.jwtoauth.security.CurrentUser;
 import com.ojtechapi.spring.jwtoauth.security.UserPrincipal;
 import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsImpl;
 import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.coverletter.CoverLetterPrefetcher;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmDeadline;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
@@ -41,19 +49,64 @@ public class JobMatchController {
     
     @Autowired
     private JobRepository jobRepository;
+
+    @Autowired
+    private CoverLetterPrefetcher coverLetterPrefetcher;
     
     @Autowired
     private com.ojtechapi.spring.jwtoauth.repositories.JobApplicationRepository jobApplicationRepository;
 
+    private static final long MIN_FINDJOBS_TIMEOUT_MS = 1000;
+    private static final long FINDJOBS_ASYNC_GRACE_MS = 5000;
+
+    @Value("${matching.findjobs.timeout-ms:25000}")
+    private long findJobsTimeoutMs;
+
+    @Value("${matching.findjobs.max-timeout-ms:120000}")
+    private long findJobsMaxTimeoutMs;
+
+    /**
+     * Matches the current student against all active jobs, within a request deadline.
+     * The deadline defaults to matching.findjobs.timeout-ms and can be shortened or
+     * extended (up to matching.findjobs.max-timeout-ms) with the X-Request-Timeout-Ms
+     * header. When it passes, or the client disconnects, outstanding Gemini calls are
+     * cancelled; matches already computed are saved and the unprocessed jobs are
+     * returned as skippedJobIds, to be picked up by the next call.
+     */
     @GetMapping("/findjobs")
-    public ResponseEntity<?> findJobMatches(
+    public WebAsyncTask<ResponseEntity<?>> findJobMatches(
             @CurrentUser UserPrincipal currentUser,
-            @RequestParam(value = "minScore", defaultValue = "50") Double minScore) {
-        
+            @RequestParam(value = "minScore", defaultValue = "50") Double minScore,
+            @RequestHeader(value = "X-Request-Timeout-Ms", required = false) Long requestTimeoutMs) {
+
+        long timeoutMs = requestTimeoutMs != null
+                ? Math.max(MIN_FINDJOBS_TIMEOUT_MS, Math.min(requestTimeoutMs, findJobsMaxTimeoutMs))
+                : findJobsTimeoutMs;
+        LlmDeadline deadline = LlmDeadline.after(Duration.ofMillis(timeoutMs));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // The async timeout is only a safety net; the deadline normally ends matching first
+        WebAsyncTask<ResponseEntity<?>> task = new WebAsyncTask<>(timeoutMs + FINDJOBS_ASYNC_GRACE_MS,
+                () -> findJobMatchesWithin(currentUser, authentication, minScore, deadline));
+        task.onTimeout(() -> {
+            deadline.cancel();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error",
+                    "Job matching did not finish in time. Matches computed so far were saved; retry to continue."));
+        });
+        task.onError(() -> {
+            // Client disconnected or the container failed the request: stop calling Gemini
+            deadline.cancel();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", "Job matching request was aborted"));
+        });
+        task.onCompletion(deadline::cancel);
+        return task;
+    }
+
+    private ResponseEntity<?> findJobMatchesWithin(UserPrincipal currentUser, Authentication authentication,
+            Double minScore, LlmDeadline deadline) {
         try {
-            // Check if there's an authentication in the security context
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            
             if (authentication != null && authentication.isAuthenticated()) {
                 // Authentication exists but @CurrentUser might not be resolving properly
                 Object principal = authentication.getPrincipal();
@@ -78,11 +131,20 @@ public class JobMatchController {
                         .orElseThrow(() -> new RuntimeException("Student profile not found"));
                 
                 // Process job matching and wait for AI response
-                List<JobMatch> matches = jobMatchService.findMatchesForStudent(studentProfile.getId(), minScore);
+                JobMatchRunResult result = LlmRequestContext.call(LlmLane.INTERACTIVE, studentProfile.getId(),
+                        deadline, () -> jobMatchService.matchStudent(studentProfile.getId(), minScore));
+                List<JobMatch> matches = result.getMatches();
                 
                 // Create response with matches and job details
                 Map<String, Object> response = new HashMap<>();
-                response.put("message", "Job matching completed successfully");
+                if (result.isComplete()) {
+                    response.put("message", "Job matching completed successfully");
+                } else {
+                    response.put("message", "Job matching stopped at the request deadline; "
+                            + result.getSkippedJobIds().size() + " jobs will be matched on the next request");
+                }
+                response.put("complete", result.isComplete());
+                response.put("skippedJobIds", result.getSkippedJobIds());
                 response.put("matchCount", matches.size());
                 response.put("studentName", studentProfile.getFirstName() + " " + studentProfile.getLastName());
                 
@@ -175,6 +237,7 @@ public class JobMatchController {
             // Students can browse jobs but see warnings about uploading documents and verification status
             
             JobMatch jobMatch = jobMatchService.markAsViewed(jobMatchId, studentProfile.getId());
+            coverLetterPrefetcher.onJobViewed(studentProfile.getId(), jobMatch.getJob().getId(), jobMatch.getMatchScore());
             JobMatchDto jobMatchDto = new JobMatchDto(jobMatch);
             
             return ResponseEntity.ok(jobMatchDto);
@@ -278,7 +341,8 @@ public class JobMatchController {
                 StudentProfile studentProfile = studentProfileRepository.findByUserId(userPrincipal.getId())
                         .orElseThrow(() -> new RuntimeException("Student profile not found"));
                 
-                List<JobMatch> matches = jobMatchService.findMatchesForStudent(studentProfile.getId(), minScore);
+                List<JobMatch> matches = LlmRequestContext.call(LlmLane.INTERACTIVE, studentProfile.getId(),
+                        () -> jobMatchService.findMatchesForStudent(studentProfile.getId(), minScore));
                 List<JobMatchDto> matchDtos = matches.stream()
                         .map(JobMatchDto::new)
                         .collect(Collectors.toList());
@@ -338,7 +402,9 @@ public class JobMatchController {
             System.out.println("Student skills: " + studentProfile.getSkills());
             
             // Process job matching - get all jobs and wait for AI response
-            List<JobMatch> allMatches = jobMatchService.findMatchesForStudent(studentProfile.getId(), 0.0);
+            UUID matchStudentId = studentProfile.getId();
+            List<JobMatch> allMatches = LlmRequestContext.call(LlmLane.INTERACTIVE, matchStudentId,
+                    () -> jobMatchService.findMatchesForStudent(matchStudentId, 0.0));
             
             System.out.println("Total matches found: " + allMatches.size());
             
@@ -10,6 +10,7 @@ import com.ojtechapi.spring.jwtoauth.entities.WorkExperience;
 import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
 import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
 import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsImpl;
+import com.ojtechapi.spring.jwtoauth.services.ranking.JobCandidateRanking;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +33,9 @@ public class NLOStudentController {
     @Autowired
     private StudentProfileRepository studentProfileRepository;
 
+    @Autowired
+    private JobCandidateRanking jobCandidateRanking;
+
     @GetMapping
     public ResponseEntity<?> getStudents(
             @RequestParam(required = false) Boolean verified,
@@ -136,6 +140,7 @@ public class NLOStudentController {
             student.setVerificationNotes(nloNotes);
             
             studentProfileRepository.save(student);
+            jobCandidateRanking.onStudentVerificationChanged(id, true);
             
             logger.info("NLO user {} verified student {} ({})", 
                 userDetails.getUsername(), student.getFullName(), id);
@@ -186,6 +191,7 @@ public class NLOStudentController {
             student.setVerificationNotes(nloNotes);
             
             studentProfileRepository.save(student);
+            jobCandidateRanking.onStudentVerificationChanged(id, false);
             
             logger.info("NLO user {} unverified student {} ({})", 
                 userDetails.getUsername(), student.getFullName(), id);
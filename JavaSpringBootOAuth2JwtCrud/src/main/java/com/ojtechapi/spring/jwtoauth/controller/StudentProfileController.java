@@ -2,6 +2,7 @@ package com.ojtechapi.spring.jwtoauth.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.dtos.responses.MessageResponse;
 import com.ojtechapi.spring.jwtoauth.entities.*;
 import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
@@ -505,13 +506,13 @@ public class StudentProfileController {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         UUID userId = userDetails.getId();
 
-        Optional<StudentProfile> profileOpt = studentProfileRepository.findByUserId(userId);
-        if (profileOpt.isEmpty()) {
+        Optional<UUID> studentIdOpt = studentProfileRepository.findIdByUserId(userId);
+        if (studentIdOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        StudentProfile profile = profileOpt.get();
-        List<CV> cvs = cvRepository.findByStudent(profile);
+        // Summaries only: content is loaded per CV by the CV endpoints
+        List<CVSummaryDto> cvs = cvRepository.findSummariesByStudentId(studentIdOpt.get());
         
         return ResponseEntity.ok(cvs);
     }
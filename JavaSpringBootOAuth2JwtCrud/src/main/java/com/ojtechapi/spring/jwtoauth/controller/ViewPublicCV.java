@@ -1,13 +1,125 @@
 package com.ojtechapi.spring.jwtoauth.controller;
 
+import com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion;
+import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentCache;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentServer;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentVariant;
+import com.ojtechapi.spring.jwtoauth.services.resume.PublicCVService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only access to active CVs for anyone with the link, as sent in application emails.
+ *
+ * /cvs/{id} and /cvs/{id}/data redirect to the current version of the CV, under
+ * /cvs/{id}/v/{version}, where version comes from the content hash. What a versioned URL
+ * returns never changes, so it is cached publicly for a year; a version that is no longer
+ * current redirects to the current one.
+ */
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/public")
 public class ViewPublicCV {
-    
-   
+
+    // A versioned URL always returns the same body
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    @Autowired
+    private PublicCVService publicCVService;
+
+    @Autowired
+    private CVContentServer cvContentServer;
+
+    @Value("${cv.public.current-max-age-seconds:60}")
+    private long currentMaxAgeSeconds;
+
+    /**
+     * The CV as HTML: its stored HTML, else its parsed resume rendered
+     */
+    @GetMapping("/cvs/{id}")
+    public ResponseEntity<Void> getCV(@PathVariable UUID id) {
+        return redirectToCurrent(currentVersion(id), CVContentVariant.PUBLIC);
+    }
+
+    /**
+     * The CV's parsed resume as JSON, for the frontend CV viewer
+     */
+    @GetMapping("/cvs/{id}/data")
+    public ResponseEntity<Void> getCVData(@PathVariable UUID id) {
+        return redirectToCurrent(currentVersion(id), CVContentVariant.PUBLIC_DATA);
+    }
+
+    @GetMapping("/cvs/{id}/v/{version}")
+    public ResponseEntity<byte[]> getCVVersion(@PathVariable UUID id, @PathVariable String version,
+                                               WebRequest request) {
+        return versionedContent(id, version, CVContentVariant.PUBLIC, request);
+    }
+
+    @GetMapping("/cvs/{id}/v/{version}/data")
+    public ResponseEntity<byte[]> getCVVersionData(@PathVariable UUID id, @PathVariable String version,
+                                                   WebRequest request) {
+        return versionedContent(id, version, CVContentVariant.PUBLIC_DATA, request);
+    }
+
+    private CVContentVersion currentVersion(UUID id) {
+        return publicCVService.current(id)
+                .filter(CVContentVersion::isActive)
+                .orElseThrow(() -> new ResourceNotFoundException("CV", "id", id));
+    }
+
+    private <T> ResponseEntity<T> redirectToCurrent(CVContentVersion version, CVContentVariant variant) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path(PublicCVService.publicPath(version, variant)).build().toUri())
+                .cacheControl(CacheControl.maxAge(currentMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .build();
+    }
+
+    private ResponseEntity<byte[]> versionedContent(UUID id, String versionKey, CVContentVariant variant,
+                                                    WebRequest request) {
+        CVContentVersion version = currentVersion(id);
+        if (!PublicCVService.versionKey(version).equals(versionKey)) {
+            // The link may be to a version saved on another instance since this one looked
+            publicCVService.forget(id);
+            version = currentVersion(id);
+            if (!PublicCVService.versionKey(version).equals(versionKey)) {
+                return redirectToCurrent(version, variant);
+            }
+        }
+
+        boolean gzip = CVContentServer.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = cvContentServer.etag(version, variant, gzip);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(IMMUTABLE)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        CVContentCache.Content content = cvContentServer.get(version, variant, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(IMMUTABLE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(content.getContentType());
+        if (content.getEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, content.getEncoding());
+        }
+        return response.body(content.getBody());
+    }
 }
@@ -0,0 +1,71 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * What the CV content endpoints need to know about a CV before reading its content:
+ * who owns it, whether it is active and which version it is. Built directly by the
+ * version queries in CVRepository so the content columns are never loaded.
+ */
+public class CVContentVersion {
+    private final UUID cvId;
+    private final UUID ownerUserId;
+    private final boolean active;
+    private final LocalDateTime lastUpdated;
+    private final String contentHash;
+
+    public CVContentVersion(UUID cvId, UUID ownerUserId, boolean active, LocalDateTime lastUpdated, String contentHash) {
+        this.cvId = cvId;
+        this.ownerUserId = ownerUserId;
+        this.active = active;
+        this.lastUpdated = lastUpdated;
+        this.contentHash = contentHash;
+    }
+
+    public static CVContentVersion of(CV cv) {
+        UUID ownerUserId = cv.getStudent() != null && cv.getStudent().getUser() != null
+                ? cv.getStudent().getUser().getId() : null;
+        return new CVContentVersion(cv.getId(), ownerUserId, cv.isActive(), cv.getLastUpdated(),
+                cv.getContentHash() != null ? cv.getContentHash()
+                        : CV.contentHash(cv.getHtmlContent(), cv.getParsedResume()));
+    }
+
+    /**
+     * Strong ETag for one representation (variant) of this version of the CV. Rows saved
+     * before content hashes existed and not yet backfilled get a tag from the timestamp only.
+     */
+    public String etag(String variant) {
+        StringBuilder tag = new StringBuilder("\"").append(variant).append('-').append(cvId);
+        if (lastUpdated != null) {
+            tag.append('-').append(Long.toHexString(lastUpdated.toInstant(ZoneOffset.UTC).toEpochMilli()));
+        }
+        if (contentHash != null) {
+            tag.append('-').append(contentHash, 0, Math.min(16, contentHash.length()));
+        }
+        return tag.append('"').toString();
+    }
+
+    public UUID getCvId() {
+        return cvId;
+    }
+
+    public UUID getOwnerUserId() {
+        return ownerUserId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+}
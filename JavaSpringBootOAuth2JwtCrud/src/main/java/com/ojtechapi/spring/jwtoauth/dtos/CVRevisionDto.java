@@ -0,0 +1,82 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A revision of a CV as listed to its owner. Built directly by
+ * CVRevisionRepository.findSummariesByCvId without the stored content; htmlContent and
+ * parsedResume are only set when a single revision is requested, by CVRevisionService.
+ */
+public class CVRevisionDto {
+    private final int revisionNumber;
+    private final boolean base;
+    private final String contentHash;
+    private final int contentChars;
+    private final int storedChars;
+    private final UUID authorId;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private String htmlContent;
+    private String parsedResume;
+
+    public CVRevisionDto(int revisionNumber, boolean base, String contentHash, int contentChars, int storedChars,
+                         UUID authorId, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.revisionNumber = revisionNumber;
+        this.base = base;
+        this.contentHash = contentHash;
+        this.contentChars = contentChars;
+        this.storedChars = storedChars;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public int getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public boolean isBase() {
+        return base;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public int getContentChars() {
+        return contentChars;
+    }
+
+    public int getStoredChars() {
+        return storedChars;
+    }
+
+    public UUID getAuthorId() {
+        return authorId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getHtmlContent() {
+        return htmlContent;
+    }
+
+    public void setHtmlContent(String htmlContent) {
+        this.htmlContent = htmlContent;
+    }
+
+    public String getParsedResume() {
+        return parsedResume;
+    }
+
+    public void setParsedResume(String parsedResume) {
+        this.parsedResume = parsedResume;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A CV as listed to its owner: what the CV lists show, without the content columns or the
+ * certifications and experiences themselves. Built directly by
+ * CVRepository.findSummariesByStudentId, in one query for all of a student's CVs.
+ */
+public class CVSummaryDto {
+    private final UUID id;
+    private final String template;
+    private final boolean active;
+    private final boolean generated;
+    private final LocalDateTime lastUpdated;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final long certificationCount;
+    private final long experienceCount;
+
+    public CVSummaryDto(UUID id, String template, boolean active, boolean generated, LocalDateTime lastUpdated,
+                        LocalDateTime createdAt, LocalDateTime updatedAt, long certificationCount,
+                        long experienceCount) {
+        this.id = id;
+        this.template = template;
+        this.active = active;
+        this.generated = generated;
+        this.lastUpdated = lastUpdated;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.certificationCount = certificationCount;
+        this.experienceCount = experienceCount;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getCertificationCount() {
+        return certificationCount;
+    }
+
+    public long getExperienceCount() {
+        return experienceCount;
+    }
+}
@@ -0,0 +1,84 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One ranked student for a job posting, as shown to the employer. Built directly by the
+ * candidate queries in JobMatchRepository so the large match columns are never loaded.
+ */
+public class JobCandidateDto {
+    private final UUID matchId;
+    private final UUID studentId;
+    private final String firstName;
+    private final String lastName;
+    private final String university;
+    private final String major;
+    private final boolean verified;
+    private final Double matchScore;
+    private final LocalDateTime matchedAt;
+    private final boolean viewed;
+
+    public JobCandidateDto(UUID matchId, UUID studentId, String firstName, String lastName, String university,
+                           String major, boolean verified, Double matchScore, LocalDateTime matchedAt, boolean viewed) {
+        this.matchId = matchId;
+        this.studentId = studentId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.university = university;
+        this.major = major;
+        this.verified = verified;
+        this.matchScore = matchScore;
+        this.matchedAt = matchedAt;
+        this.viewed = viewed;
+    }
+
+    public JobCandidateDto withVerified(boolean verified) {
+        return new JobCandidateDto(matchId, studentId, firstName, lastName, university, major, verified,
+                matchScore, matchedAt, viewed);
+    }
+
+    public UUID getMatchId() {
+        return matchId;
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getFullName() {
+        return ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    public String getUniversity() {
+        return university;
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public Double getMatchScore() {
+        return matchScore;
+    }
+
+    public LocalDateTime getMatchedAt() {
+        return matchedAt;
+    }
+
+    public boolean isViewed() {
+        return viewed;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A page of ranked candidates. Pass nextCursor back as the cursor parameter to get the
+ * next page; it is null on the last page. source is "ranking" when the page was served
+ * from the in-memory top-K and "database" when it reached past it.
+ */
+public class JobCandidatePage {
+    private final UUID jobId;
+    private final List<JobCandidateDto> candidates;
+    private final String nextCursor;
+    private final String source;
+
+    public JobCandidatePage(UUID jobId, List<JobCandidateDto> candidates, String nextCursor, String source) {
+        this.jobId = jobId;
+        this.candidates = candidates;
+        this.nextCursor = nextCursor;
+        this.source = source;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public List<JobCandidateDto> getCandidates() {
+        return candidates;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of one matching pass for a student. When the request deadline passes or the
+ * request is cancelled, matches computed so far are already saved and the jobs that were
+ * not processed are listed in skippedJobIds; a later pass picks them up because they
+ * still have no match.
+ */
+public class JobMatchRunResult {
+    private final List<JobMatch> matches;
+    private final List<UUID> skippedJobIds;
+    private final boolean deadlineExceeded;
+
+    public JobMatchRunResult(List<JobMatch> matches, List<UUID> skippedJobIds, boolean deadlineExceeded) {
+        this.matches = matches;
+        this.skippedJobIds = skippedJobIds;
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    public List<JobMatch> getMatches() {
+        return matches;
+    }
+
+    public List<UUID> getSkippedJobIds() {
+        return skippedJobIds;
+    }
+
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    public boolean isComplete() {
+        return skippedJobIds.isEmpty();
+    }
+}
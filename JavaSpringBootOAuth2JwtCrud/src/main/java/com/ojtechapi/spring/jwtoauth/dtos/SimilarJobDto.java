@@ -0,0 +1,24 @@
+package com.ojtechapi.spring.jwtoauth.dtos;
+
+import com.ojtechapi.spring.jwtoauth.dtos.responses.JobResponseDTO;
+
+/**
+ * A job similar to the one being viewed, with its estimated similarity (0 to 1)
+ */
+public class SimilarJobDto {
+    private final JobResponseDTO job;
+    private final double similarity;
+
+    public SimilarJobDto(JobResponseDTO job, double similarity) {
+        this.job = job;
+        this.similarity = similarity;
+    }
+
+    public JobResponseDTO getJob() {
+        return job;
+    }
+
+    public double getSimilarity() {
+        return similarity;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ojtechapi.spring.jwtoauth.dtos.admin;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress report of a checkpointed batch job. Throughput is measured over the time
+ * the job actually ran (pauses between windows are excluded) and drives the ETA.
+ *
+ * The LLM budget and window are only set for jobs that have them; details holds the
+ * job's own settings and counters.
+ */
+public class BatchJobStatusDto {
+
+    private String jobName;
+    private String status;
+    private boolean runningOnThisNode;
+    private String owner;
+    private long totalItems;
+    private long processedItems;
+    private long failedItems;
+    private double percentComplete;
+    private double throughputPerMinute;
+    private Long etaMinutes;
+    private LocalDateTime estimatedCompletionAt;
+    private Long llmCallsInWindow;
+    private Long llmBudgetPerWindow;
+    private Long llmCallsTotal;
+    private String window;
+    private LocalDateTime runStartedAt;
+    private LocalDateTime lastCheckpointAt;
+    private LocalDateTime completedAt;
+    private String lastError;
+    private Map<String, Object> details = new LinkedHashMap<>();
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isRunningOnThisNode() {
+        return runningOnThisNode;
+    }
+
+    public void setRunningOnThisNode(boolean runningOnThisNode) {
+        this.runningOnThisNode = runningOnThisNode;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getTotalItems() {
+        return totalItems;
+    }
+
+    public void setTotalItems(long totalItems) {
+        this.totalItems = totalItems;
+    }
+
+    public long getProcessedItems() {
+        return processedItems;
+    }
+
+    public void setProcessedItems(long processedItems) {
+        this.processedItems = processedItems;
+    }
+
+    public long getFailedItems() {
+        return failedItems;
+    }
+
+    public void setFailedItems(long failedItems) {
+        this.failedItems = failedItems;
+    }
+
+    public double getPercentComplete() {
+        return percentComplete;
+    }
+
+    public void setPercentComplete(double percentComplete) {
+        this.percentComplete = percentComplete;
+    }
+
+    public double getThroughputPerMinute() {
+        return throughputPerMinute;
+    }
+
+    public void setThroughputPerMinute(double throughputPerMinute) {
+        this.throughputPerMinute = throughputPerMinute;
+    }
+
+    public Long getEtaMinutes() {
+        return etaMinutes;
+    }
+
+    public void setEtaMinutes(Long etaMinutes) {
+        this.etaMinutes = etaMinutes;
+    }
+
+    public LocalDateTime getEstimatedCompletionAt() {
+        return estimatedCompletionAt;
+    }
+
+    public void setEstimatedCompletionAt(LocalDateTime estimatedCompletionAt) {
+        this.estimatedCompletionAt = estimatedCompletionAt;
+    }
+
+    public Long getLlmCallsInWindow() {
+        return llmCallsInWindow;
+    }
+
+    public void setLlmCallsInWindow(Long llmCallsInWindow) {
+        this.llmCallsInWindow = llmCallsInWindow;
+    }
+
+    public Long getLlmBudgetPerWindow() {
+        return llmBudgetPerWindow;
+    }
+
+    public void setLlmBudgetPerWindow(Long llmBudgetPerWindow) {
+        this.llmBudgetPerWindow = llmBudgetPerWindow;
+    }
+
+    public Long getLlmCallsTotal() {
+        return llmCallsTotal;
+    }
+
+    public void setLlmCallsTotal(Long llmCallsTotal) {
+        this.llmCallsTotal = llmCallsTotal;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public LocalDateTime getRunStartedAt() {
+        return runStartedAt;
+    }
+
+    public void setRunStartedAt(LocalDateTime runStartedAt) {
+        this.runStartedAt = runStartedAt;
+    }
+
+    public LocalDateTime getLastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+
+    public void setLastCheckpointAt(LocalDateTime lastCheckpointAt) {
+        this.lastCheckpointAt = lastCheckpointAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Map<String, Object> getDetails() {
+        return details;
+    }
+
+    public void setDetails(Map<String, Object> details) {
+        this.details = details;
+    }
+}
@@ -1,6 +1,7 @@
 package com.ojtechapi.spring.jwtoauth.dtos.responses;
 
 import com.ojtechapi.spring.jwtoauth.entities.ApplicationStatus;
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterStatus;
 import com.ojtechapi.spring.jwtoauth.entities.JobApplication;
 
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ public class JobApplicationResponseDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String coverLetter;
+    private CoverLetterStatus coverLetterStatus;
     private ApplicationStatus status;
     private LocalDateTime appliedAt;
     private LocalDateTime lastUpdatedAt;
@@ -54,6 +56,7 @@ public class JobApplicationResponseDTO {
         this.createdAt = application.getCreatedAt();
         this.updatedAt = application.getUpdatedAt();
         this.coverLetter = application.getCoverLetter();
+        this.coverLetterStatus = application.getCoverLetterStatus();
         this.status = application.getStatus();
         this.appliedAt = application.getAppliedAt();
         this.lastUpdatedAt = application.getLastUpdatedAt();
@@ -188,6 +191,14 @@ public class JobApplicationResponseDTO {
         this.coverLetter = coverLetter;
     }
 
+    public CoverLetterStatus getCoverLetterStatus() {
+        return coverLetterStatus;
+    }
+
+    public void setCoverLetterStatus(CoverLetterStatus coverLetterStatus) {
+        this.coverLetterStatus = coverLetterStatus;
+    }
+
     public ApplicationStatus getStatus() {
         return status;
     }
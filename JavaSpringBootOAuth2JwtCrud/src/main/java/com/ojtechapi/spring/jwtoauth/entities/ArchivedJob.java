@@ -0,0 +1,141 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A job moved out of the jobs table by {@link com.ojtechapi.spring.jwtoauth.service.impl.JobArchiveService}.
+ * Same columns as jobs (relations kept as plain ids) plus archived_at. Rows are written
+ * and removed with INSERT ... SELECT statements only, so the entity is read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "jobs_archive", indexes = {
+        @Index(name = "idx_jobs_archive_employer", columnList = "employer_id"),
+        @Index(name = "idx_jobs_archive_archived_at", columnList = "archived_at")
+})
+public class ArchivedJob extends BaseEntity {
+
+    @Column(name = "employer_id")
+    private UUID employerId;
+
+    @Column(name = "company_id")
+    private UUID companyId;
+
+    @Column(name = "title")
+    private String title;
+
+    @Column(name = "description", length = 5000)
+    private String description;
+
+    @Column(name = "location")
+    private String location;
+
+    @Column(name = "required_skills")
+    private String requiredSkills;
+
+    @Column(name = "employment_type")
+    private String employmentType;
+
+    @Column(name = "min_salary")
+    private Double minSalary;
+
+    @Column(name = "max_salary")
+    private Double maxSalary;
+
+    @Column(name = "currency")
+    private String currency;
+
+    @Column(name = "posted_at")
+    private LocalDateTime postedAt;
+
+    @Column(name = "active")
+    private boolean active;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private JobStatus status;
+
+    @Column(name = "salary_range")
+    private String salaryRange;
+
+    @Column(name = "requirements", length = 2000)
+    private String requirements;
+
+    @Column(name = "benefits", length = 2000)
+    private String benefits;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public UUID getEmployerId() {
+        return employerId;
+    }
+
+    public UUID getCompanyId() {
+        return companyId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getRequiredSkills() {
+        return requiredSkills;
+    }
+
+    public String getEmploymentType() {
+        return employmentType;
+    }
+
+    public Double getMinSalary() {
+        return minSalary;
+    }
+
+    public Double getMaxSalary() {
+        return maxSalary;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDateTime getPostedAt() {
+        return postedAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public String getSalaryRange() {
+        return salaryRange;
+    }
+
+    public String getRequirements() {
+        return requirements;
+    }
+
+    public String getBenefits() {
+        return benefits;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,120 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A closed application of an archived job, with the same columns as job_applications plus
+ * archived_at. Read-only; see {@link ArchivedJob}.
+ */
+@Entity
+@Immutable
+@Table(name = "job_applications_archive", indexes = {
+        @Index(name = "idx_job_applications_archive_job", columnList = "job_id"),
+        @Index(name = "idx_job_applications_archive_student", columnList = "student_id")
+})
+public class ArchivedJobApplication extends BaseEntity {
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "cv_id", nullable = false)
+    private UUID cvId;
+
+    @Column(name = "cover_letter", columnDefinition = "TEXT")
+    private String coverLetter;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cover_letter_status", length = 20)
+    private CoverLetterStatus coverLetterStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ApplicationStatus status;
+
+    @Column(name = "applied_at")
+    private LocalDateTime appliedAt;
+
+    @Column(name = "last_updated_at")
+    private LocalDateTime lastUpdatedAt;
+
+    @Column(name = "feedback", length = 1000)
+    private String feedback;
+
+    @Column(name = "email_sent")
+    private Boolean emailSent;
+
+    @Column(name = "email_sent_at")
+    private LocalDateTime emailSentAt;
+
+    @Column(name = "email_body", columnDefinition = "TEXT")
+    private String emailBody;
+
+    @Column(name = "email_subject")
+    private String emailSubject;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public UUID getCvId() {
+        return cvId;
+    }
+
+    public String getCoverLetter() {
+        return coverLetter;
+    }
+
+    public CoverLetterStatus getCoverLetterStatus() {
+        return coverLetterStatus;
+    }
+
+    public ApplicationStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+
+    public LocalDateTime getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    public String getFeedback() {
+        return feedback;
+    }
+
+    public Boolean getEmailSent() {
+        return emailSent;
+    }
+
+    public LocalDateTime getEmailSentAt() {
+        return emailSentAt;
+    }
+
+    public String getEmailBody() {
+        return emailBody;
+    }
+
+    public String getEmailSubject() {
+        return emailSubject;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
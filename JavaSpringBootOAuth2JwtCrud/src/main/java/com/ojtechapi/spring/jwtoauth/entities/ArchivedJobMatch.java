@@ -0,0 +1,76 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A match of an archived job, with the same columns as job_matches plus archived_at.
+ * Read-only; see {@link ArchivedJob}.
+ */
+@Entity
+@Immutable
+@Table(name = "job_matches_archive", indexes = {
+        @Index(name = "idx_job_matches_archive_job_score", columnList = "job_id, match_score DESC"),
+        @Index(name = "idx_job_matches_archive_student", columnList = "student_id")
+})
+public class ArchivedJobMatch extends BaseEntity {
+
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "student_id")
+    private UUID studentId;
+
+    @Column(name = "match_score")
+    private Double matchScore;
+
+    @Column(name = "matched_at")
+    private LocalDateTime matchedAt;
+
+    @Column(name = "match_details", length = 2000)
+    private String matchDetails;
+
+    @Column(name = "detailed_analysis", columnDefinition = "TEXT")
+    private String detailedAnalysis;
+
+    @Column(name = "is_viewed")
+    private boolean viewed;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public Double getMatchScore() {
+        return matchScore;
+    }
+
+    public LocalDateTime getMatchedAt() {
+        return matchedAt;
+    }
+
+    public String getMatchDetails() {
+        return matchDetails;
+    }
+
+    public String getDetailedAnalysis() {
+        return detailedAnalysis;
+    }
+
+    public boolean isViewed() {
+        return viewed;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
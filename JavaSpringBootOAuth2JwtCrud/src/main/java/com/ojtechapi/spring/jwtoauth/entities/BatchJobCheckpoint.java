@@ -0,0 +1,219 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a long-running batch job, saved after every chunk so that a restarted
+ * or crashed node resumes after the last processed item instead of starting over.
+ * Items are walked in id order and lastProcessedId is the resume cursor.
+ *
+ * owner/heartbeatAt make sure only one node runs a given job at a time; a claim
+ * whose heartbeat is older than the stale threshold can be taken over.
+ */
+@Entity
+@Table(name = "batch_job_checkpoints")
+public class BatchJobCheckpoint extends BaseEntity {
+
+    @Column(name = "job_name", nullable = false, unique = true, length = 100)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BatchJobStatus status = BatchJobStatus.IDLE;
+
+    @Column(name = "last_processed_id")
+    private UUID lastProcessedId;
+
+    @Column(name = "total_items")
+    private long totalItems;
+
+    @Column(name = "processed_items")
+    private long processedItems;
+
+    @Column(name = "failed_items")
+    private long failedItems;
+
+    @Column(name = "llm_calls_window")
+    private long llmCallsInWindow;
+
+    @Column(name = "llm_calls_total")
+    private long llmCallsTotal;
+
+    @Column(name = "active_millis")
+    private long activeMillis;
+
+    @Column(name = "run_started_at")
+    private LocalDateTime runStartedAt;
+
+    @Column(name = "window_started_at")
+    private LocalDateTime windowStartedAt;
+
+    @Column(name = "last_checkpoint_at")
+    private LocalDateTime lastCheckpointAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "owner", length = 100)
+    private String owner;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public BatchJobCheckpoint() {
+    }
+
+    public BatchJobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /**
+     * Resets counters and the cursor for a fresh pass over all items.
+     */
+    public void startNewRun(long totalItems) {
+        this.status = BatchJobStatus.RUNNING;
+        this.lastProcessedId = null;
+        this.totalItems = totalItems;
+        this.processedItems = 0;
+        this.failedItems = 0;
+        this.llmCallsTotal = 0;
+        this.activeMillis = 0;
+        this.runStartedAt = LocalDateTime.now();
+        this.completedAt = null;
+        this.lastError = null;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public BatchJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BatchJobStatus status) {
+        this.status = status;
+    }
+
+    public UUID getLastProcessedId() {
+        return lastProcessedId;
+    }
+
+    public void setLastProcessedId(UUID lastProcessedId) {
+        this.lastProcessedId = lastProcessedId;
+    }
+
+    public long getTotalItems() {
+        return totalItems;
+    }
+
+    public void setTotalItems(long totalItems) {
+        this.totalItems = totalItems;
+    }
+
+    public long getProcessedItems() {
+        return processedItems;
+    }
+
+    public void setProcessedItems(long processedItems) {
+        this.processedItems = processedItems;
+    }
+
+    public long getFailedItems() {
+        return failedItems;
+    }
+
+    public void setFailedItems(long failedItems) {
+        this.failedItems = failedItems;
+    }
+
+    public long getLlmCallsInWindow() {
+        return llmCallsInWindow;
+    }
+
+    public void setLlmCallsInWindow(long llmCallsInWindow) {
+        this.llmCallsInWindow = llmCallsInWindow;
+    }
+
+    public long getLlmCallsTotal() {
+        return llmCallsTotal;
+    }
+
+    public void setLlmCallsTotal(long llmCallsTotal) {
+        this.llmCallsTotal = llmCallsTotal;
+    }
+
+    public long getActiveMillis() {
+        return activeMillis;
+    }
+
+    public void setActiveMillis(long activeMillis) {
+        this.activeMillis = activeMillis;
+    }
+
+    public LocalDateTime getRunStartedAt() {
+        return runStartedAt;
+    }
+
+    public void setRunStartedAt(LocalDateTime runStartedAt) {
+        this.runStartedAt = runStartedAt;
+    }
+
+    public LocalDateTime getWindowStartedAt() {
+        return windowStartedAt;
+    }
+
+    public void setWindowStartedAt(LocalDateTime windowStartedAt) {
+        this.windowStartedAt = windowStartedAt;
+    }
+
+    public LocalDateTime getLastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+
+    public void setLastCheckpointAt(LocalDateTime lastCheckpointAt) {
+        this.lastCheckpointAt = lastCheckpointAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+/**
+ * Lifecycle of a checkpointed batch job run.
+ */
+public enum BatchJobStatus {
+    IDLE,       // No run started yet, or the last run was reset
+    RUNNING,    // A node is processing chunks
+    PAUSED,     // Stopped at the end of the time window or LLM budget; resumes from the cursor
+    COMPLETED,  // Every item was processed
+    FAILED      // Stopped on an unexpected error; resumes from the last checkpoint
+}
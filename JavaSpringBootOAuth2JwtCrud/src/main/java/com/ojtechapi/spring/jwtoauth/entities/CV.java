@@ -2,16 +2,23 @@ package com.ojtechapi.spring.jwtoauth.entities;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentEncodingListener;
+import com.ojtechapi.spring.jwtoauth.services.resume.PublicCVVersionListener;
 import org.hibernate.annotations.NaturalId;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(name = "cvs")
+@EntityListeners({CVContentEncodingListener.class, PublicCVVersionListener.class})
 public class CV extends BaseEntity {
 
     @Column(name = "parsed_resume", columnDefinition = "text")
@@ -26,6 +33,11 @@ public class CV extends BaseEntity {
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
 
+    // SHA-256 of htmlContent and parsedResume, kept so content ETags need no content read
+    @Column(name = "content_hash", length = 64)
+    @JsonIgnore
+    private String contentHash;
+
     @Column(name = "active")
     private boolean active = false;
     
@@ -50,11 +62,29 @@ public class CV extends BaseEntity {
     @PrePersist
     protected void onCreate() {
         lastUpdated = LocalDateTime.now();
+        contentHash = contentHash(htmlContent, parsedResume);
     }
 
     @PreUpdate
     protected void onUpdate() {
         lastUpdated = LocalDateTime.now();
+        contentHash = contentHash(htmlContent, parsedResume);
+    }
+
+    /**
+     * Hex SHA-256 of the two content columns, joined by U+0001. The backfill in
+     * V20261018_7__Add_CV_Content_Hash.sql computes the same value in SQL.
+     */
+    public static String contentHash(String htmlContent, String parsedResume) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((htmlContent != null ? htmlContent : "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 1);
+            digest.update((parsedResume != null ? parsedResume : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public String getParsedResume() {
@@ -89,6 +119,10 @@ public class CV extends BaseEntity {
         this.lastUpdated = lastUpdated;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
     public boolean isActive() {
         return active;
     }
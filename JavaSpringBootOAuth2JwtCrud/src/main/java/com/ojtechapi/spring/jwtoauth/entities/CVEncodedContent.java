@@ -0,0 +1,109 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * gzip-encoded copies of a CV's content columns, made when the CV is saved so that the
+ * content endpoints can send them to clients accepting gzip without compressing on every
+ * response. contentHash is the {@link CV#getContentHash()} the copies were made from.
+ *
+ * htmlGzip is null when the CV has no (non-blank) HTML, resumeGzip when it has no parsed
+ * resume; the lengths are of the uncompressed UTF-8 content.
+ */
+@Entity
+@Table(name = "cv_encoded_contents")
+public class CVEncodedContent {
+
+    @Id
+    @Column(name = "cv_id")
+    private UUID cvId;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "html_gzip")
+    private byte[] htmlGzip;
+
+    @Column(name = "html_bytes", nullable = false)
+    private int htmlBytes;
+
+    @Column(name = "resume_gzip")
+    private byte[] resumeGzip;
+
+    @Column(name = "resume_bytes", nullable = false)
+    private int resumeBytes;
+
+    // Whether the parsed resume is JSON (rather than HTML), as the content endpoint detects it
+    @Column(name = "resume_json", nullable = false)
+    private boolean resumeJson;
+
+    @Column(name = "encoded_at", nullable = false)
+    private LocalDateTime encodedAt;
+
+    public UUID getCvId() {
+        return cvId;
+    }
+
+    public void setCvId(UUID cvId) {
+        this.cvId = cvId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public byte[] getHtmlGzip() {
+        return htmlGzip;
+    }
+
+    public void setHtmlGzip(byte[] htmlGzip) {
+        this.htmlGzip = htmlGzip;
+    }
+
+    public int getHtmlBytes() {
+        return htmlBytes;
+    }
+
+    public void setHtmlBytes(int htmlBytes) {
+        this.htmlBytes = htmlBytes;
+    }
+
+    public byte[] getResumeGzip() {
+        return resumeGzip;
+    }
+
+    public void setResumeGzip(byte[] resumeGzip) {
+        this.resumeGzip = resumeGzip;
+    }
+
+    public int getResumeBytes() {
+        return resumeBytes;
+    }
+
+    public void setResumeBytes(int resumeBytes) {
+        this.resumeBytes = resumeBytes;
+    }
+
+    public boolean isResumeJson() {
+        return resumeJson;
+    }
+
+    public void setResumeJson(boolean resumeJson) {
+        this.resumeJson = resumeJson;
+    }
+
+    public LocalDateTime getEncodedAt() {
+        return encodedAt;
+    }
+
+    public void setEncodedAt(LocalDateTime encodedAt) {
+        this.encodedAt = encodedAt;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One revision of a CV's content (html content and parsed resume), recorded by
+ * CVRevisionService when the CV is edited. The CV itself holds the latest content.
+ *
+ * A base revision holds the full content of both fields in the inserts (null when the
+ * field is empty). Any other revision holds, per field, the splice (prefix, suffix and
+ * insert, see TextSplice) that turns the previous revision's content into this one's, or
+ * nulls when the field did not change. chainLength counts the revisions since the last
+ * base; contentChars is the length of the full content and storedChars what the revision
+ * stores of it.
+ */
+@Entity
+@Table(name = "cv_revisions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"cv_id", "revision_number"}))
+public class CVRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "cv_id", nullable = false)
+    private UUID cvId;
+
+    @Column(name = "revision_number", nullable = false)
+    private int revisionNumber;
+
+    @Column(name = "base", nullable = false)
+    private boolean base;
+
+    @Column(name = "chain_length", nullable = false)
+    private int chainLength;
+
+    @Column(name = "html_prefix")
+    private Integer htmlPrefix;
+
+    @Column(name = "html_suffix")
+    private Integer htmlSuffix;
+
+    @Column(name = "html_insert", columnDefinition = "text")
+    private String htmlInsert;
+
+    @Column(name = "resume_prefix")
+    private Integer resumePrefix;
+
+    @Column(name = "resume_suffix")
+    private Integer resumeSuffix;
+
+    @Column(name = "resume_insert", columnDefinition = "text")
+    private String resumeInsert;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "content_chars", nullable = false)
+    private int contentChars;
+
+    @Column(name = "stored_chars", nullable = false)
+    private int storedChars;
+
+    @Column(name = "author_id")
+    private UUID authorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Later than createdAt when autosaves were folded into this revision
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getCvId() {
+        return cvId;
+    }
+
+    public void setCvId(UUID cvId) {
+        this.cvId = cvId;
+    }
+
+    public int getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public void setRevisionNumber(int revisionNumber) {
+        this.revisionNumber = revisionNumber;
+    }
+
+    public boolean isBase() {
+        return base;
+    }
+
+    public void setBase(boolean base) {
+        this.base = base;
+    }
+
+    public int getChainLength() {
+        return chainLength;
+    }
+
+    public void setChainLength(int chainLength) {
+        this.chainLength = chainLength;
+    }
+
+    public Integer getHtmlPrefix() {
+        return htmlPrefix;
+    }
+
+    public void setHtmlPrefix(Integer htmlPrefix) {
+        this.htmlPrefix = htmlPrefix;
+    }
+
+    public Integer getHtmlSuffix() {
+        return htmlSuffix;
+    }
+
+    public void setHtmlSuffix(Integer htmlSuffix) {
+        this.htmlSuffix = htmlSuffix;
+    }
+
+    public String getHtmlInsert() {
+        return htmlInsert;
+    }
+
+    public void setHtmlInsert(String htmlInsert) {
+        this.htmlInsert = htmlInsert;
+    }
+
+    public Integer getResumePrefix() {
+        return resumePrefix;
+    }
+
+    public void setResumePrefix(Integer resumePrefix) {
+        this.resumePrefix = resumePrefix;
+    }
+
+    public Integer getResumeSuffix() {
+        return resumeSuffix;
+    }
+
+    public void setResumeSuffix(Integer resumeSuffix) {
+        this.resumeSuffix = resumeSuffix;
+    }
+
+    public String getResumeInsert() {
+        return resumeInsert;
+    }
+
+    public void setResumeInsert(String resumeInsert) {
+        this.resumeInsert = resumeInsert;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getContentChars() {
+        return contentChars;
+    }
+
+    public void setContentChars(int contentChars) {
+        this.contentChars = contentChars;
+    }
+
+    public int getStoredChars() {
+        return storedChars;
+    }
+
+    public void setStoredChars(int storedChars) {
+        this.storedChars = storedChars;
+    }
+
+    public UUID getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(UUID authorId) {
+        this.authorId = authorId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
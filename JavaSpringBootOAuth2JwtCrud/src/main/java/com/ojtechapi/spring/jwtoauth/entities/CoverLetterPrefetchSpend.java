@@ -0,0 +1,60 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Speculative cover letters generated for a student on one day (CoverLetterPrefetcher),
+ * shared by all nodes so the daily cap holds however requests are routed. Rows of past
+ * days are deleted.
+ */
+@Entity
+@Table(name = "cover_letter_prefetch_spend", indexes = {
+        @Index(name = "idx_cover_letter_prefetch_spend_student_day", columnList = "student_id, spend_day", unique = true)
+})
+public class CoverLetterPrefetchSpend extends BaseEntity {
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(name = "spend_day", nullable = false)
+    private LocalDate spendDay;
+
+    @Column(name = "generations", nullable = false)
+    private int generations;
+
+    public CoverLetterPrefetchSpend() {
+    }
+
+    public CoverLetterPrefetchSpend(UUID studentId, LocalDate spendDay, int generations) {
+        this.studentId = studentId;
+        this.spendDay = spendDay;
+        this.generations = generations;
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(UUID studentId) {
+        this.studentId = studentId;
+    }
+
+    public LocalDate getSpendDay() {
+        return spendDay;
+    }
+
+    public void setSpendDay(LocalDate spendDay) {
+        this.spendDay = spendDay;
+    }
+
+    public int getGenerations() {
+        return generations;
+    }
+
+    public void setGenerations(int generations) {
+        this.generations = generations;
+    }
+}
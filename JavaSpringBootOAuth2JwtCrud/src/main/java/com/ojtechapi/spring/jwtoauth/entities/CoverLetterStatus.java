@@ -0,0 +1,11 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+/**
+ * Progress of an application's cover letter, which is generated after the application
+ * is saved. Applications created before this existed have no status and count as READY.
+ */
+public enum CoverLetterStatus {
+    PENDING,
+    READY,
+    FAILED
+}
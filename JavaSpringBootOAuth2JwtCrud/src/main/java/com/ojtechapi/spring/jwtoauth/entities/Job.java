@@ -3,6 +3,7 @@ package com.ojtechapi.spring.jwtoauth.entities;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.ojtechapi.spring.jwtoauth.services.similarity.JobSimilarityListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -11,6 +12,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "jobs")
+@EntityListeners(JobSimilarityListener.class)
 public class Job extends BaseEntity {
     
     @ManyToOne
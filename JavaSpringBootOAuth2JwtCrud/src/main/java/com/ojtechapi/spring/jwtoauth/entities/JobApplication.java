@@ -1,12 +1,18 @@
 package com.ojtechapi.spring.jwtoauth.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "job_applications")
+@Table(name = "job_applications", indexes = {
+        @Index(name = "idx_job_applications_student_job", columnList = "student_id, job_id")
+})
+// Only write changed columns, so saving an application loaded before its cover letter was
+// generated does not overwrite the letter
+@DynamicUpdate
 public class JobApplication extends BaseEntity {
     
     @ManyToOne
@@ -26,6 +32,14 @@ public class JobApplication extends BaseEntity {
     
     @Column(name = "cover_letter", columnDefinition = "TEXT")
     private String coverLetter;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "cover_letter_status", length = 20)
+    private CoverLetterStatus coverLetterStatus;
+
+    // Until when a node holds the PENDING letter for generation (CoverLetterWorker)
+    @Column(name = "cover_letter_lease_until")
+    private LocalDateTime coverLetterLeaseUntil;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
@@ -88,6 +102,25 @@ public class JobApplication extends BaseEntity {
     public void setCoverLetter(String coverLetter) {
         this.coverLetter = coverLetter;
     }
+
+    /**
+     * Status of the generated cover letter; null for applications that predate it (READY)
+     */
+    public CoverLetterStatus getCoverLetterStatus() {
+        return coverLetterStatus != null ? coverLetterStatus : CoverLetterStatus.READY;
+    }
+
+    public void setCoverLetterStatus(CoverLetterStatus coverLetterStatus) {
+        this.coverLetterStatus = coverLetterStatus;
+    }
+
+    public LocalDateTime getCoverLetterLeaseUntil() {
+        return coverLetterLeaseUntil;
+    }
+
+    public void setCoverLetterLeaseUntil(LocalDateTime coverLetterLeaseUntil) {
+        this.coverLetterLeaseUntil = coverLetterLeaseUntil;
+    }
     
     public ApplicationStatus getStatus() {
         return status;
@@ -1,12 +1,17 @@
 package com.ojtechapi.spring.jwtoauth.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.ojtechapi.spring.jwtoauth.services.ranking.JobMatchRankingListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "job_matches")
+@Table(name = "job_matches", indexes = {
+        @Index(name = "idx_job_matches_job_score", columnList = "job_id, match_score DESC, student_id"),
+        @Index(name = "idx_job_matches_student_score", columnList = "student_id, match_score DESC")
+})
+@EntityListeners(JobMatchRankingListener.class)
 public class JobMatch extends BaseEntity {
     
     @ManyToOne
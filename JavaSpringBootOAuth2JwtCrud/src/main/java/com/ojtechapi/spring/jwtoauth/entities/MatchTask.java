@@ -0,0 +1,156 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A unit of matching work in the database-backed queue. Any node's worker may claim a
+ * PENDING task whose availableAt has passed; the claim is a lease that the worker keeps
+ * renewing while it runs. A task whose lease runs out (the node died or restarted) is
+ * put back to PENDING, or FAILED once it has used up maxAttempts.
+ */
+@Entity
+@Table(name = "match_tasks", indexes = {
+        @Index(name = "idx_match_tasks_claim", columnList = "status, available_at"),
+        @Index(name = "idx_match_tasks_student", columnList = "student_id, task_type, status")
+})
+public class MatchTask extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "task_type", nullable = false, length = 30)
+    private MatchTaskType taskType;
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "lane", nullable = false, length = 20)
+    private LlmLane lane;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private MatchTaskStatus status = MatchTaskStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public MatchTask() {
+    }
+
+    public MatchTask(MatchTaskType taskType, UUID studentId, LlmLane lane, int maxAttempts) {
+        this.taskType = taskType;
+        this.studentId = studentId;
+        this.lane = lane;
+        this.maxAttempts = maxAttempts;
+        this.availableAt = LocalDateTime.now();
+    }
+
+    public MatchTaskType getTaskType() {
+        return taskType;
+    }
+
+    public void setTaskType(MatchTaskType taskType) {
+        this.taskType = taskType;
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(UUID studentId) {
+        this.studentId = studentId;
+    }
+
+    public LlmLane getLane() {
+        return lane;
+    }
+
+    public void setLane(LlmLane lane) {
+        this.lane = lane;
+    }
+
+    public MatchTaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(MatchTaskStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,11 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+/**
+ * State of a queued match task.
+ */
+public enum MatchTaskStatus {
+    PENDING,    // Waiting to be claimed (possibly after a retry backoff)
+    RUNNING,    // Leased by a worker until leaseExpiresAt
+    DONE,       // Finished successfully
+    FAILED      // Gave up after maxAttempts
+}
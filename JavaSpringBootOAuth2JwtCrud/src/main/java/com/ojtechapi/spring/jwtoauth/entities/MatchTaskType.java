@@ -0,0 +1,9 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+/**
+ * Kinds of queued matching work, all scoped to one student.
+ */
+public enum MatchTaskType {
+    MATCH_STUDENT,          // Score the student against active jobs they have no match for yet
+    RECALCULATE_STUDENT     // Re-score the student's existing matches after a profile change
+}
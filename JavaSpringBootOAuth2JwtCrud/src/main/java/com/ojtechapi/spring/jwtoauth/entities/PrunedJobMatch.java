@@ -0,0 +1,75 @@
+package com.ojtechapi.spring.jwtoauth.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marker left behind when match retention removes a low-ranked match of an active job.
+ * Matching skips pairs that have a marker, so a pruned match is not scored again with
+ * Gemini on the student's next pass. A marker is void once the student's profile or
+ * active CV changes after prunedAt (matching deletes it and scores the pair again).
+ * Markers of jobs that go inactive are dropped along with the jobs' matches.
+ */
+@Entity
+@Table(name = "pruned_job_matches", indexes = {
+        @Index(name = "idx_pruned_job_matches_student", columnList = "student_id, job_id", unique = true),
+        @Index(name = "idx_pruned_job_matches_job", columnList = "job_id")
+})
+public class PrunedJobMatch extends BaseEntity {
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "match_score")
+    private Double matchScore;
+
+    @Column(name = "pruned_at", nullable = false)
+    private LocalDateTime prunedAt;
+
+    public PrunedJobMatch() {
+    }
+
+    public PrunedJobMatch(UUID studentId, UUID jobId, Double matchScore) {
+        this.studentId = studentId;
+        this.jobId = jobId;
+        this.matchScore = matchScore;
+        this.prunedAt = LocalDateTime.now();
+    }
+
+    public UUID getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(UUID studentId) {
+        this.studentId = studentId;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public Double getMatchScore() {
+        return matchScore;
+    }
+
+    public void setMatchScore(Double matchScore) {
+        this.matchScore = matchScore;
+    }
+
+    public LocalDateTime getPrunedAt() {
+        return prunedAt;
+    }
+
+    public void setPrunedAt(LocalDateTime prunedAt) {
+        this.prunedAt = prunedAt;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.ArchivedJobApplication;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedJobApplicationRepository extends JpaRepository<ArchivedJobApplication, UUID> {
+
+    String COLUMNS = "id, created_at, updated_at, is_active, student_id, job_id, cv_id, cover_letter, " +
+            "cover_letter_status, status, applied_at, last_updated_at, feedback, email_sent, email_sent_at, " +
+            "email_body, email_subject";
+
+    List<ArchivedJobApplication> findByJobIdOrderByAppliedAtDesc(UUID jobId);
+
+    List<ArchivedJobApplication> findByStudentIdOrderByAppliedAtDesc(UUID studentId);
+
+    @Modifying
+    @Query(value = "INSERT INTO job_applications_archive (" + COLUMNS + ", archived_at) " +
+                   "SELECT " + COLUMNS + ", :archivedAt FROM job_applications WHERE job_id IN (:jobIds)",
+           nativeQuery = true)
+    int copyFromApplications(@Param("jobIds") Collection<UUID> jobIds,
+                             @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO job_applications (" + COLUMNS + ") " +
+                   "SELECT " + COLUMNS + " FROM job_applications_archive WHERE job_id = :jobId", nativeQuery = true)
+    int copyToApplications(@Param("jobId") UUID jobId);
+
+    @Modifying
+    @Query(value = "DELETE FROM job_applications_archive WHERE job_id = :jobId", nativeQuery = true)
+    int deleteArchivedByJobId(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,40 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.ArchivedJobMatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ArchivedJobMatchRepository extends JpaRepository<ArchivedJobMatch, UUID> {
+
+    String COLUMNS = "id, created_at, updated_at, is_active, job_id, student_id, match_score, matched_at, " +
+            "match_details, detailed_analysis, is_viewed";
+
+    List<ArchivedJobMatch> findByJobIdOrderByMatchScoreDesc(UUID jobId, Pageable pageable);
+
+    long countByJobId(UUID jobId);
+
+    @Modifying
+    @Query(value = "INSERT INTO job_matches_archive (" + COLUMNS + ", archived_at) " +
+                   "SELECT " + COLUMNS + ", :archivedAt FROM job_matches WHERE job_id IN (:jobIds)",
+           nativeQuery = true)
+    int copyFromMatches(@Param("jobIds") Collection<UUID> jobIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO job_matches (" + COLUMNS + ") " +
+                   "SELECT " + COLUMNS + " FROM job_matches_archive WHERE job_id = :jobId", nativeQuery = true)
+    int copyToMatches(@Param("jobId") UUID jobId);
+
+    @Modifying
+    @Query(value = "DELETE FROM job_matches_archive WHERE job_id = :jobId", nativeQuery = true)
+    int deleteArchivedByJobId(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,42 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.ArchivedJob;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Moves rows between jobs and jobs_archive. The modifying statements must run inside the
+ * archive service's transaction, together with the matching application and match moves.
+ */
+@Repository
+public interface ArchivedJobRepository extends JpaRepository<ArchivedJob, UUID> {
+
+    String COLUMNS = "id, created_at, updated_at, is_active, employer_id, company_id, title, description, " +
+            "location, required_skills, employment_type, min_salary, max_salary, currency, posted_at, active, " +
+            "status, salary_range, requirements, benefits";
+
+    Page<ArchivedJob> findByEmployerId(UUID employerId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO jobs_archive (" + COLUMNS + ", archived_at) " +
+                   "SELECT " + COLUMNS + ", :archivedAt FROM jobs WHERE id IN (:jobIds)", nativeQuery = true)
+    int copyFromJobs(@Param("jobIds") Collection<UUID> jobIds, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO jobs (" + COLUMNS + ") SELECT " + COLUMNS + " FROM jobs_archive WHERE id = :jobId",
+           nativeQuery = true)
+    int copyToJobs(@Param("jobId") UUID jobId);
+
+    @Modifying
+    @Query(value = "DELETE FROM jobs_archive WHERE id = :jobId", nativeQuery = true)
+    int deleteArchived(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,61 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, UUID> {
+    Optional<BatchJobCheckpoint> findByJobName(String jobName);
+
+    /**
+     * Takes ownership of the job if nobody holds it or the holder's heartbeat is older
+     * than staleBefore. Returns 1 if this node now owns the job.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJobCheckpoint c SET c.owner = :owner, c.heartbeatAt = :now " +
+           "WHERE c.jobName = :jobName AND (c.owner IS NULL OR c.owner = :owner OR c.heartbeatAt < :staleBefore)")
+    int claim(@Param("jobName") String jobName, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Keeps the claim fresh while an item takes long. Returns 0 once another node has
+     * taken the job over.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJobCheckpoint c SET c.heartbeatAt = :now WHERE c.jobName = :jobName AND c.owner = :owner")
+    int heartbeat(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Writes the progress of the checkpoint only while owner still holds the job, so a node
+     * whose claim was taken over cannot overwrite the new owner's cursor. Returns 0 then.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJobCheckpoint c SET c.status = :#{#checkpoint.status}, " +
+           "c.lastProcessedId = :#{#checkpoint.lastProcessedId}, c.totalItems = :#{#checkpoint.totalItems}, " +
+           "c.processedItems = :#{#checkpoint.processedItems}, c.failedItems = :#{#checkpoint.failedItems}, " +
+           "c.llmCallsInWindow = :#{#checkpoint.llmCallsInWindow}, c.llmCallsTotal = :#{#checkpoint.llmCallsTotal}, " +
+           "c.activeMillis = :#{#checkpoint.activeMillis}, c.runStartedAt = :#{#checkpoint.runStartedAt}, " +
+           "c.windowStartedAt = :#{#checkpoint.windowStartedAt}, c.completedAt = :#{#checkpoint.completedAt}, " +
+           "c.lastError = :#{#checkpoint.lastError}, c.lastCheckpointAt = :now, c.heartbeatAt = :now, " +
+           "c.updatedAt = :now WHERE c.jobName = :#{#checkpoint.jobName} AND c.owner = :owner")
+    int saveIfOwner(@Param("checkpoint") BatchJobCheckpoint checkpoint, @Param("owner") String owner,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJobCheckpoint c SET c.owner = NULL, c.heartbeatAt = NULL " +
+           "WHERE c.jobName = :jobName AND c.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner);
+}
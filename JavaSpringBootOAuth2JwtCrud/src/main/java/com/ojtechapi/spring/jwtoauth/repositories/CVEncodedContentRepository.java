@@ -0,0 +1,38 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.CVEncodedContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CVEncodedContentRepository extends JpaRepository<CVEncodedContent, UUID> {
+
+    Optional<CVEncodedContent> findByCvIdAndContentHash(UUID cvId, String contentHash);
+
+    @Query("SELECT e.contentHash FROM CVEncodedContent e WHERE e.cvId = :cvId")
+    Optional<String> findContentHashByCvId(@Param("cvId") UUID cvId);
+
+    // Backfill (CVContentEncoder): CVs after the cursor whose encoded copies are missing or stale
+    @Query("SELECT c.id FROM CV c WHERE c.id > :afterId AND NOT EXISTS " +
+            "(SELECT e.cvId FROM CVEncodedContent e WHERE e.cvId = c.id AND e.contentHash = c.contentHash) " +
+            "ORDER BY c.id")
+    List<UUID> findIdsToEncode(@Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(c) FROM CV c WHERE NOT EXISTS " +
+            "(SELECT e.cvId FROM CVEncodedContent e WHERE e.cvId = c.id AND e.contentHash = c.contentHash)")
+    long countToEncode();
+
+    @Query("SELECT COALESCE(SUM(e.htmlBytes + e.resumeBytes), 0) FROM CVEncodedContent e")
+    long sumRawBytes();
+
+    @Query(value = "SELECT COALESCE(SUM(COALESCE(OCTET_LENGTH(html_gzip), 0) + COALESCE(OCTET_LENGTH(resume_gzip), 0)), 0) " +
+            "FROM cv_encoded_contents", nativeQuery = true)
+    long sumEncodedBytes();
+}
@@ -1,11 +1,18 @@
 package com.ojtechapi.spring.jwtoauth.repositories;
 
+import com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion;
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.entities.CV;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -15,4 +22,28 @@ public interface CVRepository extends JpaRepository<CV, UUID> {
     List<CV> findByStudentAndActive(StudentProfile student, boolean active);
     
     List<CV> findByStudentOrderByLastUpdatedDesc(StudentProfile student);
+
+    // Version of a CV without loading its content
+    @Query("SELECT c.lastUpdated FROM CV c WHERE c.id = :id")
+    Optional<LocalDateTime> findLastUpdatedById(@Param("id") UUID id);
+
+    // Content versions for conditional GETs (CVController), without the content columns
+    @Query("SELECT new com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion(c.id, u.id, c.active, c.lastUpdated, c.contentHash) " +
+            "FROM CV c JOIN c.student s JOIN s.user u WHERE c.id = :id")
+    Optional<CVContentVersion> findContentVersionById(@Param("id") UUID id);
+
+    @Query("SELECT new com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion(c.id, u.id, c.active, c.lastUpdated, c.contentHash) " +
+            "FROM CV c JOIN c.student s JOIN s.user u WHERE s.id = :studentId ORDER BY c.lastUpdated DESC")
+    List<CVContentVersion> findContentVersionsByStudentId(@Param("studentId") UUID studentId, Pageable pageable);
+
+    // CV lists: one query for all of a student's CVs, without content or related rows
+    @Query("SELECT new com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto(c.id, c.template, c.active, c.generated, " +
+            "c.lastUpdated, c.createdAt, c.updatedAt, SIZE(c.certifications), SIZE(c.experiences)) " +
+            "FROM CV c WHERE c.student.id = :studentId ORDER BY c.lastUpdated DESC")
+    List<CVSummaryDto> findSummariesByStudentId(@Param("studentId") UUID studentId);
+
+    // Active CVs of a chunk of students, with the students and their users (CVRegenerationService)
+    @Query("SELECT c FROM CV c JOIN FETCH c.student s JOIN FETCH s.user u LEFT JOIN FETCH u.roles " +
+            "WHERE s.id IN :studentIds AND c.id = s.activeCvId")
+    List<CV> findActiveWithStudentsByStudentIdIn(@Param("studentIds") List<UUID> studentIds);
 } 
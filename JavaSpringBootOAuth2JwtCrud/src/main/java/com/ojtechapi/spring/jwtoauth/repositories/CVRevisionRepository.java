@@ -0,0 +1,39 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.dtos.CVRevisionDto;
+import com.ojtechapi.spring.jwtoauth.entities.CVRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CVRevisionRepository extends JpaRepository<CVRevision, UUID> {
+
+    Optional<CVRevision> findTopByCvIdOrderByRevisionNumberDesc(UUID cvId);
+
+    @Query("SELECT new com.ojtechapi.spring.jwtoauth.dtos.CVRevisionDto(r.revisionNumber, r.base, r.contentHash, " +
+            "r.contentChars, r.storedChars, r.authorId, r.createdAt, r.updatedAt) " +
+            "FROM CVRevision r WHERE r.cvId = :cvId ORDER BY r.revisionNumber DESC")
+    List<CVRevisionDto> findSummariesByCvId(@Param("cvId") UUID cvId);
+
+    // The base a revision is built from: the last base at or before it
+    @Query("SELECT MAX(r.revisionNumber) FROM CVRevision r " +
+            "WHERE r.cvId = :cvId AND r.base = true AND r.revisionNumber <= :revisionNumber")
+    Optional<Integer> findBaseRevisionNumber(@Param("cvId") UUID cvId, @Param("revisionNumber") int revisionNumber);
+
+    List<CVRevision> findByCvIdAndRevisionNumberBetweenOrderByRevisionNumber(UUID cvId, int from, int to);
+
+    // Compaction: CVs with more revisions than are kept
+    @Query("SELECT r.cvId FROM CVRevision r GROUP BY r.cvId HAVING COUNT(r) > :keep")
+    List<UUID> findCvIdsWithMoreRevisionsThan(@Param("keep") long keep);
+
+    @Modifying
+    @Query("DELETE FROM CVRevision r WHERE r.cvId = :cvId AND r.revisionNumber < :revisionNumber")
+    int deleteByCvIdAndRevisionNumberLessThan(@Param("cvId") UUID cvId, @Param("revisionNumber") int revisionNumber);
+}
@@ -0,0 +1,39 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterPrefetchSpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Repository
+public interface CoverLetterPrefetchSpendRepository extends JpaRepository<CoverLetterPrefetchSpend, UUID> {
+
+    boolean existsByStudentIdAndSpendDay(UUID studentId, LocalDate spendDay);
+
+    /**
+     * Counts one more generation for the student on that day unless they are at the cap.
+     * Returns 1 if it was counted, 0 if at the cap or there is no row for the day yet.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CoverLetterPrefetchSpend s SET s.generations = s.generations + 1 " +
+           "WHERE s.studentId = :studentId AND s.spendDay = :day AND s.generations < :cap")
+    int increment(@Param("studentId") UUID studentId, @Param("day") LocalDate day, @Param("cap") int cap);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CoverLetterPrefetchSpend s SET s.generations = s.generations - 1 " +
+           "WHERE s.studentId = :studentId AND s.spendDay = :day AND s.generations > 0")
+    int decrement(@Param("studentId") UUID studentId, @Param("day") LocalDate day);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CoverLetterPrefetchSpend s WHERE s.spendDay < :day")
+    int deleteBefore(@Param("day") LocalDate day);
+}
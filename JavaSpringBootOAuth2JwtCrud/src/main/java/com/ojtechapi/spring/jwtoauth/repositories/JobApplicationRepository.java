@@ -1,14 +1,21 @@
 package com.ojtechapi.spring.jwtoauth.repositories;
 
 import com.ojtechapi.spring.jwtoauth.entities.ApplicationStatus;
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterStatus;
 import com.ojtechapi.spring.jwtoauth.entities.Job;
 import com.ojtechapi.spring.jwtoauth.entities.JobApplication;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,4 +33,50 @@ public interface JobApplicationRepository extends JpaRepository<JobApplication,
     
     Optional<JobApplication> findByStudentAndJob(StudentProfile student, Job job);
     boolean existsByJobAndStudent(Job job, StudentProfile student);
-} 
+
+    @Query("SELECT a.job.id FROM JobApplication a WHERE a.student.id = :studentId")
+    List<UUID> findJobIdsByStudentId(@Param("studentId") UUID studentId);
+
+    @Modifying
+    @Query("DELETE FROM JobApplication a WHERE a.job.id IN :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<UUID> jobIds);
+
+    @Query("SELECT a.coverLetterStatus FROM JobApplication a WHERE a.id = :id")
+    Optional<CoverLetterStatus> findCoverLetterStatus(@Param("id") UUID id);
+
+    /**
+     * PENDING letters nobody is generating: the lease of the node that took them has run
+     * out, or none took them since createdBefore
+     */
+    @Query("SELECT a FROM JobApplication a WHERE a.coverLetterStatus = :status AND " +
+           "(a.coverLetterLeaseUntil < :now OR (a.coverLetterLeaseUntil IS NULL AND a.createdAt < :createdBefore))")
+    List<JobApplication> findUnleasedCoverLetters(@Param("status") CoverLetterStatus status,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("createdBefore") LocalDateTime createdBefore);
+
+    /**
+     * Takes the PENDING letter for generation until leaseUntil if no node holds it, or
+     * the holder's lease has run out. Returns 1 if this node now holds it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobApplication a SET a.coverLetterLeaseUntil = :leaseUntil WHERE a.id = :id " +
+           "AND a.coverLetterStatus = :status AND (a.coverLetterLeaseUntil IS NULL OR a.coverLetterLeaseUntil < :now)")
+    int leaseCoverLetter(@Param("id") UUID id, @Param("status") CoverLetterStatus status,
+                         @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobApplication a SET a.coverLetter = :coverLetter, a.coverLetterStatus = :status, " +
+           "a.coverLetterLeaseUntil = NULL WHERE a.id = :id")
+    int updateCoverLetter(@Param("id") UUID id, @Param("coverLetter") String coverLetter,
+                          @Param("status") CoverLetterStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobApplication a SET a.coverLetterStatus = :status, a.coverLetterLeaseUntil = NULL WHERE a.id = :id")
+    int updateCoverLetterStatus(@Param("id") UUID id, @Param("status") CoverLetterStatus status);
+
+    @Query("SELECT a.coverLetter FROM JobApplication a WHERE a.id = :id")
+    Optional<String> findCoverLetter(@Param("id") UUID id);
+}
@@ -1,10 +1,18 @@
 package com.ojtechapi.spring.jwtoauth.repositories;
 
+import com.ojtechapi.spring.jwtoauth.dtos.JobCandidateDto;
 import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +20,16 @@ import java.util.UUID;
 public interface JobMatchRepository extends JpaRepository<JobMatch, UUID> {
     
     List<JobMatch> findByStudentIdOrderByMatchScoreDesc(UUID studentId);
+
+    /**
+     * A student's matches against jobs that are still active, with the job fetched
+     */
+    @Query("SELECT m FROM JobMatch m JOIN FETCH m.job j WHERE m.student.id = :studentId AND j.active = true " +
+           "ORDER BY m.matchScore DESC")
+    List<JobMatch> findActiveJobMatchesByStudentId(@Param("studentId") UUID studentId);
+
+    @Query("SELECT m.job.id FROM JobMatch m WHERE m.student.id = :studentId")
+    List<UUID> findJobIdsByStudentId(@Param("studentId") UUID studentId);
     
     List<JobMatch> findByJobIdOrderByMatchScoreDesc(UUID jobId);
     
@@ -20,4 +38,87 @@ public interface JobMatchRepository extends JpaRepository<JobMatch, UUID> {
     List<JobMatch> findByStudentIdAndJobId(UUID studentId, UUID jobId);
     
     void deleteByStudentIdAndJobId(UUID studentId, UUID jobId);
-} 
+
+    /**
+     * Highest-scoring candidates for a job, ordered by score then student id (the ranking
+     * order used for keyset pagination). Served by idx_job_matches_job_score.
+     */
+    @Query("SELECT new com.ojtechapi.spring.jwtoauth.dtos.JobCandidateDto(m.id, s.id, s.firstName, s.lastName, " +
+            "s.university, s.major, s.verified, m.matchScore, m.matchedAt, m.viewed) " +
+            "FROM JobMatch m JOIN m.student s " +
+            "WHERE m.job.id = :jobId AND m.matchScore IS NOT NULL AND (:verifiedOnly = false OR s.verified = true) " +
+            "ORDER BY m.matchScore DESC, s.id ASC")
+    List<JobCandidateDto> findCandidates(@Param("jobId") UUID jobId,
+                                         @Param("verifiedOnly") boolean verifiedOnly,
+                                         Pageable pageable);
+
+    /**
+     * Next candidates after the (score, studentId) keyset cursor of the previous page
+     */
+    @Query("SELECT new com.ojtechapi.spring.jwtoauth.dtos.JobCandidateDto(m.id, s.id, s.firstName, s.lastName, " +
+            "s.university, s.major, s.verified, m.matchScore, m.matchedAt, m.viewed) " +
+            "FROM JobMatch m JOIN m.student s " +
+            "WHERE m.job.id = :jobId AND m.matchScore IS NOT NULL AND (:verifiedOnly = false OR s.verified = true) " +
+            "AND (m.matchScore < :afterScore OR (m.matchScore = :afterScore AND s.id > :afterStudentId)) " +
+            "ORDER BY m.matchScore DESC, s.id ASC")
+    List<JobCandidateDto> findCandidatesAfter(@Param("jobId") UUID jobId,
+                                              @Param("verifiedOnly") boolean verifiedOnly,
+                                              @Param("afterScore") Double afterScore,
+                                              @Param("afterStudentId") UUID afterStudentId,
+                                              Pageable pageable);
+
+    // Retention (MatchRetentionService)
+
+    /**
+     * Jobs inactive since before the cutoff that still have matches, in id order
+     */
+    @Query("SELECT j.id FROM Job j WHERE j.active = false AND j.updatedAt < :cutoff " +
+           "AND EXISTS (SELECT m.id FROM JobMatch m WHERE m.job = j) ORDER BY j.id")
+    List<UUID> findInactiveJobIdsWithMatches(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT j.id FROM Job j WHERE j.active = false AND j.updatedAt < :cutoff AND j.id > :afterId " +
+           "AND EXISTS (SELECT m.id FROM JobMatch m WHERE m.job = j) ORDER BY j.id")
+    List<UUID> findInactiveJobIdsWithMatchesAfter(@Param("cutoff") LocalDateTime cutoff,
+                                                  @Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Deletes the matches of the given jobs, except those the student viewed or applied to
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JobMatch m WHERE m.job.id IN :jobIds AND m.viewed = false " +
+           "AND NOT EXISTS (SELECT a.id FROM JobApplication a WHERE a.job = m.job AND a.student = m.student)")
+    int deleteUnprotectedByJobIds(@Param("jobIds") Collection<UUID> jobIds);
+
+    @Query("SELECT s.id FROM StudentProfile s WHERE EXISTS (SELECT m.id FROM JobMatch m WHERE m.student = s) " +
+           "ORDER BY s.id")
+    List<UUID> findStudentIdsWithMatches(Pageable pageable);
+
+    @Query("SELECT s.id FROM StudentProfile s WHERE s.id > :afterId " +
+           "AND EXISTS (SELECT m.id FROM JobMatch m WHERE m.student = s) ORDER BY s.id")
+    List<UUID> findStudentIdsWithMatchesAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(DISTINCT m.student.id) FROM JobMatch m")
+    long countStudentsWithMatches();
+
+    long countByStudentId(UUID studentId);
+
+    /**
+     * A student's matches best first, as rows of (match id, job id, score, viewed)
+     */
+    @Query("SELECT m.id, m.job.id, m.matchScore, m.viewed FROM JobMatch m WHERE m.student.id = :studentId " +
+           "ORDER BY m.matchScore DESC NULLS LAST, m.id")
+    List<Object[]> findRankedRowsByStudentId(@Param("studentId") UUID studentId);
+
+    /**
+     * Deletes the given matches unless they were viewed or applied to in the meantime
+     */
+    @Modifying
+    @Query("DELETE FROM JobMatch m WHERE m.id IN :ids AND m.viewed = false " +
+           "AND NOT EXISTS (SELECT a.id FROM JobApplication a WHERE a.job = m.job AND a.student = m.student)")
+    int deleteUnprotectedByIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM JobMatch m WHERE m.job.id IN :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<UUID> jobIds);
+}
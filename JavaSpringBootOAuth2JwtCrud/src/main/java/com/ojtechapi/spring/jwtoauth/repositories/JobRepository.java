@@ -1,19 +1,38 @@
 package com.ojtechapi.spring.jwtoauth.repositories;
 
+import com.ojtechapi.spring.jwtoauth.entities.ApplicationStatus;
 import com.ojtechapi.spring.jwtoauth.entities.NLOProfile;
 import com.ojtechapi.spring.jwtoauth.entities.Job;
 import com.ojtechapi.spring.jwtoauth.entities.JobStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface JobRepository extends JpaRepository<Job, UUID> {
+
+    /**
+     * Jobs that can be archived: inactive since before the cutoff, every application in
+     * a closed status, and no admin records (metadata, moderation, audit trail, categories,
+     * metrics), which keep their foreign keys to jobs.
+     */
+    String ARCHIVABLE = "SELECT j.id FROM Job j WHERE j.active = false AND j.updatedAt < :cutoff " +
+            "AND NOT EXISTS (SELECT a.id FROM JobApplication a WHERE a.job = j AND a.status NOT IN :closed) " +
+            "AND NOT EXISTS (SELECT x.id FROM AdminJobMetadata x WHERE x.job = j) " +
+            "AND NOT EXISTS (SELECT x.id FROM JobModeration x WHERE x.job = j) " +
+            "AND NOT EXISTS (SELECT x.id FROM JobAuditTrail x WHERE x.job = j) " +
+            "AND NOT EXISTS (SELECT x.id FROM JobCategoryMapping x WHERE x.job = j) " +
+            "AND NOT EXISTS (SELECT x.id FROM JobPerformanceMetrics x WHERE x.job = j) ";
+
     List<Job> findByEmployer(NLOProfile employer);
     
     List<Job> findByActiveTrue();
@@ -32,4 +51,24 @@ public interface JobRepository extends JpaRepository<Job, UUID> {
     @Query("SELECT j FROM Job j WHERE j.active = true AND " +
            "(:keyword IS NULL OR (j.title LIKE %:keyword% OR j.description LIKE %:keyword%))")
     Page<Job> searchJobsByKeyword(String keyword, Pageable pageable);
-} 
+
+    @Query(ARCHIVABLE + "ORDER BY j.id")
+    List<UUID> findArchivableIds(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("closed") Collection<ApplicationStatus> closed, Pageable pageable);
+
+    @Query(ARCHIVABLE + "AND j.id > :afterId ORDER BY j.id")
+    List<UUID> findArchivableIdsAfter(@Param("cutoff") LocalDateTime cutoff,
+                                      @Param("closed") Collection<ApplicationStatus> closed,
+                                      @Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(j) FROM Job j WHERE j.active = false AND j.updatedAt < :cutoff")
+    long countInactiveSince(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Job j WHERE j.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("UPDATE Job j SET j.updatedAt = :updatedAt WHERE j.id = :id")
+    int touch(@Param("id") UUID id, @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,126 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.MatchTask;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskStatus;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MatchTaskRepository extends JpaRepository<MatchTask, UUID> {
+
+    boolean existsByTaskTypeAndStudentIdAndStatus(MatchTaskType taskType, UUID studentId, MatchTaskStatus status);
+
+    /**
+     * Locks up to limit claimable tasks, skipping rows other workers hold locks on
+     * (PostgreSQL). Must run inside the transaction that marks them claimed.
+     */
+    @Query(value = "SELECT id FROM match_tasks WHERE status = 'PENDING' AND available_at <= :now " +
+                   "ORDER BY available_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Claim candidates for databases without SKIP LOCKED; each one still has to be
+     * taken with {@link #claimIfPending}.
+     */
+    @Query("SELECT t.id FROM MatchTask t WHERE t.status = :status AND t.availableAt <= :now ORDER BY t.availableAt")
+    List<UUID> findClaimable(@Param("status") MatchTaskStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE MatchTask t SET t.status = :running, t.leaseOwner = :owner, t.leaseExpiresAt = :leaseUntil, " +
+           "t.attempts = t.attempts + 1 WHERE t.id IN :ids")
+    int markClaimed(@Param("ids") Collection<UUID> ids, @Param("running") MatchTaskStatus running,
+                    @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Conditional claim: succeeds (returns 1) only for the worker that flips the task
+     * out of PENDING first.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.status = :running, t.leaseOwner = :owner, t.leaseExpiresAt = :leaseUntil, " +
+           "t.attempts = t.attempts + 1 WHERE t.id = :id AND t.status = :pending")
+    int claimIfPending(@Param("id") UUID id, @Param("pending") MatchTaskStatus pending,
+                       @Param("running") MatchTaskStatus running, @Param("owner") String owner,
+                       @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.leaseExpiresAt = :leaseUntil " +
+           "WHERE t.id IN :ids AND t.leaseOwner = :owner AND t.status = :running")
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("owner") String owner,
+                    @Param("running") MatchTaskStatus running, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * The updates below finish a task only while owner still holds an unexpired lease on
+     * it (returns 1); once the lease ran out the reaper or another worker owns the row.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.status = :done, t.completedAt = :now, t.leaseOwner = NULL, " +
+           "t.leaseExpiresAt = NULL, t.lastError = NULL " +
+           "WHERE t.id = :id AND t.leaseOwner = :owner AND t.status = :running AND t.leaseExpiresAt > :now")
+    int completeIfLeased(@Param("id") UUID id, @Param("owner") String owner,
+                         @Param("running") MatchTaskStatus running, @Param("done") MatchTaskStatus done,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.status = :failed, t.completedAt = :now, t.leaseOwner = NULL, " +
+           "t.leaseExpiresAt = NULL, t.lastError = :error " +
+           "WHERE t.id = :id AND t.leaseOwner = :owner AND t.status = :running AND t.leaseExpiresAt > :now")
+    int failIfLeased(@Param("id") UUID id, @Param("owner") String owner,
+                     @Param("running") MatchTaskStatus running, @Param("failed") MatchTaskStatus failed,
+                     @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.status = :pending, t.availableAt = :availableAt, t.leaseOwner = NULL, " +
+           "t.leaseExpiresAt = NULL, t.lastError = :error " +
+           "WHERE t.id = :id AND t.leaseOwner = :owner AND t.status = :running AND t.leaseExpiresAt > :now")
+    int retryIfLeased(@Param("id") UUID id, @Param("owner") String owner,
+                      @Param("running") MatchTaskStatus running, @Param("pending") MatchTaskStatus pending,
+                      @Param("error") String error, @Param("availableAt") LocalDateTime availableAt,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Hands the task back without counting the attempt the claim added
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.status = :pending, t.availableAt = :now, t.leaseOwner = NULL, " +
+           "t.leaseExpiresAt = NULL, t.attempts = CASE WHEN t.attempts > 0 THEN t.attempts - 1 ELSE 0 END " +
+           "WHERE t.id = :id AND t.leaseOwner = :owner AND t.status = :running AND t.leaseExpiresAt > :now")
+    int releaseIfLeased(@Param("id") UUID id, @Param("owner") String owner,
+                        @Param("running") MatchTaskStatus running, @Param("pending") MatchTaskStatus pending,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Puts tasks whose lease ran out back in the queue, or fails them when no attempts are left.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchTask t SET t.status = CASE WHEN t.attempts < t.maxAttempts THEN :pending ELSE :failed END, " +
+           "t.leaseOwner = NULL, t.leaseExpiresAt = NULL, t.availableAt = :now, t.lastError = 'lease expired' " +
+           "WHERE t.status = :running AND t.leaseExpiresAt < :now")
+    int expireLeases(@Param("now") LocalDateTime now, @Param("pending") MatchTaskStatus pending,
+                     @Param("failed") MatchTaskStatus failed, @Param("running") MatchTaskStatus running);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MatchTask t WHERE t.status = :done AND t.completedAt < :before")
+    int deleteCompletedBefore(@Param("done") MatchTaskStatus done, @Param("before") LocalDateTime before);
+
+    @Query("SELECT t.status, COUNT(t) FROM MatchTask t GROUP BY t.status")
+    List<Object[]> countByStatus();
+}
@@ -0,0 +1,51 @@
+package com.ojtechapi.spring.jwtoauth.repositories;
+
+import com.ojtechapi.spring.jwtoauth.entities.PrunedJobMatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PrunedJobMatchRepository extends JpaRepository<PrunedJobMatch, UUID> {
+
+    @Query("SELECT p.jobId FROM PrunedJobMatch p WHERE p.studentId = :studentId")
+    List<UUID> findJobIdsByStudentId(@Param("studentId") UUID studentId);
+
+    /**
+     * Drops the student's markers left before changedAt, their last profile or CV change
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PrunedJobMatch p WHERE p.studentId = :studentId AND p.prunedAt < :changedAt")
+    int deleteByStudentIdPrunedBefore(@Param("studentId") UUID studentId, @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * Marks the pairs pruned again: their matches were scored anew after the markers
+     * became void
+     */
+    @Modifying
+    @Query("UPDATE PrunedJobMatch p SET p.prunedAt = :prunedAt WHERE p.studentId = :studentId AND p.jobId IN :jobIds")
+    int refreshPrunedAt(@Param("studentId") UUID studentId, @Param("jobIds") Collection<UUID> jobIds,
+                        @Param("prunedAt") LocalDateTime prunedAt);
+
+    /**
+     * Drops the markers of jobs that have been inactive since before the cutoff
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PrunedJobMatch p WHERE p.jobId IN " +
+           "(SELECT j.id FROM Job j WHERE j.active = false AND j.updatedAt < :cutoff)")
+    int deleteForJobsInactiveSince(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM PrunedJobMatch p WHERE p.jobId IN :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<UUID> jobIds);
+}
@@ -1,8 +1,10 @@
 package com.ojtechapi.spring.jwtoauth.repositories;
 
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -11,8 +13,20 @@ import java.util.UUID;
 @Repository
 public interface StudentProfileRepository extends JpaRepository<StudentProfile, UUID> {
     Optional<StudentProfile> findByUserId(UUID userId);
+    @Query("SELECT s.id FROM StudentProfile s WHERE s.user.id = :userId")
+    Optional<UUID> findIdByUserId(@Param("userId") UUID userId);
     @Query("SELECT s FROM StudentProfile s WHERE s.activeCvId IS NOT NULL")
     List<StudentProfile> findAllWithActiveCVs();
+    @Query("SELECT s.id FROM StudentProfile s WHERE s.activeCvId IS NOT NULL ORDER BY s.id")
+    List<UUID> findIdsWithActiveCVs(Pageable pageable);
+    @Query("SELECT s.id FROM StudentProfile s WHERE s.activeCvId IS NOT NULL AND s.id > :afterId ORDER BY s.id")
+    List<UUID> findIdsWithActiveCVsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+    long countByActiveCvIdIsNotNull();
+    // Loaded in turn into one persistence context, so rendering the CVs needs no further queries
+    @Query("SELECT DISTINCT s FROM StudentProfile s LEFT JOIN FETCH s.certifications WHERE s.id IN :ids")
+    List<StudentProfile> fetchCertificationsByIdIn(@Param("ids") List<UUID> ids);
+    @Query("SELECT DISTINCT s FROM StudentProfile s LEFT JOIN FETCH s.experiences WHERE s.id IN :ids")
+    List<StudentProfile> fetchExperiencesByIdIn(@Param("ids") List<UUID> ids);
     List<StudentProfile> findByVerified(boolean verified);
     long countByVerified(boolean verified);
 }
@@ -1,7 +1,7 @@
 package com.ojtechapi.spring.jwtoauth.security.jwt;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.Optional;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,7 +23,7 @@ import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsServiceImpl;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
-    private JwtUtils jwtUtils;
+    private JwtVerifier jwtVerifier;
 
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
@@ -41,14 +41,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                UUID userId = jwtUtils.getUserIdFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Verified once, and taken from memory for a token verified recently
+            Optional<JwtClaims> claims = jwt != null ? jwtVerifier.verify(jwt) : Optional.empty();
+            if (claims.isPresent()) {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(claims.get().username());
                 
-                if (userId != null) {
-                    request.setAttribute("userId", userId);
+                if (claims.get().userId() != null) {
+                    request.setAttribute("userId", claims.get().userId());
                 }
                 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -0,0 +1,16 @@
+package com.ojtechapi.spring.jwtoauth.security.jwt;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What the application reads from a verified token. userId is null for tokens issued
+ * without it (or with one that is not a UUID); expiresAt is null for tokens without
+ * an expiration.
+ */
+public record JwtClaims(String username, UUID userId, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -11,7 +11,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -29,6 +31,10 @@ public class JwtUtils {
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
 
+    // Derived from the secret on first use and kept: one key and one parser for every token
+    private volatile Key key;
+    private volatile JwtParser parser;
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
         return generateTokenFromUsername(userPrincipal.getUsername(), userPrincipal.getId());
@@ -53,24 +59,54 @@ public class JwtUtils {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        Key current = key;
+        if (current == null) {
+            synchronized (this) {
+                if (key == null) {
+                    key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+                }
+                current = key;
+            }
+        }
+        return current;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(key()).build();
+            parser = current;
+        }
+        return current;
+    }
+
+    /**
+     * Verifies the token's signature and expiration and reads its claims, in one parse.
+     * Throws the parser's exceptions for tokens that do not verify.
+     */
+    public JwtClaims parseClaims(String token) {
+        Claims claims = parser().parseClaimsJws(token).getBody();
+        return new JwtClaims(claims.getSubject(), userId(claims),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    private UUID userId(Claims claims) {
+        try {
+            String userId = claims.get("userId", String.class);
+            return userId != null ? UUID.fromString(userId) : null;
+        } catch (Exception e) {
+            logger.warn("Could not extract userId from token: {}", e.getMessage());
+            return null;
+        }
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parser().parseClaimsJws(token).getBody().getSubject();
     }
 
     public UUID getUserIdFromJwtToken(String token) {
         try {
-            String userId = Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .get("userId", String.class);
-            
-            return userId != null ? UUID.fromString(userId) : null;
+            return userId(parser().parseClaimsJws(token).getBody());
         } catch (Exception e) {
             logger.warn("Could not extract userId from token: {}", e.getMessage());
             return null;
@@ -79,7 +115,7 @@ public class JwtUtils {
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
+            parser().parseClaimsJws(authToken);
             return true;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
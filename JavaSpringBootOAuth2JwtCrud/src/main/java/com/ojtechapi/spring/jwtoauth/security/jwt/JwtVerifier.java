@@ -0,0 +1,160 @@
+package com.ojtechapi.spring.jwtoauth.security.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies the bearer token of each request (AuthTokenFilter): one parse per token, with
+ * the signing key and parser built once (JwtUtils), into a JwtClaims.
+ *
+ * Tokens that verified recently are remembered by their SHA-256 digest until they expire,
+ * so a client's following requests skip the signature check and the JSON parse. Only the
+ * digest is kept, never the token; a token must match it exactly to be taken from memory.
+ * The cache is a ConcurrentHashMap, so request threads do not wait on each other to read
+ * it. Its size is kept near app.jwt.verified-cache-size: once over, one thread drops the
+ * expired entries and then arbitrary ones until it is back to 90% of the limit.
+ *
+ * Counted in jwt.verification{outcome}: cached, verified and rejected.
+ */
+@Component
+public class JwtVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtVerifier.class);
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int cacheSize;
+
+    private final ConcurrentHashMap<String, JwtClaims> verified = new ConcurrentHashMap<>(256);
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    // Registered once: this runs on every authenticated request
+    private Counter cachedCounter;
+    private Counter verifiedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        cachedCounter = counter("cached");
+        verifiedCounter = counter("verified");
+        rejectedCounter = counter("rejected");
+    }
+
+    /**
+     * The token's claims, or empty if it does not verify or has expired
+     */
+    public Optional<JwtClaims> verify(String token) {
+        String digest = digest(token);
+        Instant now = Instant.now();
+        JwtClaims claims = cached(digest, now);
+        if (claims != null) {
+            cachedCounter.increment();
+            return Optional.of(claims);
+        }
+
+        claims = parse(token);
+        if (claims == null) {
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        verifiedCounter.increment();
+        if (cacheSize > 0 && claims.expiresAt() != null) {
+            verified.put(digest, claims);
+            if (verified.size() > cacheSize) {
+                evict(now);
+            }
+        }
+        return Optional.of(claims);
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    private JwtClaims cached(String digest, Instant now) {
+        JwtClaims claims = verified.get(digest);
+        if (claims != null && claims.isExpired(now)) {
+            // Parsed again, which rejects and logs it
+            verified.remove(digest, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    // Run by one thread at a time; the others carry on and may overshoot the limit briefly
+    private void evict(Instant now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            verified.values().removeIf(claims -> claims.isExpired(now));
+            int target = cacheSize - cacheSize / 10;
+            Iterator<Map.Entry<String, JwtClaims>> entries = verified.entrySet().iterator();
+            while (verified.size() > target && entries.hasNext()) {
+                entries.next();
+                entries.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private JwtClaims parse(String token) {
+        try {
+            return jwtUtils.parseClaims(token);
+        } catch (MalformedJwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token could not be verified: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder("jwt.verification")
+                .description("Bearer tokens checked by the authentication filter, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
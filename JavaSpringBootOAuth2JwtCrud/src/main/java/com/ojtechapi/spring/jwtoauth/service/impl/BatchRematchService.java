@@ -0,0 +1,248 @@
+package com.ojtechapi.spring.jwtoauth.service.impl;
+
+import com.ojtechapi.spring.jwtoauth.dtos.admin.BatchJobStatusDto;
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobCheckpoint;
+import com.ojtechapi.spring.jwtoauth.repositories.BatchJobCheckpointRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.batch.CheckpointedJobRunner;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmUsage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Nightly refresh of every student's job matches, e.g. after a skill taxonomy or prompt
+ * change. Students with an active CV are walked in id order by a {@link CheckpointedJobRunner},
+ * one chunk at a time; after each chunk the cursor and counters are saved to
+ * {@link BatchJobCheckpoint}, so a crashed or restarted node resumes after the last
+ * finished chunk. The claim's heartbeat is refreshed before every student.
+ *
+ * A run only works inside the configured time window and stops once the LLM calls of the
+ * current window would exceed the budget. It is then PAUSED and continues from the cursor
+ * in the next window. Gemini calls go through the BATCH lane of the LLM scheduler.
+ */
+@Service
+public class BatchRematchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchRematchService.class);
+
+    public static final String JOB_NAME = "nightly-rematch";
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+
+    @Autowired
+    private JobMatchService jobMatchService;
+
+    @Value("${matching.rematch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.rematch.chunk-size:25}")
+    private int chunkSize;
+
+    @Value("${matching.rematch.llm-budget-per-window:5000}")
+    private long llmBudgetPerWindow;
+
+    private LocalTime windowStart;
+    private LocalTime windowEnd;
+
+    @Value("${matching.rematch.zone:Asia/Manila}")
+    private String zone;
+
+    @Value("${matching.rematch.stale-claim-minutes:15}")
+    private long staleClaimMinutes;
+
+    private CheckpointedJobRunner runner;
+
+    @Value("${matching.rematch.window-start:01:00}")
+    void setWindowStart(String windowStart) {
+        this.windowStart = LocalTime.parse(windowStart);
+    }
+
+    @Value("${matching.rematch.window-end:05:00}")
+    void setWindowEnd(String windowEnd) {
+        this.windowEnd = LocalTime.parse(windowEnd);
+    }
+
+    @PostConstruct
+    void init() {
+        runner = new CheckpointedJobRunner(JOB_NAME, "Batch rematch", checkpointRepository, staleClaimMinutes);
+    }
+
+    /**
+     * Opens the nightly window: starts a new pass if the previous one completed,
+     * otherwise resumes the paused or failed one.
+     */
+    @Scheduled(cron = "${matching.rematch.cron:0 0 1 * * *}", zone = "${matching.rematch.zone:Asia/Manila}")
+    public void runNightly() {
+        if (!enabled) {
+            return;
+        }
+        run(false, true);
+    }
+
+    /**
+     * Starts or resumes a run in the background on admin request. A manual run ignores
+     * the time window but still respects the LLM budget.
+     */
+    @Async
+    public void startManually(boolean newRun) {
+        run(newRun, false);
+    }
+
+    /**
+     * Asks the run on this node to stop after the current student.
+     */
+    public boolean requestPause() {
+        return runner.requestPause();
+    }
+
+    public boolean isRunning() {
+        return runner.isRunning();
+    }
+
+    void run(boolean forceNewRun, boolean respectWindow) {
+        if (respectWindow && !insideWindow()) {
+            logger.info("Batch rematch skipped: outside window {}", describeWindow());
+            return;
+        }
+        runner.run(forceNewRun, new RematchRun(respectWindow));
+    }
+
+    private class RematchRun implements CheckpointedJobRunner.Job {
+
+        private final boolean respectWindow;
+
+        RematchRun(boolean respectWindow) {
+            this.respectWindow = respectWindow;
+        }
+
+        @Override
+        public long countItems() {
+            return studentProfileRepository.countByActiveCvIdIsNotNull();
+        }
+
+        @Override
+        public List<UUID> nextChunk(UUID after) {
+            return after == null
+                    ? studentProfileRepository.findIdsWithActiveCVs(PageRequest.of(0, chunkSize))
+                    : studentProfileRepository.findIdsWithActiveCVsAfter(after, PageRequest.of(0, chunkSize));
+        }
+
+        @Override
+        public void onStart(BatchJobCheckpoint checkpoint, boolean newRun) {
+            // The budget is per window: reset it when this is the first run since the window opened
+            LocalDateTime windowOpenedAt = currentWindowOpenedAt();
+            if (checkpoint.getWindowStartedAt() == null || checkpoint.getWindowStartedAt().isBefore(windowOpenedAt)) {
+                checkpoint.setWindowStartedAt(LocalDateTime.now());
+                checkpoint.setLlmCallsInWindow(0);
+            }
+        }
+
+        @Override
+        public void processChunk(List<UUID> chunk, BatchJobCheckpoint checkpoint) {
+            for (UUID studentId : chunk) {
+                if (runner.isPauseRequested() || stopReason(checkpoint) != null) {
+                    break;
+                }
+                // A student can take minutes of LLM calls; keep the claim from going stale mid-chunk
+                runner.heartbeat();
+                rematchStudent(checkpoint, studentId);
+            }
+        }
+
+        /**
+         * The budget check projects the next student's cost from the average so far.
+         */
+        @Override
+        public String stopReason(BatchJobCheckpoint checkpoint) {
+            if (respectWindow && !insideWindow()) {
+                return "time window " + describeWindow() + " closed";
+            }
+            long done = checkpoint.getProcessedItems() + checkpoint.getFailedItems();
+            long projectedCalls = done > 0 ? (checkpoint.getLlmCallsTotal() + done - 1) / done : 0;
+            if (checkpoint.getLlmCallsInWindow() + projectedCalls > llmBudgetPerWindow) {
+                return "LLM budget of " + llmBudgetPerWindow + " calls reached";
+            }
+            return null;
+        }
+
+        @Override
+        public void onCompleted(BatchJobCheckpoint checkpoint) {
+            logger.info("Batch rematch used {} LLM calls", checkpoint.getLlmCallsTotal());
+        }
+    }
+
+    private void rematchStudent(BatchJobCheckpoint checkpoint, UUID studentId) {
+        LlmUsage usage = new LlmUsage();
+        try {
+            LlmRequestContext.call(LlmLane.BATCH, studentId, null, usage, () -> {
+                jobMatchService.recalculateMatchesForStudent(studentId);
+                jobMatchService.matchStudent(studentId, null);
+                return null;
+            });
+            checkpoint.setProcessedItems(checkpoint.getProcessedItems() + 1);
+        } catch (RuntimeException e) {
+            // One student's failure should not stop the run
+            logger.warn("Batch rematch failed for student {}: {}", studentId, e.getMessage());
+            checkpoint.setFailedItems(checkpoint.getFailedItems() + 1);
+        }
+        checkpoint.setLastProcessedId(studentId);
+        checkpoint.setLlmCallsInWindow(checkpoint.getLlmCallsInWindow() + usage.getCalls());
+        checkpoint.setLlmCallsTotal(checkpoint.getLlmCallsTotal() + usage.getCalls());
+    }
+
+    public BatchJobStatusDto getStatus() {
+        BatchJobCheckpoint checkpoint = runner.findCheckpoint();
+        BatchJobStatusDto dto = runner.getStatus(checkpoint);
+        dto.setLlmCallsInWindow(checkpoint.getLlmCallsInWindow());
+        dto.setLlmBudgetPerWindow(llmBudgetPerWindow);
+        dto.setLlmCallsTotal(checkpoint.getLlmCallsTotal());
+        dto.setWindow(describeWindow());
+        return dto;
+    }
+
+    boolean insideWindow() {
+        LocalTime now = ZonedDateTime.now(ZoneId.of(zone)).toLocalTime();
+        if (windowStart.isBefore(windowEnd)) {
+            return !now.isBefore(windowStart) && now.isBefore(windowEnd);
+        }
+        // Window wraps past midnight, e.g. 22:00-04:00
+        return !now.isBefore(windowStart) || now.isBefore(windowEnd);
+    }
+
+    /**
+     * Most recent opening of the window, in server-local time like the checkpoint timestamps.
+     */
+    private LocalDateTime currentWindowOpenedAt() {
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of(zone));
+        ZonedDateTime opened = now.with(windowStart);
+        if (opened.isAfter(now)) {
+            opened = opened.minusDays(1);
+        }
+        return opened.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private String describeWindow() {
+        return windowStart + "-" + windowEnd + " " + zone;
+    }
+}
@@ -0,0 +1,264 @@
+package com.ojtechapi.spring.jwtoauth.service.impl;
+
+import com.ojtechapi.spring.jwtoauth.dtos.admin.BatchJobStatusDto;
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobCheckpoint;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.repositories.BatchJobCheckpointRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import com.ojtechapi.spring.jwtoauth.service.interfaces.CVService;
+import com.ojtechapi.spring.jwtoauth.services.batch.CheckpointedJobRunner;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVContentEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-renders the active CV of every student from their profile, as
+ * {@link CVService#regenerateActiveCV} does for one student, e.g. after the CV template or
+ * its styles changed. Run through POST /api/admin/cv-regeneration/start.
+ *
+ * Students with an active CV are walked in id order, one chunk at a time. Each chunk is
+ * loaded in three queries (the CVs with their students, then the students' certifications
+ * and experiences), rendered in parallel on a bounded pool of cv.regeneration.threads
+ * threads, and written in one transaction, so the updates go out as JDBC batches. CVs whose
+ * HTML comes out unchanged are not written. After each chunk the cursor and counters are
+ * saved to {@link BatchJobCheckpoint} by a {@link CheckpointedJobRunner}, so an interrupted
+ * or paused run resumes after the last written chunk.
+ *
+ * Saved CVs are re-encoded by CVContentEncoder as usual; encodings dropped while the run
+ * floods its queue are caught by the backfill started when the run completes.
+ *
+ * CVs are counted in cv.regeneration{outcome}: regenerated, unchanged and failed.
+ */
+@Service
+public class CVRegenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CVRegenerationService.class);
+
+    public static final String JOB_NAME = "cv-regeneration";
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+
+    @Autowired
+    private CVRepository cvRepository;
+
+    @Autowired
+    private CVService cvService;
+
+    @Autowired
+    private CVContentEncoder cvContentEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cv.regeneration.chunk-size:200}")
+    private int chunkSize;
+
+    // 0: one per available processor
+    @Value("${cv.regeneration.threads:0}")
+    private int threads;
+
+    @Value("${cv.regeneration.stale-claim-minutes:15}")
+    private long staleClaimMinutes;
+
+    private final AtomicLong unchanged = new AtomicLong();
+
+    private CheckpointedJobRunner runner;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        runner = new CheckpointedJobRunner(JOB_NAME, "CV regeneration", checkpointRepository, staleClaimMinutes);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts or resumes a run in the background on admin request
+     */
+    @Async
+    public void startManually(boolean newRun) {
+        run(newRun);
+    }
+
+    /**
+     * Asks the run on this node to stop after the current chunk.
+     */
+    public boolean requestPause() {
+        return runner.requestPause();
+    }
+
+    public boolean isRunning() {
+        return runner.isRunning();
+    }
+
+    void run(boolean forceNewRun) {
+        if (runner.isRunning()) {
+            logger.info("CV regeneration already running on this node");
+            return;
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor renderers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "cv-regeneration-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            runner.run(forceNewRun, new RegenerationRun(renderers));
+        } finally {
+            renderers.shutdownNow();
+        }
+    }
+
+    private class RegenerationRun implements CheckpointedJobRunner.Job {
+
+        private final ThreadPoolExecutor renderers;
+
+        RegenerationRun(ThreadPoolExecutor renderers) {
+            this.renderers = renderers;
+        }
+
+        @Override
+        public long countItems() {
+            return studentProfileRepository.countByActiveCvIdIsNotNull();
+        }
+
+        @Override
+        public List<UUID> nextChunk(UUID after) {
+            return after == null
+                    ? studentProfileRepository.findIdsWithActiveCVs(PageRequest.of(0, chunkSize))
+                    : studentProfileRepository.findIdsWithActiveCVsAfter(after, PageRequest.of(0, chunkSize));
+        }
+
+        @Override
+        public void onStart(BatchJobCheckpoint checkpoint, boolean newRun) {
+            if (newRun) {
+                unchanged.set(0);
+            }
+            logger.info("CV regeneration rendering on {} threads", renderers.getMaximumPoolSize());
+        }
+
+        @Override
+        public void processChunk(List<UUID> chunk, BatchJobCheckpoint checkpoint) {
+            int[] outcome = transactionTemplate.execute(status -> regenerateChunk(chunk, renderers));
+            checkpoint.setProcessedItems(checkpoint.getProcessedItems() + outcome[0] + outcome[1]);
+            checkpoint.setFailedItems(checkpoint.getFailedItems() + outcome[2]);
+            checkpoint.setLastProcessedId(chunk.get(chunk.size() - 1));
+        }
+
+        @Override
+        public void onCompleted(BatchJobCheckpoint checkpoint) {
+            logger.info("CV regeneration left {} CVs unchanged", unchanged.get());
+            // Re-encodes CVs whose encoding was dropped while the run filled the queue
+            cvContentEncoder.startBackfill();
+        }
+    }
+
+    /**
+     * Regenerates the active CVs of a chunk of students inside the caller's transaction.
+     * Returns the number of CVs regenerated, unchanged and failed.
+     */
+    private int[] regenerateChunk(List<UUID> studentIds, ThreadPoolExecutor renderers) {
+        List<CV> cvs = cvRepository.findActiveWithStudentsByStudentIdIn(studentIds);
+        studentProfileRepository.fetchCertificationsByIdIn(studentIds);
+        studentProfileRepository.fetchExperiencesByIdIn(studentIds);
+
+        // Renderers only read the loaded profiles; nothing is loaded lazily off this thread
+        List<Callable<String>> renders = new ArrayList<>(cvs.size());
+        for (CV cv : cvs) {
+            StudentProfile student = cv.getStudent();
+            renders.add(() -> {
+                ByteArrayOutputStream html = new ByteArrayOutputStream(16384);
+                cvService.writeCVContent(student, html);
+                return html.toString(StandardCharsets.UTF_8);
+            });
+        }
+        List<Future<String>> rendered;
+        try {
+            rendered = renderers.invokeAll(renders);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("CV regeneration interrupted", e);
+        }
+
+        int regenerated = 0;
+        int same = 0;
+        // Students whose active CV no longer exists
+        int failed = studentIds.size() - cvs.size();
+        for (int i = 0; i < cvs.size(); i++) {
+            CV cv = cvs.get(i);
+            String html;
+            try {
+                html = rendered.get(i).get();
+            } catch (ExecutionException | InterruptedException e) {
+                // One student's failure should not stop the run
+                logger.warn("CV regeneration failed for CV {}: {}", cv.getId(), e.getMessage());
+                failed++;
+                continue;
+            }
+            if (html.equals(cv.getHtmlContent())) {
+                same++;
+                continue;
+            }
+            // Flushed as one batch of updates when the transaction commits
+            cv.setHtmlContent(html);
+            cv.setUpdatedAt(LocalDateTime.now());
+            regenerated++;
+        }
+
+        unchanged.addAndGet(same);
+        count("regenerated", regenerated);
+        count("unchanged", same);
+        count("failed", failed);
+        return new int[]{regenerated, same, failed};
+    }
+
+    private void count(String outcome, int cvs) {
+        Counter.builder("cv.regeneration")
+                .description("CVs processed by bulk regeneration, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(cvs);
+    }
+
+    public BatchJobStatusDto getStatus() {
+        BatchJobStatusDto status = runner.getStatus();
+        // Counted on this node since its last new run
+        status.getDetails().put("unchangedCVs", unchanged.get());
+        return status;
+    }
+}
@@ -1,21 +1,30 @@
 package com.ojtechapi.spring.jwtoauth.service.impl;
 
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.entities.*;
 import com.ojtechapi.spring.jwtoauth.repositories.*;
 import com.ojtechapi.spring.jwtoauth.service.interfaces.CVService;
 import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.resume.CVRevisionService;
+import com.ojtechapi.spring.jwtoauth.services.resume.HtmlOutput;
+import com.ojtechapi.spring.jwtoauth.services.resume.HtmlTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,32 +34,35 @@ public class CVServiceImpl implements CVService {
 
     private static final Logger logger = LoggerFactory.getLogger(CVServiceImpl.class);
 
+    private static final HtmlTemplate CV_TEMPLATE = HtmlTemplate.load("templates/resume/profile-cv.html", false);
+
     private final CVRepository cvRepository;
     private final StudentProfileRepository studentProfileRepository;
     private final CertificationRepository certificationRepository;
     private final WorkExperienceRepository workExperienceRepository;
     private final JobMatchService jobMatchService;
+    private final CVRevisionService cvRevisionService;
 
     @Autowired
     public CVServiceImpl(CVRepository cvRepository,
                         StudentProfileRepository studentProfileRepository,
                         CertificationRepository certificationRepository,
                         WorkExperienceRepository workExperienceRepository,
-                        JobMatchService jobMatchService) {
+                        JobMatchService jobMatchService,
+                        CVRevisionService cvRevisionService) {
         this.cvRepository = cvRepository;
         this.studentProfileRepository = studentProfileRepository;
         this.certificationRepository = certificationRepository;
         this.workExperienceRepository = workExperienceRepository;
         this.jobMatchService = jobMatchService;
+        this.cvRevisionService = cvRevisionService;
     }
 
     @Override
-    public List<CV> getCVsByStudent(UUID userId) {
-        Optional<StudentProfile> studentOpt = studentProfileRepository.findByUserId(userId);
-        if (studentOpt.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found");
-        }
-        return cvRepository.findByStudent(studentOpt.get());
+    public List<CVSummaryDto> getCVsByStudent(UUID userId) {
+        UUID studentId = studentProfileRepository.findIdByUserId(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found"));
+        return cvRepository.findSummariesByStudentId(studentId);
     }
 
     @Override
@@ -130,7 +142,10 @@ public class CVServiceImpl implements CVService {
     @Override
     public CV updateCVContent(UUID cvId, UUID userId, String content) {
         CV cv = getCVById(cvId, userId);
-        cv.setHtmlContent(content);
+        // Recorded as a revision; an autosave with nothing new writes nothing
+        if (!cvRevisionService.update(cv, content, cv.getParsedResume(), userId)) {
+            return cv;
+        }
         cv.setUpdatedAt(LocalDateTime.now());
         return cvRepository.save(cv);
     }
@@ -138,7 +153,9 @@ public class CVServiceImpl implements CVService {
     @Override
     public CV updateCVHtml(UUID cvId, UUID userId, String htmlContent) {
         CV cv = getCVById(cvId, userId);
-        cv.setHtmlContent(htmlContent);
+        if (!cvRevisionService.update(cv, htmlContent, cv.getParsedResume(), userId)) {
+            return cv;
+        }
         cv.setUpdatedAt(LocalDateTime.now());
         return cvRepository.save(cv);
     }
@@ -158,9 +175,7 @@ public class CVServiceImpl implements CVService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found");
         }
         
-        List<CV> cvs = cvRepository.findByStudent(studentOpt.get());
-        return cvs.stream()
-                .filter(CV::isActive)
+        return cvRepository.findByStudentAndActive(studentOpt.get(), true).stream()
                 .findFirst()
                 .orElse(null);
     }
@@ -347,361 +362,100 @@ public class CVServiceImpl implements CVService {
     @Override
     public String generateCVContent(StudentProfile studentProfile) {
         try {
-            String fullName = studentProfile.getFirstName() + " " + studentProfile.getLastName();
-            String title = getStudentTitle(studentProfile);
-            
-            StringBuilder html = new StringBuilder();
-            html.append("<!DOCTYPE html>\n");
-            html.append("<html lang=\"en\">\n");
-            html.append("<head>\n");
-            html.append("  <meta charset=\"UTF-8\">\n");
-            html.append("  <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n");
-            html.append("  <title>Resume - ").append(escapeHtml(fullName)).append("</title>\n");
-            html.append("  <style>\n");
-            html.append(getCVStyles());
-            html.append("  </style>\n");
-            html.append("</head>\n");
-            html.append("<body>\n");
-            html.append("  <div class=\"resume-container\">\n");
-            
-            // Header
-            html.append("    <header class=\"header\">\n");
-            html.append("      <h1>").append(escapeHtml(fullName)).append("</h1>\n");
-            html.append("      <h2>").append(escapeHtml(title)).append("</h2>\n");
-            html.append("    </header>\n");
-            
-            // Content Area
-            html.append("    <div class=\"content\">\n");
-            
-            // Left Column
-            html.append("      <div class=\"left-column\">\n");
-            html.append(renderContactSection(studentProfile));
-            html.append(renderSkillsSection(studentProfile));
-            html.append(renderEducationSection(studentProfile));
-            html.append(renderCertificationsSection(studentProfile));
-            html.append("      </div>\n");
-            
-            // Right Column
-            html.append("      <div class=\"right-column\">\n");
-            html.append(renderProfessionalSummary(studentProfile));
-            html.append(renderExperienceSection(studentProfile));
-            html.append(renderProjectsSection(studentProfile));
-            html.append("      </div>\n");
-            
-            html.append("    </div>\n");
-            html.append("  </div>\n");
-            html.append("</body>\n");
-            html.append("</html>");
-            
-            return html.toString();
+            return CV_TEMPLATE.render(cvModel(studentProfile));
         } catch (Exception e) {
             logger.error("Error generating CV HTML", e);
             return createErrorHtml(e);
         }
     }
-    
-    private String getStudentTitle(StudentProfile profile) {
-        if (profile.getExperiences() != null && !profile.getExperiences().isEmpty()) {
-            return profile.getExperiences().iterator().next().getTitle();
-        }
-        return profile.getMajor() != null ? profile.getMajor() + " Student" : "Professional";
-    }
-    
-    private String escapeHtml(String text) {
-        if (text == null) return "";
-        return text.replace("&", "&amp;")
-                   .replace("<", "&lt;")
-                   .replace(">", "&gt;")
-                   .replace("\"", "&quot;")
-                   .replace("'", "&#39;");
-    }
-    
-    private String getCVStyles() {
-        return """
-            * {
-              margin: 0;
-              padding: 0;
-              box-sizing: border-box;
-              font-family: 'Segoe UI', Arial, Helvetica, sans-serif;
-            }
-            
-            body {
-              background-color: #fff;
-              color: #333;
-              line-height: 1.6;
-              font-size: 10pt;
-              padding: 0;
-              margin: 0;
-            }
-            
-            @media print {
-              body {
-                width: 100%;
-                margin: 0;
-                padding: 0;
-                background-color: #fff;
-                -webkit-print-color-adjust: exact;
-                print-color-adjust: exact;
-              }
-              
-              .resume-container {
-                box-shadow: none;
-                border: none;
-              }
-            }
-            
-            .resume-container {
-              max-width: 8.5in;
-              margin: 0 auto;
-              background-color: #fff;
-              box-shadow: 0 2px 10px rgba(0, 0, 0, 0.1);
-            }
-            
-            .header {
-              background-color: #2a2a2a;
-              color: white;
-              padding: 30px;
-              text-align: center;
-            }
-            
-            .header h1 {
-              font-size: 24pt;
-              text-transform: uppercase;
-              letter-spacing: 2px;
-              margin-bottom: 5px;
-              font-weight: bold;
-            }
-            
-            .header h2 {
-              font-size: 14pt;
-              font-weight: normal;
-              text-transform: uppercase;
-              letter-spacing: 1px;
-            }
-            
-            .content {
-              display: flex;
-            }
-            
-            .left-column {
-              width: 30%;
-              padding: 20px;
-              background-color: #f8f8f8;
-              border-right: 1px solid #eee;
-            }
-            
-            .right-column {
-              width: 70%;
-              padding: 20px;
-            }
-            
-            .section {
-              margin-bottom: 20px;
-            }
-            
-            .section-title {
-              font-size: 12pt;
-              text-transform: uppercase;
-              border-bottom: 1px solid #ddd;
-              padding-bottom: 5px;
-              margin-bottom: 12px;
-              font-weight: bold;
-              color: #333;
-            }
-            
-            .social-item {
-              display: flex;
-              align-items: center;
-              margin-bottom: 6px;
-              font-size: 9pt;
-              word-break: break-all;
-            }
-            
-            .social-icon {
-              color: #2a2a2a;
-              margin-right: 8px;
-              min-width: 16px;
-            }
-            
-            ul {
-              list-style-type: disc;
-              padding-left: 18px;
-              margin-bottom: 10px;
-            }
-            
-            li {
-              margin-bottom: 6px;
-              font-size: 9pt;
-            }
-            
-            .exp-item, .project-item, .edu-item, .cert-item {
-              margin-bottom: 15px;
-            }
-            
-            .exp-item h4, .project-item h4 {
-              font-size: 11pt;
-              margin-bottom: 3px;
-            }
-            
-            .exp-meta, .project-meta {
-              font-size: 9pt;
-              color: #666;
-              margin-bottom: 6px;
-              font-style: italic;
-            }
-            
-            .summary-text {
-              font-size: 9pt;
-              margin-bottom: 10px;
-            }
-            """;
-    }
-    
-    private String renderContactSection(StudentProfile profile) {
-        StringBuilder html = new StringBuilder();
-        html.append("        <div class=\"section\">\n");
-        html.append("          <h3 class=\"section-title\">Contact</h3>\n");
-        html.append("          <div>\n");
-        
-        if (profile.getEmail() != null) {
-            html.append("            <p class=\"social-item\">✉ ").append(escapeHtml(profile.getEmail())).append("</p>\n");
-        }
-        if (profile.getPhoneNumber() != null) {
-            html.append("            <p class=\"social-item\">📞 ").append(escapeHtml(profile.getPhoneNumber())).append("</p>\n");
-        }
-        if (profile.getLocation() != null) {
-            html.append("            <p class=\"social-item\">📍 ").append(escapeHtml(profile.getLocation())).append("</p>\n");
-        }
-        if (profile.getLinkedinUrl() != null) {
-            html.append("            <p class=\"social-item\">💼 ").append(escapeHtml(profile.getLinkedinUrl())).append("</p>\n");
-        }
-        if (profile.getGithubUrl() != null) {
-            html.append("            <p class=\"social-item\">💻 ").append(escapeHtml(profile.getGithubUrl())).append("</p>\n");
-        }
-        if (profile.getPortfolioUrl() != null) {
-            html.append("            <p class=\"social-item\">🌐 ").append(escapeHtml(profile.getPortfolioUrl())).append("</p>\n");
-        }
-        
-        html.append("          </div>\n");
-        html.append("        </div>\n");
-        return html.toString();
+
+    /**
+     * Streams the CV for a profile to out, without building it as a String first. Rendering
+     * needs no transaction, so the profile must be fully loaded; this lets bulk regeneration
+     * render on many threads without taking a connection each.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void writeCVContent(StudentProfile studentProfile, OutputStream out) throws IOException {
+        CV_TEMPLATE.render(cvModel(studentProfile), out);
     }
-    
-    private String renderSkillsSection(StudentProfile profile) {
-        StringBuilder html = new StringBuilder();
-        html.append("        <div class=\"section\">\n");
-        html.append("          <h3 class=\"section-title\">Skills</h3>\n");
-        
+
+    /**
+     * The values templates/resume/profile-cv.html renders. Every key is present, null when
+     * the section or line is left out, so nested lookups never fall back to outer values.
+     */
+    private Map<String, Object> cvModel(StudentProfile profile) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("fullName", profile.getFirstName() + " " + profile.getLastName());
+        model.put("title", getStudentTitle(profile));
+
+        model.put("email", profile.getEmail());
+        model.put("phoneNumber", profile.getPhoneNumber());
+        model.put("location", profile.getLocation());
+        model.put("linkedinUrl", profile.getLinkedinUrl());
+        model.put("githubUrl", profile.getGithubUrl());
+        model.put("portfolioUrl", profile.getPortfolioUrl());
+
         if (profile.getSkills() != null && !profile.getSkills().isEmpty()) {
-            String[] skills = profile.getSkills().split(",");
-            html.append("          <ul>\n");
-            for (String skill : skills) {
-                html.append("            <li>").append(escapeHtml(skill.trim())).append("</li>\n");
+            List<String> skills = new ArrayList<>();
+            for (String skill : profile.getSkills().split(",")) {
+                skills.add(skill.trim());
             }
-            html.append("          </ul>\n");
+            model.put("skills", Map.of("items", skills));
         } else {
-            html.append("          <p>No skills listed</p>\n");
+            model.put("skills", null);
         }
-        
-        html.append("        </div>\n");
-        return html.toString();
-    }
-    
-    private String renderEducationSection(StudentProfile profile) {
-        StringBuilder html = new StringBuilder();
-        html.append("        <div class=\"section\">\n");
-        html.append("          <h3 class=\"section-title\">Education</h3>\n");
-        html.append("          <div class=\"edu-item\">\n");
-        html.append("            <h4>").append(escapeHtml(profile.getUniversity() != null ? profile.getUniversity() : "University")).append("</h4>\n");
-        html.append("            <p>").append(escapeHtml(profile.getMajor() != null ? profile.getMajor() : "Degree")).append("</p>\n");
-        if (profile.getGraduationYear() != null) {
-            html.append("            <p>").append(profile.getGraduationYear()).append("</p>\n");
-        }
-        html.append("          </div>\n");
-        html.append("        </div>\n");
-        return html.toString();
-    }
-    
-    private String renderCertificationsSection(StudentProfile profile) {
-        if (profile.getCertifications() == null || profile.getCertifications().isEmpty()) {
-            return "";
-        }
-        
-        StringBuilder html = new StringBuilder();
-        html.append("        <div class=\"section\">\n");
-        html.append("          <h3 class=\"section-title\">Certifications</h3>\n");
-        
-        for (Certification cert : profile.getCertifications()) {
-            html.append("          <div class=\"cert-item\">\n");
-            html.append("            <h4>").append(escapeHtml(cert.getName())).append("</h4>\n");
-            html.append("            <p>").append(escapeHtml(cert.getIssuer()));
-            if (cert.getDateReceived() != null) {
-                html.append(" (").append(cert.getDateReceived()).append(")");
+
+        model.put("university", profile.getUniversity() != null ? profile.getUniversity() : "University");
+        model.put("major", profile.getMajor() != null ? profile.getMajor() : "Degree");
+        model.put("graduationYear", profile.getGraduationYear());
+
+        if (profile.getCertifications() != null && !profile.getCertifications().isEmpty()) {
+            List<Map<String, Object>> certifications = new ArrayList<>();
+            for (Certification cert : profile.getCertifications()) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("name", cert.getName());
+                item.put("issuer", cert.getIssuer());
+                item.put("dateReceived", cert.getDateReceived());
+                certifications.add(item);
             }
-            html.append("</p>\n");
-            html.append("          </div>\n");
-        }
-        
-        html.append("        </div>\n");
-        return html.toString();
-    }
-    
-    private String renderProfessionalSummary(StudentProfile profile) {
-        if (profile.getBio() == null || profile.getBio().trim().isEmpty()) {
-            return "";
+            model.put("certifications", Map.of("items", certifications));
+        } else {
+            model.put("certifications", null);
         }
-        
-        StringBuilder html = new StringBuilder();
-        html.append("        <div class=\"section\">\n");
-        html.append("          <h3 class=\"section-title\">Professional Summary</h3>\n");
-        html.append("          <p class=\"summary-text\">").append(escapeHtml(profile.getBio())).append("</p>\n");
-        html.append("        </div>\n");
-        return html.toString();
-    }
-    
-    private String renderExperienceSection(StudentProfile profile) {
-        StringBuilder html = new StringBuilder();
-        html.append("        <div class=\"section\">\n");
-        html.append("          <h3 class=\"section-title\">Experience</h3>\n");
-        
-        if (profile.getExperiences() != null && !profile.getExperiences().isEmpty()) {
+
+        model.put("bio", profile.getBio() != null && !profile.getBio().trim().isEmpty() ? profile.getBio() : null);
+
+        List<Map<String, Object>> experiences = new ArrayList<>();
+        if (profile.getExperiences() != null) {
             for (WorkExperience exp : profile.getExperiences()) {
-                html.append("          <div class=\"exp-item\">\n");
-                html.append("            <h4>").append(escapeHtml(exp.getTitle())).append(" at ").append(escapeHtml(exp.getCompany())).append("</h4>\n");
-                html.append("            <p class=\"exp-meta\">");
-                
                 String dateRange = "";
                 if (exp.getStartDate() != null) {
-                    dateRange = exp.getStartDate().toString();
-                    if (exp.getEndDate() != null) {
-                        dateRange += " - " + exp.getEndDate().toString();
-                    } else {
-                        dateRange += " - Present";
-                    }
-                }
-                html.append(dateRange);
-                
-                if (exp.getLocation() != null) {
-                    html.append(" | ").append(escapeHtml(exp.getLocation()));
-                }
-                html.append("</p>\n");
-                
-                if (exp.getDescription() != null && !exp.getDescription().trim().isEmpty()) {
-                    html.append("            <p>").append(escapeHtml(exp.getDescription())).append("</p>\n");
+                    dateRange = exp.getStartDate() + " - " + (exp.getEndDate() != null ? exp.getEndDate().toString() : "Present");
                 }
-                html.append("          </div>\n");
+                Map<String, Object> item = new HashMap<>();
+                item.put("title", exp.getTitle());
+                item.put("company", exp.getCompany());
+                item.put("dateRange", dateRange);
+                item.put("location", exp.getLocation());
+                item.put("description", exp.getDescription() != null && !exp.getDescription().trim().isEmpty()
+                        ? exp.getDescription() : null);
+                experiences.add(item);
             }
-        } else {
-            html.append("          <p>No experience listed</p>\n");
         }
-        
-        html.append("        </div>\n");
-        return html.toString();
+        model.put("experiences", experiences);
+        return model;
+    }
+    
+    private String getStudentTitle(StudentProfile profile) {
+        if (profile.getExperiences() != null && !profile.getExperiences().isEmpty()) {
+            return profile.getExperiences().iterator().next().getTitle();
+        }
+        return profile.getMajor() != null ? profile.getMajor() + " Student" : "Professional";
     }
     
-    private String renderProjectsSection(StudentProfile profile) {
-        // Projects section can be extended in the future if needed
-        return "";
+    private String escapeHtml(String text) {
+        return HtmlOutput.escape(text);
     }
     
     private String createErrorHtml(Exception error) {
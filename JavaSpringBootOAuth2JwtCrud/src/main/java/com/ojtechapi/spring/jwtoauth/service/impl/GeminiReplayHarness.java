@@ -0,0 +1,286 @@
+package com.ojtechapi.spring.jwtoauth.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
+import com.ojtechapi.spring.jwtoauth.repositories.JobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.llm.AnalysisMemo;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiReplayStore;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the matching pipeline against recorded Gemini traffic ({@link GeminiReplayStore})
+ * to tune concurrency and caching without network access. Every student found in the
+ * recordings is re-matched (recalculate + new matches) on a pool of
+ * gemini.replay.concurrency threads, and a JSON report is written to
+ * gemini.replay.report-dir with:
+ *
+ * - throughput (students per minute, Gemini calls per second)
+ * - p50/p95/p99 latency per student and per Gemini call (including scheduler wait)
+ * - analysis memo hit rate and replay hits/misses
+ * - score drift against a baseline report from another pipeline version
+ *
+ * Run it with gemini.replay.path set, either on startup (gemini.replay.run-on-startup)
+ * or through POST /api/admin/llm/replay. It writes match scores, so point it at a
+ * scratch copy of the database.
+ */
+@Service
+public class GeminiReplayHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiReplayHarness.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Autowired
+    private GeminiReplayStore replayStore;
+
+    @Autowired
+    private AnalysisMemo analysisMemo;
+
+    @Autowired
+    private JobMatchService jobMatchService;
+
+    @Autowired
+    private JobMatchRepository jobMatchRepository;
+
+    @Value("${gemini.replay.concurrency:4}")
+    private int defaultConcurrency;
+
+    @Value("${gemini.replay.report-dir:replay-reports}")
+    private String reportDir;
+
+    @Value("${gemini.replay.baseline:}")
+    private String defaultBaseline;
+
+    @Value("${gemini.replay.run-on-startup:false}")
+    private boolean runOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void runOnStartup() {
+        if (runOnStartup && replayStore.isActive()) {
+            run(defaultConcurrency, defaultBaseline);
+        }
+    }
+
+    public boolean isAvailable() {
+        return replayStore.isActive();
+    }
+
+    /**
+     * Replays all recorded students and returns the report, which is also written to disk.
+     *
+     * @param concurrency students processed in parallel
+     * @param baselinePath earlier report to compute score drift against, or blank
+     */
+    public synchronized Map<String, Object> run(int concurrency, String baselinePath) {
+        if (!replayStore.isActive()) {
+            throw new IllegalStateException("Replay is not active: set gemini.replay.path");
+        }
+        List<String> studentIds = replayStore.getStudentIds();
+        logger.info("Replay run over {} students with concurrency {}", studentIds.size(), concurrency);
+
+        // Start from a cold memo so hit rates are comparable between runs
+        analysisMemo.clear();
+        long memoHitsBefore = analysisMemo.getHitCount();
+        long memoMissesBefore = analysisMemo.getMissCount();
+        long servedBefore = replayStore.getServedCount();
+        long missesBefore = replayStore.getMissCount();
+        replayStore.drainCallLatencies();
+
+        Map<String, Map<String, Double>> scores = new ConcurrentHashMap<>();
+        List<Long> studentLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        long start = System.nanoTime();
+        for (String id : studentIds) {
+            pool.execute(() -> {
+                UUID studentId = UUID.fromString(id);
+                long studentStart = System.nanoTime();
+                try {
+                    LlmRequestContext.run(LlmLane.BATCH, studentId, () -> {
+                        jobMatchService.recalculateMatchesForStudent(studentId);
+                        jobMatchService.matchStudent(studentId, null);
+                    });
+                    studentLatencies.add(System.nanoTime() - studentStart);
+                    scores.put(id, currentScores(studentId));
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.warn("Replay failed for student {}: {}", id, e.getMessage());
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long served = replayStore.getServedCount() - servedBefore;
+        long replayMisses = replayStore.getMissCount() - missesBefore;
+        long memoHits = analysisMemo.getHitCount() - memoHitsBefore;
+        long memoMisses = analysisMemo.getMissCount() - memoMissesBefore;
+        double elapsedSeconds = Math.max(elapsedNanos / 1e9, 1e-9);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("runAt", LocalDateTime.now().toString());
+        report.put("concurrency", concurrency);
+        report.put("students", studentIds.size());
+        report.put("failedStudents", failed.get());
+        report.put("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("studentsPerMinute", round(studentLatencies.size() * 60.0 / elapsedSeconds));
+        throughput.put("geminiCallsPerSecond", round((served + replayMisses) / elapsedSeconds));
+        report.put("throughput", throughput);
+
+        List<Long> sortedStudentLatencies = new ArrayList<>(studentLatencies);
+        Collections.sort(sortedStudentLatencies);
+        report.put("studentLatencyMs", percentiles(sortedStudentLatencies));
+        report.put("callLatencyMs", percentiles(replayStore.drainCallLatencies()));
+
+        Map<String, Object> memo = new LinkedHashMap<>();
+        memo.put("hits", memoHits);
+        memo.put("misses", memoMisses);
+        memo.put("hitRate", memoHits + memoMisses == 0 ? 0.0 : round((double) memoHits / (memoHits + memoMisses)));
+        report.put("analysisMemo", memo);
+
+        Map<String, Object> replay = new LinkedHashMap<>();
+        replay.put("served", served);
+        replay.put("misses", replayMisses);
+        report.put("replay", replay);
+
+        if (baselinePath != null && !baselinePath.isBlank()) {
+            report.put("scoreDrift", scoreDrift(scores, baselinePath));
+        }
+        report.put("scores", scores);
+
+        Path written = writeReport(report);
+        logger.info("Replay finished in {} ms: {} students/min, memo hit rate {}, report {}",
+                report.get("durationMs"), throughput.get("studentsPerMinute"), memo.get("hitRate"), written);
+        return report;
+    }
+
+    private Map<String, Double> currentScores(UUID studentId) {
+        Map<String, Double> byJob = new LinkedHashMap<>();
+        for (JobMatch match : jobMatchRepository.findByStudentIdOrderByMatchScoreDesc(studentId)) {
+            byJob.put(match.getJob().getId().toString(), match.getMatchScore());
+        }
+        return byJob;
+    }
+
+    /**
+     * Compares scores of (student, job) pairs present in both runs.
+     */
+    private Map<String, Object> scoreDrift(Map<String, Map<String, Double>> scores, String baselinePath) {
+        Map<String, Object> drift = new LinkedHashMap<>();
+        drift.put("baseline", baselinePath);
+        JsonNode baseline;
+        try {
+            baseline = OBJECT_MAPPER.readTree(Paths.get(baselinePath).toFile()).path("scores");
+        } catch (IOException e) {
+            drift.put("error", "Cannot read baseline: " + e.getMessage());
+            return drift;
+        }
+
+        int compared = 0;
+        int changed = 0;
+        int missing = 0;
+        double totalAbs = 0;
+        double maxAbs = 0;
+        for (Iterator<Map.Entry<String, JsonNode>> students = baseline.fields(); students.hasNext(); ) {
+            Map.Entry<String, JsonNode> student = students.next();
+            Map<String, Double> current = scores.getOrDefault(student.getKey(), Map.of());
+            for (Iterator<Map.Entry<String, JsonNode>> jobs = student.getValue().fields(); jobs.hasNext(); ) {
+                Map.Entry<String, JsonNode> job = jobs.next();
+                Double now = current.get(job.getKey());
+                if (now == null || job.getValue().isNull()) {
+                    missing++;
+                    continue;
+                }
+                double diff = Math.abs(now - job.getValue().asDouble());
+                compared++;
+                totalAbs += diff;
+                maxAbs = Math.max(maxAbs, diff);
+                if (diff >= 5.0) {
+                    changed++;
+                }
+            }
+        }
+        drift.put("pairsCompared", compared);
+        drift.put("pairsMissing", missing);
+        drift.put("meanAbsDrift", compared == 0 ? 0.0 : round(totalAbs / compared));
+        drift.put("maxAbsDrift", round(maxAbs));
+        drift.put("pairsDriftedBy5OrMore", changed);
+        return drift;
+    }
+
+    private Path writeReport(Map<String, Object> report) {
+        try {
+            Path dir = Paths.get(reportDir);
+            Files.createDirectories(dir);
+            Path file = dir.resolve("replay-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+            OBJECT_MAPPER.writeValue(file.toFile(), report);
+            report.put("reportFile", file.toString());
+            return file;
+        } catch (IOException e) {
+            logger.error("Failed to write replay report: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Object> percentiles(List<Long> sortedNanos) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sortedNanos.size());
+        if (sortedNanos.isEmpty()) {
+            return result;
+        }
+        result.put("p50", percentile(sortedNanos, 0.50));
+        result.put("p95", percentile(sortedNanos, 0.95));
+        result.put("p99", percentile(sortedNanos, 0.99));
+        result.put("max", TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(sortedNanos.size() - 1)));
+        return result;
+    }
+
+    private static long percentile(List<Long> sortedNanos, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedNanos.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(Math.max(0, index)));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,263 @@
+package com.ojtechapi.spring.jwtoauth.service.impl;
+
+import com.ojtechapi.spring.jwtoauth.dtos.admin.BatchJobStatusDto;
+import com.ojtechapi.spring.jwtoauth.entities.ApplicationStatus;
+import com.ojtechapi.spring.jwtoauth.entities.ArchivedJob;
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobCheckpoint;
+import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
+import com.ojtechapi.spring.jwtoauth.repositories.ArchivedJobApplicationRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.ArchivedJobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.ArchivedJobRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.BatchJobCheckpointRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobApplicationRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.PrunedJobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.services.batch.CheckpointedJobRunner;
+import com.ojtechapi.spring.jwtoauth.services.ranking.JobCandidateRanking;
+import com.ojtechapi.spring.jwtoauth.services.similarity.SimilarJobIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves jobs that have been inactive longer than archive.jobs.inactive-days out of the hot
+ * tables. A job is archived together with its matches and applications into jobs_archive,
+ * job_matches_archive and job_applications_archive. Each chunk of jobs is copied with
+ * INSERT ... SELECT and deleted in one transaction, so a job is always either live or
+ * archived. The job cursor is saved to {@link BatchJobCheckpoint} after each chunk by a
+ * {@link CheckpointedJobRunner}.
+ *
+ * Only jobs whose applications are all closed (rejected or accepted) are archived. Jobs
+ * with admin records (metadata, moderation, audit trail, categories, metrics) are also left
+ * alone, because those tables reference jobs and are kept as history.
+ *
+ * Archived rows are read-only. {@link #restore} moves a job and its rows back; the
+ * restored job stays inactive and gets a fresh updated_at, so it is not archived again
+ * straight away.
+ */
+@Service
+public class JobArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobArchiveService.class);
+
+    public static final String JOB_NAME = "job-archive";
+
+    static final Set<ApplicationStatus> CLOSED_STATUSES = EnumSet.of(ApplicationStatus.REJECTED,
+            ApplicationStatus.ACCEPTED);
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    @Autowired
+    private JobMatchRepository jobMatchRepository;
+
+    @Autowired
+    private PrunedJobMatchRepository prunedJobMatchRepository;
+
+    @Autowired
+    private ArchivedJobRepository archivedJobRepository;
+
+    @Autowired
+    private ArchivedJobApplicationRepository archivedJobApplicationRepository;
+
+    @Autowired
+    private ArchivedJobMatchRepository archivedJobMatchRepository;
+
+    @Autowired
+    private JobCandidateRanking jobCandidateRanking;
+
+    @Autowired
+    private SimilarJobIndex similarJobIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${archive.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.jobs.inactive-days:180}")
+    private int inactiveDays;
+
+    @Value("${archive.jobs.chunk-size:20}")
+    private int chunkSize;
+
+    @Value("${archive.jobs.stale-claim-minutes:15}")
+    private long staleClaimMinutes;
+
+    private CheckpointedJobRunner runner;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        runner = new CheckpointedJobRunner(JOB_NAME, "Job archive", checkpointRepository, staleClaimMinutes);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${archive.jobs.cron:0 0 6 * * SUN}", zone = "${matching.rematch.zone:Asia/Manila}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        run(false);
+    }
+
+    /**
+     * Starts or resumes a run in the background on admin request
+     */
+    @Async
+    public void startManually(boolean newRun) {
+        run(newRun);
+    }
+
+    public boolean isRunning() {
+        return runner.isRunning();
+    }
+
+    void run(boolean forceNewRun) {
+        runner.run(forceNewRun, new ArchiveRun(LocalDateTime.now().minusDays(inactiveDays)));
+    }
+
+    private class ArchiveRun implements CheckpointedJobRunner.Job {
+
+        private final LocalDateTime cutoff;
+
+        ArchiveRun(LocalDateTime cutoff) {
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        public long countItems() {
+            return jobRepository.countInactiveSince(cutoff);
+        }
+
+        @Override
+        public List<UUID> nextChunk(UUID after) {
+            return after == null
+                    ? jobRepository.findArchivableIds(cutoff, CLOSED_STATUSES, PageRequest.of(0, chunkSize))
+                    : jobRepository.findArchivableIdsAfter(cutoff, CLOSED_STATUSES, after,
+                            PageRequest.of(0, chunkSize));
+        }
+
+        @Override
+        public void processChunk(List<UUID> chunk, BatchJobCheckpoint checkpoint) {
+            archiveChunk(chunk);
+            checkpoint.setProcessedItems(checkpoint.getProcessedItems() + chunk.size());
+            checkpoint.setLastProcessedId(chunk.get(chunk.size() - 1));
+        }
+    }
+
+    private void archiveChunk(List<UUID> jobIds) {
+        LocalDateTime archivedAt = LocalDateTime.now();
+        int[] moved = transactionTemplate.execute(status -> {
+            int jobs = archivedJobRepository.copyFromJobs(jobIds, archivedAt);
+            int applications = archivedJobApplicationRepository.copyFromApplications(jobIds, archivedAt);
+            int matches = archivedJobMatchRepository.copyFromMatches(jobIds, archivedAt);
+            jobMatchRepository.deleteByJobIds(jobIds);
+            jobApplicationRepository.deleteByJobIds(jobIds);
+            prunedJobMatchRepository.deleteByJobIds(jobIds);
+            jobRepository.deleteByIds(jobIds);
+            return new int[]{jobs, applications, matches};
+        });
+        // Bulk statements bypass the entity listeners
+        for (UUID jobId : jobIds) {
+            jobCandidateRanking.invalidate(jobId);
+            similarJobIndex.remove(jobId);
+        }
+        countArchived("jobs", moved[0]);
+        countArchived("applications", moved[1]);
+        countArchived("matches", moved[2]);
+        logger.debug("Archived {} jobs with {} applications and {} matches", moved[0], moved[1], moved[2]);
+    }
+
+    private void countArchived(String table, int rows) {
+        Counter.builder("archive.rows")
+                .description("Rows moved to the archive tables")
+                .tag("table", table)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    /**
+     * Moves an archived job with its applications and matches back into the live tables.
+     *
+     * @throws ResourceNotFoundException if the job is not archived
+     * @throws IllegalStateException if a row cannot be restored, e.g. the student or CV of
+     *         an application was deleted in the meantime
+     */
+    public Map<String, Object> restore(UUID jobId) {
+        if (!archivedJobRepository.existsById(jobId)) {
+            throw new ResourceNotFoundException("Archived job not found: " + jobId);
+        }
+        try {
+            Map<String, Object> result = transactionTemplate.execute(status -> {
+                Map<String, Object> restored = new LinkedHashMap<>();
+                restored.put("jobId", jobId);
+                restored.put("jobs", archivedJobRepository.copyToJobs(jobId));
+                restored.put("applications", archivedJobApplicationRepository.copyToApplications(jobId));
+                restored.put("matches", archivedJobMatchRepository.copyToMatches(jobId));
+                archivedJobMatchRepository.deleteArchivedByJobId(jobId);
+                archivedJobApplicationRepository.deleteArchivedByJobId(jobId);
+                archivedJobRepository.deleteArchived(jobId);
+                jobRepository.touch(jobId, LocalDateTime.now());
+                return restored;
+            });
+            jobCandidateRanking.invalidate(jobId);
+            logger.info("Restored archived job {}: {}", jobId, result);
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Archived job " + jobId + " cannot be restored: "
+                    + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * An archived job with its applications and best matches
+     */
+    public Map<String, Object> getArchivedJob(UUID jobId, int matchLimit) {
+        ArchivedJob job = archivedJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived job not found: " + jobId));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("job", job);
+        result.put("applications", archivedJobApplicationRepository.findByJobIdOrderByAppliedAtDesc(jobId));
+        result.put("matchCount", archivedJobMatchRepository.countByJobId(jobId));
+        result.put("matches", archivedJobMatchRepository.findByJobIdOrderByMatchScoreDesc(jobId,
+                PageRequest.of(0, matchLimit)));
+        return result;
+    }
+
+    public BatchJobStatusDto getStatus() {
+        BatchJobStatusDto status = runner.getStatus();
+        status.getDetails().put("inactiveDays", inactiveDays);
+        status.getDetails().put("archivedJobsTotal", archivedJobRepository.count());
+        return status;
+    }
+}
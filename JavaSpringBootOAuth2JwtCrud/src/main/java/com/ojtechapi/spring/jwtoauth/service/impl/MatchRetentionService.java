@@ -0,0 +1,288 @@
+package com.ojtechapi.spring.jwtoauth.service.impl;
+
+import com.ojtechapi.spring.jwtoauth.dtos.admin.BatchJobStatusDto;
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobCheckpoint;
+import com.ojtechapi.spring.jwtoauth.entities.PrunedJobMatch;
+import com.ojtechapi.spring.jwtoauth.repositories.BatchJobCheckpointRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobApplicationRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.PrunedJobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.services.batch.CheckpointedJobRunner;
+import com.ojtechapi.spring.jwtoauth.services.ranking.JobCandidateRanking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps job_matches small. A run has two phases:
+ *
+ * - inactive jobs: matches of jobs inactive since before matching.retention.inactive-job-days
+ *   are deleted, job by job in chunks, together with their pruned-match markers
+ * - per student: only the best matching.retention.keep-per-student matches are kept;
+ *   lower-ranked ones are deleted and a {@link PrunedJobMatch} marker is left so matching
+ *   does not score the pair again until the student's profile or active CV changes
+ *
+ * Matches the student viewed or applied to are never deleted. Every delete is its own
+ * short transaction; the student cursor and counters are saved to {@link BatchJobCheckpoint}
+ * after each chunk by a {@link CheckpointedJobRunner}, so an interrupted run resumes where
+ * it stopped.
+ */
+@Service
+public class MatchRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchRetentionService.class);
+
+    public static final String JOB_NAME = "match-retention";
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JobMatchRepository jobMatchRepository;
+
+    @Autowired
+    private PrunedJobMatchRepository prunedJobMatchRepository;
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    @Autowired
+    private JobCandidateRanking jobCandidateRanking;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${matching.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.retention.keep-per-student:200}")
+    private int keepPerStudent;
+
+    @Value("${matching.retention.inactive-job-days:30}")
+    private int inactiveJobDays;
+
+    @Value("${matching.retention.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${matching.retention.job-chunk-size:50}")
+    private int jobChunkSize;
+
+    @Value("${matching.retention.delete-batch-size:500}")
+    private int deleteBatchSize;
+
+    @Value("${matching.retention.stale-claim-minutes:15}")
+    private long staleClaimMinutes;
+
+    private final AtomicLong inactiveJobMatchesDeleted = new AtomicLong();
+    private final AtomicLong rankedOutMatchesDeleted = new AtomicLong();
+
+    private CheckpointedJobRunner runner;
+    private TransactionTemplate transactionTemplate;
+    private Counter inactiveJobCounter;
+    private Counter rankedOutCounter;
+
+    @PostConstruct
+    void init() {
+        runner = new CheckpointedJobRunner(JOB_NAME, "Match retention", checkpointRepository, staleClaimMinutes);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        inactiveJobCounter = deletedCounter("inactive_job");
+        rankedOutCounter = deletedCounter("ranked_out");
+    }
+
+    private Counter deletedCounter(String reason) {
+        return Counter.builder("match.retention.deleted")
+                .description("Job matches removed by retention")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${matching.retention.cron:0 30 5 * * *}", zone = "${matching.rematch.zone:Asia/Manila}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        run(false);
+    }
+
+    /**
+     * Starts or resumes a run in the background on admin request
+     */
+    @Async
+    public void startManually(boolean newRun) {
+        run(newRun);
+    }
+
+    public boolean isRunning() {
+        return runner.isRunning();
+    }
+
+    void run(boolean forceNewRun) {
+        runner.run(forceNewRun, new RetentionRun());
+    }
+
+    private class RetentionRun implements CheckpointedJobRunner.Job {
+
+        @Override
+        public long countItems() {
+            return jobMatchRepository.countStudentsWithMatches();
+        }
+
+        @Override
+        public List<UUID> nextChunk(UUID after) {
+            return after == null
+                    ? jobMatchRepository.findStudentIdsWithMatches(PageRequest.of(0, chunkSize))
+                    : jobMatchRepository.findStudentIdsWithMatchesAfter(after, PageRequest.of(0, chunkSize));
+        }
+
+        @Override
+        public void onStart(BatchJobCheckpoint checkpoint, boolean newRun) {
+            if (newRun) {
+                inactiveJobMatchesDeleted.set(0);
+                rankedOutMatchesDeleted.set(0);
+            }
+            // The inactive-job phase runs until the first student chunk is saved
+            if (checkpoint.getLastProcessedId() == null) {
+                pruneInactiveJobs();
+            }
+        }
+
+        @Override
+        public void processChunk(List<UUID> chunk, BatchJobCheckpoint checkpoint) {
+            for (UUID studentId : chunk) {
+                try {
+                    pruneStudent(studentId);
+                    checkpoint.setProcessedItems(checkpoint.getProcessedItems() + 1);
+                } catch (RuntimeException e) {
+                    logger.warn("Match retention failed for student {}: {}", studentId, e.getMessage());
+                    checkpoint.setFailedItems(checkpoint.getFailedItems() + 1);
+                }
+                checkpoint.setLastProcessedId(studentId);
+            }
+        }
+
+        @Override
+        public void onCompleted(BatchJobCheckpoint checkpoint) {
+            logger.info("Match retention deleted {} matches of inactive jobs and {} ranked-out matches",
+                    inactiveJobMatchesDeleted.get(), rankedOutMatchesDeleted.get());
+        }
+    }
+
+    /**
+     * Deletes the matches of jobs inactive since before the cutoff, one chunk of jobs per
+     * transaction. Viewed and applied matches stay, so jobs are walked by id.
+     */
+    private void pruneInactiveJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(inactiveJobDays);
+        UUID after = null;
+        while (true) {
+            List<UUID> jobIds = after == null
+                    ? jobMatchRepository.findInactiveJobIdsWithMatches(cutoff, PageRequest.of(0, jobChunkSize))
+                    : jobMatchRepository.findInactiveJobIdsWithMatchesAfter(cutoff, after,
+                            PageRequest.of(0, jobChunkSize));
+            if (jobIds.isEmpty()) {
+                break;
+            }
+            int deleted = jobMatchRepository.deleteUnprotectedByJobIds(jobIds);
+            inactiveJobMatchesDeleted.addAndGet(deleted);
+            inactiveJobCounter.increment(deleted);
+            jobIds.forEach(jobCandidateRanking::invalidate);
+            after = jobIds.get(jobIds.size() - 1);
+            runner.heartbeat();
+        }
+        int markers = prunedJobMatchRepository.deleteForJobsInactiveSince(cutoff);
+        logger.info("Match retention: {} matches of jobs inactive since {} deleted, {} markers dropped",
+                inactiveJobMatchesDeleted.get(), cutoff.toLocalDate(), markers);
+    }
+
+    /**
+     * Deletes the student's matches ranked below keepPerStudent that were neither viewed
+     * nor applied to, leaving a marker for each.
+     */
+    private void pruneStudent(UUID studentId) {
+        if (jobMatchRepository.countByStudentId(studentId) <= keepPerStudent) {
+            return;
+        }
+        List<Object[]> ranked = jobMatchRepository.findRankedRowsByStudentId(studentId);
+        Set<UUID> appliedJobIds = new HashSet<>(jobApplicationRepository.findJobIdsByStudentId(studentId));
+        Set<UUID> markedJobIds = new HashSet<>(prunedJobMatchRepository.findJobIdsByStudentId(studentId));
+
+        List<UUID> matchIds = new ArrayList<>();
+        List<UUID> jobIds = new ArrayList<>();
+        Map<UUID, PrunedJobMatch> markers = new HashMap<>();
+        for (int i = keepPerStudent; i < ranked.size(); i++) {
+            Object[] row = ranked.get(i);
+            UUID jobId = (UUID) row[1];
+            if (Boolean.TRUE.equals(row[3]) || appliedJobIds.contains(jobId)) {
+                continue;
+            }
+            matchIds.add((UUID) row[0]);
+            jobIds.add(jobId);
+            if (markedJobIds.add(jobId)) {
+                markers.put(jobId, new PrunedJobMatch(studentId, jobId, (Double) row[2]));
+            }
+        }
+
+        for (int from = 0; from < matchIds.size(); from += deleteBatchSize) {
+            int to = Math.min(matchIds.size(), from + deleteBatchSize);
+            List<UUID> batch = matchIds.subList(from, to);
+            List<UUID> batchJobIds = jobIds.subList(from, to);
+            List<PrunedJobMatch> batchMarkers = new ArrayList<>();
+            List<UUID> remarkedJobIds = new ArrayList<>();
+            for (UUID jobId : batchJobIds) {
+                PrunedJobMatch marker = markers.remove(jobId);
+                if (marker != null) {
+                    batchMarkers.add(marker);
+                } else {
+                    remarkedJobIds.add(jobId);
+                }
+            }
+            Integer deleted = transactionTemplate.execute(status -> {
+                prunedJobMatchRepository.saveAll(batchMarkers);
+                if (!remarkedJobIds.isEmpty()) {
+                    // Marked before and scored again since: the marker dates from this pruning
+                    prunedJobMatchRepository.refreshPrunedAt(studentId, remarkedJobIds, LocalDateTime.now());
+                }
+                return jobMatchRepository.deleteUnprotectedByIds(batch);
+            });
+            rankedOutMatchesDeleted.addAndGet(deleted);
+            rankedOutCounter.increment(deleted);
+            // Bulk deletes bypass the entity listener
+            for (UUID jobId : batchJobIds) {
+                jobCandidateRanking.onMatchRemoved(jobId, studentId);
+            }
+        }
+    }
+
+    public BatchJobStatusDto getStatus() {
+        BatchJobStatusDto status = runner.getStatus();
+        status.getDetails().put("keepPerStudent", keepPerStudent);
+        status.getDetails().put("inactiveJobDays", inactiveJobDays);
+        // Counted on this node since its last new run
+        status.getDetails().put("inactiveJobMatchesDeleted", inactiveJobMatchesDeleted.get());
+        status.getDetails().put("rankedOutMatchesDeleted", rankedOutMatchesDeleted.get());
+        return status;
+    }
+}
@@ -1,6 +1,8 @@
 package com.ojtechapi.spring.jwtoauth.service.impl;
 
-import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskType;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.queue.MatchTaskQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +13,7 @@ import java.util.UUID;
 
 /**
  * Service to handle background processing of profile update events.
- * This service executes job match recalculation asynchronously
+ * Job match recalculation is handed to the match task queue
  * to avoid blocking the profile update HTTP request.
  * 
  * Note: CV generation is handled on the frontend using resumeHtmlGenerator.js
@@ -22,22 +24,21 @@ public class ProfileUpdateEventService {
     private static final Logger logger = LoggerFactory.getLogger(ProfileUpdateEventService.class);
 
     @Autowired
-    private JobMatchService jobMatchService;
+    private MatchTaskQueue matchTaskQueue;
 
     /**
-     * Asynchronously recalculates job match scores for the student after profile update.
-     * This updates existing job matches with new scores based on the updated profile.
+     * Queues recalculation of the student's job match scores after a profile update.
+     * The work runs on a match queue worker (any node), so it survives restarts and
+     * repeated saves before the task starts are coalesced into one recalculation.
      * 
      * @param studentId The ID of the student whose job matches should be recalculated
      */
-    @Async
     public void recalculateJobMatches(UUID studentId) {
         try {
-            logger.info("Starting async job match recalculation for student: {}", studentId);
-            jobMatchService.recalculateMatchesForStudent(studentId);
-            logger.info("Successfully recalculated job matches for student: {}", studentId);
+            matchTaskQueue.enqueue(MatchTaskType.RECALCULATE_STUDENT, studentId, LlmLane.BACKGROUND);
+            logger.info("Queued job match recalculation for student: {}", studentId);
         } catch (Exception e) {
-            logger.error("Failed to recalculate job matches for student: {}. Error: {}", studentId, e.getMessage(), e);
+            logger.error("Failed to queue job match recalculation for student: {}. Error: {}", studentId, e.getMessage(), e);
             // Don't throw - we don't want to fail the profile update if match recalculation fails
         }
     }
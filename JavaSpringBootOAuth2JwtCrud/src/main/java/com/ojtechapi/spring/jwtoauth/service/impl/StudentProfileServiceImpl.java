@@ -2,6 +2,7 @@ package com.ojtechapi.spring.jwtoauth.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.entities.*;
 import com.ojtechapi.spring.jwtoauth.repositories.*;
 import com.ojtechapi.spring.jwtoauth.service.CloudinaryService;
@@ -280,7 +281,7 @@ public class StudentProfileServiceImpl implements StudentProfileService {
 
     @Override
     public List<Map<String, Object>> getCVsForStudent(UUID userId) {
-        List<CV> cvs = cvService.getCVsByStudent(userId);
+        List<CVSummaryDto> cvs = cvService.getCVsByStudent(userId);
         
         return cvs.stream().map(cv -> {
             Map<String, Object> cvMap = new HashMap<>();
@@ -296,12 +297,11 @@ public class StudentProfileServiceImpl implements StudentProfileService {
     @Override
     public boolean activateCV(UUID userId, UUID cvId) {
         // First, deactivate all existing CVs for this student
-        List<CV> existingCVs = cvService.getCVsByStudent(userId);
-        for (CV existingCV : existingCVs) {
-            if (existingCV.isActive()) {
-                existingCV.setActive(false);
-                cvRepository.save(existingCV);
-            }
+        StudentProfile student = studentProfileRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Student profile not found"));
+        for (CV existingCV : cvRepository.findByStudentAndActive(student, true)) {
+            existingCV.setActive(false);
+            cvRepository.save(existingCV);
         }
         
         // Activate the specified CV
@@ -1,11 +1,14 @@
 package com.ojtechapi.spring.jwtoauth.service.interfaces;
 
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.entities.CV;
 import com.ojtechapi.spring.jwtoauth.entities.Certification;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
 import com.ojtechapi.spring.jwtoauth.entities.WorkExperience;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -14,7 +17,7 @@ import java.util.UUID;
 public interface CVService {
     
     // CV Management
-    List<CV> getCVsByStudent(UUID userId);
+    List<CVSummaryDto> getCVsByStudent(UUID userId);
     CV getCVById(UUID cvId, UUID userId);
     CV getCVByIdForEmployer(UUID cvId);
     String getCVHtmlContent(UUID cvId);
@@ -49,6 +52,7 @@ public interface CVService {
     
     // Business Logic
     String generateCVContent(StudentProfile studentProfile);
+    void writeCVContent(StudentProfile studentProfile, OutputStream out) throws IOException;
     boolean validateCVOwnership(UUID cvId, UUID userId);
     boolean isCVActive(UUID cvId);
 } 
@@ -8,18 +8,20 @@ import com.ojtechapi.spring.jwtoauth.entities.WorkExperience;
 import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiClient;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiPrompt;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiPromptBuilder;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmCallType;
+import com.ojtechapi.spring.jwtoauth.services.llm.PromptBlock;
+import com.ojtechapi.spring.jwtoauth.services.llm.PromptSection;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -35,15 +37,80 @@ public class CoverLetterService {
     @Autowired
     private CVRepository cvRepository;
 
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
+    @Autowired
+    private GeminiPromptBuilder promptBuilder;
+
+    @Autowired
+    private GeminiClient geminiClient;
+
+    private static final PromptBlock COVER_LETTER_PREAMBLE = PromptBlock.of("""
+            You are an expert career advisor specializing in personalized cover letter creation. \
+            Create a professional, tailored cover letter for a job application using the student's comprehensive profile, CV details, and job description.
+
+            CONTENT REQUIREMENTS:
+            1. Opening Paragraph: Express interest in the specific position and briefly introduce the student's current status (major, university, graduation year)
+            2. Body Paragraph 1: Highlight relevant skills that match job requirements with specific examples from work experience or projects
+            3. Body Paragraph 2: Showcase additional qualifications such as certifications, technical competencies, and achievements that align with the role
+            4. Closing Paragraph: Express enthusiasm, mention the attached CV, request an interview, and thank them
+            5. Keep it concise and professional (3-4 well-structured paragraphs total)
+
+            WRITING GUIDELINES:
+            - Use the bio/summary information naturally to understand the student's background, but DO NOT copy-paste it verbatim
+            - Write in a professional, confident tone
+            - Focus on job-relevant qualifications only
+            - Avoid repetition and redundant phrases
+            - Do not cut off sentences mid-word
+            - Ensure smooth paragraph transitions
+
+            """);
+
+    private static final PromptBlock COVER_LETTER_FORMAT_HEADER = PromptBlock.of("""
+            FORMATTING REQUIREMENTS (MUST FOLLOW EXACTLY):
+
+            The cover letter output must be ONLY the following structure with NO additional text:
+
+            [Current Date in format: Month DD, YYYY]
+            [blank line]
+            """);
+
+    private static final PromptBlock COVER_LETTER_FORMAT_BODY = PromptBlock.of("""
+            [blank line]
+            [Opening paragraph - 3-4 sentences expressing interest and introducing qualifications]
+            [blank line]
+            [Body paragraph 1 - 4-5 sentences highlighting relevant skills and experience]
+            [blank line]
+            [Body paragraph 2 - 3-4 sentences showcasing additional qualifications]
+            [blank line]
+            [Closing paragraph - 2-3 sentences with call to action and gratitude]
+            [blank line]
+            Sincerely,
+            """);
+
+    private static final PromptBlock COVER_LETTER_RULES = PromptBlock.of("""
+
+            CRITICAL RULES - VIOLATIONS WILL RESULT IN REJECTION:
+            ✗ DO NOT add ANY text before the date line - the date MUST be the very first line
+            ✗ DO NOT add subject lines, RE:, email headers, or introductory sentences
+            ✗ DO NOT write 'I am writing to express...' before the date
+            ✗ DO NOT copy-paste the bio verbatim - synthesize it professionally
+            ✗ DO NOT include placeholders like [Your Address] in the output
+            ✗ DO NOT add ANY text after the signature line with the student's name
+            ✗ DO NOT add email, phone number, or any additional text after the name
+            ✗ DO NOT repeat closing statements or paragraphs after Sincerely
+            ✗ DO NOT cut off sentences mid-word
+            ✗ DO NOT repeat information already stated
+            ✓ The ABSOLUTE FIRST LINE must be the date (Month DD, YYYY format)
+            ✓ START with the date as the very first line with NO text before it
+            ✓ Write complete, well-formed sentences
+            ✓ Keep paragraphs focused and concise
+            ✓ The ABSOLUTE LAST LINE must be the student's name with NOTHING after it
+
+            Generate ONLY the cover letter content following the exact structure above. \
+            Do NOT add any introductory text, subject lines, or greeting before the date. \
+            Do NOT add any closing remarks, contact information, or additional paragraphs after the signature. \
+            The letter should demonstrate clear alignment between the student's qualifications and the job requirements. \
+            Make it professional, concise, and ready to send.""");
 
-    private static final String GEMINI_API_BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent";
-    
-    private String getGeminiApiUrl() {
-        return GEMINI_API_BASE_URL + "?key=" + geminiApiKey;
-    }
-    
     /**
      * Generates a cover letter for a job application based on student profile, CV, and job details
      * using Gemini AI.
@@ -54,6 +121,39 @@ public class CoverLetterService {
      * @return A generated cover letter as a string
      */
     public String generateCoverLetter(UUID studentId, UUID jobId, UUID cvId) {
+        return generateCoverLetter(studentId, jobId, cvId, null);
+    }
+
+    /**
+     * Generates a cover letter, streaming it from Gemini when onChunk is given: each text
+     * fragment is passed to onChunk as it arrives. The returned letter is the complete,
+     * cleaned-up text, which can differ from the concatenated fragments. The fallback
+     * letter is passed to onChunk as a single fragment.
+     *
+     * @param onChunk receives raw text fragments, or null for a single blocking call
+     * @return A generated cover letter as a string
+     */
+    public String generateCoverLetter(UUID studentId, UUID jobId, UUID cvId, Consumer<String> onChunk) {
+        GeneratedCoverLetter letter = generate(studentId, jobId, cvId, onChunk);
+        if (letter.fallback() && onChunk != null) {
+            onChunk.accept(letter.text());
+        }
+        return letter.text();
+    }
+
+    /**
+     * A cover letter, and whether it is the basic template written when Gemini is not
+     * configured or did not return a letter
+     */
+    public record GeneratedCoverLetter(String text, boolean fallback) {
+    }
+
+    /**
+     * Generates a cover letter like {@link #generateCoverLetter(UUID, UUID, UUID, Consumer)},
+     * but tells the model's letter from the fallback template, so that callers which store
+     * or cache letters keep only real ones. The template is not passed to onChunk.
+     */
+    public GeneratedCoverLetter generate(UUID studentId, UUID jobId, UUID cvId, Consumer<String> onChunk) {
         // Get student profile
         StudentProfile student = studentProfileRepository.findById(studentId)
                 .orElseThrow(() -> new RuntimeException("Student profile not found"));
@@ -67,218 +167,126 @@ public class CoverLetterService {
                 .orElseThrow(() -> new RuntimeException("CV not found"));
         
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("cover letter generation");
-            return generateBasicCoverLetter(student, job, cv);
+            return new GeneratedCoverLetter(generateBasicCoverLetter(student, job, cv), true);
         }
         
-        RestTemplate restTemplate = new RestTemplate();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("x-goog-api-key", geminiApiKey);
-        
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-        
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an expert career advisor specializing in personalized cover letter creation. ");
-        prompt.append("Create a professional, tailored cover letter for a job application using the student's comprehensive profile, CV details, and job description.\n\n");
-        
-        prompt.append("CONTENT REQUIREMENTS:\n");
-        prompt.append("1. Opening Paragraph: Express interest in the specific position and briefly introduce the student's current status (major, university, graduation year)\n");
-        prompt.append("2. Body Paragraph 1: Highlight relevant skills that match job requirements with specific examples from work experience or projects\n");
-        prompt.append("3. Body Paragraph 2: Showcase additional qualifications such as certifications, technical competencies, and achievements that align with the role\n");
-        prompt.append("4. Closing Paragraph: Express enthusiasm, mention the attached CV, request an interview, and thank them\n");
-        prompt.append("5. Keep it concise and professional (3-4 well-structured paragraphs total)\n\n");
-        
-        prompt.append("WRITING GUIDELINES:\n");
-        prompt.append("- Use the bio/summary information naturally to understand the student's background, but DO NOT copy-paste it verbatim\n");
-        prompt.append("- Write in a professional, confident tone\n");
-        prompt.append("- Focus on job-relevant qualifications only\n");
-        prompt.append("- Avoid repetition and redundant phrases\n");
-        prompt.append("- Do not cut off sentences mid-word\n");
-        prompt.append("- Ensure smooth paragraph transitions\n\n");
-        
-        // Add student details
-        prompt.append("STUDENT PROFILE:\n");
-        prompt.append("Name: ").append(student.getFirstName()).append(" ").append(student.getLastName()).append("\n");
-        prompt.append("Email: ").append(student.getEmail() != null ? student.getEmail() : "Not specified").append("\n");
-        prompt.append("Phone: ").append(student.getPhoneNumber() != null ? student.getPhoneNumber() : "Not specified").append("\n");
-        prompt.append("University: ").append(student.getUniversity() != null ? student.getUniversity() : "Not specified").append("\n");
-        prompt.append("Major: ").append(student.getMajor() != null ? student.getMajor() : "Not specified").append("\n");
-        prompt.append("Graduation Year: ").append(student.getGraduationYear() != null ? student.getGraduationYear() : "Not specified").append("\n");
-        if (student.getBio() != null && !student.getBio().trim().isEmpty()) {
-            prompt.append("Bio/Summary: ").append(student.getBio()).append("\n");
-        }
-        
-        // Add skills
         List<String> studentSkills = parseSkills(student.getSkills());
-        if (!studentSkills.isEmpty()) {
-            prompt.append("Skills: ").append(String.join(", ", studentSkills)).append("\n");
-        }
-        prompt.append("\n");
-        
-        // Add CV details if available
-        if (cv.getParsedResume() != null && !cv.getParsedResume().isEmpty()) {
-            prompt.append("CV DETAILS:\n").append(cv.getParsedResume()).append("\n\n");
-        }
-        
+        List<String> jobSkills = parseSkills(job.getRequiredSkills());
+
         // Add work experiences if available
-        if (cv.getExperiences() != null && !cv.getExperiences().isEmpty()) {
-            prompt.append("WORK EXPERIENCE:\n");
+        StringBuilder experiences = new StringBuilder();
+        if (cv.getExperiences() != null) {
             cv.getExperiences().forEach(exp -> {
-                prompt.append("- ").append(exp.getTitle()).append(" at ").append(exp.getCompany())
+                experiences.append("- ").append(exp.getTitle()).append(" at ").append(exp.getCompany())
                       .append(" (").append(exp.getStartDate()).append(" - ")
                       .append(exp.getEndDate() != null ? exp.getEndDate() : "Present").append(")\n");
                 if (exp.getDescription() != null && !exp.getDescription().trim().isEmpty()) {
-                    prompt.append("  ").append(exp.getDescription()).append("\n");
+                    experiences.append("  ").append(exp.getDescription()).append("\n");
                 }
             });
-            prompt.append("\n");
         }
-        
+
         // Add certifications if available
+        StringBuilder certifications = new StringBuilder();
         if (cv.getCertifications() != null && !cv.getCertifications().isEmpty()) {
-            prompt.append("CERTIFICATIONS:\n");
+            certifications.append("CERTIFICATIONS:\n");
             cv.getCertifications().forEach(cert -> {
-                prompt.append("- ").append(cert.getName())
+                certifications.append("- ").append(cert.getName())
                       .append(" (").append(cert.getIssuer()).append(", ")
                       .append(cert.getDateReceived()).append(")\n");
             });
-            prompt.append("\n");
-        }
-        
-        // Add job details
-        prompt.append("JOB DETAILS:\n");
-        prompt.append("Title: ").append(job.getTitle()).append("\n");
-        prompt.append("Company: ").append(job.getEmployer().getCompanyName()).append("\n");
-        prompt.append("Description: ").append(job.getDescription()).append("\n");
-        prompt.append("Location: ").append(job.getLocation() != null ? job.getLocation() : "Not specified").append("\n");
-        if (job.getEmploymentType() != null) {
-            prompt.append("Employment Type: ").append(job.getEmploymentType()).append("\n");
-        }
-        if (job.getSalaryRange() != null) {
-            prompt.append("Salary Range: ").append(job.getSalaryRange()).append("\n");
-        }
-        if (job.getRequirements() != null && !job.getRequirements().trim().isEmpty()) {
-            prompt.append("Requirements: ").append(job.getRequirements()).append("\n");
-        }
-        if (job.getBenefits() != null && !job.getBenefits().trim().isEmpty()) {
-            prompt.append("Benefits: ").append(job.getBenefits()).append("\n");
-        }
-        
-        // Add job required skills
-        List<String> jobSkills = parseSkills(job.getRequiredSkills());
-        if (!jobSkills.isEmpty()) {
-            prompt.append("Required Skills: ").append(String.join(", ", jobSkills)).append("\n");
-        }
-        
-        // Add employer details
-        prompt.append("\nCOMPANY INFORMATION:\n");
-        prompt.append("Company Name: ").append(job.getEmployer().getCompanyName()).append("\n");
-        if (job.getEmployer().getContactPersonName() != null) {
-            prompt.append("Contact Person: ").append(job.getEmployer().getContactPersonName()).append("\n");
+            certifications.append("\n");
         }
-        if (job.getEmployer().getIndustry() != null) {
-            prompt.append("Industry: ").append(job.getEmployer().getIndustry()).append("\n");
-        }
-        if (job.getEmployer().getCompanyDescription() != null) {
-            prompt.append("Company Description: ").append(job.getEmployer().getCompanyDescription()).append("\n");
-        }
-        
+
         // Add matching analysis
         List<String> matchingSkills = new ArrayList<>(studentSkills);
         matchingSkills.retainAll(jobSkills);
+
+        String fullName = student.getFirstName() + " " + student.getLastName();
+        String contactPerson = job.getEmployer().getContactPersonName();
+        String salutation = contactPerson != null && !contactPerson.trim().isEmpty()
+                ? "Dear " + contactPerson + ",\n"
+                : "Dear Hiring Manager,\n";
+
+        GeminiPromptBuilder.Builder builder = promptBuilder.newPrompt(LlmCallType.COVER_LETTER)
+                .personal(fullName, student.getFirstName(), student.getLastName(), student.getEmail(),
+                        student.getPhoneNumber(), contactPerson)
+                .block(COVER_LETTER_PREAMBLE)
+                // Add student details
+                .text("STUDENT PROFILE:\n")
+                .field("Name", fullName)
+                .field("Email", valueOrNotSpecified(student.getEmail()))
+                .field("Phone", valueOrNotSpecified(student.getPhoneNumber()))
+                .field("University", valueOrNotSpecified(student.getUniversity()))
+                .field("Major", valueOrNotSpecified(student.getMajor()))
+                .field("Graduation Year", valueOrNotSpecified(student.getGraduationYear()))
+                .section("Bio/Summary", student.getBio(), PromptSection.BIO)
+                .field("Skills", studentSkills.isEmpty() ? null : String.join(", ", studentSkills))
+                .text("\n")
+                // Add CV details if available
+                .section("CV DETAILS", cv.getParsedResume(), PromptSection.CV_CONTENT)
+                .section("WORK EXPERIENCE", experiences.toString(), PromptSection.WORK_EXPERIENCE)
+                .text(certifications.toString())
+                // Add job details
+                .text("JOB DETAILS:\n")
+                .field("Title", job.getTitle())
+                .field("Company", job.getEmployer().getCompanyName())
+                .section("Description", job.getDescription(), PromptSection.JOB_DESCRIPTION)
+                .field("Location", valueOrNotSpecified(job.getLocation()))
+                .field("Employment Type", job.getEmploymentType())
+                .field("Salary Range", job.getSalaryRange())
+                .section("Requirements", job.getRequirements(), PromptSection.JOB_REQUIREMENTS)
+                .field("Benefits", job.getBenefits())
+                .field("Required Skills", jobSkills.isEmpty() ? null : String.join(", ", jobSkills))
+                // Add employer details
+                .text("\nCOMPANY INFORMATION:\n")
+                .field("Company Name", job.getEmployer().getCompanyName())
+                .field("Contact Person", contactPerson)
+                .field("Industry", job.getEmployer().getIndustry())
+                .section("Company Description", job.getEmployer().getCompanyDescription(),
+                        PromptSection.COMPANY_DESCRIPTION);
         if (!matchingSkills.isEmpty()) {
-            prompt.append("\nMATCHING SKILLS IDENTIFIED:\n");
-            prompt.append(String.join(", ", matchingSkills)).append("\n");
+            builder.text("\nMATCHING SKILLS IDENTIFIED:\n" + String.join(", ", matchingSkills) + "\n");
         }
-        
-        prompt.append("\n");
-        
+
         // Specify formatting requirements
-        prompt.append("FORMATTING REQUIREMENTS (MUST FOLLOW EXACTLY):\n\n");
-        prompt.append("The cover letter output must be ONLY the following structure with NO additional text:\n\n");
-        prompt.append("[Current Date in format: Month DD, YYYY]\n");
-        prompt.append("[blank line]\n");
-        if (job.getEmployer().getContactPersonName() != null && !job.getEmployer().getContactPersonName().trim().isEmpty()) {
-            prompt.append("Dear ").append(job.getEmployer().getContactPersonName()).append(",\n");
-        } else {
-            prompt.append("Dear Hiring Manager,\n");
-        }
-        prompt.append("[blank line]\n");
-        prompt.append("[Opening paragraph - 3-4 sentences expressing interest and introducing qualifications]\n");
-        prompt.append("[blank line]\n");
-        prompt.append("[Body paragraph 1 - 4-5 sentences highlighting relevant skills and experience]\n");
-        prompt.append("[blank line]\n");
-        prompt.append("[Body paragraph 2 - 3-4 sentences showcasing additional qualifications]\n");
-        prompt.append("[blank line]\n");
-        prompt.append("[Closing paragraph - 2-3 sentences with call to action and gratitude]\n");
-        prompt.append("[blank line]\n");
-        prompt.append("Sincerely,\n");
-        prompt.append(student.getFirstName()).append(" ").append(student.getLastName()).append("\n");
-        
-        prompt.append("\nCRITICAL RULES - VIOLATIONS WILL RESULT IN REJECTION:\n");
-        prompt.append("✗ DO NOT add ANY text before the date line - the date MUST be the very first line\n");
-        prompt.append("✗ DO NOT add subject lines, RE:, email headers, or introductory sentences\n");
-        prompt.append("✗ DO NOT write 'I am writing to express...' before the date\n");
-        prompt.append("✗ DO NOT copy-paste the bio verbatim - synthesize it professionally\n");
-        prompt.append("✗ DO NOT include placeholders like [Your Address] in the output\n");
-        prompt.append("✗ DO NOT add ANY text after the signature line with the student's name\n");
-        prompt.append("✗ DO NOT add email, phone number, or any additional text after the name\n");
-        prompt.append("✗ DO NOT repeat closing statements or paragraphs after Sincerely\n");
-        prompt.append("✗ DO NOT cut off sentences mid-word\n");
-        prompt.append("✗ DO NOT repeat information already stated\n");
-        prompt.append("✓ The ABSOLUTE FIRST LINE must be the date (Month DD, YYYY format)\n");
-        prompt.append("✓ START with the date as the very first line with NO text before it\n");
-        prompt.append("✓ Write complete, well-formed sentences\n");
-        prompt.append("✓ Keep paragraphs focused and concise\n");
-        prompt.append("✓ The ABSOLUTE LAST LINE must be the student's name with NOTHING after it\n\n");
-        
-        prompt.append("Generate ONLY the cover letter content following the exact structure above. ");
-        prompt.append("Do NOT add any introductory text, subject lines, or greeting before the date. ");
-        prompt.append("Do NOT add any closing remarks, contact information, or additional paragraphs after the signature. ");
-        prompt.append("The letter should demonstrate clear alignment between the student's qualifications and the job requirements. ");
-        prompt.append("Make it professional, concise, and ready to send.");
-        
-        content.put("parts", Collections.singletonList(Collections.singletonMap("text", prompt.toString())));
-        contents.add(content);
-        requestBody.put("contents", contents);
-        
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = builder
+                .text("\n")
+                .block(COVER_LETTER_FORMAT_HEADER)
+                .text(salutation)
+                .block(COVER_LETTER_FORMAT_BODY)
+                .text(fullName + "\n")
+                .block(COVER_LETTER_RULES)
+                .build();
         
         try {
             System.out.println("Calling Gemini API for cover letter generation...");
-            Map<String, Object> response = restTemplate.postForObject(
-                getGeminiApiUrl(), entity, Map.class);
-            
-            if (response != null && response.containsKey("candidates")) {
-                List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-                if (!candidates.isEmpty()) {
-                    Map<String, Object> candidate = candidates.get(0);
-                    // Content is a single object, not a list
-                    Map<String, Object> responseContent = (Map<String, Object>) candidate.get("content");
-                    if (responseContent != null && responseContent.containsKey("parts")) {
-                        List<Map<String, Object>> responseParts = (List<Map<String, Object>>) responseContent.get("parts");
-                        if (!responseParts.isEmpty()) {
-                            String coverLetter = (String) responseParts.get(0).get("text");
-                            System.out.println("Successfully received cover letter from Gemini API");
-                            // Clean up the cover letter to ensure proper formatting
-                            return cleanCoverLetterFormat(coverLetter, student, job);
-                        }
-                    }
-                }
-                logGeminiApiResponseError("cover letter", response);
+            Map<String, Object> response = null;
+            String coverLetter;
+            if (onChunk != null) {
+                coverLetter = geminiClient.generateStream(prompt, onChunk);
             } else {
-                logGeminiApiResponseError("cover letter", response);
+                response = geminiClient.generate(prompt);
+                coverLetter = GeminiClient.extractText(response);
+            }
+            if (coverLetter != null) {
+                System.out.println("Successfully received cover letter from Gemini API");
+                // Clean up the cover letter to ensure proper formatting
+                return new GeneratedCoverLetter(cleanCoverLetterFormat(coverLetter, student, job), false);
             }
+            logGeminiApiResponseError("cover letter", response);
         } catch (Exception e) {
             logGeminiApiError("cover letter", e);
         }
         
         // Fallback to basic cover letter if API call fails
-        return generateBasicCoverLetter(student, job, cv);
+        return new GeneratedCoverLetter(generateBasicCoverLetter(student, job, cv), true);
+    }
+    
+    private static Object valueOrNotSpecified(Object value) {
+        return value != null ? value : "Not specified";
     }
     
     /**
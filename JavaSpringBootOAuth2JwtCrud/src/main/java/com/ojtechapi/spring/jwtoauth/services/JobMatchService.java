@@ -1,6 +1,7 @@
 package com.ojtechapi.spring.jwtoauth.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.dtos.JobMatchRunResult;
 import com.ojtechapi.spring.jwtoauth.entities.CV;
 import com.ojtechapi.spring.jwtoauth.entities.Certification;
 import com.ojtechapi.spring.jwtoauth.entities.Job;
@@ -10,14 +11,30 @@ import com.ojtechapi.spring.jwtoauth.entities.WorkExperience;
 import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.JobMatchRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.PrunedJobMatchRepository;
 import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import com.ojtechapi.spring.jwtoauth.services.llm.AnalysisMemo;
+import com.ojtechapi.spring.jwtoauth.services.skills.CvSkillExtractor;
+import com.ojtechapi.spring.jwtoauth.services.skills.SkillTaxonomy;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiClient;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiPrompt;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiPromptBuilder;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmCallType;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmDeadline;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmDeadlineExceededException;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
+import com.ojtechapi.spring.jwtoauth.services.llm.PromptBlock;
+import com.ojtechapi.spring.jwtoauth.services.llm.PromptSection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -25,10 +42,20 @@ import org.springframework.web.client.RestTemplate;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.*;
-
+import java.util.function.Supplier;
+
+/**
+ * Scores students against jobs with Gemini analyses. Each pass runs in a match.student
+ * observation and each stage (candidate selection, every analysis type, final scoring,
+ * persistence) in a match.stage observation, so stage latencies are available as timers
+ * (/actuator/prometheus) and as spans in the log. Analyses that fall back to the local
+ * method are counted in match.analysis.fallbacks.
+ */
 @Service
 public class JobMatchService {
 
+    private static final Logger logger = LoggerFactory.getLogger(JobMatchService.class);
+
     @Autowired
     private JobRepository jobRepository;
 
@@ -38,62 +65,124 @@ public class JobMatchService {
     @Autowired
     private JobMatchRepository jobMatchRepository;
 
+    @Autowired
+    private PrunedJobMatchRepository prunedJobMatchRepository;
+
     @Autowired
     private CVRepository cvRepository;
 
-    @Value("${backend.base-url}")
-    private String baseUrl;
+    @Autowired
+    private GeminiPromptBuilder promptBuilder;
 
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
+    @Autowired
+    private GeminiClient geminiClient;
+
+    @Autowired
+    private AnalysisMemo analysisMemo;
 
-    private final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1/models/gemini-pro:generateContent";
+    @Autowired
+    private CvSkillExtractor cvSkillExtractor;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${backend.base-url}")
+    private String baseUrl;
 
     private final RestTemplate restTemplate = new RestTemplate();
 
     public List<JobMatch> findMatchesForStudent(UUID studentId, Double minScore) {
-        StudentProfile student = studentProfileRepository.findById(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
+        return matchStudent(studentId, minScore).getMatches();
+    }
 
-        // Get all active jobs
-        List<Job> activeJobs = jobRepository.findByActiveTrue();
+    /**
+     * Matches the student against every active job they have no match for yet.
+     * If the current {@link LlmRequestContext} carries a deadline, processing stops once it
+     * passes: matches finished so far stay saved, and the remaining jobs are reported as
+     * skipped. A job whose analyses were cut short by the deadline is not saved, so it is
+     * scored properly on the next pass instead of keeping a fallback score.
+     */
+    public JobMatchRunResult matchStudent(UUID studentId, Double minScore) {
+        return Observation.createNotStarted("match.student", observationRegistry)
+                .lowCardinalityKeyValue("mode", "new")
+                .highCardinalityKeyValue("student_id", String.valueOf(studentId))
+                .observe(() -> runMatchStudent(studentId, minScore));
+    }
+
+    private JobMatchRunResult runMatchStudent(UUID studentId, Double minScore) {
+        Observation selection = newStage("candidate_selection").start();
+        StudentProfile student;
+        List<Job> activeJobs;
+        List<JobMatch> existingMatches;
+        Set<UUID> matchedJobIds = new HashSet<>();
+        CV activeCv;
+        List<String> studentSkills;
+        try {
+            student = studentProfileRepository.findById(studentId)
+                    .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        // If no active jobs in database, try to fetch from API
-        if (activeJobs.isEmpty()) {
-            activeJobs = fetchJobsFromApi();
+            // Get all active jobs
+            activeJobs = jobRepository.findByActiveTrue();
 
-            // If still no jobs, log error and return empty list
+            // If no active jobs in database, try to fetch from API
             if (activeJobs.isEmpty()) {
-                System.err.println("No active jobs found in database or API");
-                return new ArrayList<>();
+                activeJobs = fetchJobsFromApi();
+
+                // If still no jobs, log error and return empty list
+                if (activeJobs.isEmpty()) {
+                    System.err.println("No active jobs found in database or API");
+                    return new JobMatchRunResult(new ArrayList<>(), new ArrayList<>(), false);
+                }
             }
-        }
 
-        // Get existing job matches for this student
-        List<JobMatch> existingMatches = jobMatchRepository.findByStudentIdOrderByMatchScoreDesc(studentId);
-        Set<UUID> matchedJobIds = new HashSet<>();
-        for (JobMatch match : existingMatches) {
-            matchedJobIds.add(match.getJob().getId());
-        }
+            // Get existing job matches for this student
+            existingMatches = jobMatchRepository.findByStudentIdOrderByMatchScoreDesc(studentId);
+            for (JobMatch match : existingMatches) {
+                matchedJobIds.add(match.getJob().getId());
+            }
 
-        List<JobMatch> newMatches = new ArrayList<>();
+            // Get student's active CV
+            activeCv = student.getActiveCvId() != null
+                    ? cvRepository.findById(student.getActiveCvId()).orElse(null)
+                    : null;
 
-        // Get student's active CV
-        CV activeCv = null;
-        if (student.getActiveCvId() != null) {
-            activeCv = cvRepository.findById(student.getActiveCvId()).orElse(null);
+            // Matches removed by retention are not scored again, unless the profile or the
+            // CV changed since: the pair may score differently now
+            LocalDateTime changedAt = latest(student.getUpdatedAt(), activeCv != null ? activeCv.getLastUpdated() : null);
+            if (changedAt != null) {
+                prunedJobMatchRepository.deleteByStudentIdPrunedBefore(studentId, changedAt);
+            }
+            matchedJobIds.addAll(prunedJobMatchRepository.findJobIdsByStudentId(studentId));
+
+            // Profile skills plus taxonomy skills found in the CV (local extraction, no LLM call)
+            studentSkills = cvSkillExtractor.mergeInto(parseSkills(student.getSkills()), activeCv);
+        } finally {
+            selection.stop();
         }
 
-        // Extract student skills as a list
-        List<String> studentSkills = parseSkills(student.getSkills());
+        List<JobMatch> newMatches = new ArrayList<>();
+
+        LlmDeadline deadline = LlmRequestContext.currentDeadline();
+        List<UUID> skippedJobIds = new ArrayList<>();
 
         // Process each job and wait for AI response
         for (Job job : activeJobs) {
+            // Skip jobs that already have a match with this student
+            if (matchedJobIds.contains(job.getId())) {
+                continue;
+            }
+
+            // Out of time: leave the remaining jobs for a later pass
+            if (deadline != null && deadline.isExpired()) {
+                skippedJobIds.add(job.getId());
+                continue;
+            }
+            int abortedCallsBefore = deadline != null ? deadline.getAbortedCalls() : 0;
+
             try {
-                // Skip jobs that already have a match with this student
-                if (matchedJobIds.contains(job.getId())) {
-                    continue;
-                }
 
                 // Parse job skills
                 List<String> jobSkills = parseSkills(job.getRequiredSkills());
@@ -102,44 +191,47 @@ public class JobMatchService {
                 Map<String, String> detailedAnalysis = new HashMap<>();
 
                 // Generate detailed match explanation first
-                String matchDetails = generateMatchDetails(student, studentSkills, activeCv, job);
+                String matchDetails = stage("match_details",
+                        () -> generateMatchDetails(student, studentSkills, activeCv, job));
                 detailedAnalysis.put("overallMatch", matchDetails);
 
                 // Analyze GitHub projects if available
                 String githubAnalysis = null;
                 if (student.getGithubUrl() != null || student.getGithubProjects() != null) {
-                    githubAnalysis = analyzeGitHubProjects(
+                    githubAnalysis = stage("github", () -> analyzeGitHubProjects(
                             student.getGithubUrl(),
                             student.getGithubProjects(),
-                            jobSkills);
+                            jobSkills));
                     detailedAnalysis.put("githubAnalysis", githubAnalysis);
                 }
 
                 // Analyze portfolio if available
                 String portfolioAnalysis = null;
                 if (student.getPortfolioUrl() != null) {
-                    portfolioAnalysis = analyzePortfolio(student.getPortfolioUrl(), jobSkills);
+                    portfolioAnalysis = stage("portfolio", () -> analyzePortfolio(student.getPortfolioUrl(), jobSkills));
                     detailedAnalysis.put("portfolioAnalysis", portfolioAnalysis);
                 }
 
                 // Analyze certifications if available
                 String certificationsAnalysis = null;
                 if (student.getCertifications() != null && !student.getCertifications().isEmpty()) {
-                    certificationsAnalysis = analyzeCertifications(student.getCertifications(), jobSkills);
+                    certificationsAnalysis = stage("certifications",
+                            () -> analyzeCertifications(student.getCertifications(), jobSkills));
                     detailedAnalysis.put("certificationsAnalysis", certificationsAnalysis);
                 }
 
                 // Analyze work experience if available
                 String experiencesAnalysis = null;
                 if (student.getExperiences() != null && !student.getExperiences().isEmpty()) {
-                    experiencesAnalysis = analyzeWorkExperience(student.getExperiences(), jobSkills);
+                    experiencesAnalysis = stage("work_experience",
+                            () -> analyzeWorkExperience(student.getExperiences(), jobSkills));
                     detailedAnalysis.put("experiencesAnalysis", experiencesAnalysis);
                 }
 
                 // Analyze bio if available using NLP
                 String bioAnalysis = null;
                 if (student.getBio() != null && !student.getBio().isEmpty()) {
-                    bioAnalysis = analyzeBioWithNLP(student.getBio(), jobSkills, job);
+                    bioAnalysis = stage("bio", () -> analyzeBioWithNLP(student.getBio(), jobSkills, job));
                     detailedAnalysis.put("bioAnalysis", bioAnalysis);
                 }
 
@@ -147,6 +239,12 @@ public class JobMatchService {
                 Double matchScore = calculateMatchScoreWithAllData(student, studentSkills, activeCv, job,
                         githubAnalysis, portfolioAnalysis, certificationsAnalysis, experiencesAnalysis, bioAnalysis);
 
+                // Analyses fell back because the deadline passed mid-job; redo this job later
+                if (deadline != null && deadline.getAbortedCalls() > abortedCallsBefore) {
+                    skippedJobIds.add(job.getId());
+                    continue;
+                }
+
                 // Create job match
                 JobMatch jobMatch = new JobMatch(job, student, matchScore);
                 jobMatch.setMatchDetails(matchDetails);
@@ -162,7 +260,7 @@ public class JobMatchService {
                 }
 
                 // Save to database
-                JobMatch savedMatch = jobMatchRepository.save(jobMatch);
+                JobMatch savedMatch = stage("persistence", () -> jobMatchRepository.save(jobMatch));
                 newMatches.add(savedMatch);
             } catch (Exception e) {
                 System.err.println("Error processing job " + job.getId() + ": " + e.getMessage());
@@ -170,6 +268,12 @@ public class JobMatchService {
             }
         }
 
+        if (!skippedJobIds.isEmpty()) {
+            logger.info("Matching for student {} stopped at the request deadline; {} jobs skipped",
+                    studentId, skippedJobIds.size());
+        }
+        boolean deadlineExceeded = deadline != null && deadline.isExpired();
+
         // Sort matches by score (highest first)
         newMatches.sort((a, b) -> b.getMatchScore().compareTo(a.getMatchScore()));
 
@@ -184,10 +288,10 @@ public class JobMatchService {
             }
             allMatches.addAll(newMatches);
             allMatches.sort((a, b) -> b.getMatchScore().compareTo(a.getMatchScore()));
-            return allMatches;
+            return new JobMatchRunResult(allMatches, skippedJobIds, deadlineExceeded);
         }
 
-        return newMatches;
+        return new JobMatchRunResult(newMatches, skippedJobIds, deadlineExceeded);
     }
 
     private List<String> parseSkills(String skillsString) {
@@ -260,6 +364,13 @@ public class JobMatchService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
     /**
      * Recalculates match scores for all existing job matches of a student.
      * This method is called when a student updates their profile to ensure
@@ -268,11 +379,18 @@ public class JobMatchService {
      * @param studentId The ID of the student whose matches should be recalculated
      */
     public void recalculateMatchesForStudent(UUID studentId) {
+        Observation.createNotStarted("match.student", observationRegistry)
+                .lowCardinalityKeyValue("mode", "recalculate")
+                .highCardinalityKeyValue("student_id", String.valueOf(studentId))
+                .observe(() -> runRecalculation(studentId));
+    }
+
+    private void runRecalculation(UUID studentId) {
         StudentProfile student = studentProfileRepository.findById(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        // Get all existing job matches for this student
-        List<JobMatch> existingMatches = jobMatchRepository.findByStudentIdOrderByMatchScoreDesc(studentId);
+        // Existing matches of jobs that are still active; inactive ones are left to retention
+        List<JobMatch> existingMatches = jobMatchRepository.findActiveJobMatchesByStudentId(studentId);
 
         if (existingMatches.isEmpty()) {
             System.out.println("No existing matches found for student " + studentId);
@@ -282,55 +400,50 @@ public class JobMatchService {
         System.out.println("Recalculating " + existingMatches.size() + " job matches for student " + studentId);
 
         // Get student's active CV
-        CV activeCv = null;
-        if (student.getActiveCvId() != null) {
-            activeCv = cvRepository.findById(student.getActiveCvId()).orElse(null);
-        }
+        CV activeCv = student.getActiveCvId() != null
+                ? cvRepository.findById(student.getActiveCvId()).orElse(null)
+                : null;
 
-        // Extract student skills
-        List<String> studentSkills = parseSkills(student.getSkills());
+        // Profile skills plus taxonomy skills found in the CV (local extraction, no LLM call)
+        List<String> studentSkills = cvSkillExtractor.mergeInto(parseSkills(student.getSkills()), activeCv);
 
         // Recalculate each match
         for (JobMatch match : existingMatches) {
             try {
                 Job job = match.getJob();
 
-                // Skip if job is no longer active
-                if (!job.isActive()) {
-                    System.out.println("Skipping inactive job: " + job.getId());
-                    continue;
-                }
-
                 // Parse job skills
                 List<String> jobSkills = parseSkills(job.getRequiredSkills());
 
                 // Collect all analyses
                 String githubAnalysis = null;
                 if (student.getGithubUrl() != null || student.getGithubProjects() != null) {
-                    githubAnalysis = analyzeGitHubProjects(
+                    githubAnalysis = stage("github", () -> analyzeGitHubProjects(
                             student.getGithubUrl(),
                             student.getGithubProjects(),
-                            jobSkills);
+                            jobSkills));
                 }
 
                 String portfolioAnalysis = null;
                 if (student.getPortfolioUrl() != null) {
-                    portfolioAnalysis = analyzePortfolio(student.getPortfolioUrl(), jobSkills);
+                    portfolioAnalysis = stage("portfolio", () -> analyzePortfolio(student.getPortfolioUrl(), jobSkills));
                 }
 
                 String certificationsAnalysis = null;
                 if (student.getCertifications() != null && !student.getCertifications().isEmpty()) {
-                    certificationsAnalysis = analyzeCertifications(student.getCertifications(), jobSkills);
+                    certificationsAnalysis = stage("certifications",
+                            () -> analyzeCertifications(student.getCertifications(), jobSkills));
                 }
 
                 String experiencesAnalysis = null;
                 if (student.getExperiences() != null && !student.getExperiences().isEmpty()) {
-                    experiencesAnalysis = analyzeWorkExperience(student.getExperiences(), jobSkills);
+                    experiencesAnalysis = stage("work_experience",
+                            () -> analyzeWorkExperience(student.getExperiences(), jobSkills));
                 }
 
                 String bioAnalysis = null;
                 if (student.getBio() != null && !student.getBio().isEmpty()) {
-                    bioAnalysis = analyzeBioWithNLP(student.getBio(), jobSkills, job);
+                    bioAnalysis = stage("bio", () -> analyzeBioWithNLP(student.getBio(), jobSkills, job));
                 }
 
                 // Calculate new match score
@@ -338,14 +451,15 @@ public class JobMatchService {
                         githubAnalysis, portfolioAnalysis, certificationsAnalysis, experiencesAnalysis, bioAnalysis);
 
                 // Generate new match details
-                String newMatchDetails = generateMatchDetails(student, studentSkills, activeCv, job);
+                String newMatchDetails = stage("match_details",
+                        () -> generateMatchDetails(student, studentSkills, activeCv, job));
 
                 // Update the match
                 match.setMatchScore(newMatchScore);
                 match.setMatchDetails(newMatchDetails);
                 match.setUpdatedAt(LocalDateTime.now());
 
-                jobMatchRepository.save(match);
+                stage("persistence", () -> jobMatchRepository.save(match));
 
                 System.out.println("Updated match for job " + job.getId() + " - New score: " + newMatchScore);
 
@@ -359,6 +473,59 @@ public class JobMatchService {
         System.out.println("Completed recalculating matches for student " + studentId);
     }
 
+    private static final PromptBlock BASIC_SCORE_PREAMBLE = PromptBlock.of("""
+            You are an AI job matcher specializing in deep skill compatibility analysis using NLP techniques. \
+            Your task is to analyze the compatibility between a job and a student's comprehensive profile using semantic understanding. \
+            Consider not just direct skill matches, but also semantic similarity, related skills, transferable knowledge, and potential. \
+            Apply the following NLP concepts in your analysis:
+            1. Semantic similarity between skills (e.g., React and Angular are both frontend frameworks)
+            2. Skill taxonomy and hierarchies (e.g., Spring is a Java framework)
+            3. Entity recognition to identify technologies, tools, and domains
+            4. Contextual understanding of skill relationships
+
+            Return a match score between 1 and 100, where 100 is a perfect match. \
+            Only return the numeric score as an integer between 1 and 100, nothing else.
+
+            """);
+
+    private static final PromptBlock BASIC_SCORE_INSTRUCTIONS = PromptBlock.of("""
+
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform semantic similarity analysis:
+               - Compare the student's skills with the job's required skills listed above
+               - Use semantic understanding to identify conceptually similar skills even with different terminology
+               - Consider skill hierarchies and relationships (e.g., React is a JavaScript framework)
+
+            2. Apply skill taxonomy awareness:
+               - Group skills by domains: frontend, backend, database, cloud, etc.
+               - Recognize when a student has skills in the same domain as required skills
+               - Identify complementary skill sets (e.g., React+Redux, Java+Spring)
+
+            3. Consider educational and experiential context:
+               - Evaluate how the student's major and education relate to job requirements
+               - Assess GitHub projects and portfolio for practical skill application
+               - Consider certifications as formal validation of skills
+
+            4. Apply these special matching rules:
+               - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match
+               - Consider related technologies as partial matches (e.g., React is related to Angular, Java is related to Kotlin)
+               - Weigh recent experience and education more heavily
+               - Consider the student's potential to quickly learn missing skills
+
+            5. Framework-language relationships to consider:
+               - React, Angular, Vue → JavaScript/TypeScript
+               - Spring → Java/Kotlin
+               - Django, Flask → Python
+               - Express → Node.js/JavaScript
+               - Laravel → PHP
+               - Rails → Ruby
+               - ASP.NET → C#/.NET
+               - If student knows a language, consider partial match for frameworks in that language
+               - If student knows a framework, consider partial match for the underlying language
+
+            6. IMPORTANT: Return only a single number between 1-100 representing the match percentage
+            """);
+
     private Double calculateMatchScore(StudentProfile student, List<String> studentSkills, CV cv, Job job) {
         // First, calculate a direct skill match percentage
         List<String> jobSkills = parseSkills(job.getRequiredSkills());
@@ -522,120 +689,32 @@ public class JobMatchService {
         }
 
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("match score calculation");
             return Math.max(directMatchPercentage, 1.0); // Return direct match with minimum of 1%
         }
 
         // Otherwise, use AI for a more nuanced analysis
-        HttpHeaders headers = createGeminiHeaders();
-
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append(
-                "You are an AI job matcher specializing in deep skill compatibility analysis using NLP techniques. ");
-        prompt.append(
-                "Your task is to analyze the compatibility between a job and a student's comprehensive profile using semantic understanding. ");
-        prompt.append(
-                "Consider not just direct skill matches, but also semantic similarity, related skills, transferable knowledge, and potential. ");
-        prompt.append("Apply the following NLP concepts in your analysis:\n");
-        prompt.append("1. Semantic similarity between skills (e.g., React and Angular are both frontend frameworks)\n");
-        prompt.append("2. Skill taxonomy and hierarchies (e.g., Spring is a Java framework)\n");
-        prompt.append("3. Entity recognition to identify technologies, tools, and domains\n");
-        prompt.append("4. Contextual understanding of skill relationships\n\n");
-        prompt.append("Return a match score between 1 and 100, where 100 is a perfect match. ");
-        prompt.append("Only return the numeric score as an integer between 1 and 100, nothing else. \n\n");
-
-        prompt.append("JOB DETAILS:\n");
-        prompt.append("Title: ").append(job.getTitle()).append("\n");
-        prompt.append("Description: ").append(job.getDescription()).append("\n");
-        prompt.append("Required Skills: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("STUDENT DETAILS:\n");
-        prompt.append("Skills: ").append(String.join(", ", studentSkills)).append("\n");
-        prompt.append("Major: ").append(student.getMajor()).append("\n");
-
-        // Add additional student profile elements if available
-        if (student.getBio() != null && !student.getBio().isEmpty()) {
-            prompt.append("Bio: ").append(student.getBio()).append("\n");
-        }
-
-        if (student.getGithubUrl() != null && !student.getGithubUrl().isEmpty()) {
-            prompt.append("GitHub Projects: ").append(student.getGithubUrl()).append("\n");
-        }
-
-        if (student.getCertifications() != null && !student.getCertifications().isEmpty()) {
-            prompt.append("Certifications: ").append(student.getCertifications()).append("\n");
-        }
-
-        if (student.getExperiences() != null && !student.getExperiences().isEmpty()) {
-            prompt.append("Experiences: ").append(student.getExperiences()).append("\n");
-        }
-
-        if (student.getPortfolioUrl() != null && !student.getPortfolioUrl().isEmpty()) {
-            prompt.append("Portfolio URL: ").append(student.getPortfolioUrl()).append("\n");
-        }
-
-        if (cv != null) {
-            prompt.append("CV Content: ").append(cv.getParsedResume()).append("\n");
-        }
-
-        // Add specific NLP analysis instructions
-        prompt.append("\nNLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform semantic similarity analysis:\n");
-        prompt.append("   - Compare the student's skills [").append(String.join(", ", studentSkills)).append("] ");
-        prompt.append("with the job's required skills [").append(String.join(", ", jobSkills)).append("]\n");
-        prompt.append(
-                "   - Use semantic understanding to identify conceptually similar skills even with different terminology\n");
-        prompt.append("   - Consider skill hierarchies and relationships (e.g., React is a JavaScript framework)\n\n");
-
-        prompt.append("2. Apply skill taxonomy awareness:\n");
-        prompt.append("   - Group skills by domains: frontend, backend, database, cloud, etc.\n");
-        prompt.append("   - Recognize when a student has skills in the same domain as required skills\n");
-        prompt.append("   - Identify complementary skill sets (e.g., React+Redux, Java+Spring)\n\n");
-
-        prompt.append("3. Consider educational and experiential context:\n");
-        prompt.append("   - Evaluate how the student's major and education relate to job requirements\n");
-        prompt.append("   - Assess GitHub projects and portfolio for practical skill application\n");
-        prompt.append("   - Consider certifications as formal validation of skills\n\n");
-
-        prompt.append("4. Apply these special matching rules:\n");
-        prompt.append(
-                "   - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match\n");
-        prompt.append(
-                "   - Consider related technologies as partial matches (e.g., React is related to Angular, Java is related to Kotlin)\n");
-        prompt.append("   - Weigh recent experience and education more heavily\n");
-        prompt.append("   - Consider the student's potential to quickly learn missing skills\n\n");
-
-        prompt.append("5. Framework-language relationships to consider:\n");
-        prompt.append("   - React, Angular, Vue → JavaScript/TypeScript\n");
-        prompt.append("   - Spring → Java/Kotlin\n");
-        prompt.append("   - Django, Flask → Python\n");
-        prompt.append("   - Express → Node.js/JavaScript\n");
-        prompt.append("   - Laravel → PHP\n");
-        prompt.append("   - Rails → Ruby\n");
-        prompt.append("   - ASP.NET → C#/.NET\n");
-        prompt.append("   - If student knows a language, consider partial match for frameworks in that language\n");
-        prompt.append("   - If student knows a framework, consider partial match for the underlying language\n\n");
-
-        prompt.append("6. IMPORTANT: Return only a single number between 1-100 representing the match percentage\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.BASIC_SCORE)
+                .block(BASIC_SCORE_PREAMBLE)
+                .text("JOB DETAILS:\n")
+                .field("Title", job.getTitle())
+                .section("Description", job.getDescription(), PromptSection.JOB_DESCRIPTION)
+                .field("Required Skills", String.join(", ", jobSkills))
+                .text("\nSTUDENT DETAILS:\n")
+                .field("Skills", String.join(", ", studentSkills))
+                .field("Major", student.getMajor())
+                .section("Bio", student.getBio(), PromptSection.BIO)
+                .field("GitHub Projects", student.getGithubUrl())
+                .field("Certifications", describeCertifications(student.getCertifications()))
+                .field("Experiences", describeExperiences(student.getExperiences()))
+                .field("Portfolio URL", student.getPortfolioUrl())
+                .section("CV Content", cv != null ? cv.getParsedResume() : null, PromptSection.CV_CONTENT)
+                .block(BASIC_SCORE_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String scoreText = extractGeminiResponse(response);
 
             if (scoreText != null) {
@@ -656,140 +735,97 @@ public class JobMatchService {
         return Math.max(directMatchPercentage, 1.0);
     }
 
+    private static final PromptBlock MATCH_DETAILS_PREAMBLE = PromptBlock.of("""
+            You are an AI job matcher specializing in comprehensive candidate evaluation using advanced NLP techniques. \
+            Analyze the compatibility between this job and student profile in detail using semantic analysis. \
+            Your analysis should include:
+            1. Semantic similarity between job requirements and candidate skills
+            2. Keyword extraction from both job description and student profile
+            3. Entity recognition to identify technologies, tools, and domain expertise
+            4. Contextual understanding of skill relationships and hierarchies
+            5. Sentiment analysis of the candidate's descriptions and achievements
+
+            Provide a thorough explanation (max 1500 characters) of why they match or don't match. \
+            Focus on direct skill matches, related skills, transferable knowledge, education relevance, and growth potential. \
+            Be specific about strengths, gaps, and include recommendations for the student. \
+            Include a percentage match score (1-100%) at the end.
+
+            """);
+
+    private static final PromptBlock MATCH_DETAILS_INSTRUCTIONS = PromptBlock.of("""
+
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform semantic similarity analysis between student skills and job required skills
+               - Use vector space understanding to identify conceptually similar skills even with different terminology
+               - Consider skill hierarchies (e.g., React is a subset of JavaScript frameworks)
+               - Identify skill clusters and domains (frontend, backend, database, etc.)
+
+            2. Extract key entities from both profiles:
+               - Technologies: programming languages, frameworks, tools
+               - Domains: industry sectors, specialized fields
+               - Soft skills: communication, teamwork, leadership
+               - Experience levels: junior, mid-level, senior indicators
+
+            3. Analyze skill relationships:
+               - Identify complementary skills (e.g., React + Redux, Java + Spring)
+               - Recognize transferable skills across domains
+               - Evaluate skill recency and relevance to current industry trends
+
+            4. Consider ALL aspects of the student profile:
+               - GitHub projects that demonstrate practical application of skills
+               - Portfolio work that showcases relevant abilities
+               - Certifications that validate specific competencies
+               - Work experience that demonstrates real-world application
+               - Educational background and its relevance to the position
+
+            5. Format your response with clear sections:
+               - Semantic Match Analysis: Overall compatibility based on meaning, not just keywords
+               - Strengths: Areas where the candidate strongly matches the job
+               - Gaps: Skills or experiences the candidate should develop
+               - Recommendations: Specific actions to improve match quality
+               - Match Score: Final percentage (1-100%) with brief explanation
+
+            6. IMPORTANT: Consider these special cases:
+               - Related technologies as partial matches (e.g., React is related to Angular, Java is related to Kotlin)
+               - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match
+               - Educational background that complements technical skills
+               - Project experience that demonstrates practical application of skills
+               - Framework-language relationships (e.g., knowing React implies JavaScript knowledge)
+               - Value demonstrated experience (GitHub, portfolio, work) more heavily than listed skills
+            """);
+
     private String generateMatchDetails(StudentProfile student, List<String> studentSkills, CV cv, Job job) {
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("match details");
             return generateBasicMatchDetails(student, studentSkills, cv, job);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append(
-                "You are an AI job matcher specializing in comprehensive candidate evaluation using advanced NLP techniques. ");
-        prompt.append(
-                "Analyze the compatibility between this job and student profile in detail using semantic analysis. ");
-        prompt.append("Your analysis should include:\n");
-        prompt.append("1. Semantic similarity between job requirements and candidate skills\n");
-        prompt.append("2. Keyword extraction from both job description and student profile\n");
-        prompt.append("3. Entity recognition to identify technologies, tools, and domain expertise\n");
-        prompt.append("4. Contextual understanding of skill relationships and hierarchies\n");
-        prompt.append("5. Sentiment analysis of the candidate's descriptions and achievements\n\n");
-
-        prompt.append("Provide a thorough explanation (max 1500 characters) of why they match or don't match. ");
-        prompt.append(
-                "Focus on direct skill matches, related skills, transferable knowledge, education relevance, and growth potential. ");
-        prompt.append("Be specific about strengths, gaps, and include recommendations for the student. ");
-        prompt.append("Include a percentage match score (1-100%) at the end.\n\n");
-
         // Parse job required skills
         List<String> jobSkills = parseSkills(job.getRequiredSkills());
 
-        prompt.append("JOB DETAILS:\n");
-        prompt.append("Title: ").append(job.getTitle()).append("\n");
-        prompt.append("Description: ").append(job.getDescription()).append("\n");
-        prompt.append("Required Skills: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("STUDENT DETAILS:\n");
-        prompt.append("Skills: ").append(String.join(", ", studentSkills)).append("\n");
-        prompt.append("Major: ").append(student.getMajor()).append("\n");
-        prompt.append("University: ").append(student.getUniversity()).append("\n");
-        prompt.append("Graduation Year: ").append(student.getGraduationYear()).append("\n");
-
-        // Add additional student profile elements if available
-        if (student.getBio() != null && !student.getBio().isEmpty()) {
-            prompt.append("Bio: ").append(student.getBio()).append("\n");
-        }
-
-        if (student.getGithubUrl() != null && !student.getGithubUrl().isEmpty()) {
-            prompt.append("GitHub Projects: ").append(student.getGithubUrl()).append("\n");
-        }
-
-        if (student.getCertifications() != null && !student.getCertifications().isEmpty()) {
-            prompt.append("Certifications: ");
-            for (Certification cert : student.getCertifications()) {
-                prompt.append(cert.getName()).append(" (").append(cert.getIssuer()).append("), ");
-            }
-            prompt.append("\n");
-        }
-
-        if (student.getExperiences() != null && !student.getExperiences().isEmpty()) {
-            prompt.append("Work Experiences: ");
-            for (WorkExperience exp : student.getExperiences()) {
-                prompt.append(exp.getTitle()).append(" at ").append(exp.getCompany()).append(", ");
-            }
-            prompt.append("\n");
-        }
-
-        if (student.getPortfolioUrl() != null && !student.getPortfolioUrl().isEmpty()) {
-            prompt.append("Portfolio URL: ").append(student.getPortfolioUrl()).append("\n");
-        }
-
-        if (cv != null) {
-            prompt.append("CV Content: ").append(cv.getParsedResume()).append("\n");
-        }
-
-        // Add specific instructions for detailed NLP analysis
-        prompt.append("\nNLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform semantic similarity analysis between student skills and job required skills\n");
-        prompt.append(
-                "   - Use vector space understanding to identify conceptually similar skills even with different terminology\n");
-        prompt.append("   - Consider skill hierarchies (e.g., React is a subset of JavaScript frameworks)\n");
-        prompt.append("   - Identify skill clusters and domains (frontend, backend, database, etc.)\n\n");
-
-        prompt.append("2. Extract key entities from both profiles:\n");
-        prompt.append("   - Technologies: programming languages, frameworks, tools\n");
-        prompt.append("   - Domains: industry sectors, specialized fields\n");
-        prompt.append("   - Soft skills: communication, teamwork, leadership\n");
-        prompt.append("   - Experience levels: junior, mid-level, senior indicators\n\n");
-
-        prompt.append("3. Analyze skill relationships:\n");
-        prompt.append("   - Identify complementary skills (e.g., React + Redux, Java + Spring)\n");
-        prompt.append("   - Recognize transferable skills across domains\n");
-        prompt.append("   - Evaluate skill recency and relevance to current industry trends\n\n");
-
-        prompt.append("4. Consider ALL aspects of the student profile:\n");
-        prompt.append("   - GitHub projects that demonstrate practical application of skills\n");
-        prompt.append("   - Portfolio work that showcases relevant abilities\n");
-        prompt.append("   - Certifications that validate specific competencies\n");
-        prompt.append("   - Work experience that demonstrates real-world application\n");
-        prompt.append("   - Educational background and its relevance to the position\n\n");
-
-        prompt.append("5. Format your response with clear sections:\n");
-        prompt.append("   - Semantic Match Analysis: Overall compatibility based on meaning, not just keywords\n");
-        prompt.append("   - Strengths: Areas where the candidate strongly matches the job\n");
-        prompt.append("   - Gaps: Skills or experiences the candidate should develop\n");
-        prompt.append("   - Recommendations: Specific actions to improve match quality\n");
-        prompt.append("   - Match Score: Final percentage (1-100%) with brief explanation\n\n");
-
-        prompt.append("6. IMPORTANT: Consider these special cases:\n");
-        prompt.append(
-                "   - Related technologies as partial matches (e.g., React is related to Angular, Java is related to Kotlin)\n");
-        prompt.append(
-                "   - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match\n");
-        prompt.append("   - Educational background that complements technical skills\n");
-        prompt.append("   - Project experience that demonstrates practical application of skills\n");
-        prompt.append("   - Framework-language relationships (e.g., knowing React implies JavaScript knowledge)\n");
-        prompt.append("   - Value demonstrated experience (GitHub, portfolio, work) more heavily than listed skills\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.MATCH_DETAILS)
+                .block(MATCH_DETAILS_PREAMBLE)
+                .text("JOB DETAILS:\n")
+                .field("Title", job.getTitle())
+                .section("Description", job.getDescription(), PromptSection.JOB_DESCRIPTION)
+                .field("Required Skills", String.join(", ", jobSkills))
+                .text("\nSTUDENT DETAILS:\n")
+                .field("Skills", String.join(", ", studentSkills))
+                .field("Major", student.getMajor())
+                .field("University", student.getUniversity())
+                .field("Graduation Year", student.getGraduationYear())
+                .section("Bio", student.getBio(), PromptSection.BIO)
+                .field("GitHub Projects", student.getGithubUrl())
+                .field("Certifications", describeCertifications(student.getCertifications()))
+                .field("Work Experiences", describeExperiences(student.getExperiences()))
+                .field("Portfolio URL", student.getPortfolioUrl())
+                .section("CV Content", cv != null ? cv.getParsedResume() : null, PromptSection.CV_CONTENT)
+                .block(MATCH_DETAILS_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String details = extractGeminiResponse(response);
 
             if (details != null) {
@@ -1113,95 +1149,87 @@ public class JobMatchService {
     }
 
     public boolean hasGeminiApiKey() {
-        return geminiApiKey != null && !geminiApiKey.trim().isEmpty();
+        return geminiClient.isConfigured();
     }
 
+    private static final PromptBlock SKILL_MATCH_PREAMBLE = PromptBlock.of("""
+            You are an AI job matcher with expertise in NLP-based skill analysis. \
+            Your task is to analyze the compatibility between a student's skills and job required skills \
+            using advanced natural language processing techniques. \
+            Apply the following NLP approaches in your analysis:
+            1. Semantic similarity measurement between skill sets
+            2. Skill taxonomy and hierarchical relationships
+            3. Entity recognition to identify and categorize technologies
+            4. Contextual understanding of skill domains and relationships
+
+            Provide a detailed analysis of the match, focusing on strengths and gaps. \
+            Be specific about which skills match and which are missing. Also suggest how the student could improve their profile. \
+            Include a final match percentage (1-100%) at the end.
+
+            """);
+
+    private static final PromptBlock SKILL_MATCH_INSTRUCTIONS = PromptBlock.of("""
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform semantic similarity analysis:
+               - Measure direct matches between identical skills
+               - Identify semantically similar skills (e.g., 'React' and 'React.js')
+               - Calculate semantic proximity between related skills (e.g., React and Angular)
+
+            2. Apply skill taxonomy understanding:
+               - Group skills by domains: frontend, backend, database, cloud, etc.
+               - Identify parent-child relationships (e.g., JavaScript → React)
+               - Recognize skill clusters that indicate domain expertise
+
+            3. Analyze skill relevance and transferability:
+               - Identify which skills match directly
+               - Determine which skills are related/transferable
+               - Evaluate the learning curve for missing skills
+
+            4. Format your response with clear sections:
+               - Semantic Match Analysis: Overview of skill compatibility based on meaning
+               - Direct Matches: Skills that match exactly
+               - Related Skills: Skills that are semantically related but not exact matches
+               - Missing Skills: Critical skills the student lacks
+               - Recommendations: Specific skills to develop with learning resources
+               - Match Score: Final percentage (1-100%) with explanation
+
+            5. IMPORTANT: Consider these special cases:
+               - Related technologies as partial matches (e.g., React is related to Angular, Java is related to Kotlin)
+               - Skill hierarchy (knowing a framework implies some knowledge of its underlying language)
+               - Complementary skill sets (e.g., frontend + backend = fullstack potential)
+               - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match
+            """);
+
     public String generateSkillMatchAnalysis(List<String> studentSkills, List<String> jobSkills) {
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("skill match");
             return generateBasicSkillMatchAnalysis(studentSkills, jobSkills);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an AI job matcher with expertise in NLP-based skill analysis. ");
-        prompt.append("Your task is to analyze the compatibility between a student's skills and job required skills ");
-        prompt.append("using advanced natural language processing techniques. ");
-        prompt.append("Apply the following NLP approaches in your analysis:\n");
-        prompt.append("1. Semantic similarity measurement between skill sets\n");
-        prompt.append("2. Skill taxonomy and hierarchical relationships\n");
-        prompt.append("3. Entity recognition to identify and categorize technologies\n");
-        prompt.append("4. Contextual understanding of skill domains and relationships\n\n");
-
-        prompt.append("Provide a detailed analysis of the match, focusing on strengths and gaps. ");
-        prompt.append(
-                "Be specific about which skills match and which are missing. Also suggest how the student could improve their profile. ");
-        prompt.append("Include a final match percentage (1-100%) at the end.\n\n");
-
-        prompt.append("STUDENT SKILLS:\n");
-        prompt.append(String.join(", ", studentSkills)).append("\n\n");
-
-        prompt.append("JOB REQUIRED SKILLS:\n");
-        prompt.append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("NLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform semantic similarity analysis:\n");
-        prompt.append("   - Measure direct matches between identical skills\n");
-        prompt.append("   - Identify semantically similar skills (e.g., 'React' and 'React.js')\n");
-        prompt.append("   - Calculate semantic proximity between related skills (e.g., React and Angular)\n\n");
-
-        prompt.append("2. Apply skill taxonomy understanding:\n");
-        prompt.append("   - Group skills by domains: frontend, backend, database, cloud, etc.\n");
-        prompt.append("   - Identify parent-child relationships (e.g., JavaScript → React)\n");
-        prompt.append("   - Recognize skill clusters that indicate domain expertise\n\n");
-
-        prompt.append("3. Analyze skill relevance and transferability:\n");
-        prompt.append("   - Identify which skills match directly\n");
-        prompt.append("   - Determine which skills are related/transferable\n");
-        prompt.append("   - Evaluate the learning curve for missing skills\n\n");
-
-        prompt.append("4. Format your response with clear sections:\n");
-        prompt.append("   - Semantic Match Analysis: Overview of skill compatibility based on meaning\n");
-        prompt.append("   - Direct Matches: Skills that match exactly\n");
-        prompt.append("   - Related Skills: Skills that are semantically related but not exact matches\n");
-        prompt.append("   - Missing Skills: Critical skills the student lacks\n");
-        prompt.append("   - Recommendations: Specific skills to develop with learning resources\n");
-        prompt.append("   - Match Score: Final percentage (1-100%) with explanation\n\n");
-
-        prompt.append("5. IMPORTANT: Consider these special cases:\n");
-        prompt.append(
-                "   - Related technologies as partial matches (e.g., React is related to Angular, Java is related to Kotlin)\n");
-        prompt.append("   - Skill hierarchy (knowing a framework implies some knowledge of its underlying language)\n");
-        prompt.append("   - Complementary skill sets (e.g., frontend + backend = fullstack potential)\n");
-        prompt.append(
-                "   - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-        try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
-            String analysis = extractGeminiResponse(response);
-
-            if (analysis != null) {
-                return analysis;
+        // The answer depends only on the two skill sets, so it is shared across students
+        String memoKey = AnalysisMemo.key(LlmCallType.SKILL_MATCH, studentSkills, jobSkills);
+        String analysis = analysisMemo.get(LlmCallType.SKILL_MATCH, memoKey, () -> {
+            GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.SKILL_MATCH)
+                    .block(SKILL_MATCH_PREAMBLE)
+                    .text("STUDENT SKILLS:\n" + String.join(", ", studentSkills) + "\n\n")
+                    .text("JOB REQUIRED SKILLS:\n" + String.join(", ", jobSkills) + "\n\n")
+                    .block(SKILL_MATCH_INSTRUCTIONS)
+                    .build();
+            try {
+                Map<String, Object> response = postToGemini(prompt);
+                String text = extractGeminiResponse(response);
+                if (text == null) {
+                    logGeminiApiResponseError("skill match", response);
+                }
+                return text;
+            } catch (Exception e) {
+                logGeminiApiError("skill match", e);
+                return null;
             }
-            logGeminiApiResponseError("skill match", response);
-        } catch (Exception e) {
-            logGeminiApiError("skill match", e);
+        });
+        if (analysis != null) {
+            return analysis;
         }
 
         // Fallback to basic analysis if API call fails
@@ -1458,90 +1486,73 @@ public class JobMatchService {
         return analysis.toString();
     }
 
+    private static final PromptBlock GITHUB_PREAMBLE = PromptBlock.of("""
+            You are an AI technical recruiter specializing in GitHub project analysis using advanced NLP techniques. \
+            Analyze the student's GitHub profile and projects in relation to the job skills required using semantic analysis. \
+            Apply the following NLP approaches in your analysis:
+            1. Semantic similarity analysis between GitHub project technologies and job required skills
+            2. Entity extraction to identify programming languages, frameworks, and tools used in projects
+            3. Topic modeling to understand the domains and specializations demonstrated
+            4. Contextual understanding of technology relationships and hierarchies
+
+            Provide insights on how their GitHub work demonstrates relevant skills for the job. \
+            Focus on code quality, project complexity, and skill demonstration.
+
+            """);
+
+    private static final PromptBlock GITHUB_INSTRUCTIONS = PromptBlock.of("""
+
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform semantic extraction and analysis:
+               - Extract technologies, languages, and frameworks mentioned in GitHub projects
+               - Identify semantic relationships between extracted technologies and job skills
+               - Consider technology hierarchies (e.g., React is a JavaScript framework)
+
+            2. Analyze project complexity and relevance:
+               - Evaluate the complexity of projects based on technologies used
+               - Assess how directly the projects relate to the job requirements
+               - Consider the recency and activity level of projects
+
+            3. Identify skill demonstrations:
+               - Determine which job skills are directly evidenced in the GitHub work
+               - Identify related skills that suggest transferable knowledge
+               - Evaluate the depth of skill implementation (basic usage vs. advanced application)
+
+            4. Format your response with clear sections:
+               - Project Technology Analysis: Technologies identified and their relation to job skills
+               - Skill Evidence Assessment: How projects demonstrate required job skills
+               - Development Strengths: Areas where the GitHub profile shows strong capabilities
+               - Improvement Suggestions: How to better showcase skills through GitHub
+               - Relevance Score: A percentage (1-100%) indicating how well the GitHub profile supports the job application
+
+            5. IMPORTANT: Consider these special cases:
+               - Projects using technologies related to job skills (e.g., Vue project for React job)
+               - Implementation quality over quantity of repositories
+               - Evidence of collaborative development (pull requests, issues, etc.)
+               - Project documentation and code organization
+            """);
+
     public String analyzeGitHubProjects(String githubUrl, String githubProjects, List<String> jobSkills) {
         if ((githubUrl == null || githubUrl.isEmpty()) && (githubProjects == null || githubProjects.isEmpty())) {
             return "No GitHub information available for analysis.";
         }
 
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("GitHub project");
             return generateBasicGitHubAnalysis(githubUrl, githubProjects, jobSkills);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append(
-                "You are an AI technical recruiter specializing in GitHub project analysis using advanced NLP techniques. ");
-        prompt.append(
-                "Analyze the student's GitHub profile and projects in relation to the job skills required using semantic analysis. ");
-        prompt.append("Apply the following NLP approaches in your analysis:\n");
-        prompt.append("1. Semantic similarity analysis between GitHub project technologies and job required skills\n");
-        prompt.append(
-                "2. Entity extraction to identify programming languages, frameworks, and tools used in projects\n");
-        prompt.append("3. Topic modeling to understand the domains and specializations demonstrated\n");
-        prompt.append("4. Contextual understanding of technology relationships and hierarchies\n\n");
-
-        prompt.append("Provide insights on how their GitHub work demonstrates relevant skills for the job. ");
-        prompt.append("Focus on code quality, project complexity, and skill demonstration.\n\n");
-
-        if (githubUrl != null && !githubUrl.isEmpty()) {
-            prompt.append("GITHUB URL: ").append(githubUrl).append("\n\n");
-        }
-
-        if (githubProjects != null && !githubProjects.isEmpty()) {
-            prompt.append("GITHUB PROJECTS: ").append(githubProjects).append("\n\n");
-        }
-
-        prompt.append("JOB REQUIRED SKILLS: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("NLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform semantic extraction and analysis:\n");
-        prompt.append("   - Extract technologies, languages, and frameworks mentioned in GitHub projects\n");
-        prompt.append("   - Identify semantic relationships between extracted technologies and job skills\n");
-        prompt.append("   - Consider technology hierarchies (e.g., React is a JavaScript framework)\n\n");
-
-        prompt.append("2. Analyze project complexity and relevance:\n");
-        prompt.append("   - Evaluate the complexity of projects based on technologies used\n");
-        prompt.append("   - Assess how directly the projects relate to the job requirements\n");
-        prompt.append("   - Consider the recency and activity level of projects\n\n");
-
-        prompt.append("3. Identify skill demonstrations:\n");
-        prompt.append("   - Determine which job skills are directly evidenced in the GitHub work\n");
-        prompt.append("   - Identify related skills that suggest transferable knowledge\n");
-        prompt.append("   - Evaluate the depth of skill implementation (basic usage vs. advanced application)\n\n");
-
-        prompt.append("4. Format your response with clear sections:\n");
-        prompt.append("   - Project Technology Analysis: Technologies identified and their relation to job skills\n");
-        prompt.append("   - Skill Evidence Assessment: How projects demonstrate required job skills\n");
-        prompt.append("   - Development Strengths: Areas where the GitHub profile shows strong capabilities\n");
-        prompt.append("   - Improvement Suggestions: How to better showcase skills through GitHub\n");
-        prompt.append(
-                "   - Relevance Score: A percentage (1-100%) indicating how well the GitHub profile supports the job application\n\n");
-
-        prompt.append("5. IMPORTANT: Consider these special cases:\n");
-        prompt.append("   - Projects using technologies related to job skills (e.g., Vue project for React job)\n");
-        prompt.append("   - Implementation quality over quantity of repositories\n");
-        prompt.append("   - Evidence of collaborative development (pull requests, issues, etc.)\n");
-        prompt.append("   - Project documentation and code organization\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.GITHUB)
+                .block(GITHUB_PREAMBLE)
+                .field("GITHUB URL", githubUrl)
+                .section("GITHUB PROJECTS", githubProjects, PromptSection.GITHUB_PROJECTS)
+                .field("JOB REQUIRED SKILLS", String.join(", ", jobSkills))
+                .block(GITHUB_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String analysis = extractGeminiResponse(response);
 
             if (analysis != null) {
@@ -1753,81 +1764,72 @@ public class JobMatchService {
         return analysis.toString();
     }
 
+    private static final PromptBlock PORTFOLIO_PREAMBLE = PromptBlock.of("""
+            You are an AI portfolio analyst for job applications with expertise in NLP techniques. \
+            Analyze the student's portfolio URL in relation to the job skills required using semantic analysis. \
+            Apply the following NLP approaches in your analysis:
+            1. Named entity recognition to identify technologies, frameworks, and domains
+            2. Semantic similarity analysis between portfolio content and job requirements
+            3. Domain classification to understand the portfolio's specialization areas
+            4. Contextual understanding of technology relationships and hierarchies
+
+            Provide insights on how their portfolio demonstrates relevant skills for the job. \
+            Focus on project quality, skill demonstration, and presentation.
+
+            """);
+
+    private static final PromptBlock PORTFOLIO_INSTRUCTIONS = PromptBlock.of("""
+
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform URL and domain analysis:
+               - Extract domain information and hosting platform (GitHub Pages, Netlify, etc.)
+               - Identify technology indicators in the URL structure
+               - Infer potential technologies based on hosting platform
+
+            2. Apply semantic understanding to portfolio content:
+               - Identify likely technologies used to build the portfolio itself
+               - Recognize project types and domains represented
+               - Assess the sophistication level of the implementation
+
+            3. Analyze skill representation:
+               - Determine which job skills are likely demonstrated in the portfolio
+               - Identify related skills that suggest transferable knowledge
+               - Evaluate the depth of skill implementation (basic vs. advanced)
+
+            4. Format your response with clear sections:
+               - Portfolio Technology Analysis: Technologies identified and their relation to job skills
+               - Skill Evidence Assessment: How the portfolio demonstrates required job skills
+               - Presentation Strengths: How effectively skills are showcased
+               - Improvement Suggestions: How to better demonstrate skills through the portfolio
+               - Relevance Score: A percentage (1-100%) indicating how well the portfolio supports the job application
+
+            5. IMPORTANT: Consider these special cases:
+               - Portfolio built with technologies related to job skills
+               - Design quality as an indicator of frontend skills
+               - UX considerations as evidence of user-centered thinking
+               - Portfolio structure as evidence of organizational skills
+            """);
+
     public String analyzePortfolio(String portfolioUrl, List<String> jobSkills) {
         if (portfolioUrl == null || portfolioUrl.isEmpty()) {
             return "No portfolio URL available for analysis.";
         }
 
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("portfolio");
             return generateBasicPortfolioAnalysis(portfolioUrl, jobSkills);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an AI portfolio analyst for job applications with expertise in NLP techniques. ");
-        prompt.append(
-                "Analyze the student's portfolio URL in relation to the job skills required using semantic analysis. ");
-        prompt.append("Apply the following NLP approaches in your analysis:\n");
-        prompt.append("1. Named entity recognition to identify technologies, frameworks, and domains\n");
-        prompt.append("2. Semantic similarity analysis between portfolio content and job requirements\n");
-        prompt.append("3. Domain classification to understand the portfolio's specialization areas\n");
-        prompt.append("4. Contextual understanding of technology relationships and hierarchies\n\n");
-
-        prompt.append("Provide insights on how their portfolio demonstrates relevant skills for the job. ");
-        prompt.append("Focus on project quality, skill demonstration, and presentation.\n\n");
-
-        prompt.append("PORTFOLIO URL: ").append(portfolioUrl).append("\n\n");
-        prompt.append("JOB REQUIRED SKILLS: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("NLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform URL and domain analysis:\n");
-        prompt.append("   - Extract domain information and hosting platform (GitHub Pages, Netlify, etc.)\n");
-        prompt.append("   - Identify technology indicators in the URL structure\n");
-        prompt.append("   - Infer potential technologies based on hosting platform\n\n");
-
-        prompt.append("2. Apply semantic understanding to portfolio content:\n");
-        prompt.append("   - Identify likely technologies used to build the portfolio itself\n");
-        prompt.append("   - Recognize project types and domains represented\n");
-        prompt.append("   - Assess the sophistication level of the implementation\n\n");
-
-        prompt.append("3. Analyze skill representation:\n");
-        prompt.append("   - Determine which job skills are likely demonstrated in the portfolio\n");
-        prompt.append("   - Identify related skills that suggest transferable knowledge\n");
-        prompt.append("   - Evaluate the depth of skill implementation (basic vs. advanced)\n\n");
-
-        prompt.append("4. Format your response with clear sections:\n");
-        prompt.append("   - Portfolio Technology Analysis: Technologies identified and their relation to job skills\n");
-        prompt.append("   - Skill Evidence Assessment: How the portfolio demonstrates required job skills\n");
-        prompt.append("   - Presentation Strengths: How effectively skills are showcased\n");
-        prompt.append("   - Improvement Suggestions: How to better demonstrate skills through the portfolio\n");
-        prompt.append(
-                "   - Relevance Score: A percentage (1-100%) indicating how well the portfolio supports the job application\n\n");
-
-        prompt.append("5. IMPORTANT: Consider these special cases:\n");
-        prompt.append("   - Portfolio built with technologies related to job skills\n");
-        prompt.append("   - Design quality as an indicator of frontend skills\n");
-        prompt.append("   - UX considerations as evidence of user-centered thinking\n");
-        prompt.append("   - Portfolio structure as evidence of organizational skills\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.PORTFOLIO)
+                .block(PORTFOLIO_PREAMBLE)
+                .field("PORTFOLIO URL", portfolioUrl)
+                .field("JOB REQUIRED SKILLS", String.join(", ", jobSkills))
+                .block(PORTFOLIO_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String analysis = extractGeminiResponse(response);
 
             if (analysis != null) {
@@ -1947,98 +1949,103 @@ public class JobMatchService {
         return analysis.toString();
     }
 
+    private static final PromptBlock CERTIFICATIONS_PREAMBLE = PromptBlock.of("""
+            You are an AI certification analyst for job applications with expertise in NLP techniques. \
+            Analyze the student's certifications in relation to the job skills required using semantic analysis. \
+            Apply the following NLP approaches in your analysis:
+            1. Named entity recognition to identify technologies, frameworks, and domains in certifications
+            2. Semantic similarity analysis between certification topics and job requirements
+            3. Knowledge graph understanding of certification hierarchies and relationships
+            4. Contextual understanding of certification value in different domains
+
+            Provide insights on how their certifications demonstrate relevant skills for the job. \
+            Focus on certification relevance, credibility, and skill validation.
+
+            """);
+
+    private static final PromptBlock CERTIFICATIONS_INSTRUCTIONS = PromptBlock.of("""
+
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform certification entity extraction:
+               - Extract technologies, platforms, and domains from certification names
+               - Identify certification issuers and their industry reputation
+               - Recognize certification levels and specializations
+
+            2. Apply semantic understanding to certification value:
+               - Map certifications to skill domains and competencies
+               - Assess certification difficulty and industry recognition
+               - Evaluate certification recency and relevance to current practices
+
+            3. Analyze skill validation:
+               - Determine which job skills are formally validated by certifications
+               - Identify related skills that are likely covered in certification curricula
+               - Evaluate the depth of skill validation (foundational vs. expert level)
+
+            4. Format your response with clear sections:
+               - Certification Analysis: Overview of certifications and their relevance
+               - Skill Validation Assessment: How certifications validate required job skills
+               - Certification Strengths: Areas where certifications strongly support the application
+               - Certification Gaps: Additional certifications that would strengthen the application
+               - Relevance Score: A percentage (1-100%) indicating how well the certifications support the job application
+
+            5. IMPORTANT: Consider these special cases:
+               - Industry-standard certifications that carry significant weight
+               - Certifications that cover multiple skill domains
+               - Complementary certifications that demonstrate breadth of knowledge
+               - Certification progression that shows commitment to professional development
+            """);
+
     public String analyzeCertifications(Set<Certification> certifications, List<String> jobSkills) {
         if (certifications == null || certifications.isEmpty()) {
             return "No certifications available for analysis.";
         }
 
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("certifications");
             return generateBasicCertificationsAnalysis(certifications, jobSkills);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an AI certification analyst for job applications with expertise in NLP techniques. ");
-        prompt.append(
-                "Analyze the student's certifications in relation to the job skills required using semantic analysis. ");
-        prompt.append("Apply the following NLP approaches in your analysis:\n");
-        prompt.append(
-                "1. Named entity recognition to identify technologies, frameworks, and domains in certifications\n");
-        prompt.append("2. Semantic similarity analysis between certification topics and job requirements\n");
-        prompt.append("3. Knowledge graph understanding of certification hierarchies and relationships\n");
-        prompt.append("4. Contextual understanding of certification value in different domains\n\n");
-
-        prompt.append("Provide insights on how their certifications demonstrate relevant skills for the job. ");
-        prompt.append("Focus on certification relevance, credibility, and skill validation.\n\n");
-
-        prompt.append("CERTIFICATIONS:\n");
+        // Certifications are described by name, issuer and year only (no student-specific
+        // dates), so students holding the same set share one memoized analysis per job skill set
+        List<String> certificationLines = new ArrayList<>();
         for (Certification cert : certifications) {
-            prompt.append("- ").append(cert.getName())
-                    .append(" (").append(cert.getIssuer()).append(")")
-                    .append(" - ").append(cert.getDateReceived())
-                    .append("\n");
-        }
-        prompt.append("\n");
-
-        prompt.append("JOB REQUIRED SKILLS: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("NLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform certification entity extraction:\n");
-        prompt.append("   - Extract technologies, platforms, and domains from certification names\n");
-        prompt.append("   - Identify certification issuers and their industry reputation\n");
-        prompt.append("   - Recognize certification levels and specializations\n\n");
-
-        prompt.append("2. Apply semantic understanding to certification value:\n");
-        prompt.append("   - Map certifications to skill domains and competencies\n");
-        prompt.append("   - Assess certification difficulty and industry recognition\n");
-        prompt.append("   - Evaluate certification recency and relevance to current practices\n\n");
-
-        prompt.append("3. Analyze skill validation:\n");
-        prompt.append("   - Determine which job skills are formally validated by certifications\n");
-        prompt.append("   - Identify related skills that are likely covered in certification curricula\n");
-        prompt.append("   - Evaluate the depth of skill validation (foundational vs. expert level)\n\n");
-
-        prompt.append("4. Format your response with clear sections:\n");
-        prompt.append("   - Certification Analysis: Overview of certifications and their relevance\n");
-        prompt.append("   - Skill Validation Assessment: How certifications validate required job skills\n");
-        prompt.append("   - Certification Strengths: Areas where certifications strongly support the application\n");
-        prompt.append("   - Certification Gaps: Additional certifications that would strengthen the application\n");
-        prompt.append(
-                "   - Relevance Score: A percentage (1-100%) indicating how well the certifications support the job application\n\n");
-
-        prompt.append("5. IMPORTANT: Consider these special cases:\n");
-        prompt.append("   - Industry-standard certifications that carry significant weight\n");
-        prompt.append("   - Certifications that cover multiple skill domains\n");
-        prompt.append("   - Complementary certifications that demonstrate breadth of knowledge\n");
-        prompt.append("   - Certification progression that shows commitment to professional development\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            String line = cert.getName() + " (" + cert.getIssuer() + ")";
+            if (cert.getDateReceived() != null) {
+                line += " - " + cert.getDateReceived().getYear();
+            }
+            certificationLines.add(line);
+        }
+        Collections.sort(certificationLines);
 
-        try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
-            String analysis = extractGeminiResponse(response);
+        String memoKey = AnalysisMemo.key(LlmCallType.CERTIFICATIONS, certificationLines, jobSkills);
+        String analysis = analysisMemo.get(LlmCallType.CERTIFICATIONS, memoKey, () -> {
+            StringBuilder certificationList = new StringBuilder("CERTIFICATIONS:\n");
+            for (String line : certificationLines) {
+                certificationList.append("- ").append(line).append("\n");
+            }
+            certificationList.append("\n");
 
-            if (analysis != null) {
-                return analysis;
+            GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.CERTIFICATIONS)
+                    .block(CERTIFICATIONS_PREAMBLE)
+                    .text(certificationList.toString())
+                    .field("JOB REQUIRED SKILLS", String.join(", ", jobSkills))
+                    .block(CERTIFICATIONS_INSTRUCTIONS)
+                    .build();
+            try {
+                Map<String, Object> response = postToGemini(prompt);
+                String text = extractGeminiResponse(response);
+                if (text == null) {
+                    logGeminiApiResponseError("certifications", response);
+                }
+                return text;
+            } catch (Exception e) {
+                logGeminiApiError("certifications", e);
+                return null;
             }
-            logGeminiApiResponseError("certifications", response);
-        } catch (Exception e) {
-            logGeminiApiError("certifications", e);
+        });
+        if (analysis != null) {
+            return analysis;
         }
 
         // Fallback to basic analysis if API call fails
@@ -2192,100 +2199,91 @@ public class JobMatchService {
         return analysis.toString();
     }
 
+    private static final PromptBlock WORK_EXPERIENCE_PREAMBLE = PromptBlock.of("""
+            You are an AI work experience analyst for job applications with expertise in NLP techniques. \
+            Analyze the student's work experiences in relation to the job skills required using semantic analysis. \
+            Apply the following NLP approaches in your analysis:
+            1. Named entity recognition to identify roles, companies, technologies, and accomplishments
+            2. Semantic similarity analysis between work descriptions and job requirements
+            3. Temporal analysis of experience progression and skill development
+            4. Contextual understanding of industry-specific terminology and roles
+
+            Provide insights on how their experiences demonstrate relevant skills for the job. \
+            Focus on transferable skills, achievements, and relevance to the job.
+
+            """);
+
+    private static final PromptBlock WORK_EXPERIENCE_INSTRUCTIONS = PromptBlock.of("""
+
+            NLP ANALYSIS INSTRUCTIONS:
+            1. Perform experience entity extraction:
+               - Extract job titles, roles, responsibilities, and achievements
+               - Identify technologies, tools, and methodologies mentioned
+               - Recognize industry sectors and domains of expertise
+
+            2. Apply semantic understanding to experience value:
+               - Map job roles to skill domains and competencies
+               - Assess experience depth and progression over time
+               - Evaluate relevance of past roles to the target position
+
+            3. Analyze skill evidence:
+               - Determine which job skills are directly evidenced in work history
+               - Identify transferable skills from different domains or roles
+               - Evaluate the depth of skill application (basic usage vs. leadership)
+
+            4. Format your response with clear sections:
+               - Experience Analysis: Overview of work history and its relevance
+               - Skill Evidence Assessment: How work history demonstrates required job skills
+               - Professional Strengths: Areas where experience strongly supports the application
+               - Experience Gaps: Areas where additional experience would strengthen the application
+               - Relevance Score: A percentage (1-100%) indicating how well the work experience supports the job application
+
+            5. IMPORTANT: Consider these special cases:
+               - Leadership and management experience
+               - Project-based accomplishments that demonstrate multiple skills
+               - Experience progression that shows career growth
+               - Industry-specific experience that may be particularly valuable
+            """);
+
     public String analyzeWorkExperience(Set<WorkExperience> experiences, List<String> jobSkills) {
         if (experiences == null || experiences.isEmpty()) {
             return "No work experiences available for analysis.";
         }
 
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("work experience");
             return generateBasicWorkExperienceAnalysis(experiences, jobSkills);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an AI work experience analyst for job applications with expertise in NLP techniques. ");
-        prompt.append(
-                "Analyze the student's work experiences in relation to the job skills required using semantic analysis. ");
-        prompt.append("Apply the following NLP approaches in your analysis:\n");
-        prompt.append("1. Named entity recognition to identify roles, companies, technologies, and accomplishments\n");
-        prompt.append("2. Semantic similarity analysis between work descriptions and job requirements\n");
-        prompt.append("3. Temporal analysis of experience progression and skill development\n");
-        prompt.append("4. Contextual understanding of industry-specific terminology and roles\n\n");
-
-        prompt.append("Provide insights on how their experiences demonstrate relevant skills for the job. ");
-        prompt.append("Focus on transferable skills, achievements, and relevance to the job.\n\n");
-
-        prompt.append("WORK EXPERIENCES:\n");
+        StringBuilder experienceList = new StringBuilder();
         for (WorkExperience exp : experiences) {
-            prompt.append("- ").append(exp.getTitle())
+            experienceList.append("- ").append(exp.getTitle())
                     .append(" at ").append(exp.getCompany())
                     .append(" (").append(exp.getStartDate());
 
             if (exp.getEndDate() != null) {
-                prompt.append(" to ").append(exp.getEndDate());
+                experienceList.append(" to ").append(exp.getEndDate());
             } else {
-                prompt.append(" to Present");
+                experienceList.append(" to Present");
             }
 
-            prompt.append(")\n");
+            experienceList.append(")\n");
 
             if (exp.getDescription() != null && !exp.getDescription().isEmpty()) {
-                prompt.append("  Description: ").append(exp.getDescription()).append("\n");
+                experienceList.append("  Description: ").append(exp.getDescription()).append("\n");
             }
         }
-        prompt.append("\n");
-
-        prompt.append("JOB REQUIRED SKILLS: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("NLP ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Perform experience entity extraction:\n");
-        prompt.append("   - Extract job titles, roles, responsibilities, and achievements\n");
-        prompt.append("   - Identify technologies, tools, and methodologies mentioned\n");
-        prompt.append("   - Recognize industry sectors and domains of expertise\n\n");
-
-        prompt.append("2. Apply semantic understanding to experience value:\n");
-        prompt.append("   - Map job roles to skill domains and competencies\n");
-        prompt.append("   - Assess experience depth and progression over time\n");
-        prompt.append("   - Evaluate relevance of past roles to the target position\n\n");
 
-        prompt.append("3. Analyze skill evidence:\n");
-        prompt.append("   - Determine which job skills are directly evidenced in work history\n");
-        prompt.append("   - Identify transferable skills from different domains or roles\n");
-        prompt.append("   - Evaluate the depth of skill application (basic usage vs. leadership)\n\n");
-
-        prompt.append("4. Format your response with clear sections:\n");
-        prompt.append("   - Experience Analysis: Overview of work history and its relevance\n");
-        prompt.append("   - Skill Evidence Assessment: How work history demonstrates required job skills\n");
-        prompt.append("   - Professional Strengths: Areas where experience strongly supports the application\n");
-        prompt.append("   - Experience Gaps: Areas where additional experience would strengthen the application\n");
-        prompt.append(
-                "   - Relevance Score: A percentage (1-100%) indicating how well the work experience supports the job application\n\n");
-
-        prompt.append("5. IMPORTANT: Consider these special cases:\n");
-        prompt.append("   - Leadership and management experience\n");
-        prompt.append("   - Project-based accomplishments that demonstrate multiple skills\n");
-        prompt.append("   - Experience progression that shows career growth\n");
-        prompt.append("   - Industry-specific experience that may be particularly valuable\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.WORK_EXPERIENCE)
+                .block(WORK_EXPERIENCE_PREAMBLE)
+                .section("WORK EXPERIENCES", experienceList.toString(), PromptSection.WORK_EXPERIENCE)
+                .field("JOB REQUIRED SKILLS", String.join(", ", jobSkills))
+                .block(WORK_EXPERIENCE_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String analysis = extractGeminiResponse(response);
 
             if (analysis != null) {
@@ -2471,6 +2469,114 @@ public class JobMatchService {
         return analysis.toString();
     }
 
+    private static final PromptBlock BIO_PREAMBLE = PromptBlock.of("""
+            You are an AI bio analyzer specializing in advanced Natural Language Processing and semantic analysis. \
+            Your task is to deeply analyze the student's professional bio to extract hidden insights, implicit skills, \
+            personality traits, career aspirations, and cultural fit for the target job position. \
+            Apply cutting-edge NLP techniques including:
+
+            NLP TECHNIQUES TO APPLY:
+            1. **Semantic Analysis**: Extract meaning beyond keywords through contextual understanding
+            2. **Named Entity Recognition (NER)**: Identify technologies, skills, organizations, and domains
+            3. **Sentiment Analysis**: Gauge passion, enthusiasm, and confidence levels
+            4. **Topic Modeling**: Identify main themes and areas of expertise
+            5. **Skill Extraction**: Detect both explicit and implicit technical and soft skills
+            6. **Intent Recognition**: Understand career goals, motivations, and aspirations
+            7. **Personality Trait Inference**: Deduce personality characteristics from language patterns
+            8. **Contextual Embeddings**: Use semantic similarity to match bio content with job requirements
+
+            """);
+
+    private static final PromptBlock BIO_INSTRUCTIONS = PromptBlock.of("""
+
+            COMPREHENSIVE NLP ANALYSIS INSTRUCTIONS:
+
+            1. **Semantic Skill Extraction**:
+               - Extract ALL technical skills mentioned (explicitly and implicitly)
+               - Identify soft skills (communication, teamwork, problem-solving, etc.)
+               - Map extracted skills to job requirements using semantic similarity
+               - Consider synonyms and related technologies (e.g., 'frontend' → React, Angular, Vue)
+               - Identify skill proficiency levels from language intensity
+
+            2. **Named Entity Recognition**:
+               - Programming languages and frameworks mentioned
+               - Technologies, tools, and platforms
+               - Project types and domains
+               - Industry sectors and specializations
+               - Methodologies (Agile, DevOps, etc.)
+
+            3. **Sentiment and Passion Analysis**:
+               - Measure enthusiasm level (passionate, motivated, eager, etc.)
+               - Identify areas of strong interest and excitement
+               - Detect confidence indicators in skill descriptions
+               - Assess overall positivity and professional tone
+
+            4. **Career Intent and Goals**:
+               - Extract career aspirations and long-term goals
+               - Identify desired role types and responsibilities
+               - Detect growth mindset and learning orientation
+               - Match career goals with job position trajectory
+
+            5. **Personality Trait Inference**:
+               - Collaborative indicators (team player, collaborative, etc.)
+               - Independent work capability
+               - Leadership potential
+               - Attention to detail vs. big-picture thinking
+               - Innovation and creativity markers
+
+            6. **Cultural and Value Alignment**:
+               - Work values mentioned (quality, innovation, user-focus, etc.)
+               - Professional ethics and standards
+               - Alignment with typical industry/company cultures
+
+            7. **Skill-Job Semantic Matching**:
+               - For EACH required job skill, determine if the bio provides evidence (direct or indirect)
+               - Use semantic similarity to find related concepts
+               - Consider transferable skills and learning potential
+               - Identify skill gaps that are NOT mentioned in the bio
+
+            OUTPUT FORMAT (provide detailed analysis in these sections):
+
+            ### Extracted Skills Analysis
+            - **Technical Skills Identified**: [List all technical skills found with confidence level]
+            - **Soft Skills Identified**: [List all soft skills detected]
+            - **Skill-Job Alignment**: [For each job skill, explain if/how the bio demonstrates it]
+
+            ### Semantic Match Assessment
+            - **Direct Matches**: [Skills explicitly mentioned that match job requirements]
+            - **Semantic Matches**: [Related skills/concepts that semantically align with job needs]
+            - **Missing Skills**: [Required skills with NO evidence in bio]
+
+            ### Personality and Traits
+            - **Key Personality Traits**: [Inferred traits with supporting evidence]
+            - **Work Style Indicators**: [Collaborative, independent, detail-oriented, etc.]
+            - **Cultural Fit Indicators**: [Values and preferences that indicate cultural alignment]
+
+            ### Career Goals and Motivation
+            - **Career Aspirations**: [Goals and desired career path]
+            - **Passion Areas**: [Topics showing high enthusiasm]
+            - **Alignment with Job**: [How career goals align with this position]
+            - **Growth Mindset Indicators**: [Evidence of learning orientation]
+
+            ### Sentiment and Confidence
+            - **Overall Sentiment**: [Positive/neutral/concerning]
+            - **Confidence Level**: [High/moderate/low with evidence]
+            - **Passion Intensity**: [Score 1-10 with explanation]
+
+            ### Bio Relevance Score
+            - **Overall Bio-Job Match**: [Percentage 1-100% with detailed explanation]
+            - **Reasoning**: [Explain the score based on skill coverage, alignment, and potential]
+            - **Recommendations**: [How student could improve bio for better match]
+
+            IMPORTANT CONSIDERATIONS:
+            - Weight demonstrated passion and motivation highly
+            - Consider implicit skills (e.g., 'built web apps' → HTML, CSS, JavaScript)
+            - Value learning orientation and growth potential
+            - Recognize transferable skills from different domains
+            - Assess cultural fit through language and values expressed
+            - Provide specific evidence from the bio for each insight
+            """);
+
     /**
      * Analyzes student bio using NLP to extract skills, personality traits, career
      * goals, and alignment with job
@@ -2481,145 +2587,23 @@ public class JobMatchService {
         }
 
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("bio NLP");
             return generateBasicBioAnalysis(bio, jobSkills, job);
         }
 
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append(
-                "You are an AI bio analyzer specializing in advanced Natural Language Processing and semantic analysis. ");
-        prompt.append(
-                "Your task is to deeply analyze the student's professional bio to extract hidden insights, implicit skills, ");
-        prompt.append("personality traits, career aspirations, and cultural fit for the target job position. ");
-        prompt.append("Apply cutting-edge NLP techniques including:\n\n");
-
-        prompt.append("NLP TECHNIQUES TO APPLY:\n");
-        prompt.append("1. **Semantic Analysis**: Extract meaning beyond keywords through contextual understanding\n");
-        prompt.append(
-                "2. **Named Entity Recognition (NER)**: Identify technologies, skills, organizations, and domains\n");
-        prompt.append("3. **Sentiment Analysis**: Gauge passion, enthusiasm, and confidence levels\n");
-        prompt.append("4. **Topic Modeling**: Identify main themes and areas of expertise\n");
-        prompt.append("5. **Skill Extraction**: Detect both explicit and implicit technical and soft skills\n");
-        prompt.append("6. **Intent Recognition**: Understand career goals, motivations, and aspirations\n");
-        prompt.append(
-                "7. **Personality Trait Inference**: Deduce personality characteristics from language patterns\n");
-        prompt.append(
-                "8. **Contextual Embeddings**: Use semantic similarity to match bio content with job requirements\n\n");
-
-        prompt.append("STUDENT BIO:\n");
-        prompt.append(bio).append("\n\n");
-
-        prompt.append("JOB DETAILS:\n");
-        prompt.append("Title: ").append(job.getTitle()).append("\n");
-        prompt.append("Description: ").append(job.getDescription()).append("\n");
-        prompt.append("Required Skills: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("COMPREHENSIVE NLP ANALYSIS INSTRUCTIONS:\n\n");
-
-        prompt.append("1. **Semantic Skill Extraction**:\n");
-        prompt.append("   - Extract ALL technical skills mentioned (explicitly and implicitly)\n");
-        prompt.append("   - Identify soft skills (communication, teamwork, problem-solving, etc.)\n");
-        prompt.append("   - Map extracted skills to job requirements using semantic similarity\n");
-        prompt.append("   - Consider synonyms and related technologies (e.g., 'frontend' → React, Angular, Vue)\n");
-        prompt.append("   - Identify skill proficiency levels from language intensity\n\n");
-
-        prompt.append("2. **Named Entity Recognition**:\n");
-        prompt.append("   - Programming languages and frameworks mentioned\n");
-        prompt.append("   - Technologies, tools, and platforms\n");
-        prompt.append("   - Project types and domains\n");
-        prompt.append("   - Industry sectors and specializations\n");
-        prompt.append("   - Methodologies (Agile, DevOps, etc.)\n\n");
-
-        prompt.append("3. **Sentiment and Passion Analysis**:\n");
-        prompt.append("   - Measure enthusiasm level (passionate, motivated, eager, etc.)\n");
-        prompt.append("   - Identify areas of strong interest and excitement\n");
-        prompt.append("   - Detect confidence indicators in skill descriptions\n");
-        prompt.append("   - Assess overall positivity and professional tone\n\n");
-
-        prompt.append("4. **Career Intent and Goals**:\n");
-        prompt.append("   - Extract career aspirations and long-term goals\n");
-        prompt.append("   - Identify desired role types and responsibilities\n");
-        prompt.append("   - Detect growth mindset and learning orientation\n");
-        prompt.append("   - Match career goals with job position trajectory\n\n");
-
-        prompt.append("5. **Personality Trait Inference**:\n");
-        prompt.append("   - Collaborative indicators (team player, collaborative, etc.)\n");
-        prompt.append("   - Independent work capability\n");
-        prompt.append("   - Leadership potential\n");
-        prompt.append("   - Attention to detail vs. big-picture thinking\n");
-        prompt.append("   - Innovation and creativity markers\n\n");
-
-        prompt.append("6. **Cultural and Value Alignment**:\n");
-        prompt.append("   - Work values mentioned (quality, innovation, user-focus, etc.)\n");
-        prompt.append("   - Professional ethics and standards\n");
-        prompt.append("   - Alignment with typical industry/company cultures\n\n");
-
-        prompt.append("7. **Skill-Job Semantic Matching**:\n");
-        prompt.append(
-                "   - For EACH required job skill, determine if the bio provides evidence (direct or indirect)\n");
-        prompt.append("   - Use semantic similarity to find related concepts\n");
-        prompt.append("   - Consider transferable skills and learning potential\n");
-        prompt.append("   - Identify skill gaps that are NOT mentioned in the bio\n\n");
-
-        prompt.append("OUTPUT FORMAT (provide detailed analysis in these sections):\n\n");
-        prompt.append("### Extracted Skills Analysis\n");
-        prompt.append("- **Technical Skills Identified**: [List all technical skills found with confidence level]\n");
-        prompt.append("- **Soft Skills Identified**: [List all soft skills detected]\n");
-        prompt.append("- **Skill-Job Alignment**: [For each job skill, explain if/how the bio demonstrates it]\n\n");
-
-        prompt.append("### Semantic Match Assessment\n");
-        prompt.append("- **Direct Matches**: [Skills explicitly mentioned that match job requirements]\n");
-        prompt.append("- **Semantic Matches**: [Related skills/concepts that semantically align with job needs]\n");
-        prompt.append("- **Missing Skills**: [Required skills with NO evidence in bio]\n\n");
-
-        prompt.append("### Personality and Traits\n");
-        prompt.append("- **Key Personality Traits**: [Inferred traits with supporting evidence]\n");
-        prompt.append("- **Work Style Indicators**: [Collaborative, independent, detail-oriented, etc.]\n");
-        prompt.append("- **Cultural Fit Indicators**: [Values and preferences that indicate cultural alignment]\n\n");
-
-        prompt.append("### Career Goals and Motivation\n");
-        prompt.append("- **Career Aspirations**: [Goals and desired career path]\n");
-        prompt.append("- **Passion Areas**: [Topics showing high enthusiasm]\n");
-        prompt.append("- **Alignment with Job**: [How career goals align with this position]\n");
-        prompt.append("- **Growth Mindset Indicators**: [Evidence of learning orientation]\n\n");
-
-        prompt.append("### Sentiment and Confidence\n");
-        prompt.append("- **Overall Sentiment**: [Positive/neutral/concerning]\n");
-        prompt.append("- **Confidence Level**: [High/moderate/low with evidence]\n");
-        prompt.append("- **Passion Intensity**: [Score 1-10 with explanation]\n\n");
-
-        prompt.append("### Bio Relevance Score\n");
-        prompt.append("- **Overall Bio-Job Match**: [Percentage 1-100% with detailed explanation]\n");
-        prompt.append("- **Reasoning**: [Explain the score based on skill coverage, alignment, and potential]\n");
-        prompt.append("- **Recommendations**: [How student could improve bio for better match]\n\n");
-
-        prompt.append("IMPORTANT CONSIDERATIONS:\n");
-        prompt.append("- Weight demonstrated passion and motivation highly\n");
-        prompt.append("- Consider implicit skills (e.g., 'built web apps' → HTML, CSS, JavaScript)\n");
-        prompt.append("- Value learning orientation and growth potential\n");
-        prompt.append("- Recognize transferable skills from different domains\n");
-        prompt.append("- Assess cultural fit through language and values expressed\n");
-        prompt.append("- Provide specific evidence from the bio for each insight\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.BIO)
+                .block(BIO_PREAMBLE)
+                .section("STUDENT BIO", bio, PromptSection.BIO)
+                .text("\nJOB DETAILS:\n")
+                .field("Title", job.getTitle())
+                .section("Description", job.getDescription(), PromptSection.JOB_DESCRIPTION)
+                .field("Required Skills", String.join(", ", jobSkills))
+                .block(BIO_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String analysis = extractGeminiResponse(response);
 
             if (analysis != null) {
@@ -2741,6 +2725,12 @@ public class JobMatchService {
     }
 
     private void logGeminiApiError(String analysisType, Exception e) {
+        if (e instanceof LlmDeadlineExceededException) {
+            countFallback(analysisType, "deadline");
+            logger.warn("Skipping Gemini {} analysis: {}", analysisType, e.getMessage());
+            return;
+        }
+        countFallback(analysisType, "error");
         System.err.println("ERROR: Gemini API call failed for " + analysisType + " analysis");
         System.err.println("Error message: " + e.getMessage());
         if (e.getCause() != null) {
@@ -2751,6 +2741,7 @@ public class JobMatchService {
     }
 
     private void logGeminiApiResponseError(String analysisType, Map<String, Object> response) {
+        countFallback(analysisType, "bad_response");
         System.err.println("ERROR: Unexpected Gemini API response for " + analysisType + " analysis");
         System.err.println("Response structure: " + response);
 
@@ -2771,175 +2762,107 @@ public class JobMatchService {
     }
 
     private void logGeminiApiMissingKeyError(String analysisType) {
+        countFallback(analysisType, "not_configured");
         System.err.println("ERROR: Gemini API key is not configured for " + analysisType + " analysis");
         System.err.println("Please add gemini.api.key to your application.properties");
         System.err.println("Falling back to basic analysis method");
     }
 
+    private void countFallback(String analysisType, String reason) {
+        Counter.builder("match.analysis.fallbacks")
+                .description("Analyses answered by the local fallback instead of Gemini")
+                .tag("analysis", analysisType.toLowerCase(Locale.ROOT).replace(' ', '_'))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
     /**
-     * Create HttpHeaders for Gemini API requests
+     * Runs one stage of the match pipeline in a match.stage observation (timer and span)
      */
-    private HttpHeaders createGeminiHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("x-goog-api-key", geminiApiKey);
-        return headers;
+    private <T> T stage(String stage, Supplier<T> work) {
+        return newStage(stage).observe(work);
+    }
+
+    private Observation newStage(String stage) {
+        return Observation.createNotStarted("match.stage", observationRegistry)
+                .lowCardinalityKeyValue("stage", stage);
+    }
+
+    /**
+     * Send a pre-assembled prompt to the model routed for its call type
+     */
+    private Map<String, Object> postToGemini(GeminiPrompt prompt) {
+        return geminiClient.generate(prompt);
+    }
+
+    private String describeCertifications(Set<Certification> certifications) {
+        if (certifications == null || certifications.isEmpty()) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (Certification cert : certifications) {
+            names.add(cert.getName() + " (" + cert.getIssuer() + ")");
+        }
+        return String.join(", ", names);
+    }
+
+    private String describeExperiences(Set<WorkExperience> experiences) {
+        if (experiences == null || experiences.isEmpty()) {
+            return null;
+        }
+        List<String> roles = new ArrayList<>();
+        for (WorkExperience exp : experiences) {
+            roles.add(exp.getTitle() + " at " + exp.getCompany());
+        }
+        return String.join(", ", roles);
     }
 
     /**
      * Extract text response from Gemini API response
      */
     private String extractGeminiResponse(Map<String, Object> response) {
-        if (response != null && response.containsKey("candidates")) {
-            List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-            if (!candidates.isEmpty()) {
-                Map<String, Object> candidate = candidates.get(0);
-                List<Map<String, Object>> contentList = (List<Map<String, Object>>) candidate.get("content");
-                if (!contentList.isEmpty()) {
-                    Map<String, Object> contentItem = contentList.get(0);
-                    List<Map<String, Object>> responseParts = (List<Map<String, Object>>) contentItem.get("parts");
-                    if (!responseParts.isEmpty()) {
-                        return (String) responseParts.get(0).get("text");
-                    }
-                }
-            }
-        }
-        return null;
+        return GeminiClient.extractText(response);
     }
 
     /**
-     * Returns a comprehensive map of framework-language relationships for better
-     * skill matching.
-     * The key is the framework/library name, and the value is a list of related
-     * languages and technologies.
+     * Framework-language relationships of the skill taxonomy, see {@link SkillTaxonomy}.
      */
     private Map<String, List<String>> getFrameworkLanguageMap() {
-        Map<String, List<String>> frameworkLanguageMap = new HashMap<>();
-
-        // Frontend frameworks
-        frameworkLanguageMap.put("react",
-                Arrays.asList("javascript", "typescript", "js", "jsx", "tsx", "frontend", "ui"));
-        frameworkLanguageMap.put("react.js", Arrays.asList("javascript", "typescript", "js", "jsx", "tsx", "react"));
-        frameworkLanguageMap.put("angular", Arrays.asList("javascript", "typescript", "js", "ts", "frontend", "ui"));
-        frameworkLanguageMap.put("vue", Arrays.asList("javascript", "typescript", "js", "frontend", "ui"));
-        frameworkLanguageMap.put("vue.js", Arrays.asList("javascript", "typescript", "js", "vue"));
-        frameworkLanguageMap.put("svelte", Arrays.asList("javascript", "typescript", "js", "frontend"));
-        frameworkLanguageMap.put("nextjs",
-                Arrays.asList("javascript", "typescript", "react", "js", "jsx", "tsx", "ssr"));
-        frameworkLanguageMap.put("next.js", Arrays.asList("javascript", "typescript", "react", "nextjs"));
-        frameworkLanguageMap.put("gatsby", Arrays.asList("javascript", "typescript", "react", "js", "jsx", "tsx"));
-        frameworkLanguageMap.put("nuxt", Arrays.asList("javascript", "typescript", "vue", "ssr"));
-        frameworkLanguageMap.put("ember", Arrays.asList("javascript", "typescript", "frontend"));
-
-        // Backend frameworks - Java/Kotlin
-        frameworkLanguageMap.put("spring", Arrays.asList("java", "kotlin", "backend", "api"));
-        frameworkLanguageMap.put("spring boot", Arrays.asList("java", "kotlin", "spring", "backend", "api"));
-        frameworkLanguageMap.put("springboot", Arrays.asList("java", "kotlin", "spring", "backend"));
-        frameworkLanguageMap.put("spring mvc", Arrays.asList("java", "kotlin", "spring", "web"));
-        frameworkLanguageMap.put("hibernate", Arrays.asList("java", "kotlin", "orm", "database"));
-        frameworkLanguageMap.put("jpa", Arrays.asList("java", "kotlin", "orm", "database", "hibernate"));
-        frameworkLanguageMap.put("junit", Arrays.asList("java", "kotlin", "testing"));
-        frameworkLanguageMap.put("mockito", Arrays.asList("java", "kotlin", "testing"));
-        frameworkLanguageMap.put("maven", Arrays.asList("java", "build", "dependency"));
-        frameworkLanguageMap.put("gradle", Arrays.asList("java", "kotlin", "build", "dependency"));
-
-        // Backend frameworks - JavaScript/TypeScript
-        frameworkLanguageMap.put("express",
-                Arrays.asList("javascript", "typescript", "node", "nodejs", "node.js", "backend", "api"));
-        frameworkLanguageMap.put("express.js", Arrays.asList("javascript", "typescript", "node", "express", "backend"));
-        frameworkLanguageMap.put("nestjs",
-                Arrays.asList("javascript", "typescript", "node", "nodejs", "node.js", "backend"));
-        frameworkLanguageMap.put("nest.js", Arrays.asList("typescript", "node", "nestjs", "backend"));
-        frameworkLanguageMap.put("koa", Arrays.asList("javascript", "typescript", "node", "backend"));
-        frameworkLanguageMap.put("fastify", Arrays.asList("javascript", "typescript", "node", "backend"));
-        frameworkLanguageMap.put("hapi", Arrays.asList("javascript", "node", "backend"));
-
-        // Backend frameworks - Python
-        frameworkLanguageMap.put("django", Arrays.asList("python", "backend", "web", "orm"));
-        frameworkLanguageMap.put("flask", Arrays.asList("python", "backend", "web", "api"));
-        frameworkLanguageMap.put("fastapi", Arrays.asList("python", "backend", "api", "async"));
-        frameworkLanguageMap.put("pyramid", Arrays.asList("python", "backend", "web"));
-        frameworkLanguageMap.put("tornado", Arrays.asList("python", "backend", "async"));
-        frameworkLanguageMap.put("pytest", Arrays.asList("python", "testing"));
-        frameworkLanguageMap.put("sqlalchemy", Arrays.asList("python", "orm", "database"));
-
-        // Backend frameworks - PHP
-        frameworkLanguageMap.put("laravel", Arrays.asList("php", "backend", "web", "mvc"));
-        frameworkLanguageMap.put("symfony", Arrays.asList("php", "backend", "web"));
-        frameworkLanguageMap.put("codeigniter", Arrays.asList("php", "backend", "web"));
-        frameworkLanguageMap.put("yii", Arrays.asList("php", "backend", "web"));
-
-        // Backend frameworks - Ruby
-        frameworkLanguageMap.put("rails", Arrays.asList("ruby", "backend", "web", "mvc"));
-        frameworkLanguageMap.put("ruby on rails", Arrays.asList("ruby", "rails", "backend"));
-        frameworkLanguageMap.put("sinatra", Arrays.asList("ruby", "backend", "web"));
-
-        // .NET frameworks
-        frameworkLanguageMap.put("asp.net", Arrays.asList("c#", "csharp", ".net", "dotnet", "backend", "web"));
-        frameworkLanguageMap.put("asp.net core", Arrays.asList("c#", "csharp", ".net", "dotnet", "backend"));
-        frameworkLanguageMap.put("dotnet", Arrays.asList("c#", "csharp", ".net", "f#", "vb.net"));
-        frameworkLanguageMap.put(".net", Arrays.asList("c#", "csharp", "dotnet", "backend"));
-        frameworkLanguageMap.put("xamarin", Arrays.asList("c#", "csharp", ".net", "dotnet", "mobile"));
-        frameworkLanguageMap.put("blazor", Arrays.asList("c#", "csharp", ".net", "frontend"));
-        frameworkLanguageMap.put("entity framework", Arrays.asList("c#", "csharp", ".net", "orm", "database"));
-
-        // Mobile frameworks
-        frameworkLanguageMap.put("react native",
-                Arrays.asList("javascript", "typescript", "react", "js", "jsx", "tsx", "mobile"));
-        frameworkLanguageMap.put("flutter", Arrays.asList("dart", "mobile", "cross-platform"));
-        frameworkLanguageMap.put("android", Arrays.asList("java", "kotlin", "mobile"));
-        frameworkLanguageMap.put("ios", Arrays.asList("swift", "objective-c", "mobile"));
-        frameworkLanguageMap.put("ionic", Arrays.asList("javascript", "typescript", "angular", "mobile"));
-        frameworkLanguageMap.put("cordova", Arrays.asList("javascript", "html", "css", "mobile"));
-        frameworkLanguageMap.put("phonegap", Arrays.asList("javascript", "html", "mobile"));
-
-        // Data & ML frameworks
-        frameworkLanguageMap.put("tensorflow", Arrays.asList("python", "java", "javascript", "ml", "ai"));
-        frameworkLanguageMap.put("pytorch", Arrays.asList("python", "ml", "ai", "deep learning"));
-        frameworkLanguageMap.put("keras", Arrays.asList("python", "tensorflow", "ml", "ai"));
-        frameworkLanguageMap.put("scikit-learn", Arrays.asList("python", "ml", "data science"));
-        frameworkLanguageMap.put("pandas", Arrays.asList("python", "data analysis", "data science"));
-        frameworkLanguageMap.put("numpy", Arrays.asList("python", "data science", "numerical"));
-
-        // Database and ORM
-        frameworkLanguageMap.put("mongodb", Arrays.asList("nosql", "database", "json"));
-        frameworkLanguageMap.put("mysql", Arrays.asList("sql", "database", "relational"));
-        frameworkLanguageMap.put("postgresql", Arrays.asList("sql", "database", "relational"));
-        frameworkLanguageMap.put("redis", Arrays.asList("nosql", "cache", "database"));
-        frameworkLanguageMap.put("cassandra", Arrays.asList("nosql", "database", "distributed"));
-        frameworkLanguageMap.put("elasticsearch", Arrays.asList("search", "nosql", "database"));
-
-        // Cloud and DevOps
-        frameworkLanguageMap.put("aws", Arrays.asList("cloud", "devops", "infrastructure"));
-        frameworkLanguageMap.put("azure", Arrays.asList("cloud", "devops", "infrastructure", "microsoft"));
-        frameworkLanguageMap.put("gcp", Arrays.asList("cloud", "devops", "infrastructure", "google"));
-        frameworkLanguageMap.put("docker", Arrays.asList("containerization", "devops", "deployment"));
-        frameworkLanguageMap.put("kubernetes", Arrays.asList("container orchestration", "devops", "docker", "k8s"));
-        frameworkLanguageMap.put("jenkins", Arrays.asList("ci/cd", "devops", "automation"));
-        frameworkLanguageMap.put("terraform", Arrays.asList("infrastructure as code", "devops", "cloud"));
-
-        // Testing frameworks
-        frameworkLanguageMap.put("jest", Arrays.asList("javascript", "typescript", "testing", "react"));
-        frameworkLanguageMap.put("mocha", Arrays.asList("javascript", "typescript", "testing"));
-        frameworkLanguageMap.put("chai", Arrays.asList("javascript", "typescript", "testing"));
-        frameworkLanguageMap.put("cypress", Arrays.asList("javascript", "typescript", "testing", "e2e"));
-        frameworkLanguageMap.put("selenium", Arrays.asList("testing", "automation", "e2e"));
-
-        // State management
-        frameworkLanguageMap.put("redux", Arrays.asList("javascript", "typescript", "react", "state management"));
-        frameworkLanguageMap.put("mobx", Arrays.asList("javascript", "typescript", "react", "state management"));
-        frameworkLanguageMap.put("vuex", Arrays.asList("javascript", "vue", "state management"));
-        frameworkLanguageMap.put("ngrx", Arrays.asList("typescript", "angular", "state management"));
-
-        // Build tools and bundlers
-        frameworkLanguageMap.put("webpack", Arrays.asList("javascript", "build", "bundler"));
-        frameworkLanguageMap.put("vite", Arrays.asList("javascript", "typescript", "build", "bundler"));
-        frameworkLanguageMap.put("parcel", Arrays.asList("javascript", "build", "bundler"));
-        frameworkLanguageMap.put("rollup", Arrays.asList("javascript", "build", "bundler"));
-
-        return frameworkLanguageMap;
+        return SkillTaxonomy.frameworkLanguageMap();
     }
 
+    private static final PromptBlock FINAL_SCORE_PREAMBLE = PromptBlock.of("""
+            You are an AI job matcher specializing in comprehensive candidate evaluation. \
+            Your task is to analyze ALL available data about a student and a job to determine the most accurate match score. \
+            You will be provided with multiple analyses from different aspects of the student's profile. \
+            Synthesize all this information to produce a final match score between 1 and 100, where 100 is a perfect match. \
+            Only return the numeric score as an integer between 1 and 100, nothing else.
+
+            """);
+
+    private static final PromptBlock FINAL_SCORE_INSTRUCTIONS = PromptBlock.of("""
+            COMPREHENSIVE ANALYSIS INSTRUCTIONS:
+            1. Consider ALL available data sources in your evaluation
+            2. Weigh the following factors in determining the match score:
+               - Direct skill matches between student skills and job requirements
+               - Related skills and framework-language relationships
+               - GitHub projects that demonstrate relevant skills
+               - Portfolio projects that showcase relevant abilities
+               - Certifications that validate specific competencies
+               - Work experience that demonstrates practical application
+               - Educational background relevance to the position
+               - Bio analysis showing personality traits, passion, and career goals alignment
+
+            3. Apply these special matching rules:
+               - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match
+               - Consider framework-language relationships (e.g., knowing React implies JavaScript knowledge)
+               - Value demonstrated experience (GitHub, portfolio, work) more heavily than listed skills
+               - Consider the student's potential to quickly learn missing skills based on related knowledge
+
+            4. IMPORTANT: Return only a single number between 1-100 representing the final match percentage
+            """);
+
     /**
      * Calculate match score using ALL available analyses from different sources
      * This method prioritizes the AI analysis for the final match score
@@ -2947,125 +2870,51 @@ public class JobMatchService {
     private Double calculateMatchScoreWithAllData(StudentProfile student, List<String> studentSkills, CV cv, Job job,
             String githubAnalysis, String portfolioAnalysis,
             String certificationsAnalysis, String experiencesAnalysis, String bioAnalysis) {
+        return stage("final_scoring", () -> scoreWithAllData(student, studentSkills, cv, job,
+                githubAnalysis, portfolioAnalysis, certificationsAnalysis, experiencesAnalysis, bioAnalysis));
+    }
+
+    private Double scoreWithAllData(StudentProfile student, List<String> studentSkills, CV cv, Job job,
+            String githubAnalysis, String portfolioAnalysis,
+            String certificationsAnalysis, String experiencesAnalysis, String bioAnalysis) {
         // Check if API key is configured
-        if (geminiApiKey == null || geminiApiKey.trim().isEmpty()) {
+        if (!geminiClient.isConfigured()) {
             logGeminiApiMissingKeyError("comprehensive match score calculation");
             // Fall back to basic match calculation
             return calculateMatchScore(student, studentSkills, cv, job);
         }
 
         // Use AI for a comprehensive analysis that takes into account all data sources
-        HttpHeaders headers = createGeminiHeaders();
-        Map<String, Object> requestBody = new HashMap<>();
-        List<Map<String, Object>> contents = new ArrayList<>();
-        Map<String, Object> content = new HashMap<>();
-
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an AI job matcher specializing in comprehensive candidate evaluation. ");
-        prompt.append(
-                "Your task is to analyze ALL available data about a student and a job to determine the most accurate match score. ");
-        prompt.append("You will be provided with multiple analyses from different aspects of the student's profile. ");
-        prompt.append(
-                "Synthesize all this information to produce a final match score between 1 and 100, where 100 is a perfect match. ");
-        prompt.append("Only return the numeric score as an integer between 1 and 100, nothing else.\n\n");
-
         // Parse job required skills
         List<String> jobSkills = parseSkills(job.getRequiredSkills());
 
-        prompt.append("JOB DETAILS:\n");
-        prompt.append("Title: ").append(job.getTitle()).append("\n");
-        prompt.append("Description: ").append(job.getDescription()).append("\n");
-        prompt.append("Required Skills: ").append(String.join(", ", jobSkills)).append("\n\n");
-
-        prompt.append("STUDENT DETAILS:\n");
-        prompt.append("Skills: ").append(String.join(", ", studentSkills)).append("\n");
-        prompt.append("Major: ").append(student.getMajor()).append("\n");
-        prompt.append("University: ").append(student.getUniversity()).append("\n");
-        prompt.append("Graduation Year: ").append(student.getGraduationYear()).append("\n");
-
-        // Add additional student profile elements if available
-        if (student.getBio() != null && !student.getBio().isEmpty()) {
-            prompt.append("Bio: ").append(student.getBio()).append("\n");
-        }
-
-        if (student.getGithubUrl() != null && !student.getGithubUrl().isEmpty()) {
-            prompt.append("GitHub URL: ").append(student.getGithubUrl()).append("\n");
-        }
-
-        if (student.getPortfolioUrl() != null && !student.getPortfolioUrl().isEmpty()) {
-            prompt.append("Portfolio URL: ").append(student.getPortfolioUrl()).append("\n");
-        }
-
-        if (cv != null) {
-            prompt.append("CV Content: ").append(cv.getParsedResume()).append("\n\n");
-        }
-
-        // Add all the detailed analyses that have been performed
-        prompt.append("ANALYSES PERFORMED:\n\n");
-
-        // Add GitHub analysis if available
-        if (githubAnalysis != null && !githubAnalysis.isEmpty()) {
-            prompt.append("GitHub Analysis:\n").append(githubAnalysis).append("\n\n");
-        }
-
-        // Add portfolio analysis if available
-        if (portfolioAnalysis != null && !portfolioAnalysis.isEmpty()) {
-            prompt.append("Portfolio Analysis:\n").append(portfolioAnalysis).append("\n\n");
-        }
-
-        // Add certifications analysis if available
-        if (certificationsAnalysis != null && !certificationsAnalysis.isEmpty()) {
-            prompt.append("Certifications Analysis:\n").append(certificationsAnalysis).append("\n\n");
-        }
-
-        // Add work experience analysis if available
-        if (experiencesAnalysis != null && !experiencesAnalysis.isEmpty()) {
-            prompt.append("Work Experience Analysis:\n").append(experiencesAnalysis).append("\n\n");
-        }
-
-        // Add bio analysis if available
-        if (bioAnalysis != null && !bioAnalysis.isEmpty()) {
-            prompt.append("Bio NLP Analysis:\n").append(bioAnalysis).append("\n\n");
-        }
-
-        // Add specific instructions for comprehensive analysis
-        prompt.append("COMPREHENSIVE ANALYSIS INSTRUCTIONS:\n");
-        prompt.append("1. Consider ALL available data sources in your evaluation\n");
-        prompt.append("2. Weigh the following factors in determining the match score:\n");
-        prompt.append("   - Direct skill matches between student skills and job requirements\n");
-        prompt.append("   - Related skills and framework-language relationships\n");
-        prompt.append("   - GitHub projects that demonstrate relevant skills\n");
-        prompt.append("   - Portfolio projects that showcase relevant abilities\n");
-        prompt.append("   - Certifications that validate specific competencies\n");
-        prompt.append("   - Work experience that demonstrates practical application\n");
-        prompt.append("   - Educational background relevance to the position\n");
-        prompt.append("   - Bio analysis showing personality traits, passion, and career goals alignment\n\n");
-
-        prompt.append("3. Apply these special matching rules:\n");
-        prompt.append(
-                "   - If the student has Java, Spring Boot, and React skills, and the job requires these, give at least a 60% match\n");
-        prompt.append(
-                "   - Consider framework-language relationships (e.g., knowing React implies JavaScript knowledge)\n");
-        prompt.append("   - Value demonstrated experience (GitHub, portfolio, work) more heavily than listed skills\n");
-        prompt.append(
-                "   - Consider the student's potential to quickly learn missing skills based on related knowledge\n\n");
-
-        prompt.append(
-                "4. IMPORTANT: Return only a single number between 1-100 representing the final match percentage\n");
-
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt.toString());
-        parts.add(textPart);
-
-        content.put("parts", parts);
-        contents.add(content);
-        requestBody.put("contents", contents);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+        // Prior analyses are summarized to their key lines; the score only needs their verdicts
+        GeminiPrompt prompt = promptBuilder.newPrompt(LlmCallType.FINAL_SCORE)
+                .block(FINAL_SCORE_PREAMBLE)
+                .text("JOB DETAILS:\n")
+                .field("Title", job.getTitle())
+                .section("Description", job.getDescription(), PromptSection.JOB_DESCRIPTION)
+                .field("Required Skills", String.join(", ", jobSkills))
+                .text("\nSTUDENT DETAILS:\n")
+                .field("Skills", String.join(", ", studentSkills))
+                .field("Major", student.getMajor())
+                .field("University", student.getUniversity())
+                .field("Graduation Year", student.getGraduationYear())
+                .section("Bio", student.getBio(), PromptSection.BIO)
+                .field("GitHub URL", student.getGithubUrl())
+                .field("Portfolio URL", student.getPortfolioUrl())
+                .section("CV Content", cv != null ? cv.getParsedResume() : null, PromptSection.CV_CONTENT)
+                .text("\nANALYSES PERFORMED:\n\n")
+                .section("GitHub Analysis", githubAnalysis, PromptSection.PRIOR_ANALYSIS)
+                .section("Portfolio Analysis", portfolioAnalysis, PromptSection.PRIOR_ANALYSIS)
+                .section("Certifications Analysis", certificationsAnalysis, PromptSection.PRIOR_ANALYSIS)
+                .section("Work Experience Analysis", experiencesAnalysis, PromptSection.PRIOR_ANALYSIS)
+                .section("Bio NLP Analysis", bioAnalysis, PromptSection.PRIOR_ANALYSIS)
+                .block(FINAL_SCORE_INSTRUCTIONS)
+                .build();
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(GEMINI_API_URL, entity, Map.class);
+            Map<String, Object> response = postToGemini(prompt);
             String scoreText = extractGeminiResponse(response);
 
             if (scoreText != null) {
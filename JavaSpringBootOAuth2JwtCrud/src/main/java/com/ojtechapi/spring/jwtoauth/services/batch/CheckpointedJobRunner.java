@@ -0,0 +1,280 @@
+package com.ojtechapi.spring.jwtoauth.services.batch;
+
+import com.ojtechapi.spring.jwtoauth.dtos.admin.BatchJobStatusDto;
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobCheckpoint;
+import com.ojtechapi.spring.jwtoauth.entities.BatchJobStatus;
+import com.ojtechapi.spring.jwtoauth.repositories.BatchJobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs one checkpointed batch job: items are walked in id order, one chunk at a time, and
+ * after each chunk the cursor and counters are saved to the job's {@link BatchJobCheckpoint},
+ * so a crashed or restarted node resumes after the last finished chunk.
+ *
+ * Only one node runs a job at a time. The runner claims the checkpoint before starting and
+ * releases it when done; a claim whose heartbeat is older than staleClaimMinutes can be
+ * taken over by another node. Checkpoints are only written while this node still holds the
+ * claim, so a node that lost it stops without overwriting the new owner's progress.
+ *
+ * The job supplies the items and the work per chunk through {@link Job}; one runner is
+ * created per job by the service that owns it.
+ */
+public class CheckpointedJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointedJobRunner.class);
+
+    private static final String NODE_ID = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * The work of a checkpointed job
+     */
+    public interface Job {
+
+        /**
+         * Items a new run goes through
+         */
+        long countItems();
+
+        /**
+         * Up to one chunk of item ids after the cursor, from the start if after is null;
+         * empty when the run is done
+         */
+        List<UUID> nextChunk(UUID after);
+
+        /**
+         * Processes a chunk: adds to the checkpoint's processed and failed counts and moves
+         * its cursor to the last item handled. May stop early, e.g. when stopReason says so.
+         */
+        void processChunk(List<UUID> chunk, BatchJobCheckpoint checkpoint);
+
+        /**
+         * Called once the run is claimed and set up, before the first chunk
+         */
+        default void onStart(BatchJobCheckpoint checkpoint, boolean newRun) {
+        }
+
+        /**
+         * Why the run has to pause before the next chunk, or null to carry on
+         */
+        default String stopReason(BatchJobCheckpoint checkpoint) {
+            return null;
+        }
+
+        default void onCompleted(BatchJobCheckpoint checkpoint) {
+        }
+    }
+
+    private final String jobName;
+    private final String label;
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final long staleClaimMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean pauseRequested = new AtomicBoolean();
+
+    /**
+     * @param label the job's name in log messages, e.g. "Batch rematch"
+     */
+    public CheckpointedJobRunner(String jobName, String label, BatchJobCheckpointRepository checkpointRepository,
+                                 long staleClaimMinutes) {
+        this.jobName = jobName;
+        this.label = label;
+        this.checkpointRepository = checkpointRepository;
+        this.staleClaimMinutes = staleClaimMinutes;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Asks the run on this node to pause before its next chunk.
+     */
+    public boolean requestPause() {
+        if (!running.get()) {
+            return false;
+        }
+        pauseRequested.set(true);
+        return true;
+    }
+
+    public boolean isPauseRequested() {
+        return pauseRequested.get();
+    }
+
+    /**
+     * Starts a new run if the previous one completed or forceNewRun is set, otherwise
+     * resumes the paused or failed one. Returns at once if the job is already running
+     * here or held by another node.
+     */
+    public void run(boolean forceNewRun, Job job) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("{} already running on this node", label);
+            return;
+        }
+        pauseRequested.set(false);
+        try {
+            loadOrCreateCheckpoint();
+            LocalDateTime now = LocalDateTime.now();
+            if (checkpointRepository.claim(jobName, NODE_ID, now, now.minusMinutes(staleClaimMinutes)) == 0) {
+                logger.info("{} is held by another node", label);
+                return;
+            }
+            try {
+                process(checkpointRepository.findByJobName(jobName).orElseThrow(), forceNewRun, job);
+            } finally {
+                checkpointRepository.release(jobName, NODE_ID);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void process(BatchJobCheckpoint checkpoint, boolean forceNewRun, Job job) {
+        boolean newRun = forceNewRun || checkpoint.getStatus() == BatchJobStatus.IDLE
+                || checkpoint.getStatus() == BatchJobStatus.COMPLETED;
+        if (newRun) {
+            checkpoint.startNewRun(job.countItems());
+            logger.info("{} starting new run over {} items", label, checkpoint.getTotalItems());
+        } else {
+            checkpoint.setStatus(BatchJobStatus.RUNNING);
+            logger.info("{} resuming after {} ({}/{} done)", label, checkpoint.getLastProcessedId(),
+                    checkpoint.getProcessedItems() + checkpoint.getFailedItems(), checkpoint.getTotalItems());
+        }
+        checkpoint.setLastError(null);
+
+        try {
+            saveCheckpoint(checkpoint);
+            job.onStart(checkpoint, newRun);
+            while (true) {
+                String stopReason = pauseRequested.get() ? "pause requested" : job.stopReason(checkpoint);
+                if (stopReason != null) {
+                    checkpoint.setStatus(BatchJobStatus.PAUSED);
+                    saveCheckpoint(checkpoint);
+                    logger.info("{} paused ({}) after {}", label, stopReason, checkpoint.getLastProcessedId());
+                    return;
+                }
+
+                List<UUID> chunk = job.nextChunk(checkpoint.getLastProcessedId());
+                if (chunk.isEmpty()) {
+                    checkpoint.setStatus(BatchJobStatus.COMPLETED);
+                    checkpoint.setCompletedAt(LocalDateTime.now());
+                    saveCheckpoint(checkpoint);
+                    logger.info("{} completed: {} items processed, {} failed", label,
+                            checkpoint.getProcessedItems(), checkpoint.getFailedItems());
+                    job.onCompleted(checkpoint);
+                    return;
+                }
+
+                long chunkStart = System.nanoTime();
+                job.processChunk(chunk, checkpoint);
+                checkpoint.setActiveMillis(checkpoint.getActiveMillis()
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunkStart));
+                saveCheckpoint(checkpoint);
+            }
+        } catch (ClaimLostException e) {
+            logger.warn("{} stopped after {}: another node took the job over", label, checkpoint.getLastProcessedId());
+        } catch (RuntimeException e) {
+            logger.error("{} failed after {}: {}", label, checkpoint.getLastProcessedId(), e.getMessage(), e);
+            checkpoint.setStatus(BatchJobStatus.FAILED);
+            String message = String.valueOf(e.getMessage());
+            checkpoint.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            checkpointRepository.saveIfOwner(checkpoint, NODE_ID, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Keeps the claim fresh during an item or phase that can outlast staleClaimMinutes.
+     *
+     * @throws ClaimLostException if another node took the job over; the run stops
+     */
+    public void heartbeat() {
+        if (checkpointRepository.heartbeat(jobName, NODE_ID, LocalDateTime.now()) == 0) {
+            throw new ClaimLostException();
+        }
+    }
+
+    private void saveCheckpoint(BatchJobCheckpoint checkpoint) {
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpointRepository.saveIfOwner(checkpoint, NODE_ID, now) == 0) {
+            throw new ClaimLostException();
+        }
+        checkpoint.setHeartbeatAt(now);
+        checkpoint.setLastCheckpointAt(now);
+    }
+
+    private BatchJobCheckpoint loadOrCreateCheckpoint() {
+        return checkpointRepository.findByJobName(jobName).orElseGet(() -> {
+            try {
+                return checkpointRepository.save(new BatchJobCheckpoint(jobName));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it first
+                return checkpointRepository.findByJobName(jobName).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    /**
+     * The job's checkpoint, or a fresh IDLE one if it never ran
+     */
+    public BatchJobCheckpoint findCheckpoint() {
+        return checkpointRepository.findByJobName(jobName).orElseGet(() -> new BatchJobCheckpoint(jobName));
+    }
+
+    public BatchJobStatusDto getStatus() {
+        return getStatus(findCheckpoint());
+    }
+
+    /**
+     * Progress of the job from its checkpoint; the owning service adds its own settings
+     * and counters to the details.
+     */
+    public BatchJobStatusDto getStatus(BatchJobCheckpoint checkpoint) {
+        BatchJobStatusDto dto = new BatchJobStatusDto();
+        dto.setJobName(jobName);
+        dto.setStatus(checkpoint.getStatus().name());
+        dto.setRunningOnThisNode(running.get());
+        dto.setOwner(checkpoint.getOwner());
+        dto.setTotalItems(checkpoint.getTotalItems());
+        dto.setProcessedItems(checkpoint.getProcessedItems());
+        dto.setFailedItems(checkpoint.getFailedItems());
+        dto.setRunStartedAt(checkpoint.getRunStartedAt());
+        dto.setLastCheckpointAt(checkpoint.getLastCheckpointAt());
+        dto.setCompletedAt(checkpoint.getCompletedAt());
+        dto.setLastError(checkpoint.getLastError());
+
+        long done = checkpoint.getProcessedItems() + checkpoint.getFailedItems();
+        if (checkpoint.getTotalItems() > 0) {
+            dto.setPercentComplete(Math.min(100.0, Math.round(done * 1000.0 / checkpoint.getTotalItems()) / 10.0));
+        }
+        if (checkpoint.getActiveMillis() > 0 && done > 0) {
+            double perMinute = done * 60000.0 / checkpoint.getActiveMillis();
+            dto.setThroughputPerMinute(Math.round(perMinute * 100.0) / 100.0);
+            if (checkpoint.getStatus() != BatchJobStatus.COMPLETED) {
+                long remaining = Math.max(0, checkpoint.getTotalItems() - done);
+                long etaMinutes = (long) Math.ceil(remaining / perMinute);
+                dto.setEtaMinutes(etaMinutes);
+                // Wall-clock estimate only holds while the run is active
+                if (checkpoint.getStatus() == BatchJobStatus.RUNNING) {
+                    dto.setEstimatedCompletionAt(LocalDateTime.now().plusMinutes(etaMinutes));
+                }
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * Another node took the job over since this one claimed it
+     */
+    public static class ClaimLostException extends RuntimeException {
+    }
+}
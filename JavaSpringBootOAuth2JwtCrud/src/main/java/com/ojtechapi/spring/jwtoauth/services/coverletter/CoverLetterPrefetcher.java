@@ -0,0 +1,363 @@
+package com.ojtechapi.spring.jwtoauth.services.coverletter;
+
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterPrefetchSpend;
+import com.ojtechapi.spring.jwtoauth.entities.Job;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.CoverLetterPrefetchSpendRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import com.ojtechapi.spring.jwtoauth.services.CoverLetterService;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Speculatively writes the cover letter for a job a student is looking at, so that the
+ * apply and generate-cover-letter calls that usually follow can return it at once.
+ *
+ * A view of a job (GET /api/jobs/{id}) or of a match (PUT .../job-matches/{id}/viewed)
+ * whose match score is at least cover-letter.prefetch.min-match-score queues a generation
+ * on a small pool, in the BACKGROUND LLM lane so it never delays interactive calls. The
+ * letter is cached under the student, job and CV versions (their update timestamps) and
+ * the current date, since the letter is dated: editing the profile, the job or the CV, or
+ * the day changing, makes the cached letter unreachable. Only letters written by the
+ * model are cached, never the fallback template. Each student gets at most
+ * daily-cap-per-student speculative generations per day across all nodes, counted in
+ * cover_letter_prefetch_spend; the cache itself is per node.
+ *
+ * Outcomes are counted in cover_letter.prefetch{outcome}: queued, capped, dropped (queue
+ * full), generated, fallback (no letter from Gemini), failed, hit, joined (waited for a
+ * running generation) and miss.
+ */
+@Component
+public class CoverLetterPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoverLetterPrefetcher.class);
+
+    @Autowired
+    private CoverLetterService coverLetterService;
+
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private CVRepository cvRepository;
+
+    @Autowired
+    private CoverLetterPrefetchSpendRepository spendRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cover-letter.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cover-letter.prefetch.min-match-score:75}")
+    private double minMatchScore;
+
+    @Value("${cover-letter.prefetch.daily-cap-per-student:5}")
+    private int dailyCapPerStudent;
+
+    @Value("${cover-letter.prefetch.threads:2}")
+    private int threads;
+
+    @Value("${cover-letter.prefetch.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${cover-letter.prefetch.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${cover-letter.prefetch.ttl-minutes:360}")
+    private long ttlMinutes;
+
+    @Value("${cover-letter.prefetch.join-wait-ms:20000}")
+    private long joinWaitMs;
+
+    private ThreadPoolExecutor executor;
+    private Map<String, Entry> prepared;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> queuedViews = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+        private final String coverLetter;
+        private final long expiresAtNanos;
+
+        private Entry(String coverLetter, long expiresAtNanos) {
+            this.coverLetter = coverLetter;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        prepared = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "cover-letter-prefetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        Gauge.builder("cover_letter.prefetch.cached", this, prefetcher -> prefetcher.size())
+                .description("Speculatively generated cover letters held in memory")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Called when a student opens a job; queues a speculative letter if the match score is
+     * high enough. The daily budget is checked on the prefetch thread. Never blocks the
+     * caller.
+     */
+    public void onJobViewed(UUID studentId, UUID jobId, Double matchScore) {
+        if (!enabled || studentId == null || jobId == null || matchScore == null || matchScore < minMatchScore) {
+            return;
+        }
+        // Repeated views while a prefetch is waiting or running queue nothing
+        String view = studentId + ":" + jobId;
+        if (queuedViews.putIfAbsent(view, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    prefetch(studentId, jobId);
+                } finally {
+                    queuedViews.remove(view);
+                }
+            });
+            count("queued");
+        } catch (RejectedExecutionException e) {
+            queuedViews.remove(view);
+            count("dropped");
+        }
+    }
+
+    private void prefetch(UUID studentId, UUID jobId) {
+        Optional<StudentProfile> student = studentProfileRepository.findById(studentId);
+        Optional<Job> job = jobRepository.findById(jobId);
+        if (student.isEmpty() || job.isEmpty() || student.get().getActiveCvId() == null) {
+            return;
+        }
+        UUID cvId = student.get().getActiveCvId();
+        String key = key(student.get(), job.get(), cvId);
+        if (key == null || lookup(key) != null || inFlight.containsKey(key)) {
+            return;
+        }
+        if (!reserve(studentId)) {
+            count("capped");
+            return;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, mine) != null) {
+            release(studentId);
+            return;
+        }
+        String coverLetter = null;
+        try {
+            CoverLetterService.GeneratedCoverLetter letter = LlmRequestContext.call(LlmLane.BACKGROUND, studentId,
+                    () -> coverLetterService.generate(studentId, jobId, cvId, null));
+            if (letter.fallback()) {
+                // Applying generates (and retries) a real letter instead
+                count("fallback");
+            } else {
+                coverLetter = letter.text();
+                store(key, coverLetter);
+                count("generated");
+            }
+        } catch (RuntimeException e) {
+            count("failed");
+            logger.debug("Speculative cover letter for student {} and job {} failed: {}",
+                    studentId, jobId, e.getMessage());
+        } finally {
+            inFlight.remove(key, mine);
+            mine.complete(coverLetter);
+        }
+    }
+
+    /**
+     * The prepared letter for this student, job and CV, if one was generated for their
+     * current versions. A generation still running is waited for (up to join-wait-ms), as
+     * starting another one would take at least as long.
+     */
+    public Optional<String> getPrepared(StudentProfile student, Job job, UUID cvId) {
+        if (!enabled || student == null || job == null || cvId == null) {
+            return Optional.empty();
+        }
+        String key = key(student, job, cvId);
+        if (key == null) {
+            return Optional.empty();
+        }
+        String coverLetter = lookup(key);
+        if (coverLetter != null) {
+            count("hit");
+            return Optional.of(coverLetter);
+        }
+        CompletableFuture<String> running = inFlight.get(key);
+        if (running != null) {
+            try {
+                coverLetter = running.get(joinWaitMs, TimeUnit.MILLISECONDS);
+                if (coverLetter != null) {
+                    count("joined");
+                    return Optional.of(coverLetter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Fall through and let the caller generate
+            }
+        }
+        count("miss");
+        return Optional.empty();
+    }
+
+    /**
+     * Keeps a letter generated elsewhere (e.g. streamed to the student) as the prepared
+     * letter for these versions, so applying afterwards does not generate it again
+     */
+    public void put(StudentProfile student, Job job, UUID cvId, String coverLetter) {
+        if (!enabled || coverLetter == null) {
+            return;
+        }
+        String key = key(student, job, cvId);
+        if (key != null) {
+            store(key, coverLetter);
+        }
+    }
+
+    private String key(StudentProfile student, Job job, UUID cvId) {
+        Optional<LocalDateTime> cvVersion = cvRepository.findLastUpdatedById(cvId);
+        if (cvVersion.isEmpty()) {
+            return null;
+        }
+        return student.getId() + "|" + student.getUpdatedAt()
+                + "|" + job.getId() + "|" + job.getUpdatedAt()
+                + "|" + cvId + "|" + cvVersion.get()
+                + "|" + LocalDate.now();
+    }
+
+    private String lookup(String key) {
+        synchronized (prepared) {
+            Entry entry = prepared.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+                prepared.remove(key);
+                return null;
+            }
+            return entry.coverLetter;
+        }
+    }
+
+    private void store(String key, String coverLetter) {
+        long expiresAt = System.nanoTime() + ttlMinutes * 60_000_000_000L;
+        synchronized (prepared) {
+            prepared.put(key, new Entry(coverLetter, expiresAt));
+        }
+    }
+
+    /**
+     * Counts one generation against the student's budget for today; false if they are at
+     * the cap (or the budget cannot be read, as the generation is only speculative)
+     */
+    private boolean reserve(UUID studentId) {
+        if (dailyCapPerStudent <= 0) {
+            return false;
+        }
+        LocalDate today = LocalDate.now();
+        try {
+            if (spendRepository.increment(studentId, today, dailyCapPerStudent) == 1) {
+                return true;
+            }
+            if (spendRepository.existsByStudentIdAndSpendDay(studentId, today)) {
+                return false;
+            }
+            try {
+                spendRepository.save(new CoverLetterPrefetchSpend(studentId, today, 1));
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                // Another node counted the student's first generation today
+                return spendRepository.increment(studentId, today, dailyCapPerStudent) == 1;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not reserve a speculative cover letter for student {}: {}", studentId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(UUID studentId) {
+        try {
+            spendRepository.decrement(studentId, LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.debug("Could not release a speculative cover letter of student {}: {}", studentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the budgets of past days
+     */
+    @Scheduled(cron = "${cover-letter.prefetch.spend-cleanup-cron:0 15 0 * * *}")
+    public void deleteOldSpend() {
+        int deleted = spendRepository.deleteBefore(LocalDate.now());
+        if (deleted > 0) {
+            logger.debug("Deleted {} past speculative cover letter budgets", deleted);
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("cover_letter.prefetch")
+                .description("Speculative cover letter generations and lookups, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public int size() {
+        synchronized (prepared) {
+            return prepared.size();
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.ojtechapi.spring.jwtoauth.services.coverletter;
+
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterStatus;
+import com.ojtechapi.spring.jwtoauth.entities.JobApplication;
+import com.ojtechapi.spring.jwtoauth.repositories.JobApplicationRepository;
+import com.ojtechapi.spring.jwtoauth.services.CoverLetterService;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Generates application cover letters off the request thread. An application is saved
+ * with cover letter status PENDING and handed to {@link #submit}; a fixed pool of
+ * cover-letter.worker.threads threads with a bounded queue writes the letter and sets
+ * READY, or FAILED if generation threw, Gemini gave no letter (the fallback template is
+ * never stored) or the queue was full. FAILED letters are queued again through the retry
+ * endpoint.
+ *
+ * A worker generates a letter only while it holds the application's lease
+ * (cover_letter_lease_until, cover-letter.worker.stale-pending-minutes long), taken with a
+ * conditional update when it dequeues the letter. Every node's {@link #resubmitStale}
+ * queues letters that no node holds a live lease on (lost with a restarted node, or
+ * queued and never dequeued), and the lease makes sure only one of them generates it.
+ *
+ * Callers learn about completion by polling the status, through an SSE emitter from
+ * {@link #subscribe}, or by blocking in {@link #awaitReady} (the email step). Subscribers
+ * of a letter generated on another node get no chunks; the row status is polled for them.
+ *
+ * Letters are streamed from Gemini: SSE subscribers get each fragment as a "chunk" event
+ * (a late subscriber first gets the text so far) and the stored, cleaned-up letter in the
+ * final "cover-letter" event. {@link #stream} runs the same streaming generation for a
+ * letter that is not tied to an application yet.
+ */
+@Component
+public class CoverLetterWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoverLetterWorker.class);
+
+    @Autowired
+    private CoverLetterService coverLetterService;
+
+    @Autowired
+    private JobApplicationRepository jobApplicationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cover-letter.worker.threads:4}")
+    private int threads;
+
+    @Value("${cover-letter.worker.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${cover-letter.worker.stale-pending-minutes:10}")
+    private long stalePendingMinutes;
+
+    @Value("${cover-letter.sse.timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    @Value("${cover-letter.sse.status-poll-ms:1000}")
+    private long statusPollMs;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledThreadPoolExecutor statusPoller;
+    private final Map<UUID, CompletableFuture<CoverLetterStatus>> inFlight = new ConcurrentHashMap<>();
+    private final Map<UUID, Progress> progress = new ConcurrentHashMap<>();
+
+    // Text streamed so far for one application, and the SSE clients following it
+    private static final class Progress {
+        private final StringBuilder text = new StringBuilder();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private boolean finished;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "cover-letter-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("cover_letter.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Cover letters waiting for a worker on this node")
+                .register(meterRegistry);
+        Gauge.builder("cover_letter.workers.busy", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Cover letter workers generating on this node")
+                .register(meterRegistry);
+        statusPoller = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cover-letter-status");
+            thread.setDaemon(true);
+            return thread;
+        });
+        statusPoller.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Queued letters stay PENDING and are picked up again after the restart
+        executor.shutdownNow();
+        statusPoller.shutdownNow();
+    }
+
+    /**
+     * Queues generation of the cover letter of a saved application. A letter already
+     * being generated on this node is not queued twice.
+     */
+    public void submit(UUID applicationId, UUID studentId, UUID jobId, UUID cvId) {
+        CompletableFuture<CoverLetterStatus> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(applicationId, future) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> generate(applicationId, studentId, jobId, cvId));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Cover letter queue full, application {} marked FAILED", applicationId);
+            finish(applicationId, null, CoverLetterStatus.FAILED, "rejected");
+        }
+    }
+
+    private void generate(UUID applicationId, UUID studentId, UUID jobId, UUID cvId) {
+        if (!lease(applicationId)) {
+            // Another node is generating it, or it is no longer PENDING
+            logger.debug("Cover letter of application {} is not ours to generate", applicationId);
+            CompletableFuture<CoverLetterStatus> future = inFlight.remove(applicationId);
+            if (future != null) {
+                future.complete(CoverLetterStatus.PENDING);
+            }
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ready";
+        try {
+            CoverLetterService.GeneratedCoverLetter letter = LlmRequestContext.call(LlmLane.INTERACTIVE, studentId,
+                    () -> coverLetterService.generate(studentId, jobId, cvId,
+                            chunk -> relayChunk(applicationId, chunk)));
+            if (letter.fallback()) {
+                outcome = "fallback";
+                logger.warn("No cover letter from Gemini for application {}, marked FAILED", applicationId);
+                finish(applicationId, null, CoverLetterStatus.FAILED, outcome);
+            } else {
+                finish(applicationId, letter.text(), CoverLetterStatus.READY, outcome);
+            }
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            logger.warn("Cover letter for application {} failed: {}", applicationId, e.getMessage());
+            finish(applicationId, null, CoverLetterStatus.FAILED, outcome);
+        } finally {
+            sample.stop(Timer.builder("cover_letter.generation")
+                    .description("Time from dequeue to a stored cover letter")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private boolean lease(UUID applicationId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return jobApplicationRepository.leaseCoverLetter(applicationId, CoverLetterStatus.PENDING, now,
+                    now.plusMinutes(stalePendingMinutes)) == 1;
+        } catch (RuntimeException e) {
+            logger.error("Could not lease cover letter of application {}: {}", applicationId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void finish(UUID applicationId, String coverLetter, CoverLetterStatus status, String outcome) {
+        try {
+            if (status == CoverLetterStatus.READY) {
+                jobApplicationRepository.updateCoverLetter(applicationId, coverLetter, status);
+            } else {
+                jobApplicationRepository.updateCoverLetterStatus(applicationId, status);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not store cover letter of application {}: {}", applicationId, e.getMessage());
+            status = CoverLetterStatus.FAILED;
+        }
+        Counter.builder("cover_letter.completed")
+                .description("Cover letters finished, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+
+        CompletableFuture<CoverLetterStatus> future = inFlight.remove(applicationId);
+        if (future != null) {
+            future.complete(status);
+        }
+        Progress followed = progress.remove(applicationId);
+        if (followed != null) {
+            synchronized (followed) {
+                followed.finished = true;
+                for (SseEmitter emitter : followed.emitters) {
+                    sendFinal(emitter, applicationId, status, status == CoverLetterStatus.READY ? coverLetter : null);
+                }
+                followed.emitters.clear();
+            }
+        }
+    }
+
+    private void relayChunk(UUID applicationId, String chunk) {
+        Progress followed = progress.computeIfAbsent(applicationId, id -> new Progress());
+        synchronized (followed) {
+            if (followed.finished) {
+                return;
+            }
+            followed.text.append(chunk);
+            followed.emitters.removeIf(emitter -> !sendChunk(emitter, chunk));
+        }
+    }
+
+    /**
+     * Current status of an application's cover letter, or null if the application does
+     * not exist
+     */
+    public CoverLetterStatus getStatus(UUID applicationId) {
+        return jobApplicationRepository.findCoverLetterStatus(applicationId)
+                .orElseGet(() -> jobApplicationRepository.existsById(applicationId) ? CoverLetterStatus.READY : null);
+    }
+
+    /**
+     * Waits up to timeoutMs for a PENDING letter. Letters generated on this node are
+     * awaited directly; others (another node, or before a restart) are polled.
+     *
+     * @return the status at return, PENDING if the wait timed out
+     */
+    public CoverLetterStatus awaitReady(UUID applicationId, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        CompletableFuture<CoverLetterStatus> future = inFlight.get(applicationId);
+        try {
+            if (future != null) {
+                CoverLetterStatus status = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+                if (status != CoverLetterStatus.PENDING) {
+                    return status;
+                }
+                // Dequeued here, but another node holds the lease
+            }
+            CoverLetterStatus status = getStatus(applicationId);
+            while (status == CoverLetterStatus.PENDING && System.nanoTime() < deadline) {
+                Thread.sleep(250);
+                status = getStatus(applicationId);
+            }
+            return status;
+        } catch (TimeoutException e) {
+            return CoverLetterStatus.PENDING;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CoverLetterStatus.PENDING;
+        } catch (ExecutionException e) {
+            return CoverLetterStatus.FAILED;
+        }
+    }
+
+    /**
+     * SSE stream of an application's letter: "chunk" events while it is generated on this
+     * node, then one "cover-letter" event with the final status (and the letter when
+     * READY) before completing; immediately if the letter is no longer PENDING. While
+     * nothing generates it on this node the status is polled every
+     * cover-letter.sse.status-poll-ms, so a letter written by another node is delivered
+     * without chunks.
+     */
+    public SseEmitter subscribe(UUID applicationId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Progress followed;
+        while (true) {
+            followed = progress.computeIfAbsent(applicationId, id -> new Progress());
+            synchronized (followed) {
+                if (!followed.finished) {
+                    followed.emitters.add(emitter);
+                    if (followed.text.length() > 0) {
+                        sendChunk(emitter, followed.text.toString());
+                    }
+                    break;
+                }
+            }
+        }
+        Progress registered = followed;
+        AtomicReference<ScheduledFuture<?>> poll = new AtomicReference<>();
+        Runnable unregister = () -> {
+            ScheduledFuture<?> scheduled = poll.get();
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            unregister(applicationId, registered, emitter);
+        };
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(error -> unregister.run());
+
+        // Checked after registering, so a letter finishing in between is not missed
+        if (!deliverIfDone(applicationId, registered, emitter, unregister)) {
+            poll.set(statusPoller.scheduleWithFixedDelay(() -> {
+                // Generated here: finish() sends the final event
+                if (!inFlight.containsKey(applicationId)) {
+                    deliverIfDone(applicationId, registered, emitter, unregister);
+                }
+            }, statusPollMs, statusPollMs, TimeUnit.MILLISECONDS));
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends the final event and unregisters the emitter if the letter is no longer
+     * PENDING; true if it is done (or the emitter was already finished)
+     */
+    private boolean deliverIfDone(UUID applicationId, Progress followed, SseEmitter emitter, Runnable unregister) {
+        boolean registered;
+        synchronized (followed) {
+            registered = followed.emitters.contains(emitter);
+        }
+        if (!registered) {
+            unregister.run();
+            return true;
+        }
+        CoverLetterStatus status;
+        try {
+            status = getStatus(applicationId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not poll cover letter status of application {}: {}", applicationId, e.getMessage());
+            return false;
+        }
+        if (status == CoverLetterStatus.PENDING) {
+            return false;
+        }
+        boolean removed;
+        synchronized (followed) {
+            removed = followed.emitters.remove(emitter);
+        }
+        if (removed) {
+            sendFinal(emitter, applicationId, status, status == CoverLetterStatus.READY
+                    ? jobApplicationRepository.findCoverLetter(applicationId).orElse(null) : null);
+        }
+        unregister.run();
+        return true;
+    }
+
+    private void unregister(UUID applicationId, Progress followed, SseEmitter emitter) {
+        synchronized (followed) {
+            followed.emitters.remove(emitter);
+            // Nothing generating here and nobody listening: drop the entry
+            if (followed.emitters.isEmpty() && !inFlight.containsKey(applicationId)) {
+                progress.remove(applicationId, followed);
+            }
+        }
+    }
+
+    /**
+     * Streams a letter that is not stored on an application (yet) on the worker pool:
+     * "chunk" events while Gemini writes it, then a "cover-letter" event with status READY
+     * and the cleaned-up letter, which is also handed to onComplete to be kept. The
+     * fallback template is sent the same way but not handed to onComplete. FAILED is sent
+     * if generation threw or the queue was full.
+     */
+    public SseEmitter stream(UUID studentId, UUID jobId, UUID cvId, Consumer<String> onComplete) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            executor.execute(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                String outcome = "ready";
+                try {
+                    CoverLetterService.GeneratedCoverLetter letter = LlmRequestContext.call(LlmLane.INTERACTIVE,
+                            studentId, () -> coverLetterService.generate(studentId, jobId, cvId,
+                                    chunk -> sendChunk(emitter, chunk)));
+                    if (letter.fallback()) {
+                        outcome = "fallback";
+                        sendChunk(emitter, letter.text());
+                    } else {
+                        onComplete.accept(letter.text());
+                    }
+                    sendFinal(emitter, null, CoverLetterStatus.READY, letter.text());
+                } catch (RuntimeException e) {
+                    outcome = "failed";
+                    logger.warn("Streamed cover letter for student {} and job {} failed: {}",
+                            studentId, jobId, e.getMessage());
+                    sendFinal(emitter, null, CoverLetterStatus.FAILED, null);
+                } finally {
+                    sample.stop(Timer.builder("cover_letter.generation")
+                            .description("Time from dequeue to a stored cover letter")
+                            .tag("outcome", outcome)
+                            .register(meterRegistry));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Cover letter queue full, streamed letter for student {} rejected", studentId);
+            sendFinal(emitter, null, CoverLetterStatus.FAILED, null);
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends one fragment; false if the client has gone away
+     */
+    private boolean sendChunk(SseEmitter emitter, String chunk) {
+        try {
+            emitter.send(SseEmitter.event().name("chunk").data(Map.of("text", chunk)));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private void sendFinal(SseEmitter emitter, UUID applicationId, CoverLetterStatus status, String coverLetter) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        if (applicationId != null) {
+            event.put("applicationId", applicationId);
+        }
+        event.put("status", status);
+        if (coverLetter != null) {
+            event.put("coverLetter", coverLetter);
+        }
+        try {
+            emitter.send(SseEmitter.event().name("cover-letter").data(event));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Queues PENDING letters that no node holds a live lease on, i.e. that were lost with
+     * a restarted node. Runs on every node; the lease taken at dequeue lets only one of
+     * them generate a letter.
+     */
+    @Scheduled(fixedDelayString = "${cover-letter.worker.stale-check-ms:60000}")
+    public void resubmitStale() {
+        LocalDateTime now = LocalDateTime.now();
+        for (JobApplication application : jobApplicationRepository.findUnleasedCoverLetters(
+                CoverLetterStatus.PENDING, now, now.minusMinutes(stalePendingMinutes))) {
+            if (!inFlight.containsKey(application.getId())) {
+                logger.info("Re-queuing stale cover letter of application {}", application.getId());
+                submit(application.getId(), application.getStudent().getId(), application.getJob().getId(),
+                        application.getCv().getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes LLM analyses whose answer depends only on their inputs, not on who asked,
+ * so students with the same skill list or certification set (e.g. one bootcamp cohort)
+ * share a single Gemini call per job skill set.
+ *
+ * Keys are built from canonicalized inputs with {@link #key}. Concurrent requests for the
+ * same key wait for the first one instead of calling Gemini again. Only real answers are
+ * stored: a null result (call failed, caller falls back) is not cached. Entries expire
+ * after llm.memo.ttl-minutes and the least recently used are evicted past max-entries.
+ *
+ * Hits, misses and coalesced waits are counted per call type (llm.memo.requests) so the
+ * dedupe ratio on production traffic can be read from metrics or /api/admin/llm/memo.
+ */
+@Component
+public class AnalysisMemo {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${llm.memo.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.memo.max-entries:20000}")
+    private int maxEntries;
+
+    @Value("${llm.memo.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    private Map<String, Entry> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<LlmCallType, Stats> stats = new EnumMap<>(LlmCallType.class);
+
+    private static final class Entry {
+        private final String value;
+        private final long expiresAtNanos;
+
+        private Entry(String value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static final class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+    }
+
+    @PostConstruct
+    void init() {
+        entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        for (LlmCallType callType : LlmCallType.values()) {
+            stats.put(callType, new Stats());
+        }
+        Gauge.builder("llm.memo.size", this, memo -> memo.size())
+                .description("Memoized LLM analyses held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Canonical key for a set of inputs: each part is a collection of values that are
+     * trimmed, lower-cased, whitespace-collapsed, de-duplicated and sorted, so order,
+     * case and repeats do not produce different keys. The result is a SHA-256 digest.
+     */
+    public static String key(LlmCallType callType, Collection<?>... parts) {
+        StringBuilder canonical = new StringBuilder(callType.getKey());
+        for (Collection<?> part : parts) {
+            canonical.append('\u001e');
+            if (part == null) {
+                continue;
+            }
+            TreeSet<String> normalized = new TreeSet<>();
+            for (Object value : part) {
+                if (value != null) {
+                    String text = value.toString().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+                    if (!text.isEmpty()) {
+                        normalized.add(text);
+                    }
+                }
+            }
+            canonical.append(String.join("\u001f", normalized));
+        }
+        return sha256Hex(canonical.toString());
+    }
+
+    /**
+     * Returns the memoized answer for key, or runs compute and stores its result.
+     * compute may return null to signal that nothing should be cached.
+     */
+    public String get(LlmCallType callType, String key, Supplier<String> compute) {
+        if (!enabled) {
+            return compute.get();
+        }
+        Stats callStats = stats.get(callType);
+        String cached = lookup(key);
+        if (cached != null) {
+            callStats.hits.incrementAndGet();
+            count(callType, "hit");
+            return cached;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            // Same inputs are being analyzed right now: share that answer
+            callStats.coalesced.incrementAndGet();
+            count(callType, "coalesced");
+            String shared = running.join();
+            return shared != null ? shared : compute.get();
+        }
+
+        callStats.misses.incrementAndGet();
+        count(callType, "miss");
+        String value = null;
+        try {
+            value = compute.get();
+            if (value != null) {
+                store(key, value);
+            }
+            return value;
+        } finally {
+            inFlight.remove(key, mine);
+            mine.complete(value);
+        }
+    }
+
+    private String lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void store(String key, String value) {
+        long expiresAt = System.nanoTime() + ttlMinutes * 60_000_000_000L;
+        synchronized (entries) {
+            entries.put(key, new Entry(value, expiresAt));
+        }
+    }
+
+    /**
+     * Lookups answered from the memo (including coalesced waits) since startup
+     */
+    public long getHitCount() {
+        long hits = 0;
+        for (Stats callStats : stats.values()) {
+            hits += callStats.hits.get() + callStats.coalesced.get();
+        }
+        return hits;
+    }
+
+    public long getMissCount() {
+        long misses = 0;
+        for (Stats callStats : stats.values()) {
+            misses += callStats.misses.get();
+        }
+        return misses;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Hit ratio per call type since startup; only call types that were used are listed.
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("entries", size());
+        status.put("maxEntries", maxEntries);
+        Map<String, Object> byCallType = new LinkedHashMap<>();
+        stats.forEach((callType, callStats) -> {
+            long hits = callStats.hits.get() + callStats.coalesced.get();
+            long total = hits + callStats.misses.get();
+            if (total == 0) {
+                return;
+            }
+            Map<String, Object> row = new HashMap<>();
+            row.put("hits", callStats.hits.get());
+            row.put("coalesced", callStats.coalesced.get());
+            row.put("misses", callStats.misses.get());
+            row.put("hitRatio", Math.round(hits * 1000.0 / total) / 1000.0);
+            byCallType.put(callType.getKey(), row);
+        });
+        status.put("callTypes", byCallType);
+        return status;
+    }
+
+    private void count(LlmCallType callType, String result) {
+        Counter.builder("llm.memo.requests")
+                .description("Memoized LLM analysis lookups")
+                .tag("call_type", callType.getKey())
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static String sha256Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+/**
+ * A Gemini request that failed at the transport or HTTP level.
+ */
+public class GeminiApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public GeminiApiException(int statusCode, String responseBody) {
+        super("Gemini API returned HTTP " + statusCode + ": " + responseBody);
+        this.statusCode = statusCode;
+    }
+
+    public GeminiApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+    }
+
+    /**
+     * HTTP status of the failed response, or -1 if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,453 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Sends assembled prompts to the Gemini generateContent API through {@link LlmScheduler},
+ * using the model chosen by {@link GeminiModelRouter}, and records per-model latency
+ * (gemini.request) and failures (gemini.request.failures).
+ *
+ * Each request's timeout is capped by the remaining time of the caller's
+ * {@link LlmDeadline}, and cancelling the deadline aborts the in-flight exchange.
+ *
+ * Exchanges can be recorded for offline analysis ({@link GeminiTrafficRecorder}); when
+ * a replay source is configured ({@link GeminiReplayStore}) calls are answered from the
+ * recordings and never reach the network.
+ *
+ * Every call, including its wait for a scheduler slot, runs in a gemini.call observation
+ * (tagged with call type, lane, model and outcome), which is timed and exported as a span.
+ *
+ * {@link #generateStream} uses streamGenerateContent instead and hands each text fragment
+ * to the caller as it arrives; time to the first fragment is recorded as
+ * gemini.stream.first_chunk.
+ */
+@Component
+public class GeminiClient {
+
+    private static final String API_BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Autowired
+    private GeminiModelRouter router;
+
+    @Autowired
+    private LlmScheduler scheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GeminiTrafficRecorder recorder;
+
+    @Autowired
+    private GeminiReplayStore replayStore;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Value("${gemini.api.key}")
+    private String geminiApiKey;
+
+    @Value("${gemini.request.timeout-ms:30000}")
+    private long requestTimeoutMs;
+
+    /**
+     * True if calls can be answered: an API key is set or recordings are being replayed
+     */
+    public boolean isConfigured() {
+        return replayStore.isActive() || (geminiApiKey != null && !geminiApiKey.trim().isEmpty());
+    }
+
+    /**
+     * Posts the prompt once the scheduler grants a slot and returns the raw
+     * generateContent response. Failed calls are counted and rethrown; a rejected slot
+     * surfaces as RejectedExecutionException and a passed deadline as
+     * {@link LlmDeadlineExceededException}.
+     */
+    public Map<String, Object> generate(GeminiPrompt prompt) {
+        return Observation.createNotStarted("gemini.call", observationRegistry)
+                .contextualName("gemini " + prompt.getCallType().getKey())
+                .lowCardinalityKeyValue("call_type", prompt.getCallType().getKey())
+                .lowCardinalityKeyValue("lane", LlmRequestContext.currentLane().getKey())
+                .highCardinalityKeyValue("estimated_tokens", String.valueOf(prompt.getEstimatedTokens()))
+                .observe(() -> schedule(prompt, () -> post(prompt)));
+    }
+
+    /**
+     * Streams the prompt through streamGenerateContent: every text fragment is passed to
+     * onChunk as soon as it arrives, and the whole text is returned (null if the stream
+     * carried none). Scheduling, routing, deadlines, metrics and recording work as for
+     * {@link #generate}; the scheduler slot is held until the stream ends. onChunk runs
+     * on the calling thread and must not throw.
+     */
+    public String generateStream(GeminiPrompt prompt, Consumer<String> onChunk) {
+        return Observation.createNotStarted("gemini.call", observationRegistry)
+                .contextualName("gemini " + prompt.getCallType().getKey() + " stream")
+                .lowCardinalityKeyValue("call_type", prompt.getCallType().getKey())
+                .lowCardinalityKeyValue("lane", LlmRequestContext.currentLane().getKey())
+                .lowCardinalityKeyValue("streaming", "true")
+                .highCardinalityKeyValue("estimated_tokens", String.valueOf(prompt.getEstimatedTokens()))
+                .observe(() -> schedule(prompt, () -> postStream(prompt, onChunk)));
+    }
+
+    private <T> T schedule(GeminiPrompt prompt, Supplier<T> call) {
+        if (!replayStore.isActive()) {
+            return scheduler.execute(prompt.getCallType(), prompt.getEstimatedTokens(), call);
+        }
+        long start = System.nanoTime();
+        try {
+            return scheduler.execute(prompt.getCallType(), prompt.getEstimatedTokens(), call);
+        } finally {
+            replayStore.recordCallLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Posts the prompt and returns the first candidate's text, or null if the
+     * response carried none.
+     */
+    public String generateText(GeminiPrompt prompt) {
+        return extractText(generate(prompt));
+    }
+
+    /**
+     * Checks the caller's deadline and records usage; returns the request timeout
+     */
+    private long admit(GeminiPrompt prompt, LlmDeadline deadline) {
+        long timeoutMs = requestTimeoutMs;
+        if (deadline != null) {
+            deadline.check(prompt.getCallType());
+            timeoutMs = Math.max(1, Math.min(timeoutMs, deadline.remainingMillis()));
+        }
+
+        LlmUsage usage = LlmRequestContext.currentUsage();
+        if (usage != null) {
+            usage.record(prompt.getEstimatedTokens());
+        }
+        return timeoutMs;
+    }
+
+    private Map<String, Object> post(GeminiPrompt prompt) {
+        LlmCallType callType = prompt.getCallType();
+        LlmDeadline deadline = LlmRequestContext.currentDeadline();
+        long timeoutMs = admit(prompt, deadline);
+
+        String model = router.route(callType);
+        if (replayStore.isActive()) {
+            return replay(prompt, model, deadline);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(API_BASE_URL + model + ":generateContent"))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .header("x-goog-api-key", geminiApiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(prompt.getBody()))
+                .build();
+
+        String outcome = "success";
+        String responseText = null;
+        long start = System.nanoTime();
+        router.requestStarted();
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        Runnable unregister = deadline != null ? deadline.onCancel(() -> exchange.cancel(true)) : () -> { };
+        try {
+            HttpResponse<byte[]> response = exchange.get();
+            if (response.statusCode() >= 400) {
+                outcome = "http_" + response.statusCode();
+                throw new GeminiApiException(response.statusCode(),
+                        new String(response.body(), StandardCharsets.UTF_8));
+            }
+            Map<String, Object> body = OBJECT_MAPPER.readValue(response.body(), Map.class);
+            responseText = extractText(body);
+            if (responseText == null) {
+                outcome = "empty_response";
+            }
+            return body;
+        } catch (CancellationException e) {
+            outcome = "cancelled";
+            throw deadline != null ? deadline.exceeded(callType) : e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                outcome = "timeout";
+                if (deadline != null && deadline.isExpired()) {
+                    throw deadline.exceeded(callType);
+                }
+            } else {
+                outcome = "error";
+            }
+            throw new GeminiApiException("Gemini request failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            outcome = "cancelled";
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GeminiApiException("Interrupted while waiting for Gemini", e);
+        } catch (IOException e) {
+            outcome = "error";
+            throw new GeminiApiException("Unreadable Gemini response: " + e.getMessage(), e);
+        } finally {
+            unregister.run();
+            long elapsedNanos = System.nanoTime() - start;
+            router.requestFinished(model, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            recordRequest(model, callType, outcome, elapsedNanos);
+            if (recorder.isEnabled()) {
+                recorder.record(prompt, model, outcome, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), responseText);
+            }
+        }
+    }
+
+    private String postStream(GeminiPrompt prompt, Consumer<String> onChunk) {
+        LlmCallType callType = prompt.getCallType();
+        LlmDeadline deadline = LlmRequestContext.currentDeadline();
+        long timeoutMs = admit(prompt, deadline);
+
+        String model = router.route(callType);
+        if (replayStore.isActive()) {
+            return replayStream(prompt, model, deadline, onChunk);
+        }
+
+        // The timeout covers the wait for the response headers; the deadline covers the rest
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(API_BASE_URL + model + ":streamGenerateContent?alt=sse"))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .header("x-goog-api-key", geminiApiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(prompt.getBody()))
+                .build();
+
+        String outcome = "success";
+        StringBuilder text = new StringBuilder();
+        long start = System.nanoTime();
+        router.requestStarted();
+        CompletableFuture<HttpResponse<Stream<String>>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        AtomicReference<Stream<String>> body = new AtomicReference<>();
+        Runnable unregister = deadline != null ? deadline.onCancel(() -> {
+            exchange.cancel(true);
+            Stream<String> lines = body.get();
+            if (lines != null) {
+                lines.close();
+            }
+        }) : () -> { };
+        try {
+            HttpResponse<Stream<String>> response = exchange.get();
+            body.set(response.body());
+            try (Stream<String> lines = response.body()) {
+                if (response.statusCode() >= 400) {
+                    outcome = "http_" + response.statusCode();
+                    throw new GeminiApiException(response.statusCode(), lines.collect(Collectors.joining("\n")));
+                }
+                // Server-sent events: each "data:" line is a complete generateContent response
+                Iterator<String> events = lines.iterator();
+                while (events.hasNext()) {
+                    String line = events.next();
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String chunk = extractText(OBJECT_MAPPER.readValue(line.substring(5).trim(), Map.class));
+                    if (chunk == null || chunk.isEmpty()) {
+                        continue;
+                    }
+                    if (text.length() == 0) {
+                        recordFirstChunk(model, System.nanoTime() - start);
+                    }
+                    text.append(chunk);
+                    onChunk.accept(chunk);
+                }
+            }
+            if (text.length() == 0) {
+                outcome = "empty_response";
+                return null;
+            }
+            return text.toString();
+        } catch (CancellationException e) {
+            outcome = "cancelled";
+            throw deadline != null ? deadline.exceeded(callType) : e;
+        } catch (UncheckedIOException e) {
+            // The body stream was closed under us (deadline) or the connection dropped
+            if (deadline != null && (deadline.isCancelled() || deadline.isExpired())) {
+                outcome = "cancelled";
+                throw deadline.exceeded(callType);
+            }
+            outcome = "error";
+            throw new GeminiApiException("Gemini stream failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                outcome = "timeout";
+                if (deadline != null && deadline.isExpired()) {
+                    throw deadline.exceeded(callType);
+                }
+            } else {
+                outcome = "error";
+            }
+            throw new GeminiApiException("Gemini request failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            outcome = "cancelled";
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GeminiApiException("Interrupted while waiting for Gemini", e);
+        } catch (IOException e) {
+            outcome = "error";
+            throw new GeminiApiException("Unreadable Gemini stream event: " + e.getMessage(), e);
+        } finally {
+            unregister.run();
+            long elapsedNanos = System.nanoTime() - start;
+            router.requestFinished(model, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            recordRequest(model, callType, outcome, elapsedNanos);
+            if (recorder.isEnabled()) {
+                recorder.record(prompt, model, outcome, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                        text.length() > 0 ? text.toString() : null);
+            }
+        }
+    }
+
+    /**
+     * Answers the call from the recordings, with the same routing and metrics as a live call.
+     */
+    private Map<String, Object> replay(GeminiPrompt prompt, String model, LlmDeadline deadline) {
+        String outcome = "success";
+        long start = System.nanoTime();
+        router.requestStarted();
+        try {
+            Map<String, Object> body = replayStore.replay(prompt, deadline);
+            if (extractText(body) == null) {
+                outcome = "empty_response";
+            }
+            return body;
+        } catch (LlmDeadlineExceededException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (GeminiApiException e) {
+            outcome = e.getStatusCode() > 0 ? "http_" + e.getStatusCode() : "error";
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            router.requestFinished(model, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            recordRequest(model, prompt.getCallType(), outcome, elapsedNanos);
+        }
+    }
+
+    /**
+     * Streams the recorded answer in fragments, with the same routing and metrics as a live call.
+     */
+    private String replayStream(GeminiPrompt prompt, String model, LlmDeadline deadline, Consumer<String> onChunk) {
+        String outcome = "success";
+        long start = System.nanoTime();
+        router.requestStarted();
+        try {
+            boolean[] first = {true};
+            String text = replayStore.replayStream(prompt, deadline, chunk -> {
+                if (first[0]) {
+                    first[0] = false;
+                    recordFirstChunk(model, System.nanoTime() - start);
+                }
+                onChunk.accept(chunk);
+            });
+            if (text == null) {
+                outcome = "empty_response";
+            }
+            return text;
+        } catch (LlmDeadlineExceededException e) {
+            outcome = "cancelled";
+            throw e;
+        } catch (GeminiApiException e) {
+            outcome = e.getStatusCode() > 0 ? "http_" + e.getStatusCode() : "error";
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            router.requestFinished(model, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            recordRequest(model, prompt.getCallType(), outcome, elapsedNanos);
+        }
+    }
+
+    /**
+     * Extracts the first candidate's text from a generateContent response.
+     * The candidate content is a single object holding a list of parts.
+     */
+    @SuppressWarnings("unchecked")
+    public static String extractText(Map<String, Object> response) {
+        if (response == null || !(response.get("candidates") instanceof List)) {
+            return null;
+        }
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
+        if (candidates.isEmpty() || !(candidates.get(0).get("content") instanceof Map)) {
+            return null;
+        }
+        Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
+        if (!(content.get("parts") instanceof List)) {
+            return null;
+        }
+        List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
+        if (parts.isEmpty()) {
+            return null;
+        }
+        return (String) parts.get(0).get("text");
+    }
+
+    private void recordFirstChunk(String model, long elapsedNanos) {
+        Timer.builder("gemini.stream.first_chunk")
+                .description("Time from sending a streaming Gemini request to its first text fragment")
+                .tag("model", model)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordRequest(String model, LlmCallType callType, String outcome, long elapsedNanos) {
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.lowCardinalityKeyValue("model", model);
+            observation.lowCardinalityKeyValue("outcome", outcome);
+        }
+        Timer.builder("gemini.request")
+                .description("Gemini generateContent latency")
+                .tag("model", model)
+                .tag("call_type", callType.getKey())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (!"success".equals(outcome)) {
+            Counter.builder("gemini.request.failures")
+                    .description("Failed or empty Gemini responses")
+                    .tag("model", model)
+                    .tag("call_type", callType.getKey())
+                    .tag("reason", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
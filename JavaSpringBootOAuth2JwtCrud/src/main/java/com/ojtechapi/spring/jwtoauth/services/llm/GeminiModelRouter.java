@@ -0,0 +1,181 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the Gemini model for each call type.
+ *
+ * Every call type maps to a tier (gemini.routing.&lt;call-type&gt;=fast|pro); sub-analyses
+ * default to the fast tier, final scoring and cover letters to the pro tier. A pro call
+ * is downgraded to the fast model while the pro model's smoothed latency is above
+ * gemini.routing.latency-slo-ms, or while in-flight/queued LLM work is above
+ * gemini.routing.pressure-threshold. While degraded, one probe request per
+ * gemini.routing.probe-interval-ms still goes to the pro model so recovery is noticed.
+ */
+@Component
+public class GeminiModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiModelRouter.class);
+
+    /**
+     * Weight of the newest sample in the latency moving average
+     */
+    private static final double EWMA_ALPHA = 0.2;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gemini.models.fast:gemini-2.5-flash}")
+    private String fastModel;
+
+    @Value("${gemini.models.pro:gemini-2.5-pro}")
+    private String proModel;
+
+    @Value("${gemini.routing.latency-slo-ms:8000}")
+    private long latencySloMs;
+
+    @Value("${gemini.routing.pressure-threshold:16}")
+    private int pressureThreshold;
+
+    @Value("${gemini.routing.probe-interval-ms:30000}")
+    private long probeIntervalMs;
+
+    private final Map<LlmCallType, ModelTier> tiers = new EnumMap<>(LlmCallType.class);
+    private final Map<String, LatencyStats> latencyByModel = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile QueueDepthSource queueDepthSource = () -> 0;
+
+    /**
+     * Reports how much LLM work is waiting to run, so queue pressure can trigger a downgrade.
+     */
+    public interface QueueDepthSource {
+        int queuedRequests();
+    }
+
+    @PostConstruct
+    void init() {
+        for (LlmCallType callType : LlmCallType.values()) {
+            ModelTier tier = environment.getProperty("gemini.routing." + callType.getKey(),
+                    ModelTier.class, defaultTier(callType));
+            tiers.put(callType, tier);
+        }
+        Gauge.builder("gemini.requests.in_flight", inFlight, AtomicInteger::get)
+                .description("Gemini requests currently in flight")
+                .register(meterRegistry);
+        logger.info("Gemini routing: fast={}, pro={}, tiers={}", fastModel, proModel, tiers);
+    }
+
+    private static ModelTier defaultTier(LlmCallType callType) {
+        switch (callType) {
+            case MATCH_DETAILS:
+            case FINAL_SCORE:
+            case COVER_LETTER:
+                return ModelTier.PRO;
+            default:
+                return ModelTier.FAST;
+        }
+    }
+
+    public void setQueueDepthSource(QueueDepthSource queueDepthSource) {
+        this.queueDepthSource = queueDepthSource;
+    }
+
+    /**
+     * Picks the model for one request.
+     */
+    public String route(LlmCallType callType) {
+        ModelTier tier = tiers.get(callType);
+        if (tier == ModelTier.FAST || fastModel.equals(proModel)) {
+            return modelFor(tier);
+        }
+
+        int pressure = inFlight.get() + queueDepthSource.queuedRequests();
+        if (pressure >= pressureThreshold) {
+            recordDowngrade(callType, "pressure");
+            return fastModel;
+        }
+
+        LatencyStats stats = latencyByModel.get(proModel);
+        if (stats != null && stats.ewmaMs > latencySloMs) {
+            if (stats.tryProbe(probeIntervalMs)) {
+                return proModel;
+            }
+            recordDowngrade(callType, "latency");
+            return fastModel;
+        }
+        return proModel;
+    }
+
+    public String modelFor(ModelTier tier) {
+        return tier == ModelTier.PRO ? proModel : fastModel;
+    }
+
+    public ModelTier tierFor(LlmCallType callType) {
+        return tiers.get(callType);
+    }
+
+    void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    void requestFinished(String model, long latencyMs) {
+        inFlight.decrementAndGet();
+        latencyByModel.computeIfAbsent(model, m -> new LatencyStats()).record(latencyMs);
+    }
+
+    /**
+     * Smoothed latency of a model in milliseconds, or -1 if it has not been called yet
+     */
+    public double getSmoothedLatencyMs(String model) {
+        LatencyStats stats = latencyByModel.get(model);
+        return stats != null ? stats.ewmaMs : -1;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void recordDowngrade(LlmCallType callType, String reason) {
+        Counter.builder("gemini.routing.downgrades")
+                .description("Pro-tier calls routed to the fast model")
+                .tag("call_type", callType.getKey())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class LatencyStats {
+        private volatile double ewmaMs = -1;
+        private volatile long lastProbeAt;
+
+        synchronized void record(long latencyMs) {
+            ewmaMs = ewmaMs < 0 ? latencyMs : EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * ewmaMs;
+        }
+
+        synchronized boolean tryProbe(long intervalMs) {
+            long now = System.currentTimeMillis();
+            if (now - lastProbeAt >= intervalMs) {
+                lastProbeAt = now;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import java.util.List;
+
+/**
+ * A fully assembled generateContent request body for one call type.
+ */
+public final class GeminiPrompt {
+
+    private final LlmCallType callType;
+    private final byte[] body;
+    private final int estimatedTokens;
+    private final int compressedSections;
+    private final List<String> personalValues;
+
+    GeminiPrompt(LlmCallType callType, byte[] body, int estimatedTokens, int compressedSections,
+                 List<String> personalValues) {
+        this.callType = callType;
+        this.body = body;
+        this.estimatedTokens = estimatedTokens;
+        this.compressedSections = compressedSections;
+        this.personalValues = personalValues;
+    }
+
+    public LlmCallType getCallType() {
+        return callType;
+    }
+
+    /**
+     * UTF-8 JSON request body, ready to post with Content-Type application/json
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public int getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    public int getCompressedSections() {
+        return compressedSections;
+    }
+
+    /**
+     * Names and contact details of the people in this prompt, redacted wherever they
+     * appear in the prompt or its response when the exchange is recorded
+     */
+    public List<String> getPersonalValues() {
+        return personalValues;
+    }
+}
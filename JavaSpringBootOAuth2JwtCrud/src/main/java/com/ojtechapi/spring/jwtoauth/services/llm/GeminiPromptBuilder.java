@@ -0,0 +1,258 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assembles Gemini generateContent request bodies from pre-encoded static blocks and
+ * budgeted dynamic sections.
+ *
+ * Every variable-length section (CV content, job description, prior analyses, ...)
+ * is reduced to its own token budget. If the prompt as a whole is still above
+ * gemini.prompt.max-tokens, all budgeted sections are scaled down together.
+ * Prompt size per call type is published as gemini.prompt.size / gemini.prompt.tokens.
+ */
+@Component
+public class GeminiPromptBuilder {
+
+    private static final byte[] BODY_PREFIX = "{\"contents\":[{\"parts\":[{\"text\":\""
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_SUFFIX = "\"}]}]}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Budgets are never scaled below this fraction of their configured value
+     */
+    private static final double MIN_SCALE = 0.25;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gemini.prompt.max-tokens:6000}")
+    private int maxPromptTokens;
+
+    @Value("${gemini.prompt.budget.cv-content:1500}")
+    private int cvContentBudget;
+
+    @Value("${gemini.prompt.budget.job-description:500}")
+    private int jobDescriptionBudget;
+
+    @Value("${gemini.prompt.budget.job-requirements:300}")
+    private int jobRequirementsBudget;
+
+    @Value("${gemini.prompt.budget.bio:300}")
+    private int bioBudget;
+
+    @Value("${gemini.prompt.budget.github-projects:600}")
+    private int githubProjectsBudget;
+
+    @Value("${gemini.prompt.budget.work-experience:600}")
+    private int workExperienceBudget;
+
+    @Value("${gemini.prompt.budget.company-description:200}")
+    private int companyDescriptionBudget;
+
+    @Value("${gemini.prompt.budget.prior-analysis:350}")
+    private int priorAnalysisBudget;
+
+    public Builder newPrompt(LlmCallType callType) {
+        return new Builder(callType);
+    }
+
+    int budgetFor(PromptSection section) {
+        switch (section) {
+            case CV_CONTENT:
+                return cvContentBudget;
+            case JOB_DESCRIPTION:
+                return jobDescriptionBudget;
+            case JOB_REQUIREMENTS:
+                return jobRequirementsBudget;
+            case BIO:
+                return bioBudget;
+            case GITHUB_PROJECTS:
+                return githubProjectsBudget;
+            case WORK_EXPERIENCE:
+                return workExperienceBudget;
+            case COMPANY_DESCRIPTION:
+                return companyDescriptionBudget;
+            default:
+                return priorAnalysisBudget;
+        }
+    }
+
+    private void recordMetrics(LlmCallType callType, int bytes, int tokens) {
+        DistributionSummary.builder("gemini.prompt.size")
+                .description("Gemini request body size")
+                .baseUnit("bytes")
+                .tag("call_type", callType.getKey())
+                .register(meterRegistry)
+                .record(bytes);
+        DistributionSummary.builder("gemini.prompt.tokens")
+                .description("Estimated prompt tokens")
+                .tag("call_type", callType.getKey())
+                .register(meterRegistry)
+                .record(tokens);
+    }
+
+    private void recordCompression(LlmCallType callType, PromptSection section) {
+        Counter.builder("gemini.prompt.sections.compressed")
+                .description("Prompt sections reduced to fit their token budget")
+                .tag("call_type", callType.getKey())
+                .tag("section", section.getKey())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * One piece of a prompt: either a pre-encoded static block or dynamic text,
+     * optionally bound to a budgeted section.
+     */
+    private static final class Piece {
+        private final PromptBlock block;
+        private final String label;
+        private final String content;
+        private final PromptSection section;
+        private String rendered;
+        private boolean reduced;
+
+        private Piece(PromptBlock block, String label, String content, PromptSection section) {
+            this.block = block;
+            this.label = label;
+            this.content = content;
+            this.section = section;
+        }
+    }
+
+    public final class Builder {
+
+        private final LlmCallType callType;
+        private final List<Piece> pieces = new ArrayList<>();
+        private final List<String> personalValues = new ArrayList<>();
+
+        private Builder(LlmCallType callType) {
+            this.callType = callType;
+        }
+
+        /**
+         * Appends a static, pre-encoded block.
+         */
+        public Builder block(PromptBlock block) {
+            pieces.add(new Piece(block, null, null, null));
+            return this;
+        }
+
+        /**
+         * Appends short dynamic text as-is (names, titles, skill lists).
+         */
+        public Builder text(String text) {
+            if (text != null && !text.isEmpty()) {
+                Piece piece = new Piece(null, null, text, null);
+                piece.rendered = text;
+                pieces.add(piece);
+            }
+            return this;
+        }
+
+        /**
+         * Appends "label: value" on its own line; null or blank values are omitted.
+         */
+        public Builder field(String label, Object value) {
+            if (value == null || value.toString().isBlank()) {
+                return this;
+            }
+            return text(label + ": " + value + "\n");
+        }
+
+        /**
+         * Appends a variable-length section that is reduced to the section's budget.
+         * Null or blank content is omitted.
+         */
+        public Builder section(String label, String content, PromptSection section) {
+            if (content != null && !content.isBlank()) {
+                pieces.add(new Piece(null, label, content, section));
+            }
+            return this;
+        }
+
+        /**
+         * Declares names and contact details used in this prompt, so recordings redact
+         * them wherever they appear (see {@link PiiRedactor}). Adds nothing to the prompt;
+         * null or blank values are ignored.
+         */
+        public Builder personal(Object... values) {
+            for (Object value : values) {
+                if (value != null && !value.toString().isBlank()) {
+                    personalValues.add(value.toString().trim());
+                }
+            }
+            return this;
+        }
+
+        public GeminiPrompt build() {
+            int fixedTokens = 0;
+            int budgetedTokens = 0;
+            for (Piece piece : pieces) {
+                if (piece.block != null) {
+                    fixedTokens += piece.block.getEstimatedTokens();
+                } else if (piece.section == null) {
+                    fixedTokens += PromptCompressor.estimateTokens(piece.rendered);
+                } else {
+                    piece.rendered = render(piece, budgetFor(piece.section));
+                    budgetedTokens += PromptCompressor.estimateTokens(piece.rendered);
+                }
+            }
+
+            // Shrink all budgeted sections together when the whole prompt is over the cap
+            if (fixedTokens + budgetedTokens > maxPromptTokens && budgetedTokens > 0) {
+                double scale = Math.max(MIN_SCALE, (double) (maxPromptTokens - fixedTokens) / budgetedTokens);
+                budgetedTokens = 0;
+                for (Piece piece : pieces) {
+                    if (piece.section != null) {
+                        piece.rendered = render(piece, (int) (budgetFor(piece.section) * scale));
+                        budgetedTokens += PromptCompressor.estimateTokens(piece.rendered);
+                    }
+                }
+            }
+
+            int compressed = 0;
+            ByteArrayOutputStream body = new ByteArrayOutputStream(
+                    BODY_PREFIX.length + BODY_SUFFIX.length + (fixedTokens + budgetedTokens) * 5);
+            body.writeBytes(BODY_PREFIX);
+            for (Piece piece : pieces) {
+                if (piece.block != null) {
+                    body.writeBytes(piece.block.getJsonBytes());
+                    continue;
+                }
+                if (piece.reduced) {
+                    compressed++;
+                    recordCompression(callType, piece.section);
+                }
+                body.writeBytes(PromptCompressor.escapeJson(piece.rendered).getBytes(StandardCharsets.UTF_8));
+            }
+            body.writeBytes(BODY_SUFFIX);
+
+            byte[] bytes = body.toByteArray();
+            int tokens = fixedTokens + budgetedTokens;
+            recordMetrics(callType, bytes.length, tokens);
+            return new GeminiPrompt(callType, bytes, tokens, compressed, List.copyOf(personalValues));
+        }
+
+        private String render(Piece piece, int budget) {
+            String reduced = piece.section.compress(piece.content, Math.max(1, budget));
+            piece.reduced = reduced.endsWith(PromptCompressor.TRUNCATION_MARKER)
+                    || reduced.endsWith(PromptCompressor.SUMMARY_MARKER);
+            if (reduced.indexOf('\n') >= 0) {
+                return piece.label + ":\n" + reduced + "\n\n";
+            }
+            return piece.label + ": " + reduced + "\n";
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recorded Gemini exchange, stored as a JSON line. Prompt and response text are
+ * redacted ({@link PiiRedactor}); requestKey identifies the redacted prompt so that a
+ * replayed pipeline can find the answer for the prompt it builds.
+ */
+public class GeminiRecording {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private int version = FORMAT_VERSION;
+    private String recordedAt;
+    private String callType;
+    private String model;
+    private String lane;
+    private String studentId;
+    private String requestKey;
+    private int estimatedTokens;
+    private String prompt;
+    private String outcome;
+    private long latencyMs;
+    private String response;
+
+    /**
+     * Replay key of a prompt: hash of the call type and the redacted prompt text.
+     */
+    public static String requestKey(LlmCallType callType, String redactedPrompt) {
+        return AnalysisMemo.sha256Hex(callType.getKey() + '\n' + redactedPrompt);
+    }
+
+    /**
+     * Prompt text of a generateContent request body built by {@link GeminiPromptBuilder}.
+     */
+    public static String promptText(byte[] body) {
+        try {
+            JsonNode text = OBJECT_MAPPER.readTree(body).path("contents").path(0).path("parts").path(0).path("text");
+            return text.asText("");
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Minimal generateContent response carrying the recorded text, or no candidates if
+     * the recorded response was empty.
+     */
+    public Map<String, Object> toResponse() {
+        if (response == null) {
+            return Map.of("candidates", List.of());
+        }
+        return Map.of("candidates", List.of(Map.of("content", Map.of("parts", List.of(Map.of("text", response))))));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(String recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public String getCallType() {
+        return callType;
+    }
+
+    public void setCallType(String callType) {
+        this.callType = callType;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getLane() {
+        return lane;
+    }
+
+    public void setLane(String lane) {
+        this.lane = lane;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getRequestKey() {
+        return requestKey;
+    }
+
+    public void setRequestKey(String requestKey) {
+        this.requestKey = requestKey;
+    }
+
+    public int getEstimatedTokens() {
+        return estimatedTokens;
+    }
+
+    public void setEstimatedTokens(int estimatedTokens) {
+        this.estimatedTokens = estimatedTokens;
+    }
+
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public void setPrompt(String prompt) {
+        this.prompt = prompt;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+}
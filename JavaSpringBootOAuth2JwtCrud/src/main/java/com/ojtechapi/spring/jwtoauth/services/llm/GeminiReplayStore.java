@@ -0,0 +1,256 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves Gemini calls from recordings made by {@link GeminiTrafficRecorder} instead of
+ * the network. Active when gemini.replay.path names a recording file or directory.
+ *
+ * A live prompt is redacted the same way as at recording time and looked up by its
+ * request key; prompts recorded several times are answered in recording order, round
+ * robin. Each answer is delayed by its recorded latency (times gemini.replay.latency-scale)
+ * and recorded failures are replayed as failures, so the pipeline sees the original
+ * timing and error mix. A prompt with no recording fails like an unreachable API.
+ *
+ * Streaming calls get the recorded text in fragments of about
+ * gemini.replay.stream.chunk-chars characters: the first after
+ * gemini.replay.stream.first-chunk-ratio of the recorded latency, the rest spread evenly
+ * over the remainder, so the total duration still matches the recording.
+ */
+@Component
+public class GeminiReplayStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiReplayStore.class);
+
+    @Value("${gemini.replay.path:}")
+    private String replayPath;
+
+    @Value("${gemini.replay.latency-scale:1.0}")
+    private double latencyScale;
+
+    @Value("${gemini.replay.stream.chunk-chars:60}")
+    private int streamChunkChars;
+
+    @Value("${gemini.replay.stream.first-chunk-ratio:0.1}")
+    private double streamFirstChunkRatio;
+
+    // Must be the salt the recordings were made with
+    @Value("${gemini.recording.redaction-salt:}")
+    private String redactionSalt;
+
+    private final Map<String, List<GeminiRecording>> recordings = new HashMap<>();
+    private final Map<String, AtomicInteger> cursors = new HashMap<>();
+    private final Set<String> studentIds = new LinkedHashSet<>();
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> callLatenciesNanos = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void load() {
+        if (!isActive()) {
+            return;
+        }
+        if (redactionSalt == null || redactionSalt.isBlank()) {
+            logger.warn("gemini.recording.redaction-salt is not set: no prompt will match a recording");
+        }
+        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        Path path = Paths.get(replayPath);
+        List<Path> files;
+        try (Stream<Path> listing = Files.isDirectory(path) ? Files.list(path) : Stream.of(path)) {
+            files = listing.filter(p -> p.toString().endsWith(".jsonl")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Gemini recordings at " + replayPath, e);
+        }
+
+        int count = 0;
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    GeminiRecording recording = mapper.readValue(line, GeminiRecording.class);
+                    recordings.computeIfAbsent(recording.getRequestKey(), key -> new ArrayList<>()).add(recording);
+                    if (recording.getStudentId() != null) {
+                        studentIds.add(recording.getStudentId());
+                    }
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read Gemini recording " + file, e);
+            }
+        }
+        recordings.keySet().forEach(key -> cursors.put(key, new AtomicInteger()));
+        logger.info("Replaying Gemini traffic: {} recordings, {} distinct prompts, {} students from {}",
+                count, recordings.size(), studentIds.size(), replayPath);
+    }
+
+    public boolean isActive() {
+        return replayPath != null && !replayPath.isBlank();
+    }
+
+    /**
+     * Students that appear in the recordings, in first-seen order
+     */
+    public List<String> getStudentIds() {
+        return new ArrayList<>(studentIds);
+    }
+
+    Map<String, Object> replay(GeminiPrompt prompt, LlmDeadline deadline) {
+        GeminiRecording recording = lookup(prompt);
+        waitFor((long) (recording.getLatencyMs() * latencyScale), prompt.getCallType(), deadline);
+        failIfRecordedFailure(recording);
+        return recording.toResponse();
+    }
+
+    /**
+     * Streaming counterpart of {@link #replay}: passes the recorded text to onChunk in
+     * fragments and returns it whole (null if the recording has no text).
+     */
+    String replayStream(GeminiPrompt prompt, LlmDeadline deadline, Consumer<String> onChunk) {
+        LlmCallType callType = prompt.getCallType();
+        GeminiRecording recording = lookup(prompt);
+        long totalMs = (long) (recording.getLatencyMs() * latencyScale);
+        String text = GeminiClient.extractText(recording.toResponse());
+        String outcome = recording.getOutcome();
+        boolean failed = outcome != null && (outcome.startsWith("http_") || "timeout".equals(outcome) || "error".equals(outcome));
+        if (failed || text == null || text.isEmpty()) {
+            waitFor(totalMs, callType, deadline);
+            failIfRecordedFailure(recording);
+            return null;
+        }
+
+        List<String> chunks = chunk(text, Math.max(1, streamChunkChars));
+        long firstMs = (long) (totalMs * streamFirstChunkRatio);
+        long gapMs = chunks.size() > 1 ? (totalMs - firstMs) / (chunks.size() - 1) : 0;
+        waitFor(firstMs, callType, deadline);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i > 0) {
+                waitFor(gapMs, callType, deadline);
+            }
+            onChunk.accept(chunks.get(i));
+        }
+        return text;
+    }
+
+    private GeminiRecording lookup(GeminiPrompt prompt) {
+        LlmCallType callType = prompt.getCallType();
+        String redacted = PiiRedactor.redact(GeminiRecording.promptText(prompt.getBody()), redactionSalt,
+                prompt.getPersonalValues());
+        String key = GeminiRecording.requestKey(callType, redacted);
+        List<GeminiRecording> candidates = recordings.get(key);
+        if (candidates == null) {
+            misses.incrementAndGet();
+            throw new GeminiApiException("No recording for " + callType.getKey() + " prompt " + key.substring(0, 12), null);
+        }
+        GeminiRecording recording = candidates.get(Math.floorMod(cursors.get(key).getAndIncrement(), candidates.size()));
+        served.incrementAndGet();
+        return recording;
+    }
+
+    private static void failIfRecordedFailure(GeminiRecording recording) {
+        String outcome = recording.getOutcome();
+        if (outcome != null && outcome.startsWith("http_")) {
+            throw new GeminiApiException(Integer.parseInt(outcome.substring(5)), "replayed failure");
+        }
+        if ("timeout".equals(outcome) || "error".equals(outcome)) {
+            throw new GeminiApiException("Replayed " + outcome, null);
+        }
+    }
+
+    /**
+     * Splits text into fragments of at least size characters, ending after whitespace
+     * where possible, the way token streams break between words
+     */
+    static List<String> chunk(String text, int size) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + size);
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private void waitFor(long millis, LlmCallType callType, LlmDeadline deadline) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        try {
+            while (true) {
+                long remaining = until - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                if (deadline != null && deadline.isExpired()) {
+                    throw deadline.exceeded(callType);
+                }
+                // Wake up regularly so a cancelled deadline aborts the call like a live exchange
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeminiApiException("Interrupted while replaying Gemini call", e);
+        }
+    }
+
+    /**
+     * Records the end-to-end latency of a replayed call, including scheduler wait.
+     */
+    void recordCallLatency(long nanos) {
+        callLatenciesNanos.add(nanos);
+    }
+
+    public long getServedCount() {
+        return served.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns and clears the call latencies recorded since the last drain, in nanoseconds.
+     */
+    public List<Long> drainCallLatencies() {
+        List<Long> drained = new ArrayList<>();
+        Long next;
+        while ((next = callLatenciesNanos.poll()) != null) {
+            drained.add(next);
+        }
+        Collections.sort(drained);
+        return drained;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records Gemini exchanges made by the matching and cover letter pipelines to
+ * gemini.recording.dir as redacted JSON lines (one file per day), for offline replay
+ * with {@link GeminiReplayStore}. Off unless gemini.recording.enabled is set, and then
+ * only with a secret gemini.recording.redaction-salt: the placeholders are salted hashes
+ * of names and phone numbers, which a known salt would let anyone reverse by guessing.
+ *
+ * Writing happens on a background thread; when the buffer is full, exchanges are
+ * dropped rather than slowing down requests.
+ */
+@Component
+public class GeminiTrafficRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiTrafficRecorder.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Value("${gemini.recording.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gemini.recording.dir:gemini-recordings}")
+    private String directory;
+
+    @Value("${gemini.recording.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${gemini.recording.redaction-salt:}")
+    private String redactionSalt;
+
+    // The salt shipped as the default before it had to be configured
+    private static final String FORMER_DEFAULT_SALT = "ojtech";
+
+    private final BlockingQueue<GeminiRecording> buffer = new ArrayBlockingQueue<>(10_000);
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        if (redactionSalt == null || redactionSalt.isBlank() || redactionSalt.equals(FORMER_DEFAULT_SALT)) {
+            logger.error("Not recording Gemini traffic: set gemini.recording.redaction-salt (GEMINI_REDACTION_SALT) "
+                    + "to a secret value");
+            enabled = false;
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "gemini-recorder");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Recording Gemini traffic to {} (sample rate {})", directory, sampleRate);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    String getRedactionSalt() {
+        return redactionSalt;
+    }
+
+    /**
+     * Queues an exchange for writing; responseText is null if no text came back.
+     */
+    void record(GeminiPrompt prompt, String model, String outcome, long latencyMs, String responseText) {
+        if (!enabled || outcome.equals("cancelled")
+                || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        String redactedPrompt = PiiRedactor.redact(GeminiRecording.promptText(prompt.getBody()), redactionSalt,
+                prompt.getPersonalValues());
+        UUID studentId = LlmRequestContext.currentStudentId();
+
+        GeminiRecording recording = new GeminiRecording();
+        recording.setRecordedAt(OffsetDateTime.now().toString());
+        recording.setCallType(prompt.getCallType().name());
+        recording.setModel(model);
+        recording.setLane(LlmRequestContext.currentLane().name());
+        recording.setStudentId(studentId != null ? studentId.toString() : null);
+        recording.setRequestKey(GeminiRecording.requestKey(prompt.getCallType(), redactedPrompt));
+        recording.setEstimatedTokens(prompt.getEstimatedTokens());
+        recording.setPrompt(redactedPrompt);
+        recording.setOutcome(outcome);
+        recording.setLatencyMs(latencyMs);
+        recording.setResponse(PiiRedactor.redact(responseText, redactionSalt, prompt.getPersonalValues()));
+        if (!buffer.offer(recording)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                GeminiRecording first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                Path dir = Paths.get(directory);
+                Files.createDirectories(dir);
+                Path file = dir.resolve("gemini-" + LocalDate.now() + ".jsonl");
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    GeminiRecording next = first;
+                    while (next != null) {
+                        out.write(OBJECT_MAPPER.writeValueAsString(next));
+                        out.newLine();
+                        next = buffer.poll();
+                    }
+                }
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    logger.warn("Dropped {} Gemini recordings because the write buffer was full", lost);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                logger.error("Failed to write Gemini recording: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+/**
+ * The distinct kinds of Gemini calls the application makes. Used as the metric
+ * tag for prompt sizes and as the key for per-call-type configuration.
+ */
+public enum LlmCallType {
+    MATCH_DETAILS("match-details"),
+    SKILL_MATCH("skill-match"),
+    GITHUB("github"),
+    PORTFOLIO("portfolio"),
+    CERTIFICATIONS("certifications"),
+    WORK_EXPERIENCE("work-experience"),
+    BIO("bio"),
+    BASIC_SCORE("basic-score"),
+    FINAL_SCORE("final-score"),
+    COVER_LETTER("cover-letter");
+
+    private final String key;
+
+    LlmCallType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Stable lower-case identifier used in metric tags and property names
+     */
+    public String getKey() {
+        return key;
+    }
+}
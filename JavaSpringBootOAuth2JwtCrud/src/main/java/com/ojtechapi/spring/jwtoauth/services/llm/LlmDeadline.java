@@ -0,0 +1,94 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Point in time after which LLM work for a request is no longer wanted, either because
+ * the time budget ran out or because the request was cancelled (client disconnected,
+ * async timeout). Carried on the thread by {@link LlmRequestContext}; the scheduler and
+ * {@link GeminiClient} refuse or abort calls once it has passed.
+ */
+public final class LlmDeadline {
+
+    private final long deadlineNanos;
+    private final List<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger abortedCalls = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    private LlmDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static LlmDeadline after(Duration budget) {
+        return new LlmDeadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public long remainingNanos() {
+        return cancelled ? 0 : Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    /**
+     * Cancels the deadline and aborts in-flight calls registered through {@link #onCancel}.
+     * Safe to call more than once.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Runnable listener : cancelListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Registers an action to run on cancellation (immediately if already cancelled).
+     *
+     * @return a handle that unregisters the action
+     */
+    Runnable onCancel(Runnable listener) {
+        cancelListeners.add(listener);
+        if (cancelled) {
+            listener.run();
+        }
+        return () -> cancelListeners.remove(listener);
+    }
+
+    /**
+     * Throws if the deadline has passed, counting the refused call.
+     */
+    void check(LlmCallType callType) {
+        if (isExpired()) {
+            throw exceeded(callType);
+        }
+    }
+
+    LlmDeadlineExceededException exceeded(LlmCallType callType) {
+        abortedCalls.incrementAndGet();
+        return new LlmDeadlineExceededException(callType, cancelled);
+    }
+
+    /**
+     * Number of LLM calls refused or aborted because of this deadline. Callers compare it
+     * before and after a unit of work to tell whether the work ran on degraded fallbacks.
+     */
+    public int getAbortedCalls() {
+        return abortedCalls.get();
+    }
+}
@@ -0,0 +1,20 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+/**
+ * Thrown when an LLM call is refused or aborted because its request deadline passed
+ * or the request was cancelled.
+ */
+public class LlmDeadlineExceededException extends RuntimeException {
+
+    private final LlmCallType callType;
+
+    public LlmDeadlineExceededException(LlmCallType callType, boolean cancelled) {
+        super((cancelled ? "Request cancelled" : "Request deadline exceeded") + " before "
+                + callType.getKey() + " call completed");
+        this.callType = callType;
+    }
+
+    public LlmCallType getCallType() {
+        return callType;
+    }
+}
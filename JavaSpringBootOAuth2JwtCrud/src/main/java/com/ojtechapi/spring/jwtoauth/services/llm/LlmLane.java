@@ -0,0 +1,25 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+/**
+ * Priority lanes for LLM work. Lanes share the global concurrency cap in proportion
+ * to their weight (llm.scheduler.weight.*), so batch work keeps moving but never
+ * crowds out a student waiting on a page.
+ */
+public enum LlmLane {
+    /** A user is waiting on the response, e.g. /api/findjobs */
+    INTERACTIVE("interactive"),
+    /** Recalculations triggered by profile or CV updates */
+    BACKGROUND("background"),
+    /** Fan-out over many students, e.g. matching a newly posted job */
+    BATCH("batch");
+
+    private final String key;
+
+    LlmLane(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
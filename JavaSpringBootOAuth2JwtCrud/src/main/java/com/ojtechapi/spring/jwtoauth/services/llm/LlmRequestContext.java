@@ -0,0 +1,98 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound description of who LLM calls on the current thread are made for.
+ * {@link LlmScheduler} reads it to pick the lane and the per-student fair-queuing flow,
+ * and both the scheduler and {@link GeminiClient} honour its optional {@link LlmDeadline}.
+ * Work running without a context is treated as background work.
+ */
+public final class LlmRequestContext {
+
+    private static final ThreadLocal<LlmRequestContext> CURRENT = new ThreadLocal<>();
+
+    private final LlmLane lane;
+    private final UUID studentId;
+    private final LlmDeadline deadline;
+    private final LlmUsage usage;
+
+    private LlmRequestContext(LlmLane lane, UUID studentId, LlmDeadline deadline, LlmUsage usage) {
+        this.lane = lane;
+        this.studentId = studentId;
+        this.deadline = deadline;
+        this.usage = usage;
+    }
+
+    /**
+     * Runs work with the given lane and student bound to the current thread,
+     * restoring the previous context afterwards.
+     */
+    public static <T> T call(LlmLane lane, UUID studentId, Supplier<T> work) {
+        return call(lane, studentId, null, work);
+    }
+
+    /**
+     * Like {@link #call(LlmLane, UUID, Supplier)}, with a deadline after which LLM calls
+     * made by the work are refused or aborted.
+     */
+    public static <T> T call(LlmLane lane, UUID studentId, LlmDeadline deadline, Supplier<T> work) {
+        return call(lane, studentId, deadline, null, work);
+    }
+
+    /**
+     * Like {@link #call(LlmLane, UUID, LlmDeadline, Supplier)}, additionally counting the
+     * LLM calls made by the work into usage.
+     */
+    public static <T> T call(LlmLane lane, UUID studentId, LlmDeadline deadline, LlmUsage usage,
+            Supplier<T> work) {
+        LlmRequestContext previous = CURRENT.get();
+        CURRENT.set(new LlmRequestContext(lane, studentId, deadline, usage));
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void run(LlmLane lane, UUID studentId, Runnable work) {
+        call(lane, studentId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static LlmLane currentLane() {
+        LlmRequestContext context = CURRENT.get();
+        return context != null ? context.lane : LlmLane.BACKGROUND;
+    }
+
+    /**
+     * Deadline of the current work, or null if it has none
+     */
+    public static LlmDeadline currentDeadline() {
+        LlmRequestContext context = CURRENT.get();
+        return context != null ? context.deadline : null;
+    }
+
+    /**
+     * Usage accumulator of the current work, or null if calls are not being counted
+     */
+    public static LlmUsage currentUsage() {
+        LlmRequestContext context = CURRENT.get();
+        return context != null ? context.usage : null;
+    }
+
+    /**
+     * Student the current work is for, or null if unknown
+     */
+    public static UUID currentStudentId() {
+        LlmRequestContext context = CURRENT.get();
+        return context != null ? context.studentId : null;
+    }
+}
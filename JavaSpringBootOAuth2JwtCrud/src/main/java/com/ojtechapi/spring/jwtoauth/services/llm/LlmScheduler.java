@@ -0,0 +1,379 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for Gemini calls.
+ *
+ * At most llm.scheduler.max-concurrency calls run at once; the cap can be changed at
+ * runtime. Callers beyond the cap wait in the queue of their {@link LlmLane}. Free slots
+ * are handed out across lanes by weight (stride scheduling) and, within a lane, by
+ * weighted fair queuing over students: each request is tagged with a virtual finish
+ * time of max(lane virtual time, student's last finish) + cost, where cost is the
+ * prompt's estimated token count. A student with hundreds of pending matches therefore
+ * only gets their fair share of the lane.
+ *
+ * Lane queues are bounded. A full queue, or a wait longer than llm.scheduler.max-wait-ms,
+ * fails fast with {@link RejectedExecutionException}; a queued request whose
+ * {@link LlmDeadline} passes or is cancelled leaves the queue immediately. Callers already
+ * fall back to the rule-based analysis when a Gemini call fails.
+ */
+@Component
+public class LlmScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmScheduler.class);
+
+    /**
+     * Flow key for work that is not attributed to a student
+     */
+    private static final Object UNATTRIBUTED = new Object();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GeminiModelRouter router;
+
+    @Value("${llm.scheduler.max-concurrency:8}")
+    private int initialMaxConcurrency;
+
+    @Value("${llm.scheduler.max-wait-ms:60000}")
+    private long maxWaitMs;
+
+    @Value("${llm.scheduler.weight.interactive:8}")
+    private int interactiveWeight;
+
+    @Value("${llm.scheduler.weight.background:3}")
+    private int backgroundWeight;
+
+    @Value("${llm.scheduler.weight.batch:1}")
+    private int batchWeight;
+
+    @Value("${llm.scheduler.queue-capacity.interactive:200}")
+    private int interactiveCapacity;
+
+    @Value("${llm.scheduler.queue-capacity.background:500}")
+    private int backgroundCapacity;
+
+    @Value("${llm.scheduler.queue-capacity.batch:1000}")
+    private int batchCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<LlmLane, LaneQueue> lanes = new EnumMap<>(LlmLane.class);
+    private final Map<LlmLane, Timer> waitTimers = new EnumMap<>(LlmLane.class);
+    private int maxConcurrency;
+    private int running;
+    private volatile int queued;
+    private double globalPass;
+    private long sequence;
+
+    @PostConstruct
+    void init() {
+        maxConcurrency = Math.max(1, initialMaxConcurrency);
+        lanes.put(LlmLane.INTERACTIVE, new LaneQueue(LlmLane.INTERACTIVE, interactiveWeight, interactiveCapacity));
+        lanes.put(LlmLane.BACKGROUND, new LaneQueue(LlmLane.BACKGROUND, backgroundWeight, backgroundCapacity));
+        lanes.put(LlmLane.BATCH, new LaneQueue(LlmLane.BATCH, batchWeight, batchCapacity));
+
+        for (LaneQueue lane : lanes.values()) {
+            Gauge.builder("llm.scheduler.queue.depth", lane, LaneQueue::size)
+                    .description("LLM requests waiting for a slot")
+                    .tag("lane", lane.lane.getKey())
+                    .register(meterRegistry);
+            waitTimers.put(lane.lane, Timer.builder("llm.scheduler.wait")
+                    .description("Time spent waiting for an LLM slot")
+                    .tag("lane", lane.lane.getKey())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("llm.scheduler.running", this, LlmScheduler::getRunning)
+                .description("LLM requests currently holding a slot")
+                .register(meterRegistry);
+        Gauge.builder("llm.scheduler.max_concurrency", this, LlmScheduler::getMaxConcurrency)
+                .description("Current LLM concurrency cap")
+                .register(meterRegistry);
+
+        router.setQueueDepthSource(() -> queued);
+    }
+
+    /**
+     * Runs work once a slot is granted to the caller's lane and student.
+     *
+     * @param cost relative cost used for fair queuing, normally the prompt's estimated tokens
+     * @throws RejectedExecutionException if the lane queue is full or the wait times out
+     */
+    public <T> T execute(LlmCallType callType, int cost, Supplier<T> work) {
+        acquire(callType, Math.max(1, cost));
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire(LlmCallType callType, int cost) {
+        LlmLane lane = LlmRequestContext.currentLane();
+        UUID studentId = LlmRequestContext.currentStudentId();
+        LlmDeadline deadline = LlmRequestContext.currentDeadline();
+        LaneQueue queue = lanes.get(lane);
+        long start = System.nanoTime();
+
+        if (deadline != null) {
+            deadline.check(callType);
+        }
+
+        lock.lock();
+        try {
+            if (running < maxConcurrency && queued == 0) {
+                running++;
+                waitTimers.get(lane).record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (queue.size() >= queue.capacity) {
+                recordRejection(lane, "queue_full");
+                throw new RejectedExecutionException("LLM " + lane.getKey() + " queue is full ("
+                        + queue.capacity + "), rejecting " + callType.getKey() + " call");
+            }
+
+            Ticket ticket = queue.enqueue(studentId != null ? studentId : UNATTRIBUTED, cost,
+                    sequence++, lock.newCondition());
+            queued++;
+            dispatch();
+
+            // Wake the waiter as soon as the request is cancelled
+            Runnable unregister = deadline != null ? deadline.onCancel(() -> signal(ticket)) : () -> { };
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (!ticket.granted) {
+                    if (deadline != null && deadline.isExpired()) {
+                        abandon(queue, ticket);
+                        recordRejection(lane, "deadline");
+                        throw deadline.exceeded(callType);
+                    }
+                    if (remaining <= 0) {
+                        abandon(queue, ticket);
+                        recordRejection(lane, "timeout");
+                        throw new RejectedExecutionException("Timed out after " + maxWaitMs
+                                + " ms waiting for an LLM slot for " + callType.getKey());
+                    }
+                    long waitNanos = deadline != null ? Math.min(remaining, deadline.remainingNanos()) : remaining;
+                    try {
+                        long slept = waitNanos - ticket.condition.awaitNanos(waitNanos);
+                        remaining -= slept;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        if (ticket.granted) {
+                            running--;
+                            dispatch();
+                        } else {
+                            abandon(queue, ticket);
+                        }
+                        throw new RejectedExecutionException("Interrupted while waiting for an LLM slot", e);
+                    }
+                }
+            } finally {
+                unregister.run();
+            }
+            waitTimers.get(lane).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abandon(LaneQueue queue, Ticket ticket) {
+        queue.remove(ticket);
+        queued--;
+    }
+
+    private void signal(Ticket ticket) {
+        lock.lock();
+        try {
+            ticket.condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grants free slots to queued tickets. Must be called with the lock held.
+     */
+    private void dispatch() {
+        while (running < maxConcurrency) {
+            LaneQueue next = null;
+            for (LaneQueue lane : lanes.values()) {
+                if (lane.size() > 0 && (next == null || lane.pass < next.pass)) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            Ticket ticket = next.poll();
+            globalPass = next.pass;
+            next.pass += (double) ticket.cost / next.weight;
+            queued--;
+            running++;
+            ticket.granted = true;
+            ticket.condition.signal();
+        }
+    }
+
+    /**
+     * Changes the global concurrency cap. Raising it immediately admits queued requests;
+     * lowering it lets running requests finish.
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("LLM concurrency cap must be at least 1");
+        }
+        lock.lock();
+        try {
+            logger.info("LLM concurrency cap changed from {} to {}", this.maxConcurrency, maxConcurrency);
+            this.maxConcurrency = maxConcurrency;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * Snapshot of the cap, running count and per-lane queue depth/capacity
+     */
+    public Map<String, Object> getStatus() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("maxConcurrency", maxConcurrency);
+            status.put("running", running);
+            status.put("queued", queued);
+            Map<String, Object> laneStatus = new LinkedHashMap<>();
+            for (LaneQueue lane : lanes.values()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("weight", lane.weight);
+                entry.put("queued", lane.size());
+                entry.put("capacity", lane.capacity);
+                laneStatus.put(lane.lane.getKey(), entry);
+            }
+            status.put("lanes", laneStatus);
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordRejection(LlmLane lane, String reason) {
+        Counter.builder("llm.scheduler.rejected")
+                .description("LLM requests rejected by the scheduler")
+                .tag("lane", lane.getKey())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class Ticket {
+        private final int cost;
+        private final double finishTag;
+        private final double startTag;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+
+        private Ticket(int cost, double startTag, long sequence, Condition condition) {
+            this.cost = cost;
+            this.startTag = startTag;
+            this.finishTag = startTag + cost;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * One lane's queue, ordered by virtual finish time across students.
+     */
+    private final class LaneQueue {
+        private final LlmLane lane;
+        private final int weight;
+        private final int capacity;
+        private final PriorityQueue<Ticket> tickets = new PriorityQueue<>(
+                Comparator.comparingDouble((Ticket t) -> t.finishTag).thenComparingLong(t -> t.sequence));
+        private final Map<Object, Double> lastFinishByFlow = new HashMap<>();
+        private double virtualTime;
+        private double pass;
+
+        private LaneQueue(LlmLane lane, int weight, int capacity) {
+            this.lane = lane;
+            this.weight = Math.max(1, weight);
+            this.capacity = capacity;
+        }
+
+        private Ticket enqueue(Object flow, int cost, long sequence, Condition condition) {
+            if (tickets.isEmpty()) {
+                // A lane returning from idle does not get credit for the time it was idle
+                pass = Math.max(pass, globalPass);
+            }
+            double start = Math.max(virtualTime, lastFinishByFlow.getOrDefault(flow, 0.0));
+            Ticket ticket = new Ticket(cost, start, sequence, condition);
+            lastFinishByFlow.put(flow, ticket.finishTag);
+            tickets.add(ticket);
+            return ticket;
+        }
+
+        private Ticket poll() {
+            Ticket ticket = tickets.poll();
+            virtualTime = Math.max(virtualTime, ticket.startTag);
+            if (tickets.isEmpty()) {
+                lastFinishByFlow.clear();
+            }
+            return ticket;
+        }
+
+        private void remove(Ticket ticket) {
+            tickets.remove(ticket);
+            if (tickets.isEmpty()) {
+                lastFinishByFlow.clear();
+            }
+        }
+
+        private int size() {
+            return tickets.size();
+        }
+    }
+}
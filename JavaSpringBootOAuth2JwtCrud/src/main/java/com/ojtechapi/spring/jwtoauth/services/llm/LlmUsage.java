@@ -0,0 +1,27 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running count of Gemini calls made on behalf of a unit of work, such as one batch run.
+ * Attach it with {@link LlmRequestContext}; {@link GeminiClient} adds every call it sends,
+ * successful or not, since failed calls still consume quota.
+ */
+public final class LlmUsage {
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong estimatedTokens = new AtomicLong();
+
+    void record(int promptTokens) {
+        calls.incrementAndGet();
+        estimatedTokens.addAndGet(promptTokens);
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getEstimatedTokens() {
+        return estimatedTokens.get();
+    }
+}
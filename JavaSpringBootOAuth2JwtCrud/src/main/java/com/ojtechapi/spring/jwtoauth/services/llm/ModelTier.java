@@ -0,0 +1,12 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+/**
+ * Model classes a call type can be routed to. The concrete model name for each
+ * tier is configured under gemini.models.*.
+ */
+public enum ModelTier {
+    /** Cheapest, lowest-latency model; used for high-volume sub-analyses */
+    FAST,
+    /** Higher-quality model for final scoring and user-facing text */
+    PRO
+}
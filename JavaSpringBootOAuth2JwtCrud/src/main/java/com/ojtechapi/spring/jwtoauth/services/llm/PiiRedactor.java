@@ -0,0 +1,143 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces personal data in prompt and response text with stable placeholders before it
+ * is written to a traffic recording.
+ *
+ * Values the prompt is known to contain (the student's and contact person's names, email
+ * and phone, see {@link GeminiPrompt#getPersonalValues()}) are replaced wherever they
+ * appear as whole words, including the salutation and signature of a cover letter. The
+ * patterns below catch the rest: emails, phone numbers, URL paths (GitHub, LinkedIn,
+ * portfolio), labelled name/contact lines, "Dear ..." salutations, personal fields of CV
+ * JSON and every value of its contactInfo/personalInfo object.
+ *
+ * A placeholder carries a salted hash of the original value, e.g. [EMAIL:3f9a0c12], so
+ * the same input always redacts to the same text. Replay relies on that to find the
+ * recording for a live prompt. The salt must be secret: names and phone numbers are few
+ * enough to be recovered from an unsalted hash by trying them all.
+ */
+public final class PiiRedactor {
+
+    private static final Pattern EMAIL = Pattern.compile("[\\w.+-]+@[\\w-]+(?:\\.[\\w-]+)+");
+
+    private static final Pattern URL = Pattern.compile("(https?://[^/\\s\"]+)(/[^\\s\"),]*)");
+
+    private static final Pattern PHONE = Pattern.compile("(?<![\\w.])(?:\\+?63|0)9\\d{2}[\\s-]?\\d{3}[\\s-]?\\d{4}(?!\\d)"
+            + "|(?<![\\w.])\\+\\d[\\d\\s-]{8,14}\\d(?!\\d)");
+
+    private static final Pattern LABELLED = Pattern.compile(
+            "(?im)^(\\s*-?\\s*(?:Name|Student Name|Full Name|Contact Person|Email|Phone|Address)\\s*:\\s*)(.+)$");
+
+    private static final Pattern SALUTATION = Pattern.compile(
+            "(?im)^(\\s*Dear\\s+)(?!Hiring Manager\\s*,)([^,\\n]+)(,)");
+
+    private static final Pattern JSON_FIELD = Pattern.compile(
+            "(\"(?:firstName|lastName|fullName|email|phone|phoneNumber|contactNumber|address"
+                    + "|linkedin|linkedinUrl|github|githubUrl|portfolio|portfolioUrl|website)\"\\s*:\\s*\")([^\"]*)(\")",
+            Pattern.CASE_INSENSITIVE);
+
+    // The personal block of a CV JSON: all of its values (name, location, ...) are personal
+    private static final Pattern PERSONAL_BLOCK = Pattern.compile(
+            "\"(?:contactInfo|personalInfo)\"\\s*:\\s*\\{[^{}]*}", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern JSON_STRING_VALUE = Pattern.compile("(\"\\w+\"\\s*:\\s*\")([^\"]*)(\")");
+
+    private PiiRedactor() {
+    }
+
+    public static String redact(String text, String salt) {
+        return redact(text, salt, List.of());
+    }
+
+    /**
+     * Redacts text that is known to contain personalValues, plus whatever the patterns
+     * recognise
+     */
+    public static String redact(String text, String salt, Collection<String> personalValues) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String result = text;
+        Pattern known = knownValues(personalValues);
+        if (known != null) {
+            result = replace(known, result, 0, "PII", salt);
+        }
+        result = replaceInBlocks(result, salt);
+        result = replace(JSON_FIELD, result, 2, "PII", salt);
+        result = replace(LABELLED, result, 2, "PII", salt);
+        result = replace(SALUTATION, result, 2, "PII", salt);
+        result = replace(EMAIL, result, 0, "EMAIL", salt);
+        result = replace(URL, result, 2, "PATH", salt);
+        return replace(PHONE, result, 0, "PHONE", salt);
+    }
+
+    /**
+     * The values as whole words, longest first so a full name is replaced before the
+     * first name in it; null if there are none
+     */
+    private static Pattern knownValues(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        String alternatives = values.stream()
+                .filter(value -> value != null && value.trim().length() > 1)
+                .map(String::trim)
+                .distinct()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        if (alternatives.isEmpty()) {
+            return null;
+        }
+        return Pattern.compile("(?<!\\w)(?:" + alternatives + ")(?!\\w)",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private static String replaceInBlocks(String text, String salt) {
+        Matcher matcher = PERSONAL_BLOCK.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        int last = 0;
+        do {
+            out.append(text, last, matcher.start())
+                    .append(replace(JSON_STRING_VALUE, matcher.group(), 2, "PII", salt));
+            last = matcher.end();
+        } while (matcher.find());
+        return out.append(text, last, text.length()).toString();
+    }
+
+    private static String replace(Pattern pattern, String text, int group, String kind, String salt) {
+        Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        int last = 0;
+        do {
+            String value = matcher.group(group);
+            // Already redacted by an earlier pattern
+            if (value.isEmpty() || value.startsWith("[")) {
+                continue;
+            }
+            out.append(text, last, matcher.start(group))
+                    .append(placeholder(kind, value, salt));
+            last = matcher.end(group);
+        } while (matcher.find());
+        return out.append(text, last, text.length()).toString();
+    }
+
+    private static String placeholder(String kind, String value, String salt) {
+        String hash = AnalysisMemo.sha256Hex(salt + '\u0000' + value.trim());
+        String token = "[" + kind + ":" + hash.substring(0, 8) + "]";
+        return "PATH".equals(kind) ? "/" + token : token;
+    }
+}
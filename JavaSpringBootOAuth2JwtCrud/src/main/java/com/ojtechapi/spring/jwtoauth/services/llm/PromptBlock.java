@@ -0,0 +1,39 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A static piece of prompt text (instruction prefixes, formatting rules) that is
+ * JSON-escaped and UTF-8 encoded once, so assembling a request only copies bytes.
+ */
+public final class PromptBlock {
+
+    private final String text;
+    private final byte[] jsonBytes;
+    private final int estimatedTokens;
+
+    private PromptBlock(String text) {
+        this.text = text;
+        this.jsonBytes = PromptCompressor.escapeJson(text).getBytes(StandardCharsets.UTF_8);
+        this.estimatedTokens = PromptCompressor.estimateTokens(text);
+    }
+
+    public static PromptBlock of(String text) {
+        return new PromptBlock(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Pre-encoded JSON string content (without surrounding quotes). Callers must not modify it.
+     */
+    byte[] getJsonBytes() {
+        return jsonBytes;
+    }
+
+    public int getEstimatedTokens() {
+        return estimatedTokens;
+    }
+}
@@ -0,0 +1,277 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic text reduction used to keep prompt sections inside their token budgets.
+ * The same input and budget always produce the same output, so identical requests
+ * stay byte-identical and cacheable.
+ */
+public final class PromptCompressor {
+
+    /**
+     * Rough Gemini tokenizer ratio for English text; good enough for budgeting.
+     */
+    static final int CHARS_PER_TOKEN = 4;
+
+    static final String TRUNCATION_MARKER = " ...[truncated]";
+    static final String SUMMARY_MARKER = "...[summarized]";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Pattern WHITESPACE = Pattern.compile("[ \\t\\x0B\\f\\r]+");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n+");
+    private static final Pattern MARKDOWN_NOISE = Pattern.compile("\\*\\*|__|^#+\\s*", Pattern.MULTILINE);
+    private static final Pattern KEY_LINE = Pattern.compile("(?i).*(score|match|%|missing|gap).*");
+
+    /**
+     * JSON keys in parsed resumes that carry links or markup rather than candidate information
+     */
+    private static final Set<String> IGNORED_JSON_KEYS = Set.of(
+            "fileUrl", "fileName", "profilePictureUrl", "pictureUrl", "html", "htmlContent", "template", "styles");
+
+    private PromptCompressor() {
+    }
+
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Collapses runs of spaces and blank lines without changing the words.
+     */
+    public static String collapseWhitespace(String text) {
+        if (text == null) {
+            return "";
+        }
+        String collapsed = WHITESPACE.matcher(text).replaceAll(" ");
+        collapsed = BLANK_LINES.matcher(collapsed).replaceAll("\n");
+        return collapsed.trim();
+    }
+
+    /**
+     * Cuts text to the token budget at a word boundary and marks the cut.
+     */
+    public static String truncate(String text, int maxTokens) {
+        String collapsed = collapseWhitespace(text);
+        if (estimateTokens(collapsed) <= maxTokens) {
+            return collapsed;
+        }
+        int maxChars = Math.max(0, maxTokens * CHARS_PER_TOKEN - TRUNCATION_MARKER.length());
+        int cut = maxChars;
+        int lastSpace = collapsed.lastIndexOf(' ', maxChars);
+        if (lastSpace > maxChars * 4 / 5) {
+            cut = lastSpace;
+        }
+        return collapsed.substring(0, cut).trim() + TRUNCATION_MARKER;
+    }
+
+    /**
+     * Reduces a markdown analysis produced by an earlier call. Lines carrying scores,
+     * match verdicts and gaps are kept first; remaining lines fill the budget in their
+     * original order.
+     */
+    public static String summarizeAnalysis(String text, int maxTokens) {
+        String cleaned = collapseWhitespace(MARKDOWN_NOISE.matcher(text == null ? "" : text).replaceAll(""));
+        if (estimateTokens(cleaned) <= maxTokens) {
+            return cleaned;
+        }
+
+        String[] lines = cleaned.split("\n");
+        boolean[] keep = new boolean[lines.length];
+        int budget = maxTokens * CHARS_PER_TOKEN - SUMMARY_MARKER.length();
+
+        // Key lines first, then everything else in document order
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < lines.length; i++) {
+                if (keep[i]) {
+                    continue;
+                }
+                boolean keyLine = KEY_LINE.matcher(lines[i]).matches();
+                if ((pass == 0) != keyLine) {
+                    continue;
+                }
+                int cost = lines[i].length() + 1;
+                if (cost <= budget) {
+                    keep[i] = true;
+                    budget -= cost;
+                }
+            }
+        }
+
+        StringBuilder summary = new StringBuilder();
+        String previous = null;
+        for (int i = 0; i < lines.length; i++) {
+            if (keep[i] && !lines[i].equals(previous)) {
+                summary.append(lines[i]).append('\n');
+                previous = lines[i];
+            }
+        }
+        if (summary.length() == 0) {
+            return truncate(cleaned, maxTokens);
+        }
+        return summary.append(SUMMARY_MARKER).toString();
+    }
+
+    /**
+     * Flattens a JSON document (such as CV.parsedResume) into compact "key: value" lines,
+     * dropping empty values, links and markup, then truncates to the budget. Text that
+     * is not JSON is only truncated.
+     */
+    public static String compactJson(String json, int maxTokens) {
+        if (json == null || json.isBlank()) {
+            return "";
+        }
+        String trimmed = json.trim();
+        if (!(trimmed.startsWith("{") || trimmed.startsWith("["))) {
+            return truncate(trimmed, maxTokens);
+        }
+
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(trimmed);
+        } catch (Exception e) {
+            return truncate(trimmed, maxTokens);
+        }
+
+        StringBuilder out = new StringBuilder();
+        appendNode(out, null, root);
+        return truncate(out.toString(), maxTokens);
+    }
+
+    private static void appendNode(StringBuilder out, String label, JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return;
+        }
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!IGNORED_JSON_KEYS.contains(field.getKey())) {
+                    appendNode(out, field.getKey(), field.getValue());
+                }
+            }
+            return;
+        }
+        if (node.isArray()) {
+            if (allValues(node)) {
+                String joined = joinValues(node);
+                if (!joined.isEmpty()) {
+                    appendLine(out, label, joined);
+                }
+            } else {
+                for (JsonNode element : node) {
+                    String inline = inline(element);
+                    if (!inline.isEmpty()) {
+                        out.append(label != null ? label + ": " : "- ").append(inline).append('\n');
+                    }
+                }
+            }
+            return;
+        }
+        String value = node.asText().trim();
+        if (!value.isEmpty()) {
+            appendLine(out, label, value);
+        }
+    }
+
+    private static String inline(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return "";
+        }
+        if (node.isValueNode()) {
+            return node.asText().trim();
+        }
+        if (node.isArray()) {
+            List<String> items = new ArrayList<>();
+            for (JsonNode element : node) {
+                String item = inline(element);
+                if (!item.isEmpty()) {
+                    items.add(item);
+                }
+            }
+            return String.join(", ", items);
+        }
+        List<String> parts = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (IGNORED_JSON_KEYS.contains(field.getKey())) {
+                continue;
+            }
+            String value = inline(field.getValue());
+            if (!value.isEmpty()) {
+                parts.add(field.getKey() + ": " + value);
+            }
+        }
+        return String.join("; ", parts);
+    }
+
+    private static boolean allValues(JsonNode array) {
+        for (JsonNode element : array) {
+            if (!element.isValueNode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String joinValues(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode element : array) {
+            String value = element.asText().trim();
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+        return String.join(", ", values);
+    }
+
+    private static void appendLine(StringBuilder out, String label, String value) {
+        if (label != null) {
+            out.append(label).append(": ");
+        }
+        out.append(collapseWhitespace(value)).append('\n');
+    }
+
+    /**
+     * Escapes text for inclusion inside a JSON string literal.
+     */
+    public static String escapeJson(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                case '\b' -> escaped.append("\\b");
+                case '\f' -> escaped.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+/**
+ * Variable-length prompt sections that are subject to a token budget, and how each
+ * one is reduced when it runs over.
+ */
+public enum PromptSection {
+    CV_CONTENT("cv-content", Compression.JSON),
+    JOB_DESCRIPTION("job-description", Compression.TRUNCATE),
+    JOB_REQUIREMENTS("job-requirements", Compression.TRUNCATE),
+    BIO("bio", Compression.TRUNCATE),
+    GITHUB_PROJECTS("github-projects", Compression.JSON),
+    WORK_EXPERIENCE("work-experience", Compression.TRUNCATE),
+    COMPANY_DESCRIPTION("company-description", Compression.TRUNCATE),
+    PRIOR_ANALYSIS("prior-analysis", Compression.SUMMARIZE);
+
+    public enum Compression {
+        /** Cut at a word boundary */
+        TRUNCATE,
+        /** Flatten JSON to key/value lines, then truncate */
+        JSON,
+        /** Keep score and verdict lines of a markdown analysis first */
+        SUMMARIZE
+    }
+
+    private final String key;
+    private final Compression compression;
+
+    PromptSection(String key, Compression compression) {
+        this.key = key;
+        this.compression = compression;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    String compress(String content, int maxTokens) {
+        switch (compression) {
+            case JSON:
+                return PromptCompressor.compactJson(content, maxTokens);
+            case SUMMARIZE:
+                return PromptCompressor.summarizeAnalysis(content, maxTokens);
+            default:
+                return PromptCompressor.truncate(content, maxTokens);
+        }
+    }
+}
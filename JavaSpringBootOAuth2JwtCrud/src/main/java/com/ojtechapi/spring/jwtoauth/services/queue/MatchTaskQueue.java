@@ -0,0 +1,220 @@
+package com.ojtechapi.spring.jwtoauth.services.queue;
+
+import com.ojtechapi.spring.jwtoauth.entities.MatchTask;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskStatus;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskType;
+import com.ojtechapi.spring.jwtoauth.repositories.MatchTaskRepository;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Database-backed queue of match tasks shared by all API nodes.
+ *
+ * On PostgreSQL tasks are claimed with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent
+ * workers never wait on each other's rows. Other databases (H2 in tests and local
+ * development) fall back to a conditional UPDATE per candidate, which is correct but
+ * makes competing workers retry on collisions. matching.queue.claim-strategy overrides
+ * the detection.
+ */
+@Service
+public class MatchTaskQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchTaskQueue.class);
+
+    public enum ClaimStrategy {
+        SKIP_LOCKED,
+        CONDITIONAL_UPDATE
+    }
+
+    @Autowired
+    private MatchTaskRepository matchTaskRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${matching.queue.claim-strategy:auto}")
+    private String configuredStrategy;
+
+    @Value("${matching.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${matching.queue.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    private ClaimStrategy claimStrategy;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (!"auto".equalsIgnoreCase(configuredStrategy)) {
+            claimStrategy = ClaimStrategy.valueOf(configuredStrategy.trim().toUpperCase().replace('-', '_'));
+        } else {
+            claimStrategy = isPostgres() ? ClaimStrategy.SKIP_LOCKED : ClaimStrategy.CONDITIONAL_UPDATE;
+        }
+        logger.info("Match task queue claims with {}", claimStrategy);
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        } catch (SQLException e) {
+            logger.warn("Could not detect database for match task queue: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public ClaimStrategy getClaimStrategy() {
+        return claimStrategy;
+    }
+
+    /**
+     * Queues work for a student. A task of the same type that is still waiting covers
+     * the new request, so repeated profile saves do not pile up duplicate work.
+     */
+    public void enqueue(MatchTaskType taskType, UUID studentId, LlmLane lane) {
+        if (matchTaskRepository.existsByTaskTypeAndStudentIdAndStatus(taskType, studentId, MatchTaskStatus.PENDING)) {
+            logger.debug("{} for student {} already queued", taskType, studentId);
+            return;
+        }
+        matchTaskRepository.save(new MatchTask(taskType, studentId, lane, maxAttempts));
+    }
+
+    /**
+     * Claims up to limit tasks for owner, leasing each until leaseUntil.
+     */
+    public List<MatchTask> claim(int limit, String owner, LocalDateTime leaseUntil) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> claimed;
+        if (claimStrategy == ClaimStrategy.SKIP_LOCKED) {
+            claimed = transactionTemplate.execute(status -> {
+                List<UUID> ids = matchTaskRepository.lockClaimable(now, limit);
+                if (!ids.isEmpty()) {
+                    matchTaskRepository.markClaimed(ids, MatchTaskStatus.RUNNING, owner, leaseUntil);
+                }
+                return ids;
+            });
+        } else {
+            claimed = new ArrayList<>();
+            // Over-fetch candidates since other workers may take some of them first
+            List<UUID> candidates = matchTaskRepository.findClaimable(MatchTaskStatus.PENDING, now,
+                    PageRequest.of(0, limit * 2));
+            for (UUID id : candidates) {
+                if (claimed.size() >= limit) {
+                    break;
+                }
+                if (matchTaskRepository.claimIfPending(id, MatchTaskStatus.PENDING, MatchTaskStatus.RUNNING,
+                        owner, leaseUntil) == 1) {
+                    claimed.add(id);
+                }
+            }
+        }
+        return claimed.isEmpty() ? List.of() : matchTaskRepository.findAllById(claimed);
+    }
+
+    public void renewLeases(Collection<UUID> taskIds, String owner, LocalDateTime leaseUntil) {
+        if (!taskIds.isEmpty()) {
+            matchTaskRepository.renewLeases(taskIds, owner, MatchTaskStatus.RUNNING, leaseUntil);
+        }
+    }
+
+    /**
+     * Marks the task DONE. False if owner no longer holds its lease, in which case the
+     * task has been (or will be) handed to another worker and is left alone.
+     */
+    public boolean complete(UUID taskId, String owner) {
+        return leaseHeld(matchTaskRepository.completeIfLeased(taskId, owner, MatchTaskStatus.RUNNING,
+                MatchTaskStatus.DONE, LocalDateTime.now()), taskId, owner, "complete");
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or marks the task FAILED once it has
+     * used up its attempts. False if owner no longer holds the lease.
+     */
+    public boolean fail(UUID taskId, String owner, String error) {
+        MatchTask task = matchTaskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return false;
+        }
+        String message = String.valueOf(error);
+        message = message.length() > 1000 ? message.substring(0, 1000) : message;
+        LocalDateTime now = LocalDateTime.now();
+        int updated;
+        if (task.getAttempts() >= task.getMaxAttempts()) {
+            updated = matchTaskRepository.failIfLeased(taskId, owner, MatchTaskStatus.RUNNING,
+                    MatchTaskStatus.FAILED, message, now);
+            if (updated == 1) {
+                logger.warn("{} for student {} failed after {} attempts: {}",
+                        task.getTaskType(), task.getStudentId(), task.getAttempts(), message);
+            }
+        } else {
+            long backoff = retryBackoffMs << Math.min(Math.max(task.getAttempts() - 1, 0), 10);
+            updated = matchTaskRepository.retryIfLeased(taskId, owner, MatchTaskStatus.RUNNING,
+                    MatchTaskStatus.PENDING, message, now.plusNanos(backoff * 1_000_000L), now);
+        }
+        return leaseHeld(updated, taskId, owner, "fail");
+    }
+
+    /**
+     * Hands a task back without counting the attempt, e.g. when the node shuts down.
+     * False if owner no longer holds the lease.
+     */
+    public boolean release(UUID taskId, String owner) {
+        return leaseHeld(matchTaskRepository.releaseIfLeased(taskId, owner, MatchTaskStatus.RUNNING,
+                MatchTaskStatus.PENDING, LocalDateTime.now()), taskId, owner, "release");
+    }
+
+    public int expireLeases() {
+        return matchTaskRepository.expireLeases(LocalDateTime.now(), MatchTaskStatus.PENDING,
+                MatchTaskStatus.FAILED, MatchTaskStatus.RUNNING);
+    }
+
+    public int purgeCompletedBefore(LocalDateTime before) {
+        return matchTaskRepository.deleteCompletedBefore(MatchTaskStatus.DONE, before);
+    }
+
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (MatchTaskStatus status : MatchTaskStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : matchTaskRepository.countByStatus()) {
+            counts.put(((MatchTaskStatus) row[0]).name(), (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private boolean leaseHeld(int updated, UUID taskId, String owner, String action) {
+        if (updated == 1) {
+            return true;
+        }
+        // The lease expired and the task was returned to the queue or taken by another worker
+        logger.warn("Could not {} match task {}: {} no longer holds its lease", action, taskId, owner);
+        return false;
+    }
+}
@@ -0,0 +1,227 @@
+package com.ojtechapi.spring.jwtoauth.services.queue;
+
+import com.ojtechapi.spring.jwtoauth.entities.MatchTask;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskStatus;
+import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Worker pool that runs on every node and drains {@link MatchTaskQueue}. Each poll claims
+ * only as many tasks as there are idle workers, so adding a node adds capacity. Leases of
+ * running tasks are renewed on a heartbeat; tasks held by a node that died are returned to
+ * the queue by whichever node next runs the lease reaper.
+ *
+ * Queue depth per status is published as the match.queue.depth gauge, refreshed from the
+ * database every matching.queue.depth-refresh-ms rather than on each scrape.
+ */
+@Component
+public class MatchTaskWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchTaskWorker.class);
+
+    private static final String NODE_ID = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private MatchTaskQueue matchTaskQueue;
+
+    @Autowired
+    private JobMatchService jobMatchService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${matching.queue.worker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.queue.worker.threads:4}")
+    private int threads;
+
+    @Value("${matching.queue.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${matching.queue.retention-days:7}")
+    private int retentionDays;
+
+    private ExecutorService executor;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger busy = new AtomicInteger();
+    private final Map<MatchTaskStatus, AtomicLong> queueDepth = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    void start() {
+        for (MatchTaskStatus status : MatchTaskStatus.values()) {
+            AtomicLong depth = new AtomicLong();
+            queueDepth.put(status, depth);
+            Gauge.builder("match.queue.depth", depth, AtomicLong::get)
+                    .description("Match tasks in the queue by status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        if (!enabled) {
+            logger.info("Match task worker disabled on this node");
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "match-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("match.queue.workers.busy", busy, AtomicInteger::get)
+                .description("Match queue workers running a task on this node")
+                .register(meterRegistry);
+        logger.info("Match task worker started on {} with {} threads", NODE_ID, threads);
+    }
+
+    @Scheduled(fixedDelayString = "${matching.queue.poll-interval-ms:2000}")
+    public void poll() {
+        if (executor == null || shuttingDown) {
+            return;
+        }
+        int idle = threads - busy.get();
+        if (idle <= 0) {
+            return;
+        }
+        List<MatchTask> tasks = matchTaskQueue.claim(idle, NODE_ID, leaseUntil());
+        for (MatchTask task : tasks) {
+            busy.incrementAndGet();
+            inFlight.add(task.getId());
+            executor.execute(() -> runTask(task));
+        }
+    }
+
+    private void runTask(MatchTask task) {
+        String outcome = "done";
+        try {
+            LlmRequestContext.run(task.getLane(), task.getStudentId(), () -> {
+                switch (task.getTaskType()) {
+                    case RECALCULATE_STUDENT:
+                        jobMatchService.recalculateMatchesForStudent(task.getStudentId());
+                        break;
+                    case MATCH_STUDENT:
+                    default:
+                        jobMatchService.findMatchesForStudent(task.getStudentId(), 0.0);
+                        break;
+                }
+            });
+            if (!matchTaskQueue.complete(task.getId(), NODE_ID)) {
+                outcome = "lease_lost";
+            }
+        } catch (Exception e) {
+            outcome = "failed";
+            logger.warn("{} for student {} failed (attempt {}/{}): {}", task.getTaskType(), task.getStudentId(),
+                    task.getAttempts(), task.getMaxAttempts(), e.getMessage());
+            try {
+                matchTaskQueue.fail(task.getId(), NODE_ID, e.getMessage());
+            } catch (Exception recordError) {
+                // The lease reaper will retry the task
+                logger.error("Could not record failure of match task {}: {}", task.getId(), recordError.getMessage());
+            }
+        } finally {
+            inFlight.remove(task.getId());
+            busy.decrementAndGet();
+            Counter.builder("match.queue.tasks")
+                    .description("Match queue tasks run on this node")
+                    .tag("type", task.getTaskType().name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matching.queue.heartbeat-ms:60000}")
+    public void heartbeat() {
+        if (!inFlight.isEmpty()) {
+            matchTaskQueue.renewLeases(new ArrayList<>(inFlight), NODE_ID, leaseUntil());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matching.queue.reaper-interval-ms:60000}")
+    public void reapExpiredLeases() {
+        int expired = matchTaskQueue.expireLeases();
+        if (expired > 0) {
+            logger.info("Returned {} match tasks with expired leases to the queue", expired);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matching.queue.depth-refresh-ms:15000}")
+    public void refreshQueueDepth() {
+        matchTaskQueue.countByStatus().forEach((status, count) ->
+                queueDepth.get(MatchTaskStatus.valueOf(status)).set(count));
+    }
+
+    @Scheduled(cron = "${matching.queue.purge-cron:0 30 4 * * *}")
+    public void purgeCompleted() {
+        int purged = matchTaskQueue.purgeCompletedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            logger.info("Purged {} completed match tasks", purged);
+        }
+    }
+
+    /**
+     * Hands unfinished tasks back to the queue so another node picks them up right away
+     * instead of waiting for the lease to expire.
+     */
+    @PreDestroy
+    void stop() {
+        shuttingDown = true;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (UUID taskId : new ArrayList<>(inFlight)) {
+            try {
+                matchTaskQueue.release(taskId, NODE_ID);
+            } catch (Exception e) {
+                logger.warn("Could not release match task {} on shutdown: {}", taskId, e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("node", NODE_ID);
+        status.put("workerEnabled", executor != null);
+        status.put("threads", threads);
+        status.put("busy", busy.get());
+        status.put("claimStrategy", matchTaskQueue.getClaimStrategy().name());
+        status.put("tasks", matchTaskQueue.countByStatus());
+        return status;
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusNanos(leaseMs * 1_000_000L);
+    }
+}
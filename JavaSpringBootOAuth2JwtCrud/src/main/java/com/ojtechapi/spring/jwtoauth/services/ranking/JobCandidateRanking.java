@@ -0,0 +1,296 @@
+package com.ojtechapi.spring.jwtoauth.services.ranking;
+
+import com.ojtechapi.spring.jwtoauth.dtos.JobCandidateDto;
+import com.ojtechapi.spring.jwtoauth.dtos.JobCandidatePage;
+import com.ojtechapi.spring.jwtoauth.repositories.JobMatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Keeps the best-matching students of each job in memory so the employer's candidate list
+ * does not have to scan job_matches.
+ *
+ * Each job holds an exact prefix of its ranking (score desc, then student id): at most
+ * matching.ranking.top-k entries, and "complete" when the job has no other matches. The
+ * prefix is loaded from the database on first use and then kept up to date from JobMatch
+ * changes ({@link JobMatchRankingListener}):
+ *
+ * - a new or raised score enters the prefix if it beats the current last entry (or the
+ *   prefix is complete); the prefix is trimmed back to K
+ * - a score that drops below the prefix, or a removed match, leaves it; the prefix stays
+ *   exact but shorter, and is reloaded once it falls under half of K
+ *
+ * The listener only sees changes made on this node (and not bulk queries), so a prefix
+ * is also reloaded once it is older than matching.ranking.max-age-seconds; changes on
+ * other instances show up after at most that long.
+ *
+ * Pages inside the prefix are answered from memory. A page that reaches past an
+ * incomplete prefix (deep pages, or a verified-only filter that runs out) falls back to a
+ * keyset query on idx_job_matches_job_score, which is also cheap.
+ *
+ * Cursors encode the (score, student id) of the last row. Student ids are compared by
+ * their string form, which orders like PostgreSQL's uuid type, so memory and database
+ * pages continue each other.
+ */
+@Component
+public class JobCandidateRanking {
+
+    static final Comparator<JobCandidateDto> RANKING_ORDER = Comparator
+            .comparing(JobCandidateDto::getMatchScore, Comparator.reverseOrder())
+            .thenComparing(candidate -> candidate.getStudentId().toString());
+
+    @Autowired
+    private JobMatchRepository jobMatchRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${matching.ranking.top-k:100}")
+    private int topK;
+
+    @Value("${matching.ranking.max-jobs:5000}")
+    private int maxJobs;
+
+    @Value("${matching.ranking.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    private Map<UUID, JobRanking> rankings;
+
+    /**
+     * Ranking prefix of one job. All access is synchronized on the instance.
+     */
+    private static final class JobRanking {
+        private final TreeSet<JobCandidateDto> ordered = new TreeSet<>(RANKING_ORDER);
+        private final Map<UUID, JobCandidateDto> byStudent = new HashMap<>();
+        private boolean loaded;
+        private boolean complete;
+        private long loadedAtNanos;
+
+        private void add(JobCandidateDto candidate) {
+            ordered.add(candidate);
+            byStudent.put(candidate.getStudentId(), candidate);
+        }
+
+        private void remove(UUID studentId) {
+            JobCandidateDto previous = byStudent.remove(studentId);
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+        }
+
+        private void trimTo(int size) {
+            while (ordered.size() > size) {
+                JobCandidateDto last = ordered.pollLast();
+                byStudent.remove(last.getStudentId());
+                complete = false;
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        rankings = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, JobRanking> eldest) {
+                return size() > maxJobs;
+            }
+        };
+        Gauge.builder("match.ranking.jobs", this, ranking -> ranking.size())
+                .description("Jobs whose candidate ranking is held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One page of candidates for a job, best first.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param verifiedOnly only return verified students
+     */
+    public JobCandidatePage page(UUID jobId, String cursor, int limit, boolean verifiedOnly) {
+        JobCandidateDto after = decodeCursor(cursor);
+        List<JobCandidateDto> rows = new ArrayList<>(limit + 1);
+        boolean exhausted;
+
+        JobRanking ranking = rankingFor(jobId);
+        synchronized (ranking) {
+            if (!ranking.loaded || (!ranking.complete && ranking.ordered.size() < topK / 2)
+                    || System.nanoTime() - ranking.loadedAtNanos >= maxAgeSeconds * 1_000_000_000L) {
+                load(jobId, ranking);
+            }
+            Iterable<JobCandidateDto> from = after == null ? ranking.ordered : ranking.ordered.tailSet(after, false);
+            for (JobCandidateDto candidate : from) {
+                if (verifiedOnly && !candidate.isVerified()) {
+                    continue;
+                }
+                rows.add(candidate);
+                if (rows.size() > limit) {
+                    break;
+                }
+            }
+            exhausted = ranking.complete;
+        }
+
+        String source = "ranking";
+        if (rows.size() <= limit && !exhausted) {
+            // The page reaches past the in-memory prefix: continue from the database
+            source = "database";
+            PageRequest pageRequest = PageRequest.of(0, limit + 1);
+            rows = after == null
+                    ? jobMatchRepository.findCandidates(jobId, verifiedOnly, pageRequest)
+                    : jobMatchRepository.findCandidatesAfter(jobId, verifiedOnly, after.getMatchScore(),
+                            after.getStudentId(), pageRequest);
+        }
+        Counter.builder("match.ranking.pages")
+                .description("Candidate pages served, by source")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+
+        boolean hasMore = rows.size() > limit;
+        List<JobCandidateDto> candidates = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        String nextCursor = hasMore ? encodeCursor(candidates.get(candidates.size() - 1)) : null;
+        return new JobCandidatePage(jobId, candidates, nextCursor, source);
+    }
+
+    private void load(UUID jobId, JobRanking ranking) {
+        List<JobCandidateDto> top = jobMatchRepository.findCandidates(jobId, false, PageRequest.of(0, topK + 1));
+        ranking.ordered.clear();
+        ranking.byStudent.clear();
+        top.forEach(ranking::add);
+        ranking.complete = true;
+        ranking.trimTo(topK);
+        ranking.loaded = true;
+        ranking.loadedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * Applies a committed insert or update of a match. Jobs not held in memory are skipped;
+     * they are loaded with the new state when first requested.
+     */
+    public void onMatchSaved(UUID jobId, JobCandidateDto candidate) {
+        JobRanking ranking = existing(jobId);
+        if (ranking == null) {
+            return;
+        }
+        synchronized (ranking) {
+            if (!ranking.loaded) {
+                return;
+            }
+            ranking.remove(candidate.getStudentId());
+            if (candidate.getMatchScore() == null) {
+                return;
+            }
+            boolean fitsPrefix = ranking.complete
+                    || (!ranking.ordered.isEmpty() && RANKING_ORDER.compare(candidate, ranking.ordered.last()) < 0);
+            if (fitsPrefix) {
+                ranking.add(candidate);
+                ranking.trimTo(topK);
+            }
+        }
+    }
+
+    public void onMatchRemoved(UUID jobId, UUID studentId) {
+        JobRanking ranking = existing(jobId);
+        if (ranking == null) {
+            return;
+        }
+        synchronized (ranking) {
+            if (ranking.loaded) {
+                ranking.remove(studentId);
+            }
+        }
+    }
+
+    /**
+     * Updates the verified flag of a student in every ranking that holds them.
+     */
+    public void onStudentVerificationChanged(UUID studentId, boolean verified) {
+        List<JobRanking> all;
+        synchronized (rankings) {
+            all = new ArrayList<>(rankings.values());
+        }
+        for (JobRanking ranking : all) {
+            synchronized (ranking) {
+                JobCandidateDto current = ranking.byStudent.get(studentId);
+                if (current != null && current.isVerified() != verified) {
+                    ranking.remove(studentId);
+                    ranking.add(current.withVerified(verified));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops a job's ranking so the next request reloads it. For changes made with bulk
+     * queries, which bypass the entity listener.
+     */
+    public void invalidate(UUID jobId) {
+        synchronized (rankings) {
+            rankings.remove(jobId);
+        }
+    }
+
+    public void clear() {
+        synchronized (rankings) {
+            rankings.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (rankings) {
+            return rankings.size();
+        }
+    }
+
+    private JobRanking rankingFor(UUID jobId) {
+        synchronized (rankings) {
+            return rankings.computeIfAbsent(jobId, id -> new JobRanking());
+        }
+    }
+
+    private JobRanking existing(UUID jobId) {
+        synchronized (rankings) {
+            return rankings.get(jobId);
+        }
+    }
+
+    static String encodeCursor(JobCandidateDto last) {
+        String raw = last.getMatchScore() + "|" + last.getStudentId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor as a probe row carrying only score and student id, or null for the first page.
+     */
+    static JobCandidateDto decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            double score = Double.parseDouble(raw.substring(0, separator));
+            UUID studentId = UUID.fromString(raw.substring(separator + 1));
+            return new JobCandidateDto(null, studentId, null, null, null, null, false, score, null, false);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
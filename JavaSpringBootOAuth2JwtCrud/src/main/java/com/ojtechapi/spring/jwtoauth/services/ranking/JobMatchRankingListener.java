@@ -0,0 +1,62 @@
+package com.ojtechapi.spring.jwtoauth.services.ranking;
+
+import com.ojtechapi.spring.jwtoauth.dtos.JobCandidateDto;
+import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener on {@link JobMatch} that feeds row changes into {@link JobCandidateRanking}.
+ * Changes are applied after the transaction commits, so a rolled-back save never reaches
+ * the ranking. Bulk JPQL updates and deletes do not pass through here; callers using them
+ * must invalidate the affected jobs.
+ */
+@Component
+public class JobMatchRankingListener {
+
+    // Lazy: the listener is created with the EntityManagerFactory, before the repositories
+    @Autowired
+    @Lazy
+    private JobCandidateRanking ranking;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(JobMatch match) {
+        if (ranking == null || match.getJob() == null || match.getStudent() == null) {
+            return;
+        }
+        StudentProfile student = match.getStudent();
+        JobCandidateDto candidate = new JobCandidateDto(match.getId(), student.getId(), student.getFirstName(),
+                student.getLastName(), student.getUniversity(), student.getMajor(), student.isVerified(),
+                match.getMatchScore(), match.getMatchedAt(), match.isViewed());
+        afterCommit(() -> ranking.onMatchSaved(match.getJob().getId(), candidate));
+    }
+
+    @PostRemove
+    public void onRemoved(JobMatch match) {
+        if (ranking == null || match.getJob() == null || match.getStudent() == null) {
+            return;
+        }
+        afterCommit(() -> ranking.onMatchRemoved(match.getJob().getId(), match.getStudent().getId()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
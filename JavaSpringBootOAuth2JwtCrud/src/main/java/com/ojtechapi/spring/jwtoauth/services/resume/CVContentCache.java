@@ -0,0 +1,148 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Response bodies of the CV content endpoints, encoded once and kept in memory, so that a
+ * CV opened again (employers go through the same applicants many times a day) is served
+ * without reading its content column.
+ *
+ * Entries are keyed by ETag, which carries the CV version and content coding, so a
+ * changed CV is simply a miss and its old entries age out. The cache is bounded by the
+ * total size of the bodies (cv.content-cache.max-bytes) and evicts least recently used
+ * entries; bodies larger than max-entry-bytes are served but not kept.
+ *
+ * Lookups are counted in cv.content_cache{outcome}: hit and miss; the held size is the
+ * gauge cv.content_cache.bytes.
+ */
+@Component
+public class CVContentCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cv.content-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${cv.content-cache.max-entry-bytes:1048576}")
+    private long maxEntryBytes;
+
+    private final LinkedHashMap<String, Content> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    /**
+     * A response body, its media type and content coding (null for identity), and the
+     * size of the body before coding
+     */
+    public static final class Content {
+        private final byte[] body;
+        private final MediaType contentType;
+        private final String encoding;
+        private final int identityLength;
+
+        public Content(byte[] body, MediaType contentType) {
+            this(body, contentType, null, body.length);
+        }
+
+        public Content(byte[] body, MediaType contentType, String encoding, int identityLength) {
+            this.body = body;
+            this.contentType = contentType;
+            this.encoding = encoding;
+            this.identityLength = identityLength;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public int getIdentityLength() {
+            return identityLength;
+        }
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("cv.content_cache.bytes", this, cache -> cache.size())
+                .description("Bytes of CV content bodies held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached body for etag, or the one load produces, which is kept if it fits. load
+     * runs outside the cache lock; two concurrent misses may both load.
+     */
+    public Content get(String etag, Supplier<Content> load) {
+        Content content = find(etag);
+        if (content != null) {
+            return content;
+        }
+        content = load.get();
+        put(etag, content);
+        return content;
+    }
+
+    /**
+     * The cached body for etag, or null; for a body produced while it is being sent, which
+     * is then handed to put
+     */
+    public Content find(String etag) {
+        Content content;
+        synchronized (this) {
+            content = entries.get(etag);
+        }
+        count(content != null ? "hit" : "miss");
+        return content;
+    }
+
+    /**
+     * Keeps content for etag if it fits
+     */
+    public synchronized void put(String etag, Content content) {
+        long size = content.body.length;
+        if (size > maxEntryBytes || size > maxBytes) {
+            return;
+        }
+        Content previous = entries.put(etag, content);
+        bytes += size - (previous != null ? previous.body.length : 0);
+        Iterator<Map.Entry<String, Content>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Content> entry = eldest.next();
+            if (entry.getValue() != content) {
+                bytes -= entry.getValue().body.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("cv.content_cache")
+                .description("CV content cache lookups, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public synchronized long size() {
+        return bytes;
+    }
+}
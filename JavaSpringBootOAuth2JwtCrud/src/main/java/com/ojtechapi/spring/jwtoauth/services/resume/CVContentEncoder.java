@@ -0,0 +1,254 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.entities.CVEncodedContent;
+import com.ojtechapi.spring.jwtoauth.repositories.CVEncodedContentRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps {@link CVEncodedContent} in step with the CVs: every saved CV is gzip-encoded
+ * once, after its transaction commits (CVContentEncodingListener), on a small background
+ * pool. CVs saved before encoded copies existed, or whose encoding was dropped because the
+ * queue was full, are picked up by the backfill, which runs on startup and through
+ * POST /api/admin/cv-encoding/backfill. The backfill walks CVs in id order and only
+ * selects those with missing or stale copies, so an interrupted run simply continues.
+ *
+ * Encodings are counted in cv.content.encoded{outcome}: encoded, unchanged, dropped and
+ * failed.
+ */
+@Service
+public class CVContentEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CVContentEncoder.class);
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private CVRepository cvRepository;
+
+    @Autowired
+    private CVEncodedContentRepository encodedContentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cv.encoding.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cv.encoding.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${cv.encoding.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${cv.encoding.backfill-chunk-size:100}")
+    private int backfillChunkSize;
+
+    private ThreadPoolExecutor executor;
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private final AtomicLong backfillEncoded = new AtomicLong();
+    private volatile LocalDateTime backfillStartedAt;
+    private volatile LocalDateTime backfillFinishedAt;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "cv-content-encoder");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues encoding of a saved CV's content. The content is captured now; never blocks.
+     */
+    public void submit(CV cv) {
+        if (!enabled || cv.getId() == null) {
+            return;
+        }
+        UUID cvId = cv.getId();
+        String contentHash = cv.getContentHash() != null ? cv.getContentHash()
+                : CV.contentHash(cv.getHtmlContent(), cv.getParsedResume());
+        String htmlContent = cv.getHtmlContent();
+        String parsedResume = cv.getParsedResume();
+        try {
+            executor.execute(() -> store(cvId, contentHash, htmlContent, parsedResume));
+        } catch (RejectedExecutionException e) {
+            // The backfill encodes it later
+            count("dropped");
+        }
+    }
+
+    private void store(UUID cvId, String contentHash, String htmlContent, String parsedResume) {
+        try {
+            if (contentHash.equals(encodedContentRepository.findContentHashByCvId(cvId).orElse(null))) {
+                count("unchanged");
+                return;
+            }
+            encodedContentRepository.save(encode(cvId, contentHash, htmlContent, parsedResume));
+            count("encoded");
+        } catch (RuntimeException e) {
+            // e.g. the CV was deleted in the meantime
+            count("failed");
+            logger.debug("Could not encode content of CV {}: {}", cvId, e.getMessage());
+        }
+    }
+
+    static CVEncodedContent encode(UUID cvId, String contentHash, String htmlContent, String parsedResume) {
+        CVEncodedContent encoded = new CVEncodedContent();
+        encoded.setCvId(cvId);
+        encoded.setContentHash(contentHash);
+        if (htmlContent != null && !htmlContent.trim().isEmpty()) {
+            byte[] html = htmlContent.getBytes(StandardCharsets.UTF_8);
+            encoded.setHtmlGzip(gzip(html));
+            encoded.setHtmlBytes(html.length);
+        }
+        if (parsedResume != null) {
+            byte[] resume = parsedResume.getBytes(StandardCharsets.UTF_8);
+            encoded.setResumeGzip(gzip(resume));
+            encoded.setResumeBytes(resume.length);
+            String trimmed = parsedResume.trim();
+            encoded.setResumeJson(trimmed.startsWith("{") || trimmed.startsWith("["));
+        }
+        encoded.setEncodedAt(LocalDateTime.now());
+        return encoded;
+    }
+
+    public static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (GzipStream out = new GzipStream(compressed)) {
+            out.write(content);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Best compression: content is encoded once and sent many times
+    private static final class GzipStream extends GZIPOutputStream {
+        private GzipStream(ByteArrayOutputStream out) throws IOException {
+            super(out, 8192);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (enabled && backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Starts a backfill in the background; false if one is already running
+     */
+    public boolean startBackfill() {
+        if (backfillRunning.get()) {
+            return false;
+        }
+        Thread thread = new Thread(this::backfill, "cv-content-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Encodes every CV whose encoded copies are missing or stale. Returns false if a
+     * backfill is already running.
+     */
+    public boolean backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        backfillStartedAt = LocalDateTime.now();
+        backfillFinishedAt = null;
+        backfillEncoded.set(0);
+        try {
+            UUID cursor = FIRST_ID;
+            List<UUID> ids;
+            do {
+                ids = encodedContentRepository.findIdsToEncode(cursor, PageRequest.of(0, backfillChunkSize));
+                for (UUID id : ids) {
+                    cvRepository.findById(id).ifPresent(cv -> {
+                        String contentHash = cv.getContentHash() != null ? cv.getContentHash()
+                                : CV.contentHash(cv.getHtmlContent(), cv.getParsedResume());
+                        store(cv.getId(), contentHash, cv.getHtmlContent(), cv.getParsedResume());
+                        backfillEncoded.incrementAndGet();
+                    });
+                    cursor = id;
+                }
+            } while (!ids.isEmpty());
+            logger.info("CV content encoding backfill finished: {} CVs encoded", backfillEncoded.get());
+        } catch (RuntimeException e) {
+            logger.error("CV content encoding backfill stopped after {} CVs", backfillEncoded.get(), e);
+        } finally {
+            backfillFinishedAt = LocalDateTime.now();
+            backfillRunning.set(false);
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("backfillRunning", backfillRunning.get());
+        status.put("backfillStartedAt", backfillStartedAt);
+        status.put("backfillFinishedAt", backfillFinishedAt);
+        status.put("backfillEncoded", backfillEncoded.get());
+        status.put("queued", executor.getQueue().size());
+        status.put("cvsToEncode", encodedContentRepository.countToEncode());
+        long rawBytes = encodedContentRepository.sumRawBytes();
+        long encodedBytes = encodedContentRepository.sumEncodedBytes();
+        status.put("storedRawBytes", rawBytes);
+        status.put("storedGzipBytes", encodedBytes);
+        status.put("storedBytesSaved", rawBytes - encodedBytes);
+        return status;
+    }
+
+    private void count(String outcome) {
+        Counter.builder("cv.content.encoded")
+                .description("CV content encodings, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,42 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener on {@link CV} that has {@link CVContentEncoder} encode the content of
+ * every saved CV. Encoding is queued after the transaction commits, so a rolled-back save
+ * is never encoded; copies that are missed are caught by the encoder's backfill.
+ */
+@Component
+public class CVContentEncodingListener {
+
+    // Lazy: the listener is created with the EntityManagerFactory, before the repositories
+    @Autowired
+    @Lazy
+    private CVContentEncoder encoder;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(CV cv) {
+        if (encoder == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encoder.submit(cv);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encoder.submit(cv);
+            }
+        });
+    }
+}
@@ -0,0 +1,393 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.entities.CVEncodedContent;
+import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
+import com.ojtechapi.spring.jwtoauth.repositories.CVEncodedContentRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import com.ojtechapi.spring.jwtoauth.services.ResumeHtmlGeneratorService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Produces the bodies of the CV content endpoints (see {@link CVContentVariant}) for a
+ * known CV version, gzip-coded when the client accepts it.
+ *
+ * Bodies come from the in-memory {@link CVContentCache} when possible. On a miss, a gzip
+ * body is taken as stored by {@link CVContentEncoder}, without inflating or compressing
+ * anything; only when the stored copy is missing or stale (or the body is rendered) is
+ * the CV loaded and its body encoded in the request. {@link #open} goes further for a
+ * rendered body: it is written to the response as it is rendered, and what was written is
+ * cached afterwards.
+ *
+ * Metrics: cv.content.bytes_saved counts the bytes gzip kept off the wire, and
+ * cv.content.serve.cpu{encoding, source} the CPU time of producing each body, where source
+ * is memory, stored (encoded copy) or database (CV loaded and coded in the request).
+ */
+@Service
+public class CVContentServer {
+
+    public static final String GZIP = "gzip";
+
+    private static final MediaType HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private CVRepository cvRepository;
+
+    @Autowired
+    private CVEncodedContentRepository encodedContentRepository;
+
+    @Autowired
+    private CVContentEncoder encoder;
+
+    @Autowired
+    private CVContentCache contentCache;
+
+    @Autowired
+    private ResumeHtmlGeneratorService resumeHtmlGeneratorService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Which of the CV's contents a variant sends
+    private enum Part { HTML, RESUME_JSON, RESUME_DETECTED, RENDERED }
+
+    /**
+     * The ETag of a variant of this CV version in the given coding; codings of the same
+     * representation must not share a strong ETag
+     */
+    public String etag(CVContentVersion version, CVContentVariant variant, boolean gzip) {
+        return version.etag(gzip ? variant.getTag() + "+" + GZIP : variant.getTag());
+    }
+
+    /**
+     * A body ready to be written: its media type and coding are known before any of it is
+     */
+    public static final class Body {
+        private final MediaType contentType;
+        private final String encoding;
+        private final Writer writer;
+
+        private interface Writer {
+            void writeTo(OutputStream out) throws IOException;
+        }
+
+        private Body(MediaType contentType, String encoding, Writer writer) {
+            this.contentType = contentType;
+            this.encoding = encoding;
+            this.writer = writer;
+        }
+
+        private static Body of(CVContentCache.Content content) {
+            return new Body(content.getContentType(), content.getEncoding(), out -> out.write(content.getBody()));
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            writer.writeTo(out);
+        }
+    }
+
+    public CVContentCache.Content get(CVContentVersion version, CVContentVariant variant, boolean gzip) {
+        long cpuStart = cpuNanos();
+        String[] source = {"memory"};
+        CVContentCache.Content content = contentCache.get(etag(version, variant, gzip),
+                () -> load(version, variant, gzip, source));
+        record(content, source[0], cpuSince(cpuStart));
+        return content;
+    }
+
+    /**
+     * Like get, but a body that must be rendered from the parsed resume is not built in
+     * memory first: the returned Body renders it (and gzips it) straight to the stream it
+     * is written to, keeping a copy that goes into the content cache once it is complete.
+     * The CV is still read here, so a missing CV or content fails before anything is sent.
+     */
+    public Body open(CVContentVersion version, CVContentVariant variant, boolean gzip) {
+        long cpuStart = cpuNanos();
+        String etag = etag(version, variant, gzip);
+        CVContentCache.Content cached = contentCache.find(etag);
+        if (cached != null) {
+            record(cached, "memory", cpuSince(cpuStart));
+            return Body.of(cached);
+        }
+
+        boolean[] storedCopyCurrent = {false};
+        CVContentCache.Content stored = stored(version, variant, gzip, storedCopyCurrent);
+        if (stored != null) {
+            contentCache.put(etag, stored);
+            record(stored, "stored", cpuSince(cpuStart));
+            return Body.of(stored);
+        }
+
+        CV cv = loadCV(version);
+        String parsedResume = cv.getParsedResume();
+        if (select(variant, hasHtml(cv), parsedResume != null) != Part.RENDERED) {
+            CVContentCache.Content content = encoded(cv, fromCV(cv, variant), gzip, storedCopyCurrent[0]);
+            contentCache.put(etag, content);
+            record(content, "database", cpuSince(cpuStart));
+            return Body.of(content);
+        }
+        if (gzip && !storedCopyCurrent[0]) {
+            encoder.submit(cv);
+        }
+
+        long loadCpu = cpuSince(cpuStart);
+        return new Body(HTML_UTF8, gzip ? GZIP : null, out -> {
+            // Written on another thread than the one that loaded the CV
+            long renderStart = cpuNanos();
+            CopyingOutputStream sent = new CopyingOutputStream(out);
+            CVContentCache.Content content;
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(sent, 8192);
+                CopyingOutputStream identity = new CopyingOutputStream(gzipOut, false);
+                resumeHtmlGeneratorService.writeResumeHtml(parsedResume, identity);
+                gzipOut.finish();
+                content = new CVContentCache.Content(sent.copy.toByteArray(), HTML_UTF8, GZIP, (int) identity.count);
+            } else {
+                resumeHtmlGeneratorService.writeResumeHtml(parsedResume, sent);
+                content = new CVContentCache.Content(sent.copy.toByteArray(), HTML_UTF8);
+            }
+            contentCache.put(etag, content);
+            record(content, "database", loadCpu >= 0 && renderStart >= 0 ? loadCpu + cpuSince(renderStart) : -1);
+        });
+    }
+
+    private void record(CVContentCache.Content content, String source, long cpuNanos) {
+        if (content.getEncoding() != null) {
+            Counter.builder("cv.content.bytes_saved")
+                    .description("Bytes of CV content not sent thanks to gzip")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .increment(Math.max(0, content.getIdentityLength() - content.getBody().length));
+        }
+        if (cpuNanos >= 0) {
+            Timer.builder("cv.content.serve.cpu")
+                    .description("CPU time of producing a CV content body")
+                    .tag("encoding", content.getEncoding() != null ? content.getEncoding() : "identity")
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .record(cpuNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CVContentCache.Content load(CVContentVersion version, CVContentVariant variant, boolean gzip,
+                                        String[] source) {
+        boolean[] storedCopyCurrent = {false};
+        CVContentCache.Content stored = stored(version, variant, gzip, storedCopyCurrent);
+        if (stored != null) {
+            source[0] = "stored";
+            return stored;
+        }
+
+        CV cv = loadCV(version);
+        source[0] = "database";
+        return encoded(cv, fromCV(cv, variant), gzip, storedCopyCurrent[0]);
+    }
+
+    /**
+     * The gzip body of a variant as stored by CVContentEncoder, or null. storedCopyCurrent
+     * is set when there is a stored copy for this version, even if it lacks the variant.
+     */
+    private CVContentCache.Content stored(CVContentVersion version, CVContentVariant variant, boolean gzip,
+                                          boolean[] storedCopyCurrent) {
+        if (!gzip || version.getContentHash() == null) {
+            return null;
+        }
+        Optional<CVEncodedContent> encoded = encodedContentRepository
+                .findByCvIdAndContentHash(version.getCvId(), version.getContentHash());
+        if (encoded.isEmpty()) {
+            return null;
+        }
+        storedCopyCurrent[0] = true;
+        return fromEncoded(encoded.get(), variant);
+    }
+
+    private CV loadCV(CVContentVersion version) {
+        return cvRepository.findById(version.getCvId())
+                .orElseThrow(() -> new ResourceNotFoundException("CV", "id", version.getCvId()));
+    }
+
+    // identity in the requested coding; a CV without a current stored copy gets one made
+    private CVContentCache.Content encoded(CV cv, CVContentCache.Content identity, boolean gzip,
+                                           boolean storedCopyCurrent) {
+        if (!gzip) {
+            return identity;
+        }
+        if (!storedCopyCurrent) {
+            encoder.submit(cv);
+        }
+        return gzipped(identity);
+    }
+
+    /**
+     * Caches the gzip body of a variant of a CV that is already loaded, so that the first
+     * request for it is a hit. version must describe cv.
+     */
+    public void prepare(CV cv, CVContentVersion version, CVContentVariant variant) {
+        contentCache.get(etag(version, variant, true), () -> gzipped(fromCV(cv, variant)));
+    }
+
+    private static CVContentCache.Content gzipped(CVContentCache.Content identity) {
+        return new CVContentCache.Content(CVContentEncoder.gzip(identity.getBody()), identity.getContentType(),
+                GZIP, identity.getBody().length);
+    }
+
+    private static Part select(CVContentVariant variant, boolean hasHtml, boolean hasResume) {
+        if (hasHtml && variant != CVContentVariant.EMPLOYER && variant != CVContentVariant.PUBLIC_DATA) {
+            return Part.HTML;
+        }
+        if (!hasResume) {
+            throw new ResourceNotFoundException("CV content not found");
+        }
+        return switch (variant) {
+            case CONTENT -> Part.RESUME_DETECTED;
+            case RENDER, PUBLIC -> Part.RENDERED;
+            default -> Part.RESUME_JSON;
+        };
+    }
+
+    private static CVContentCache.Content fromEncoded(CVEncodedContent encoded, CVContentVariant variant) {
+        return switch (select(variant, encoded.getHtmlGzip() != null, encoded.getResumeGzip() != null)) {
+            case HTML -> new CVContentCache.Content(encoded.getHtmlGzip(), HTML_UTF8, GZIP, encoded.getHtmlBytes());
+            case RESUME_JSON -> new CVContentCache.Content(encoded.getResumeGzip(), MediaType.APPLICATION_JSON,
+                    GZIP, encoded.getResumeBytes());
+            case RESUME_DETECTED -> new CVContentCache.Content(encoded.getResumeGzip(),
+                    encoded.isResumeJson() ? MediaType.APPLICATION_JSON : HTML_UTF8, GZIP, encoded.getResumeBytes());
+            // Rendered HTML is not stored
+            case RENDERED -> null;
+        };
+    }
+
+    private static boolean hasHtml(CV cv) {
+        return cv.getHtmlContent() != null && !cv.getHtmlContent().trim().isEmpty();
+    }
+
+    private CVContentCache.Content fromCV(CV cv, CVContentVariant variant) {
+        String parsedResume = cv.getParsedResume();
+        return switch (select(variant, hasHtml(cv), parsedResume != null)) {
+            case HTML -> content(cv.getHtmlContent(), HTML_UTF8);
+            case RESUME_JSON -> content(parsedResume, MediaType.APPLICATION_JSON);
+            case RESUME_DETECTED -> {
+                String trimmed = parsedResume.trim();
+                boolean json = trimmed.startsWith("{") || trimmed.startsWith("[");
+                yield content(parsedResume, json ? MediaType.APPLICATION_JSON : HTML_UTF8);
+            }
+            case RENDERED -> {
+                ByteArrayOutputStream html = new ByteArrayOutputStream(16384);
+                try {
+                    resumeHtmlGeneratorService.writeResumeHtml(parsedResume, html);
+                } catch (IOException e) {
+                    // ByteArrayOutputStream does not throw
+                    throw new UncheckedIOException(e);
+                }
+                yield new CVContentCache.Content(html.toByteArray(), HTML_UTF8);
+            }
+        };
+    }
+
+    private static CVContentCache.Content content(String text, MediaType contentType) {
+        return new CVContentCache.Content(text.getBytes(StandardCharsets.UTF_8), contentType);
+    }
+
+    /**
+     * Passes bytes on to out, counting them and (unless told not to) keeping a copy
+     */
+    private static final class CopyingOutputStream extends FilterOutputStream {
+        private final ByteArrayOutputStream copy;
+        private long count;
+
+        CopyingOutputStream(OutputStream out) {
+            this(out, true);
+        }
+
+        CopyingOutputStream(OutputStream out, boolean keepCopy) {
+            super(out);
+            this.copy = keepCopy ? new ByteArrayOutputStream(16384) : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+            if (copy != null) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            if (copy != null) {
+                copy.write(b, off, len);
+            }
+        }
+    }
+
+    /**
+     * Whether an Accept-Encoding header admits gzip (listed without q=0, or via *)
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(GZIP) || name.equalsIgnoreCase("x-gzip")) {
+                return !refused;
+            }
+            if (name.equals("*")) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+
+    private static long cpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long cpuSince(long cpuStart) {
+        return cpuStart >= 0 ? cpuNanos() - cpuStart : -1;
+    }
+}
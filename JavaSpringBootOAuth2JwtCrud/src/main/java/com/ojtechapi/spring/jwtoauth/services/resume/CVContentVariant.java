@@ -0,0 +1,30 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+/**
+ * The representations of a CV served by the CV content endpoints. Each picks between the
+ * stored HTML and the parsed resume differently, so each has its own ETag and cache entries.
+ */
+public enum CVContentVariant {
+    // GET /api/cvs/{id}/content: HTML, else the parsed resume as JSON or HTML (detected)
+    CONTENT("content"),
+    // GET /api/cvs/me/content: HTML, else the parsed resume as JSON
+    ME("me"),
+    // GET /api/cvs/employer/view/{id}/content: the parsed resume as JSON
+    EMPLOYER("employer"),
+    // GET /api/cvs/{id}/render: HTML, else the parsed resume rendered through the resume template
+    RENDER("render"),
+    // GET /api/public/cvs/{id}/v/{version}: as RENDER, for anyone with the link
+    PUBLIC("public"),
+    // GET /api/public/cvs/{id}/v/{version}/data: the parsed resume as JSON, for anyone with the link
+    PUBLIC_DATA("public-data");
+
+    private final String tag;
+
+    CVContentVariant(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,356 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.dtos.CVRevisionDto;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.entities.CVRevision;
+import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRevisionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Edit history of CV content. Edits go through {@link #update}, which sets the new content
+ * on the CV (the CV keeps holding the latest content, which is what everything reads) and
+ * records a revision of it (CVRevision).
+ *
+ * A revision stores, for each field that changed, only the span that differs from the
+ * previous revision (TextSplice); every cv.revisions.base-every revisions, or when the
+ * change is most of the document, it stores the full content instead, so rebuilding any
+ * revision applies at most that many splices to a base. Edits by the same user within
+ * cv.revisions.coalesce-seconds of the last revision are folded into it, so an autosave
+ * every few seconds does not add a revision each time. Edits that change nothing are
+ * not recorded and leave the CV untouched.
+ *
+ * Content changed elsewhere (CV generation, bulk regeneration) is not recorded; the next
+ * edit finds the last revision out of date and first records the CV as it is as a base.
+ * Recording runs in its own transaction and a failure only costs the revision, not the edit.
+ *
+ * Compaction keeps the last cv.revisions.keep revisions of each CV: the oldest one kept
+ * becomes a base and those before it are deleted.
+ *
+ * Counted in cv.revisions{outcome}: base, delta, coalesced, unchanged and failed; the
+ * characters stored against the characters of content they describe in
+ * cv.revisions.stored_chars and cv.revisions.content_chars.
+ */
+@Service
+public class CVRevisionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CVRevisionService.class);
+
+    @Autowired
+    private CVRevisionRepository cvRevisionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cv.revisions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cv.revisions.base-every:50}")
+    private int baseEvery;
+
+    @Value("${cv.revisions.coalesce-seconds:120}")
+    private long coalesceSeconds;
+
+    @Value("${cv.revisions.keep:100}")
+    private int keep;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Sets new content on the CV and records it as a revision. The caller saves the CV.
+     *
+     * @return false if the content is what the CV already holds, in which case nothing
+     * changes and the CV need not be saved
+     */
+    public boolean update(CV cv, String htmlContent, String parsedResume, UUID authorId) {
+        return update(cv, htmlContent, parsedResume, authorId, true);
+    }
+
+    private boolean update(CV cv, String htmlContent, String parsedResume, UUID authorId, boolean coalesce) {
+        String oldHtml = cv.getHtmlContent();
+        String oldResume = cv.getParsedResume();
+        if (Objects.equals(oldHtml, htmlContent) && Objects.equals(oldResume, parsedResume)) {
+            count("unchanged");
+            return false;
+        }
+
+        if (enabled && cv.getId() != null) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> record(cv.getId(), oldHtml, oldResume,
+                        htmlContent, parsedResume, authorId, coalesce));
+            } catch (RuntimeException e) {
+                count("failed");
+                logger.warn("Could not record a revision of CV {}: {}", cv.getId(), e.getMessage());
+            }
+        }
+
+        cv.setHtmlContent(htmlContent);
+        cv.setParsedResume(parsedResume);
+        cv.setLastUpdated(LocalDateTime.now());
+        return true;
+    }
+
+    /**
+     * Restores the content of an earlier revision, as a new revision. The caller saves the CV.
+     */
+    public boolean rollback(CV cv, int revisionNumber, UUID authorId) {
+        CVRevisionDto revision = getRevision(cv.getId(), revisionNumber);
+        return update(cv, revision.getHtmlContent(), revision.getParsedResume(), authorId, false);
+    }
+
+    public List<CVRevisionDto> listRevisions(UUID cvId) {
+        return cvRevisionRepository.findSummariesByCvId(cvId);
+    }
+
+    /**
+     * A revision with its content, rebuilt from the base before it
+     */
+    public CVRevisionDto getRevision(UUID cvId, int revisionNumber) {
+        List<CVRevision> chain = chain(cvId, revisionNumber);
+        CVRevision revision = chain.get(chain.size() - 1);
+        Content content = rebuild(chain);
+
+        CVRevisionDto dto = new CVRevisionDto(revision.getRevisionNumber(), revision.isBase(),
+                revision.getContentHash(), revision.getContentChars(), revision.getStoredChars(),
+                revision.getAuthorId(), revision.getCreatedAt(), revision.getUpdatedAt());
+        dto.setHtmlContent(content.html());
+        dto.setParsedResume(content.resume());
+        return dto;
+    }
+
+    // The revisions from the base a revision is built from up to the revision itself
+    private List<CVRevision> chain(UUID cvId, int revisionNumber) {
+        Integer base = cvRevisionRepository.findBaseRevisionNumber(cvId, revisionNumber).orElse(null);
+        List<CVRevision> chain = base == null ? List.of()
+                : cvRevisionRepository.findByCvIdAndRevisionNumberBetweenOrderByRevisionNumber(cvId, base, revisionNumber);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).getRevisionNumber() != revisionNumber) {
+            throw new ResourceNotFoundException("CV revision", "number", revisionNumber);
+        }
+        return chain;
+    }
+
+    private record Content(String html, String resume) {
+    }
+
+    private static Content rebuild(List<CVRevision> chain) {
+        String html = null;
+        String resume = null;
+        for (CVRevision step : chain) {
+            if (step.isBase()) {
+                html = step.getHtmlInsert();
+                resume = step.getResumeInsert();
+                continue;
+            }
+            if (step.getHtmlPrefix() != null) {
+                html = new TextSplice(step.getHtmlPrefix(), step.getHtmlSuffix(), step.getHtmlInsert()).applyTo(html);
+            }
+            if (step.getResumePrefix() != null) {
+                resume = new TextSplice(step.getResumePrefix(), step.getResumeSuffix(), step.getResumeInsert())
+                        .applyTo(resume);
+            }
+        }
+        return new Content(html, resume);
+    }
+
+    private void record(UUID cvId, String oldHtml, String oldResume, String html, String resume,
+                        UUID authorId, boolean coalesce) {
+        CVRevision latest = cvRevisionRepository.findTopByCvIdOrderByRevisionNumberDesc(cvId).orElse(null);
+        if (latest == null || !latest.getContentHash().equals(CV.contentHash(oldHtml, oldResume))) {
+            // No history yet, or the CV was changed without recording: start from what it held
+            latest = cvRevisionRepository.save(base(cvId, next(latest), oldHtml, oldResume, null));
+            count("base");
+            coalesce = false;
+        }
+
+        boolean htmlChanged = !Objects.equals(oldHtml, html);
+        boolean resumeChanged = !Objects.equals(oldResume, resume);
+        // A splice needs text on both sides
+        boolean asBase = (htmlChanged && (oldHtml == null || html == null))
+                || (resumeChanged && (oldResume == null || resume == null))
+                || latest.getChainLength() + 1 >= baseEvery;
+
+        TextSplice htmlSplice = htmlChanged && !asBase ? TextSplice.between(oldHtml, html) : null;
+        TextSplice resumeSplice = resumeChanged && !asBase ? TextSplice.between(oldResume, resume) : null;
+        int contentChars = length(html) + length(resume);
+        int deltaChars = length(htmlSplice) + length(resumeSplice);
+        // A change to most of the document is stored whole, so later revisions build from it
+        asBase = asBase || deltaChars * 2 > contentChars;
+
+        if (asBase) {
+            cvRevisionRepository.save(base(cvId, next(latest), html, resume, authorId));
+            count("base");
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (coalesce && !latest.isBase() && Objects.equals(latest.getAuthorId(), authorId)
+                && latest.getUpdatedAt().isAfter(now.minusSeconds(coalesceSeconds))) {
+            TextSplice htmlFolded = fold(latest.getHtmlPrefix(), latest.getHtmlSuffix(), latest.getHtmlInsert(),
+                    htmlSplice, html);
+            TextSplice resumeFolded = fold(latest.getResumePrefix(), latest.getResumeSuffix(),
+                    latest.getResumeInsert(), resumeSplice, resume);
+            setSplices(latest, htmlFolded, resumeFolded);
+            latest.setContentHash(CV.contentHash(html, resume));
+            latest.setContentChars(contentChars);
+            latest.setStoredChars(length(htmlFolded) + length(resumeFolded));
+            latest.setUpdatedAt(now);
+            cvRevisionRepository.save(latest);
+            count("coalesced");
+            countChars(latest.getStoredChars(), contentChars);
+            return;
+        }
+
+        CVRevision delta = new CVRevision();
+        delta.setCvId(cvId);
+        delta.setRevisionNumber(next(latest));
+        delta.setChainLength(latest.getChainLength() + 1);
+        setSplices(delta, htmlSplice, resumeSplice);
+        delta.setContentHash(CV.contentHash(html, resume));
+        delta.setContentChars(contentChars);
+        delta.setStoredChars(deltaChars);
+        delta.setAuthorId(authorId);
+        delta.setCreatedAt(now);
+        delta.setUpdatedAt(now);
+        cvRevisionRepository.save(delta);
+        count("delta");
+        countChars(deltaChars, contentChars);
+    }
+
+    /**
+     * Compacts the history of every CV with more than cv.revisions.keep revisions
+     */
+    @Scheduled(cron = "${cv.revisions.compaction-cron:0 30 3 * * *}", zone = "${matching.rematch.zone:Asia/Manila}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        int removed = 0;
+        for (UUID cvId : cvRevisionRepository.findCvIdsWithMoreRevisionsThan(keep)) {
+            try {
+                Integer count = transactionTemplate.execute(status -> compact(cvId));
+                removed += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                logger.warn("Could not compact the revisions of CV {}: {}", cvId, e.getMessage());
+            }
+        }
+        if (removed > 0) {
+            logger.info("CV revision compaction removed {} revisions", removed);
+        }
+    }
+
+    private int compact(UUID cvId) {
+        CVRevision latest = cvRevisionRepository.findTopByCvIdOrderByRevisionNumberDesc(cvId).orElse(null);
+        if (latest == null) {
+            return 0;
+        }
+        int oldestKept = latest.getRevisionNumber() - keep + 1;
+        List<CVRevision> chain = chain(cvId, oldestKept);
+        CVRevision revision = chain.get(chain.size() - 1);
+        if (!revision.isBase()) {
+            // Revisions after it keep their chain length; it only brings their next base forward
+            Content content = rebuild(chain);
+            revision.setBase(true);
+            revision.setChainLength(0);
+            setBaseContent(revision, content.html(), content.resume());
+            cvRevisionRepository.save(revision);
+        }
+        return cvRevisionRepository.deleteByCvIdAndRevisionNumberLessThan(cvId, oldestKept);
+    }
+
+    private CVRevision base(UUID cvId, int revisionNumber, String html, String resume, UUID authorId) {
+        LocalDateTime now = LocalDateTime.now();
+        CVRevision revision = new CVRevision();
+        revision.setCvId(cvId);
+        revision.setRevisionNumber(revisionNumber);
+        revision.setBase(true);
+        setBaseContent(revision, html, resume);
+        revision.setAuthorId(authorId);
+        revision.setCreatedAt(now);
+        revision.setUpdatedAt(now);
+        countChars(revision.getStoredChars(), revision.getContentChars());
+        return revision;
+    }
+
+    private static void setBaseContent(CVRevision revision, String html, String resume) {
+        setSplices(revision, null, null);
+        revision.setHtmlInsert(html);
+        revision.setResumeInsert(resume);
+        revision.setContentHash(CV.contentHash(html, resume));
+        revision.setContentChars(length(html) + length(resume));
+        revision.setStoredChars(revision.getContentChars());
+    }
+
+    private static void setSplices(CVRevision revision, TextSplice html, TextSplice resume) {
+        revision.setHtmlPrefix(html != null ? html.prefix() : null);
+        revision.setHtmlSuffix(html != null ? html.suffix() : null);
+        revision.setHtmlInsert(html != null ? html.insert() : null);
+        revision.setResumePrefix(resume != null ? resume.prefix() : null);
+        revision.setResumeSuffix(resume != null ? resume.suffix() : null);
+        revision.setResumeInsert(resume != null ? resume.insert() : null);
+    }
+
+    // A stored splice (null prefix: no change) followed by another (null: no change)
+    private static TextSplice fold(Integer prefix, Integer suffix, String insert, TextSplice next, String result) {
+        if (prefix == null) {
+            return next;
+        }
+        TextSplice stored = new TextSplice(prefix, suffix, insert);
+        return next == null ? stored : stored.then(next, result);
+    }
+
+    private static int next(CVRevision latest) {
+        return latest == null ? 1 : latest.getRevisionNumber() + 1;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    private static int length(TextSplice splice) {
+        return splice != null ? splice.insert().length() : 0;
+    }
+
+    private void count(String outcome) {
+        Counter.builder("cv.revisions")
+                .description("CV content edits, by how they were recorded")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void countChars(int stored, int content) {
+        Counter.builder("cv.revisions.stored_chars")
+                .description("Characters stored by CV revisions")
+                .register(meterRegistry)
+                .increment(stored);
+        Counter.builder("cv.revisions.content_chars")
+                .description("Characters of CV content described by the stored revisions")
+                .register(meterRegistry)
+                .increment(content);
+    }
+}
@@ -0,0 +1,132 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered UTF-8 output for {@link HtmlTemplate}. Static template text arrives already
+ * encoded and is copied as bytes; values are HTML-escaped and UTF-8 encoded in a single
+ * pass over their characters, without intermediate strings.
+ *
+ * Escapes the same five characters as the renderers always did: &amp; &lt; &gt; &quot; and
+ * &#39;. Unpaired surrogates are written as '?', like String.getBytes(UTF_8).
+ */
+public final class HtmlOutput {
+
+    private static final byte[] AMP = ascii("&amp;");
+    private static final byte[] LT = ascii("&lt;");
+    private static final byte[] GT = ascii("&gt;");
+    private static final byte[] QUOT = ascii("&quot;");
+    private static final byte[] APOS = ascii("&#39;");
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int count;
+
+    HtmlOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    void writeEscaped(String text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            // Room for the longest entity or a four-byte code point
+            if (buffer.length - count < 6) {
+                flushBuffer();
+            }
+            switch (c) {
+                case '&' -> put(AMP);
+                case '<' -> put(LT);
+                case '>' -> put(GT);
+                case '"' -> put(QUOT);
+                case '\'' -> put(APOS);
+                default -> {
+                    if (c < 0x80) {
+                        buffer[count++] = (byte) c;
+                    } else if (c < 0x800) {
+                        buffer[count++] = (byte) (0xc0 | (c >> 6));
+                        buffer[count++] = (byte) (0x80 | (c & 0x3f));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < length
+                            && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                        buffer[count++] = (byte) (0xf0 | (codePoint >> 18));
+                        buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                        buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                        buffer[count++] = (byte) (0x80 | (codePoint & 0x3f));
+                    } else if (Character.isSurrogate(c)) {
+                        buffer[count++] = '?';
+                    } else {
+                        buffer[count++] = (byte) (0xe0 | (c >> 12));
+                        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                        buffer[count++] = (byte) (0x80 | (c & 0x3f));
+                    }
+                }
+            }
+        }
+    }
+
+    private void put(byte[] entity) {
+        System.arraycopy(entity, 0, buffer, count, entity.length);
+        count += entity.length;
+    }
+
+    /**
+     * Writes buffered bytes to the underlying stream (which is not flushed or closed)
+     */
+    void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * HTML-escapes text for callers that need a String, in one pass
+     */
+    public static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String entity = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (escaped != null) {
+                if (entity != null) {
+                    escaped.append(entity);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
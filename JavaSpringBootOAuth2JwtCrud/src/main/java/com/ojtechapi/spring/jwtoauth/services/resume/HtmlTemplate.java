@@ -0,0 +1,255 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template compiled once into a tree of segments and rendered many times. Static text
+ * is held as pre-encoded UTF-8 bytes; values are HTML-escaped while they are written
+ * ({@link HtmlOutput}), straight to the target stream.
+ *
+ * The syntax is a small subset of Mustache:
+ *
+ * - {{name}} writes the escaped value of name; {{.}} the current value
+ * - {{#name}}...{{/name}} renders its body once per element of a collection, once with
+ *   the value in scope for any other non-null value, and not at all for null, false or
+ *   an empty collection. An empty string counts as a value.
+ * - {{^name}}...{{/name}} renders its body only when {{#name}} would not
+ * - {{! comment}} is dropped
+ *
+ * Names are looked up in the innermost enclosing Map that has the key. A section or
+ * comment tag alone on its line removes the whole line, so block tags can sit on their
+ * own lines without adding blank lines to the output. With joinLines, every line is
+ * stripped of its indentation and joined to the next, for templates whose output is a
+ * single line.
+ */
+public final class HtmlTemplate {
+
+    private final Node[] nodes;
+    private volatile int sizeHint = 4096;
+
+    private HtmlTemplate(Node[] nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Compiles a template from the classpath (UTF-8)
+     */
+    public static HtmlTemplate load(String resource, boolean joinLines) {
+        try (InputStream in = HtmlTemplate.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Template not found: " + resource);
+            }
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8), joinLines);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read template " + resource, e);
+        }
+    }
+
+    public static HtmlTemplate compile(String source, boolean joinLines) {
+        if (joinLines) {
+            StringBuilder joined = new StringBuilder(source.length());
+            for (String line : source.split("\n")) {
+                joined.append(line.stripLeading().replace("\r", ""));
+            }
+            source = joined.toString();
+        }
+        return new HtmlTemplate(new Parser(source).parse());
+    }
+
+    /**
+     * Renders the model to out. Output is buffered internally and written through before
+     * returning; out is neither flushed nor closed.
+     */
+    public void render(Object model, OutputStream out) throws IOException {
+        HtmlOutput output = new HtmlOutput(out);
+        Deque<Object> scope = new ArrayDeque<>();
+        scope.push(model);
+        renderAll(nodes, scope, output);
+        output.flushBuffer();
+    }
+
+    /**
+     * Renders the model to a String, for callers that store the HTML
+     */
+    public String render(Object model) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+        try {
+            render(model, out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        sizeHint = out.size() + 256;
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void renderAll(Node[] nodes, Deque<Object> scope, HtmlOutput out) throws IOException {
+        for (Node node : nodes) {
+            node.render(scope, out);
+        }
+    }
+
+    private static Object lookup(String name, Deque<Object> scope) {
+        if (".".equals(name)) {
+            return scope.peek();
+        }
+        for (Object value : scope) {
+            if (value instanceof Map<?, ?> map && map.containsKey(name)) {
+                return map.get(name);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || Boolean.FALSE.equals(value)
+                || (value instanceof Collection<?> collection && collection.isEmpty());
+    }
+
+    private interface Node {
+        void render(Deque<Object> scope, HtmlOutput out) throws IOException;
+    }
+
+    private record Text(byte[] bytes) implements Node {
+        @Override
+        public void render(Deque<Object> scope, HtmlOutput out) throws IOException {
+            out.write(bytes);
+        }
+    }
+
+    private record Value(String name) implements Node {
+        @Override
+        public void render(Deque<Object> scope, HtmlOutput out) throws IOException {
+            Object value = lookup(name, scope);
+            if (value != null) {
+                out.writeEscaped(value.toString());
+            }
+        }
+    }
+
+    private record Section(String name, boolean inverted, Node[] body) implements Node {
+        @Override
+        public void render(Deque<Object> scope, HtmlOutput out) throws IOException {
+            Object value = lookup(name, scope);
+            if (inverted) {
+                if (isEmpty(value)) {
+                    renderAll(body, scope, out);
+                }
+                return;
+            }
+            if (isEmpty(value)) {
+                return;
+            }
+            if (value instanceof Collection<?> collection) {
+                for (Object element : collection) {
+                    if (element != null) {
+                        scope.push(element);
+                        renderAll(body, scope, out);
+                        scope.pop();
+                    }
+                }
+            } else {
+                scope.push(value);
+                renderAll(body, scope, out);
+                scope.pop();
+            }
+        }
+    }
+
+    private static final class Parser {
+        private final String source;
+        private int pos;
+
+        private Parser(String source) {
+            this.source = source;
+        }
+
+        private Node[] parse() {
+            Node[] nodes = parseUntil(null);
+            if (pos < source.length()) {
+                throw new IllegalArgumentException("Unexpected text after template end at " + pos);
+            }
+            return nodes;
+        }
+
+        private Node[] parseUntil(String closing) {
+            List<Node> nodes = new ArrayList<>();
+            while (pos < source.length()) {
+                int open = source.indexOf("{{", pos);
+                if (open < 0) {
+                    addText(nodes, source.substring(pos));
+                    pos = source.length();
+                    break;
+                }
+                int close = source.indexOf("}}", open + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed tag at " + open);
+                }
+                String tag = source.substring(open + 2, close).trim();
+                char kind = tag.isEmpty() ? ' ' : tag.charAt(0);
+                boolean block = kind == '#' || kind == '^' || kind == '/' || kind == '!';
+                String text = source.substring(pos, open);
+                pos = close + 2;
+                if (block) {
+                    text = removeStandaloneLine(text, open);
+                }
+                addText(nodes, text);
+
+                String name = block ? tag.substring(1).trim() : tag;
+                switch (kind) {
+                    case '#', '^' -> nodes.add(new Section(name, kind == '^', parseUntil(name)));
+                    case '/' -> {
+                        if (!name.equals(closing)) {
+                            throw new IllegalArgumentException("Unexpected {{/" + name + "}} at " + open);
+                        }
+                        return nodes.toArray(new Node[0]);
+                    }
+                    case '!' -> { }
+                    default -> nodes.add(new Value(name));
+                }
+            }
+            if (closing != null) {
+                throw new IllegalArgumentException("Missing {{/" + closing + "}}");
+            }
+            return nodes.toArray(new Node[0]);
+        }
+
+        /**
+         * If the block tag just read is the only thing on its line, drops the indentation
+         * before it from text and the rest of the line after it from the input
+         */
+        private String removeStandaloneLine(String text, int open) {
+            int lineStart = text.lastIndexOf('\n') + 1;
+            if (lineStart == 0 && open - text.length() > 0 && source.charAt(open - text.length() - 1) != '\n') {
+                return text;
+            }
+            if (!text.substring(lineStart).isBlank()) {
+                return text;
+            }
+            int lineEnd = source.indexOf('\n', pos);
+            String rest = source.substring(pos, lineEnd < 0 ? source.length() : lineEnd);
+            if (!rest.isBlank()) {
+                return text;
+            }
+            pos = lineEnd < 0 ? source.length() : lineEnd + 1;
+            return text.substring(0, lineStart);
+        }
+
+        private static void addText(List<Node> nodes, String text) {
+            if (!text.isEmpty()) {
+                nodes.add(new Text(text.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+}
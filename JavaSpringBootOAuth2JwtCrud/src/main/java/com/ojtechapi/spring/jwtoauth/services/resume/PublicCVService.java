@@ -0,0 +1,147 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Versions of the CVs behind the public CV links (ViewPublicCV). A public CV is served
+ * from /api/public/cvs/{id}/v/{version}, where version is taken from the content hash, so
+ * the response for such a URL never changes and can be cached for good; /api/public/cvs/{id}
+ * redirects to the current version.
+ *
+ * The current version of each CV is kept in memory, so resolving a link does not query the
+ * database. Saves on this instance update it right away (PublicCVVersionListener); saves on
+ * other instances are picked up once the entry is older than cv.public.current-max-age-seconds.
+ * Application emails call {@link #prepare(CV)} with the CV they link to, which also renders
+ * the public bodies into the CVContentCache, so the employer's click is served from memory.
+ *
+ * Lookups are counted in cv.public.version{outcome}: hit and miss.
+ */
+@Service
+public class PublicCVService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicCVService.class);
+
+    @Autowired
+    private CVRepository cvRepository;
+
+    @Autowired
+    private CVContentServer cvContentServer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cv.public.current-max-age-seconds:60}")
+    private long currentMaxAgeSeconds;
+
+    @Value("${cv.public.max-versions:10000}")
+    private int maxVersions;
+
+    private final LinkedHashMap<UUID, Current> versions = new LinkedHashMap<>(256, 0.75f, true);
+
+    private record Current(CVContentVersion version, long loadedAtNanos) {
+    }
+
+    /**
+     * The current version of a CV, from memory when it was looked up or saved recently
+     */
+    public Optional<CVContentVersion> current(UUID cvId) {
+        synchronized (this) {
+            Current current = versions.get(cvId);
+            if (current != null && System.nanoTime() - current.loadedAtNanos() < currentMaxAgeSeconds * 1_000_000_000L) {
+                count("hit");
+                return Optional.of(current.version());
+            }
+        }
+        count("miss");
+        Optional<CVContentVersion> version = cvRepository.findContentVersionById(cvId);
+        version.ifPresentOrElse(this::remember, () -> forget(cvId));
+        return version;
+    }
+
+    /**
+     * Records the version of a CV that was just saved or loaded
+     */
+    public void remember(CV cv) {
+        if (cv.getId() != null) {
+            remember(versionOf(cv));
+        }
+    }
+
+    public synchronized void forget(UUID cvId) {
+        versions.remove(cvId);
+    }
+
+    /**
+     * Readies the public link to a CV that is about to be sent: its version is remembered and
+     * its public bodies are rendered and cached. Never fails; a miss is served normally.
+     */
+    public void prepare(CV cv) {
+        try {
+            remember(cv);
+            if (cv.isActive()) {
+                CVContentVersion version = versionOf(cv);
+                cvContentServer.prepare(cv, version, CVContentVariant.PUBLIC);
+                cvContentServer.prepare(cv, version, CVContentVariant.PUBLIC_DATA);
+            }
+        } catch (RuntimeException e) {
+            // e.g. a CV without content
+            logger.debug("Could not prepare public CV {}: {}", cv.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * The version segment of a CV's public URL: the start of its content hash, or for rows
+     * not yet hashed, its last update time
+     */
+    public static String versionKey(CVContentVersion version) {
+        if (version.getContentHash() != null) {
+            return version.getContentHash().substring(0, Math.min(16, version.getContentHash().length()));
+        }
+        return version.getLastUpdated() != null
+                ? Long.toHexString(version.getLastUpdated().toInstant(ZoneOffset.UTC).toEpochMilli())
+                : "0";
+    }
+
+    public static String publicPath(CVContentVersion version, CVContentVariant variant) {
+        String path = "/api/public/cvs/" + version.getCvId() + "/v/" + versionKey(version);
+        return variant == CVContentVariant.PUBLIC_DATA ? path + "/data" : path;
+    }
+
+    // The owner is not needed to serve a public CV and may not be loaded
+    private static CVContentVersion versionOf(CV cv) {
+        return new CVContentVersion(cv.getId(), null, cv.isActive(), cv.getLastUpdated(),
+                cv.getContentHash() != null ? cv.getContentHash()
+                        : CV.contentHash(cv.getHtmlContent(), cv.getParsedResume()));
+    }
+
+    private synchronized void remember(CVContentVersion version) {
+        versions.put(version.getCvId(), new Current(version, System.nanoTime()));
+        if (versions.size() > maxVersions) {
+            Map.Entry<UUID, Current> eldest = versions.entrySet().iterator().next();
+            versions.remove(eldest.getKey());
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("cv.public.version")
+                .description("Public CV version lookups, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener on {@link CV} that keeps the versions in {@link PublicCVService} current:
+ * public links resolve to a saved CV's new version, and no longer resolve for a deleted
+ * one, as soon as the transaction commits.
+ */
+@Component
+public class PublicCVVersionListener {
+
+    // Lazy: the listener is created with the EntityManagerFactory, before the repositories
+    @Autowired
+    @Lazy
+    private PublicCVService publicCVService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(CV cv) {
+        afterCommit(() -> publicCVService.remember(cv));
+    }
+
+    @PostRemove
+    public void onRemoved(CV cv) {
+        afterCommit(() -> publicCVService.forget(cv.getId()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (publicCVService == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+/**
+ * The difference between two versions of a text as a single splice: keep the first
+ * {@code prefix} and the last {@code suffix} characters of the old text and put
+ * {@code insert} between them. An autosave usually changes one place in the document,
+ * so the insert is a small part of it.
+ *
+ * Prefix and suffix never split a surrogate pair, so the insert is always valid text
+ * on its own.
+ */
+public record TextSplice(int prefix, int suffix, String insert) {
+
+    public static TextSplice between(String from, String to) {
+        int max = Math.min(from.length(), to.length());
+        int prefix = 0;
+        while (prefix < max && from.charAt(prefix) == to.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(to.charAt(prefix - 1))) {
+            prefix--;
+        }
+
+        int suffix = 0;
+        while (suffix < max - prefix
+                && from.charAt(from.length() - 1 - suffix) == to.charAt(to.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(to.charAt(to.length() - suffix))) {
+            suffix--;
+        }
+        return new TextSplice(prefix, suffix, to.substring(prefix, to.length() - suffix));
+    }
+
+    public String applyTo(String from) {
+        if (prefix + suffix > from.length()) {
+            throw new IllegalStateException("Splice does not fit a text of " + from.length() + " characters");
+        }
+        return from.substring(0, prefix) + insert + from.substring(from.length() - suffix);
+    }
+
+    /**
+     * This splice followed by {@code next}, as one splice from the text this one applies to.
+     * {@code result} is the text after both.
+     */
+    public TextSplice then(TextSplice next, String result) {
+        int keptPrefix = Math.min(prefix, next.prefix);
+        int keptSuffix = Math.min(suffix, next.suffix);
+        return new TextSplice(keptPrefix, keptSuffix, result.substring(keptPrefix, result.length() - keptSuffix));
+    }
+}
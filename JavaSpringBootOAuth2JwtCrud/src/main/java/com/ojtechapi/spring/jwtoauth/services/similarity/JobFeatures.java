@@ -0,0 +1,133 @@
+package com.ojtechapi.spring.jwtoauth.services.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a job's required skills and description into the feature set that MinHash works on,
+ * as sorted distinct 64-bit hashes.
+ *
+ * Skills are normalized (lower-cased, whitespace collapsed) and each counts SKILL_WEIGHT
+ * times, so a shared skill weighs more than a shared phrase. The description contributes
+ * word bigrams after dropping stopwords; only the first MAX_SHINGLES distinct bigrams are
+ * used, which keeps signature cost bounded for long postings.
+ */
+public final class JobFeatures {
+
+    static final int SKILL_WEIGHT = 4;
+    static final int MAX_SHINGLES = 300;
+
+    private static final Pattern SKILL_SEPARATOR = Pattern.compile("[,;|\\n]+");
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9+#]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+            "or", "our", "the", "to", "we", "will", "with", "you", "your", "this", "that", "have", "has");
+
+    private JobFeatures() {
+    }
+
+    public static long[] of(String requiredSkills, String description) {
+        Set<String> features = new LinkedHashSet<>();
+        for (String skill : skills(requiredSkills)) {
+            for (int copy = 0; copy < SKILL_WEIGHT; copy++) {
+                features.add("s" + copy + ":" + skill);
+            }
+        }
+        List<String> words = words(description);
+        int shingles = 0;
+        for (int i = 0; i + 1 < words.size() && shingles < MAX_SHINGLES; i++) {
+            if (features.add("d:" + words.get(i) + " " + words.get(i + 1))) {
+                shingles++;
+            }
+        }
+
+        long[] hashes = new long[features.size()];
+        int n = 0;
+        for (String feature : features) {
+            hashes[n++] = hash(feature);
+        }
+        Arrays.sort(hashes);
+        return distinct(hashes);
+    }
+
+    static List<String> skills(String requiredSkills) {
+        List<String> skills = new ArrayList<>();
+        if (requiredSkills == null || requiredSkills.isBlank()) {
+            return skills;
+        }
+        for (String raw : SKILL_SEPARATOR.split(requiredSkills)) {
+            String skill = WHITESPACE.matcher(raw.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+            if (!skill.isEmpty() && !skills.contains(skill)) {
+                skills.add(skill);
+            }
+        }
+        return skills;
+    }
+
+    private static List<String> words(String description) {
+        List<String> words = new ArrayList<>();
+        if (description == null || description.isBlank()) {
+            return words;
+        }
+        for (String word : NON_WORD.split(description.toLowerCase(Locale.ROOT))) {
+            if (word.length() > 1 && !STOPWORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Exact Jaccard similarity of two feature sets from {@link #of}
+     */
+    public static double jaccard(long[] a, long[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 0.0;
+        }
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (a.length + b.length - common);
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(String feature) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long[] distinct(long[] sorted) {
+        if (sorted.length < 2) {
+            return sorted;
+        }
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[n - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ojtechapi.spring.jwtoauth.services.similarity;
+
+import com.ojtechapi.spring.jwtoauth.entities.Job;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Entity listener on {@link Job} that keeps the {@link SimilarJobIndex} in step with job
+ * edits once they are committed.
+ */
+@Component
+public class JobSimilarityListener {
+
+    // Lazy: the listener is created with the EntityManagerFactory, before the repositories
+    @Autowired
+    @Lazy
+    private SimilarJobIndex similarJobIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Job job) {
+        if (similarJobIndex == null || job.getId() == null) {
+            return;
+        }
+        UUID jobId = job.getId();
+        boolean active = job.isActive();
+        String requiredSkills = job.getRequiredSkills();
+        String description = job.getDescription();
+        afterCommit(() -> similarJobIndex.update(jobId, active, requiredSkills, description));
+    }
+
+    @PostRemove
+    public void onRemoved(Job job) {
+        if (similarJobIndex == null || job.getId() == null) {
+            return;
+        }
+        UUID jobId = job.getId();
+        afterCommit(() -> similarJobIndex.remove(jobId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,239 @@
+package com.ojtechapi.spring.jwtoauth.services.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MinHash signatures with banded locality-sensitive hashing. A signature has bands * rows
+ * values; two items land in the same bucket of a band when all rows of that band agree,
+ * which happens with probability s^rows for Jaccard similarity s. Items sharing any bucket
+ * are candidates and are ranked by the fraction of agreeing signature values (an unbiased
+ * estimate of their Jaccard similarity).
+ *
+ * A lookup reads at most maxBucketScan items per band, so its cost is bounded by
+ * bands * maxBucketScan signature comparisons whatever the number of indexed items.
+ */
+public class MinHashLshIndex {
+
+    private final int bands;
+    private final int rows;
+    private final int maxBucketScan;
+    private final long[] multipliers;
+    private final long[] offsets;
+
+    private final Map<UUID, int[]> signatures = new HashMap<>();
+    private final List<Map<Long, List<UUID>>> buckets = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public static final class Match {
+        private final UUID id;
+        private final double similarity;
+
+        Match(UUID id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+
+    public MinHashLshIndex(int bands, int rows, int maxBucketScan, long seed) {
+        this.bands = bands;
+        this.rows = rows;
+        this.maxBucketScan = maxBucketScan;
+        int size = bands * rows;
+        this.multipliers = new long[size];
+        this.offsets = new long[size];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < size; i++) {
+            multipliers[i] = random.nextLong() | 1L;
+            offsets[i] = random.nextLong();
+        }
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * MinHash signature of a feature set from {@link JobFeatures#of}
+     */
+    public int[] signature(long[] features) {
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (long feature : features) {
+            for (int i = 0; i < signature.length; i++) {
+                int value = (int) (mix(feature * multipliers[i] + offsets[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    public void put(UUID id, long[] features) {
+        int[] signature = features.length == 0 ? null : signature(features);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (signature == null) {
+                return;
+            }
+            signatures.put(id, signature);
+            for (int band = 0; band < bands; band++) {
+                buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(2)).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(UUID id) {
+        int[] previous = signatures.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<UUID>> bandBuckets = buckets.get(band);
+            long key = bandKey(previous, band);
+            List<UUID> bucket = bandBuckets.get(key);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) {
+                    bandBuckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Items most similar to an indexed item, best first, excluding the item itself.
+     */
+    public List<Match> similarTo(UUID id, int limit, double minSimilarity) {
+        lock.readLock().lock();
+        try {
+            int[] signature = signatures.get(id);
+            return signature == null ? List.of() : queryLocked(signature, id, limit, minSimilarity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Match> query(long[] features, int limit, double minSimilarity) {
+        if (features.length == 0) {
+            return List.of();
+        }
+        int[] signature = signature(features);
+        lock.readLock().lock();
+        try {
+            return queryLocked(signature, null, limit, minSimilarity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> queryLocked(int[] signature, UUID exclude, int limit, double minSimilarity) {
+        Set<UUID> seen = new HashSet<>();
+        List<Match> matches = new ArrayList<>();
+        for (int band = 0; band < bands; band++) {
+            List<UUID> bucket = buckets.get(band).get(bandKey(signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            int scanned = 0;
+            for (UUID candidate : bucket) {
+                if (scanned++ >= maxBucketScan) {
+                    break;
+                }
+                if (candidate.equals(exclude) || !seen.add(candidate)) {
+                    continue;
+                }
+                double similarity = estimate(signature, signatures.get(candidate));
+                if (similarity >= minSimilarity) {
+                    matches.add(new Match(candidate, similarity));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getSimilarity).reversed());
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Fraction of equal signature values, an estimate of the Jaccard similarity
+     */
+    static double estimate(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signatures.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Similarity at which an item pair becomes a candidate with probability 1/2 or more,
+     * roughly (1/bands)^(1/rows)
+     */
+    public double getThreshold() {
+        return Math.pow(1.0 / bands, 1.0 / rows);
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = 0x9e3779b97f4a7c15L;
+        int start = band * rows;
+        for (int i = start; i < start + rows; i++) {
+            key = mix(key ^ signature[i]);
+        }
+        return key;
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
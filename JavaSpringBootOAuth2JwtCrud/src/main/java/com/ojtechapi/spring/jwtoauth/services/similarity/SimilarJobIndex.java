@@ -0,0 +1,170 @@
+package com.ojtechapi.spring.jwtoauth.services.similarity;
+
+import com.ojtechapi.spring.jwtoauth.entities.Job;
+import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * "Similar jobs" lookups over all active jobs through a {@link MinHashLshIndex} of their
+ * skills and description. The index is built in the background at startup and then kept
+ * current by {@link JobSimilarityListener} as jobs are created, edited, deactivated or
+ * deleted. Until the first build finishes, lookups return nothing.
+ *
+ * The listener only sees changes made on this node, so the index is also rebuilt every
+ * similarity.jobs.rebuild-interval-ms to pick up changes made on other nodes.
+ */
+@Component
+public class SimilarJobIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarJobIndex.class);
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Value("${similarity.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${similarity.jobs.bands:32}")
+    private int bands;
+
+    @Value("${similarity.jobs.rows:4}")
+    private int rows;
+
+    @Value("${similarity.jobs.max-bucket-scan:100}")
+    private int maxBucketScan;
+
+    @Value("${similarity.jobs.min-similarity:0.2}")
+    private double minSimilarity;
+
+    private volatile MinHashLshIndex index;
+    private volatile boolean ready;
+
+    // Guards index swaps and changedDuringBuild against update and remove
+    private final Object changeLock = new Object();
+    // Job changes made while a rebuild runs (null features for a removal). A page read before
+    // such a change committed would undo it, so they are replayed onto the new index last.
+    private Map<UUID, long[]> changedDuringBuild;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${similarity.jobs.rebuild-interval-ms:300000}",
+            initialDelayString = "${similarity.jobs.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Re-indexes all active jobs page by page, then swaps the new index in.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        MinHashLshIndex fresh = newIndex();
+        synchronized (changeLock) {
+            changedDuringBuild = new HashMap<>();
+        }
+        try {
+            int pageNumber = 0;
+            Page<Job> page;
+            do {
+                page = jobRepository.findByActive(true, PageRequest.of(pageNumber++, 500, Sort.by("id")));
+                for (Job job : page.getContent()) {
+                    fresh.put(job.getId(), JobFeatures.of(job.getRequiredSkills(), job.getDescription()));
+                }
+            } while (page.hasNext());
+            synchronized (changeLock) {
+                changedDuringBuild.forEach((jobId, features) -> apply(fresh, jobId, features));
+                index = fresh;
+            }
+        } finally {
+            synchronized (changeLock) {
+                changedDuringBuild = null;
+            }
+        }
+        ready = true;
+        logger.info("Similar-jobs index built: {} jobs in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * An empty index with the configured LSH parameters
+     */
+    public MinHashLshIndex newIndex() {
+        return new MinHashLshIndex(bands, rows, maxBucketScan, 42L);
+    }
+
+    public void update(UUID jobId, boolean active, String requiredSkills, String description) {
+        change(jobId, active ? JobFeatures.of(requiredSkills, description) : null);
+    }
+
+    public void remove(UUID jobId) {
+        change(jobId, null);
+    }
+
+    private void change(UUID jobId, long[] features) {
+        synchronized (changeLock) {
+            if (index != null) {
+                apply(index, jobId, features);
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.put(jobId, features);
+            }
+        }
+    }
+
+    private static void apply(MinHashLshIndex target, UUID jobId, long[] features) {
+        if (features == null) {
+            target.remove(jobId);
+        } else {
+            target.put(jobId, features);
+        }
+    }
+
+    public List<MinHashLshIndex.Match> similarTo(UUID jobId, int limit) {
+        MinHashLshIndex current = index;
+        if (!enabled || current == null) {
+            return List.of();
+        }
+        return current.similarTo(jobId, limit, minSimilarity);
+    }
+
+    public double getMinSimilarity() {
+        return minSimilarity;
+    }
+
+    public Map<String, Object> getStatus() {
+        MinHashLshIndex current = index;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("ready", ready);
+        status.put("jobs", current != null ? current.size() : 0);
+        status.put("bands", bands);
+        status.put("rows", rows);
+        status.put("threshold", current != null ? Math.round(current.getThreshold() * 1000.0) / 1000.0 : null);
+        status.put("minSimilarity", minSimilarity);
+        return status;
+    }
+}
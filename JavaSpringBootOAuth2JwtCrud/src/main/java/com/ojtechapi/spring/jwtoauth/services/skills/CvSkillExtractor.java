@@ -0,0 +1,196 @@
+package com.ojtechapi.spring.jwtoauth.services.skills;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Finds skill taxonomy terms mentioned in a CV (parsed resume JSON and HTML content)
+ * without calling the LLM, so skills a student wrote in their CV but not in their
+ * profile still count in matching.
+ *
+ * Results are cached per CV version (id + last update), so a CV is scanned once until
+ * it changes. Very generic taxonomy terms ("api", "build", ...) are not extracted: they
+ * show up in ordinary prose and would inflate the loose contains-based scorers.
+ */
+@Component
+public class CvSkillExtractor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Set<String> GENERIC_TERMS = Set.of(
+            "ui", "api", "web", "build", "dependency", "async", "mvc", "cache", "search", "distributed",
+            "relational", "numerical", "infrastructure", "automation", "deployment", "bundler", "json",
+            "google", "microsoft", "frontend", "backend", "orm", "e2e", "ssr", "ai", "ml", "js", "ts");
+
+    private static final Pattern SCRIPT_OR_STYLE = Pattern.compile("(?is)<(script|style)[^>]*>.*?</\\1>");
+    private static final Pattern TAG = Pattern.compile("<[^>]+>");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final SkillAutomaton AUTOMATON = new SkillAutomaton(SkillTaxonomy.terms().stream()
+            .filter(term -> !GENERIC_TERMS.contains(term))
+            .collect(Collectors.toList()));
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${matching.extraction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.extraction.min-evidence:1}")
+    private int minEvidence;
+
+    @Value("${matching.extraction.cache-size:5000}")
+    private int cacheSize;
+
+    private Map<String, ExtractedSkills> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ExtractedSkills> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Skills found in the CV with their mention counts, or null if there is no CV.
+     */
+    public ExtractedSkills extract(CV cv) {
+        if (cv == null || cv.getId() == null) {
+            return null;
+        }
+        String version = versionOf(cv);
+        String key = cv.getId() + "@" + version;
+        synchronized (cache) {
+            ExtractedSkills cached = cache.get(key);
+            if (cached != null) {
+                count("hit");
+                return cached;
+            }
+        }
+        count("miss");
+
+        Map<String, Integer> evidence = new LinkedHashMap<>();
+        addCounts(evidence, AUTOMATON.count(jsonText(cv.getParsedResume())));
+        addCounts(evidence, AUTOMATON.count(htmlText(cv.getHtmlContent())));
+        Map<String, Integer> sorted = evidence.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+
+        ExtractedSkills extracted = new ExtractedSkills(cv.getId(), version, sorted);
+        synchronized (cache) {
+            cache.put(key, extracted);
+        }
+        return extracted;
+    }
+
+    /**
+     * Profile skills followed by CV-extracted skills the profile does not list yet.
+     * Returns profileSkills unchanged if extraction is off or nothing new was found.
+     */
+    public List<String> mergeInto(List<String> profileSkills, CV cv) {
+        if (!enabled) {
+            return profileSkills;
+        }
+        ExtractedSkills extracted = extract(cv);
+        if (extracted == null) {
+            return profileSkills;
+        }
+        Set<String> known = new HashSet<>();
+        for (String skill : profileSkills) {
+            known.add(skill.trim().toLowerCase(Locale.ROOT));
+        }
+        List<String> merged = new ArrayList<>(profileSkills);
+        for (String skill : extracted.skillsWithEvidence(minEvidence)) {
+            if (known.add(skill)) {
+                merged.add(skill);
+            }
+        }
+        if (merged.size() > profileSkills.size()) {
+            Counter.builder("cv.skills.extracted.added")
+                    .description("CV-extracted skills added to profile skills for matching")
+                    .register(meterRegistry)
+                    .increment(merged.size() - profileSkills.size());
+        }
+        return merged;
+    }
+
+    private static String versionOf(CV cv) {
+        LocalDateTime updated = cv.getUpdatedAt() != null ? cv.getUpdatedAt() : cv.getLastUpdated();
+        return updated != null ? updated.toString() : "0";
+    }
+
+    /**
+     * String values of the parsed resume JSON (keys are skipped); raw text if it is not JSON.
+     */
+    private static String jsonText(String json) {
+        if (json == null || json.isBlank()) {
+            return "";
+        }
+        try {
+            StringBuilder text = new StringBuilder(json.length());
+            appendValues(OBJECT_MAPPER.readTree(json), text);
+            return normalize(text.toString());
+        } catch (IOException e) {
+            return normalize(json);
+        }
+    }
+
+    private static void appendValues(JsonNode node, StringBuilder text) {
+        if (node.isTextual()) {
+            text.append(node.asText()).append('\n');
+        } else if (node.isContainerNode()) {
+            for (JsonNode child : node) {
+                appendValues(child, text);
+            }
+        }
+    }
+
+    private static String htmlText(String html) {
+        if (html == null || html.isBlank()) {
+            return "";
+        }
+        String text = SCRIPT_OR_STYLE.matcher(html).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll(" ");
+        text = text.replace("&nbsp;", " ").replace("&amp;", "&").replace("&lt;", "<").replace("&gt;", ">")
+                .replace("&quot;", "\"").replace("&#39;", "'").replace("&#35;", "#");
+        return normalize(text);
+    }
+
+    private static String normalize(String text) {
+        return WHITESPACE.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static void addCounts(Map<String, Integer> target, Map<String, Integer> counts) {
+        counts.forEach((skill, count) -> target.merge(skill, count, Integer::sum));
+    }
+
+    private void count(String result) {
+        Counter.builder("cv.skills.extraction")
+                .description("CV skill extraction cache lookups")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
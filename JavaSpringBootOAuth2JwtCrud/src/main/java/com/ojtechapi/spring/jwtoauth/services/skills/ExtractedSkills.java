@@ -0,0 +1,52 @@
+package com.ojtechapi.spring.jwtoauth.services.skills;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Taxonomy skills found in one version of a CV, with how many times each was mentioned
+ * across the CV's parsed resume and HTML content.
+ */
+public final class ExtractedSkills {
+
+    private final UUID cvId;
+    private final String cvVersion;
+    private final Map<String, Integer> evidence;
+
+    ExtractedSkills(UUID cvId, String cvVersion, Map<String, Integer> evidence) {
+        this.cvId = cvId;
+        this.cvVersion = cvVersion;
+        this.evidence = Collections.unmodifiableMap(evidence);
+    }
+
+    public UUID getCvId() {
+        return cvId;
+    }
+
+    public String getCvVersion() {
+        return cvVersion;
+    }
+
+    /**
+     * Skill name to number of mentions, most mentioned first
+     */
+    public Map<String, Integer> getEvidence() {
+        return evidence;
+    }
+
+    /**
+     * Skills mentioned at least minEvidence times, most mentioned first
+     */
+    public List<String> skillsWithEvidence(int minEvidence) {
+        List<String> skills = new ArrayList<>();
+        evidence.forEach((skill, count) -> {
+            if (count >= minEvidence) {
+                skills.add(skill);
+            }
+        });
+        return skills;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ojtechapi.spring.jwtoauth.services.skills;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of lower-case terms. One pass over a text
+ * finds every occurrence of every term, however many terms there are. An occurrence
+ * only counts if it is not part of a longer word, so "java" is not found in
+ * "javascript" while "c#" and ".net" are still found next to punctuation.
+ */
+final class SkillAutomaton {
+
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<int[]> outputs = new ArrayList<>();
+    private final String[] terms;
+    private int[] failure;
+
+    SkillAutomaton(Collection<String> terms) {
+        this.terms = terms.toArray(new String[0]);
+        newState();
+        for (int i = 0; i < this.terms.length; i++) {
+            insert(this.terms[i], i);
+        }
+        buildFailureLinks();
+    }
+
+    private int newState() {
+        transitions.add(new HashMap<>(4));
+        outputs.add(new int[0]);
+        return transitions.size() - 1;
+    }
+
+    private void insert(String term, int index) {
+        int state = 0;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            Integer next = transitions.get(state).get(c);
+            if (next == null) {
+                next = newState();
+                transitions.get(state).put(c, next);
+            }
+            state = next;
+        }
+        outputs.set(state, append(outputs.get(state), index));
+    }
+
+    private void buildFailureLinks() {
+        failure = new int[transitions.size()];
+        Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                int child = edge.getValue();
+                int fallback = failure[state];
+                while (fallback != 0 && !transitions.get(fallback).containsKey(edge.getKey())) {
+                    fallback = failure[fallback];
+                }
+                Integer target = transitions.get(fallback).get(edge.getKey());
+                failure[child] = target != null && target != child ? target : 0;
+                // A state also reports every term that ends at its failure state
+                for (int term : outputs.get(failure[child])) {
+                    outputs.set(child, append(outputs.get(child), term));
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Counts whole-word occurrences of each term in text, which must already be lower-case.
+     */
+    Map<String, Integer> count(CharSequence text) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (state != 0 && !transitions.get(state).containsKey(c)) {
+                state = failure[state];
+            }
+            state = transitions.get(state).getOrDefault(c, 0);
+            for (int index : outputs.get(state)) {
+                String term = terms[index];
+                int start = i - term.length() + 1;
+                if (isBoundary(text, start - 1, term.charAt(0)) && isBoundary(text, i + 1, term.charAt(term.length() - 1))) {
+                    counts.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * True if position does not continue the word the term starts or ends with there.
+     */
+    private static boolean isBoundary(CharSequence text, int position, char termEdge) {
+        if (position < 0 || position >= text.length()) {
+            return true;
+        }
+        if (!Character.isLetterOrDigit(termEdge)) {
+            return true;
+        }
+        return !Character.isLetterOrDigit(text.charAt(position));
+    }
+
+    private static int[] append(int[] values, int value) {
+        for (int existing : values) {
+            if (existing == value) {
+                return values;
+            }
+        }
+        int[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return grown;
+    }
+}
@@ -0,0 +1,177 @@
+package com.ojtechapi.spring.jwtoauth.services.skills;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The skill taxonomy used by matching: frameworks and tools mapped to the languages and
+ * technologies they imply. Built once; both the deterministic scorers in JobMatchService
+ * and local CV skill extraction ({@link CvSkillExtractor}) read it.
+ */
+public final class SkillTaxonomy {
+
+    private static final Map<String, List<String>> FRAMEWORK_LANGUAGE_MAP = buildFrameworkLanguageMap();
+
+    private static final Set<String> TERMS = buildTerms();
+
+    private SkillTaxonomy() {
+    }
+
+    /**
+     * Returns a comprehensive map of framework-language relationships for better
+     * skill matching.
+     * The key is the framework/library name, and the value is a list of related
+     * languages and technologies. The map is shared and unmodifiable.
+     */
+    public static Map<String, List<String>> frameworkLanguageMap() {
+        return FRAMEWORK_LANGUAGE_MAP;
+    }
+
+    /**
+     * Every lower-case skill name in the taxonomy (frameworks and related technologies)
+     */
+    public static Set<String> terms() {
+        return TERMS;
+    }
+
+    private static Set<String> buildTerms() {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Map.Entry<String, List<String>> entry : FRAMEWORK_LANGUAGE_MAP.entrySet()) {
+            terms.add(entry.getKey());
+            terms.addAll(entry.getValue());
+        }
+        return Collections.unmodifiableSet(terms);
+    }
+
+    private static Map<String, List<String>> buildFrameworkLanguageMap() {
+        Map<String, List<String>> frameworkLanguageMap = new HashMap<>();
+
+        // Frontend frameworks
+        frameworkLanguageMap.put("react",
+                Arrays.asList("javascript", "typescript", "js", "jsx", "tsx", "frontend", "ui"));
+        frameworkLanguageMap.put("react.js", Arrays.asList("javascript", "typescript", "js", "jsx", "tsx", "react"));
+        frameworkLanguageMap.put("angular", Arrays.asList("javascript", "typescript", "js", "ts", "frontend", "ui"));
+        frameworkLanguageMap.put("vue", Arrays.asList("javascript", "typescript", "js", "frontend", "ui"));
+        frameworkLanguageMap.put("vue.js", Arrays.asList("javascript", "typescript", "js", "vue"));
+        frameworkLanguageMap.put("svelte", Arrays.asList("javascript", "typescript", "js", "frontend"));
+        frameworkLanguageMap.put("nextjs",
+                Arrays.asList("javascript", "typescript", "react", "js", "jsx", "tsx", "ssr"));
+        frameworkLanguageMap.put("next.js", Arrays.asList("javascript", "typescript", "react", "nextjs"));
+        frameworkLanguageMap.put("gatsby", Arrays.asList("javascript", "typescript", "react", "js", "jsx", "tsx"));
+        frameworkLanguageMap.put("nuxt", Arrays.asList("javascript", "typescript", "vue", "ssr"));
+        frameworkLanguageMap.put("ember", Arrays.asList("javascript", "typescript", "frontend"));
+
+        // Backend frameworks - Java/Kotlin
+        frameworkLanguageMap.put("spring", Arrays.asList("java", "kotlin", "backend", "api"));
+        frameworkLanguageMap.put("spring boot", Arrays.asList("java", "kotlin", "spring", "backend", "api"));
+        frameworkLanguageMap.put("springboot", Arrays.asList("java", "kotlin", "spring", "backend"));
+        frameworkLanguageMap.put("spring mvc", Arrays.asList("java", "kotlin", "spring", "web"));
+        frameworkLanguageMap.put("hibernate", Arrays.asList("java", "kotlin", "orm", "database"));
+        frameworkLanguageMap.put("jpa", Arrays.asList("java", "kotlin", "orm", "database", "hibernate"));
+        frameworkLanguageMap.put("junit", Arrays.asList("java", "kotlin", "testing"));
+        frameworkLanguageMap.put("mockito", Arrays.asList("java", "kotlin", "testing"));
+        frameworkLanguageMap.put("maven", Arrays.asList("java", "build", "dependency"));
+        frameworkLanguageMap.put("gradle", Arrays.asList("java", "kotlin", "build", "dependency"));
+
+        // Backend frameworks - JavaScript/TypeScript
+        frameworkLanguageMap.put("express",
+                Arrays.asList("javascript", "typescript", "node", "nodejs", "node.js", "backend", "api"));
+        frameworkLanguageMap.put("express.js", Arrays.asList("javascript", "typescript", "node", "express", "backend"));
+        frameworkLanguageMap.put("nestjs",
+                Arrays.asList("javascript", "typescript", "node", "nodejs", "node.js", "backend"));
+        frameworkLanguageMap.put("nest.js", Arrays.asList("typescript", "node", "nestjs", "backend"));
+        frameworkLanguageMap.put("koa", Arrays.asList("javascript", "typescript", "node", "backend"));
+        frameworkLanguageMap.put("fastify", Arrays.asList("javascript", "typescript", "node", "backend"));
+        frameworkLanguageMap.put("hapi", Arrays.asList("javascript", "node", "backend"));
+
+        // Backend frameworks - Python
+        frameworkLanguageMap.put("django", Arrays.asList("python", "backend", "web", "orm"));
+        frameworkLanguageMap.put("flask", Arrays.asList("python", "backend", "web", "api"));
+        frameworkLanguageMap.put("fastapi", Arrays.asList("python", "backend", "api", "async"));
+        frameworkLanguageMap.put("pyramid", Arrays.asList("python", "backend", "web"));
+        frameworkLanguageMap.put("tornado", Arrays.asList("python", "backend", "async"));
+        frameworkLanguageMap.put("pytest", Arrays.asList("python", "testing"));
+        frameworkLanguageMap.put("sqlalchemy", Arrays.asList("python", "orm", "database"));
+
+        // Backend frameworks - PHP
+        frameworkLanguageMap.put("laravel", Arrays.asList("php", "backend", "web", "mvc"));
+        frameworkLanguageMap.put("symfony", Arrays.asList("php", "backend", "web"));
+        frameworkLanguageMap.put("codeigniter", Arrays.asList("php", "backend", "web"));
+        frameworkLanguageMap.put("yii", Arrays.asList("php", "backend", "web"));
+
+        // Backend frameworks - Ruby
+        frameworkLanguageMap.put("rails", Arrays.asList("ruby", "backend", "web", "mvc"));
+        frameworkLanguageMap.put("ruby on rails", Arrays.asList("ruby", "rails", "backend"));
+        frameworkLanguageMap.put("sinatra", Arrays.asList("ruby", "backend", "web"));
+
+        // .NET frameworks
+        frameworkLanguageMap.put("asp.net", Arrays.asList("c#", "csharp", ".net", "dotnet", "backend", "web"));
+        frameworkLanguageMap.put("asp.net core", Arrays.asList("c#", "csharp", ".net", "dotnet", "backend"));
+        frameworkLanguageMap.put("dotnet", Arrays.asList("c#", "csharp", ".net", "f#", "vb.net"));
+        frameworkLanguageMap.put(".net", Arrays.asList("c#", "csharp", "dotnet", "backend"));
+        frameworkLanguageMap.put("xamarin", Arrays.asList("c#", "csharp", ".net", "dotnet", "mobile"));
+        frameworkLanguageMap.put("blazor", Arrays.asList("c#", "csharp", ".net", "frontend"));
+        frameworkLanguageMap.put("entity framework", Arrays.asList("c#", "csharp", ".net", "orm", "database"));
+
+        // Mobile frameworks
+        frameworkLanguageMap.put("react native",
+                Arrays.asList("javascript", "typescript", "react", "js", "jsx", "tsx", "mobile"));
+        frameworkLanguageMap.put("flutter", Arrays.asList("dart", "mobile", "cross-platform"));
+        frameworkLanguageMap.put("android", Arrays.asList("java", "kotlin", "mobile"));
+        frameworkLanguageMap.put("ios", Arrays.asList("swift", "objective-c", "mobile"));
+        frameworkLanguageMap.put("ionic", Arrays.asList("javascript", "typescript", "angular", "mobile"));
+        frameworkLanguageMap.put("cordova", Arrays.asList("javascript", "html", "css", "mobile"));
+        frameworkLanguageMap.put("phonegap", Arrays.asList("javascript", "html", "mobile"));
+
+        // Data & ML frameworks
+        frameworkLanguageMap.put("tensorflow", Arrays.asList("python", "java", "javascript", "ml", "ai"));
+        frameworkLanguageMap.put("pytorch", Arrays.asList("python", "ml", "ai", "deep learning"));
+        frameworkLanguageMap.put("keras", Arrays.asList("python", "tensorflow", "ml", "ai"));
+        frameworkLanguageMap.put("scikit-learn", Arrays.asList("python", "ml", "data science"));
+        frameworkLanguageMap.put("pandas", Arrays.asList("python", "data analysis", "data science"));
+        frameworkLanguageMap.put("numpy", Arrays.asList("python", "data science", "numerical"));
+
+        // Database and ORM
+        frameworkLanguageMap.put("mongodb", Arrays.asList("nosql", "database", "json"));
+        frameworkLanguageMap.put("mysql", Arrays.asList("sql", "database", "relational"));
+        frameworkLanguageMap.put("postgresql", Arrays.asList("sql", "database", "relational"));
+        frameworkLanguageMap.put("redis", Arrays.asList("nosql", "cache", "database"));
+        frameworkLanguageMap.put("cassandra", Arrays.asList("nosql", "database", "distributed"));
+        frameworkLanguageMap.put("elasticsearch", Arrays.asList("search", "nosql", "database"));
+
+        // Cloud and DevOps
+        frameworkLanguageMap.put("aws", Arrays.asList("cloud", "devops", "infrastructure"));
+        frameworkLanguageMap.put("azure", Arrays.asList("cloud", "devops", "infrastructure", "microsoft"));
+        frameworkLanguageMap.put("gcp", Arrays.asList("cloud", "devops", "infrastructure", "google"));
+        frameworkLanguageMap.put("docker", Arrays.asList("containerization", "devops", "deployment"));
+        frameworkLanguageMap.put("kubernetes", Arrays.asList("container orchestration", "devops", "docker", "k8s"));
+        frameworkLanguageMap.put("jenkins", Arrays.asList("ci/cd", "devops", "automation"));
+        frameworkLanguageMap.put("terraform", Arrays.asList("infrastructure as code", "devops", "cloud"));
+
+        // Testing frameworks
+        frameworkLanguageMap.put("jest", Arrays.asList("javascript", "typescript", "testing", "react"));
+        frameworkLanguageMap.put("mocha", Arrays.asList("javascript", "typescript", "testing"));
+        frameworkLanguageMap.put("chai", Arrays.asList("javascript", "typescript", "testing"));
+        frameworkLanguageMap.put("cypress", Arrays.asList("javascript", "typescript", "testing", "e2e"));
+        frameworkLanguageMap.put("selenium", Arrays.asList("testing", "automation", "e2e"));
+
+        // State management
+        frameworkLanguageMap.put("redux", Arrays.asList("javascript", "typescript", "react", "state management"));
+        frameworkLanguageMap.put("mobx", Arrays.asList("javascript", "typescript", "react", "state management"));
+        frameworkLanguageMap.put("vuex", Arrays.asList("javascript", "vue", "state management"));
+        frameworkLanguageMap.put("ngrx", Arrays.asList("typescript", "angular", "state management"));
+
+        // Build tools and bundlers
+        frameworkLanguageMap.put("webpack", Arrays.asList("javascript", "build", "bundler"));
+        frameworkLanguageMap.put("vite", Arrays.asList("javascript", "typescript", "build", "bundler"));
+        frameworkLanguageMap.put("parcel", Arrays.asList("javascript", "build", "bundler"));
+        frameworkLanguageMap.put("rollup", Arrays.asList("javascript", "build", "bundler"));
+
+        return Collections.unmodifiableMap(frameworkLanguageMap);
+    }
+}
@@ -0,0 +1,3 @@
+-- A node generating a PENDING cover letter holds it until cover_letter_lease_until, so
+-- the stale-letter sweep of the other nodes leaves it alone (CoverLetterWorker).
+ALTER TABLE job_applications ADD COLUMN IF NOT EXISTS cover_letter_lease_until TIMESTAMP;
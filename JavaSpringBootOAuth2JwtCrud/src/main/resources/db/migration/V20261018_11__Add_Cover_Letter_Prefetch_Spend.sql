@@ -0,0 +1,13 @@
+-- Speculative cover letters per student and day, so the daily cap is shared by all nodes
+CREATE TABLE IF NOT EXISTS cover_letter_prefetch_spend (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    student_id UUID NOT NULL,
+    spend_day DATE NOT NULL,
+    generations INTEGER NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_cover_letter_prefetch_spend_student_day
+    ON cover_letter_prefetch_spend (student_id, spend_day);
@@ -0,0 +1,23 @@
+-- Checkpoints for resumable batch jobs (nightly rematch)
+CREATE TABLE IF NOT EXISTS batch_job_checkpoints (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    job_name VARCHAR(100) NOT NULL UNIQUE,
+    status VARCHAR(20) NOT NULL,
+    last_processed_id UUID,
+    total_items BIGINT NOT NULL DEFAULT 0,
+    processed_items BIGINT NOT NULL DEFAULT 0,
+    failed_items BIGINT NOT NULL DEFAULT 0,
+    llm_calls_window BIGINT NOT NULL DEFAULT 0,
+    llm_calls_total BIGINT NOT NULL DEFAULT 0,
+    active_millis BIGINT NOT NULL DEFAULT 0,
+    run_started_at TIMESTAMP,
+    window_started_at TIMESTAMP,
+    last_checkpoint_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    owner VARCHAR(100),
+    heartbeat_at TIMESTAMP,
+    last_error VARCHAR(1000)
+);
@@ -0,0 +1,21 @@
+-- Database-backed match work queue, claimed with FOR UPDATE SKIP LOCKED
+CREATE TABLE IF NOT EXISTS match_tasks (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    task_type VARCHAR(30) NOT NULL,
+    student_id UUID NOT NULL,
+    lane VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    last_error VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_match_tasks_claim ON match_tasks (status, available_at);
+CREATE INDEX IF NOT EXISTS idx_match_tasks_student ON match_tasks (student_id, task_type, status);
@@ -0,0 +1,2 @@
+-- Keyset index for ranked candidate lists (GET /api/jobs/{id}/candidates)
+CREATE INDEX IF NOT EXISTS idx_job_matches_job_score ON job_matches (job_id, match_score DESC, student_id);
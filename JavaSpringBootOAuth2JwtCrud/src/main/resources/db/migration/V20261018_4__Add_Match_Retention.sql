@@ -0,0 +1,20 @@
+-- Per-student match lookups (matching, recalculation, retention ranking)
+CREATE INDEX IF NOT EXISTS idx_job_matches_student_score ON job_matches (student_id, match_score DESC);
+
+-- Markers of matches removed by retention, so the pair is not scored again
+CREATE TABLE IF NOT EXISTS pruned_job_matches (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    student_id UUID NOT NULL,
+    job_id UUID NOT NULL,
+    match_score DOUBLE PRECISION,
+    pruned_at TIMESTAMP NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_pruned_job_matches_student ON pruned_job_matches (student_id, job_id);
+CREATE INDEX IF NOT EXISTS idx_pruned_job_matches_job ON pruned_job_matches (job_id);
+
+-- "Has the student applied?" checks that protect matches from retention
+CREATE INDEX IF NOT EXISTS idx_job_applications_student_job ON job_applications (student_id, job_id);
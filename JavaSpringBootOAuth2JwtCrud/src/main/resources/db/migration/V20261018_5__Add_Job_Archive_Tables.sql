@@ -0,0 +1,69 @@
+-- Archive tables for inactive jobs (JobArchiveService). Same columns as the live tables,
+-- without foreign keys, plus archived_at.
+CREATE TABLE IF NOT EXISTS jobs_archive (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    employer_id UUID,
+    company_id UUID,
+    title VARCHAR(255),
+    description VARCHAR(5000),
+    location VARCHAR(255),
+    required_skills VARCHAR(255),
+    employment_type VARCHAR(255),
+    min_salary DOUBLE PRECISION,
+    max_salary DOUBLE PRECISION,
+    currency VARCHAR(255),
+    posted_at TIMESTAMP,
+    active BOOLEAN,
+    status VARCHAR(255),
+    salary_range VARCHAR(255),
+    requirements VARCHAR(2000),
+    benefits VARCHAR(2000),
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_jobs_archive_employer ON jobs_archive (employer_id);
+CREATE INDEX IF NOT EXISTS idx_jobs_archive_archived_at ON jobs_archive (archived_at);
+
+CREATE TABLE IF NOT EXISTS job_applications_archive (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    student_id UUID NOT NULL,
+    job_id UUID NOT NULL,
+    cv_id UUID NOT NULL,
+    cover_letter TEXT,
+    status VARCHAR(255) NOT NULL,
+    applied_at TIMESTAMP,
+    last_updated_at TIMESTAMP,
+    feedback VARCHAR(1000),
+    email_sent BOOLEAN,
+    email_sent_at TIMESTAMP,
+    email_body TEXT,
+    email_subject VARCHAR(255),
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_applications_archive_job ON job_applications_archive (job_id);
+CREATE INDEX IF NOT EXISTS idx_job_applications_archive_student ON job_applications_archive (student_id);
+
+CREATE TABLE IF NOT EXISTS job_matches_archive (
+    id UUID PRIMARY KEY,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    job_id UUID,
+    student_id UUID,
+    match_score DOUBLE PRECISION,
+    matched_at TIMESTAMP,
+    match_details VARCHAR(2000),
+    detailed_analysis TEXT,
+    is_viewed BOOLEAN,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_job_matches_archive_job_score ON job_matches_archive (job_id, match_score DESC);
+CREATE INDEX IF NOT EXISTS idx_job_matches_archive_student ON job_matches_archive (student_id);
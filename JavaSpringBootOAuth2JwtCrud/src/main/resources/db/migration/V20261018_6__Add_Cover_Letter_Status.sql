@@ -0,0 +1,6 @@
+-- Cover letters are generated asynchronously (CoverLetterWorker). NULL means READY for
+-- applications created before the column existed.
+ALTER TABLE job_applications ADD COLUMN IF NOT EXISTS cover_letter_status VARCHAR(20);
+ALTER TABLE job_applications_archive ADD COLUMN IF NOT EXISTS cover_letter_status VARCHAR(20);
+CREATE INDEX IF NOT EXISTS idx_job_applications_cover_letter_pending
+    ON job_applications (created_at) WHERE cover_letter_status = 'PENDING';
@@ -0,0 +1,6 @@
+-- Hash of a CV's content (CV.contentHash), part of the ETag of the CV content endpoints.
+-- Same value as the entity computes: SHA-256 of html_content, U+0001, parsed_resume.
+ALTER TABLE cvs ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+UPDATE cvs
+SET content_hash = encode(sha256(convert_to(coalesce(html_content, '') || chr(1) || coalesce(parsed_resume, ''), 'UTF8')), 'hex')
+WHERE content_hash IS NULL;
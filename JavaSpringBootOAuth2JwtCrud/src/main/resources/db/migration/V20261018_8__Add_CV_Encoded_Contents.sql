@@ -0,0 +1,15 @@
+-- gzip-encoded copies of each CV's html_content and parsed_resume (CVEncodedContent),
+-- written after every CV save and served as-is to clients that accept gzip. content_hash
+-- is the cvs.content_hash the copies were made from; a row whose hash differs is stale.
+-- Existing CVs are encoded by the backfill job (CVContentEncoder) on startup, since
+-- PostgreSQL cannot produce gzip itself.
+CREATE TABLE IF NOT EXISTS cv_encoded_contents (
+    cv_id UUID PRIMARY KEY REFERENCES cvs (id) ON DELETE CASCADE,
+    content_hash VARCHAR(64) NOT NULL,
+    html_gzip BYTEA,
+    html_bytes INTEGER NOT NULL DEFAULT 0,
+    resume_gzip BYTEA,
+    resume_bytes INTEGER NOT NULL DEFAULT 0,
+    resume_json BOOLEAN NOT NULL DEFAULT FALSE,
+    encoded_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,25 @@
+-- Edit history of each CV's html_content and parsed_resume (CVRevision). cvs keeps the
+-- latest content; each revision stores only the changed span of each field against the
+-- revision before it, except for base revisions, which hold the full content and start a
+-- new chain. A null *_prefix on a delta means the field did not change; on a base, a null
+-- *_insert means the field was empty. content_hash is the CV.contentHash after the revision.
+CREATE TABLE IF NOT EXISTS cv_revisions (
+    id UUID PRIMARY KEY,
+    cv_id UUID NOT NULL REFERENCES cvs (id) ON DELETE CASCADE,
+    revision_number INTEGER NOT NULL,
+    base BOOLEAN NOT NULL DEFAULT FALSE,
+    chain_length INTEGER NOT NULL DEFAULT 0,
+    html_prefix INTEGER,
+    html_suffix INTEGER,
+    html_insert TEXT,
+    resume_prefix INTEGER,
+    resume_suffix INTEGER,
+    resume_insert TEXT,
+    content_hash VARCHAR(64) NOT NULL,
+    content_chars INTEGER NOT NULL DEFAULT 0,
+    stored_chars INTEGER NOT NULL DEFAULT 0,
+    author_id UUID,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_cv_revisions_cv_revision UNIQUE (cv_id, revision_number)
+);
@@ -0,0 +1,218 @@
+package com.ojtechapi.spring.jwtoauth.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.security.jwt.JwtClaims;
+import com.ojtechapi.spring.jwtoauth.security.jwt.JwtUtils;
+import com.ojtechapi.spring.jwtoauth.security.jwt.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures what AuthTokenFilter spends on the bearer token of one request, on a token
+ * signed with the configured secret, without touching the database (the user lookup
+ * that follows is the same either way and is left out).
+ *
+ * Each variant is warmed up, then timed per request:
+ *
+ * - legacy: the filter before JwtVerifier: validate, read the username, read the userId,
+ *   each deriving the key from the secret and parsing the token again
+ * - singleParse: one parse with the key and parser built once, as for a token not yet seen
+ * - cached: JwtVerifier with the token already verified, as for a client's later requests
+ * - cachedConcurrent: the same from bench.threads threads at once (default: the number of
+ *   processors, at least 4), each cycling through its own verified tokens, as request
+ *   threads serving many clients do
+ *
+ * For each the report has latency p50/p95/p99/max in nanoseconds and bytes allocated per
+ * request (when the JVM can measure per-thread allocation); cachedConcurrent has the
+ * latencies of all threads together and the requests verified per second across them.
+ *
+ * Not part of the regular test run (only *Test classes are). Run it with
+ * mvn test -Dtest=JwtFilterBenchmark [-Dbench.iterations=20000] [-Dbench.threads=8]; the
+ * report is logged.
+ */
+@SpringBootTest(classes = OJTechApiApplication.class)
+public class JwtFilterBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtFilterBenchmark.class);
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Value("${app.jwt.secret}")
+    private String jwtSecret;
+
+    private interface Request {
+        void run();
+    }
+
+    @Test
+    void benchmark() throws Exception {
+        int threads = Integer.getInteger("bench.threads", Math.max(4, Runtime.getRuntime().availableProcessors()));
+        Map<String, Object> report = run(Integer.getInteger("bench.iterations", 20_000), threads);
+        logger.info("JWT filter benchmark report: {}", new ObjectMapper().writeValueAsString(report));
+    }
+
+    private Map<String, Object> run(int iterations, int threads) throws Exception {
+        String token = jwtUtils.generateTokenFromUsername("benchmark-user", UUID.randomUUID());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("iterations", iterations);
+        report.put("allocationMeasured", allocationSupported());
+        report.put("legacy", measure(iterations, () -> legacy(token)));
+        report.put("singleParse", measure(iterations, () -> jwtUtils.parseClaims(token)));
+        report.put("cached", measure(iterations, () -> jwtVerifier.verify(token)));
+        report.put("threads", threads);
+        report.put("cachedConcurrent", measureConcurrent(iterations, threads));
+        report.put("cachedTokens", jwtVerifier.size());
+
+        logger.info("JWT filter benchmark: legacy p50 {} ns, single parse p50 {} ns, cached p50 {} ns, "
+                        + "cached on {} threads p50 {} ns",
+                p50(report, "legacy"), p50(report, "singleParse"), p50(report, "cached"),
+                threads, p50(report, "cachedConcurrent"));
+        return report;
+    }
+
+    // What the filter did per request before JwtVerifier: three parses, three key derivations
+    private JwtClaims legacy(String token) {
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret))).build()
+                .parseClaimsJws(token);
+        String username = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build().parseClaimsJws(token).getBody().getSubject();
+        Claims claims = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)))
+                .build().parseClaimsJws(token).getBody();
+        String userId = claims.get("userId", String.class);
+        return new JwtClaims(username, userId != null ? UUID.fromString(userId) : null, null);
+    }
+
+    private Map<String, Object> measure(int iterations, Request request) {
+        // Warm up so the measured requests do not include JIT compilation
+        for (int w = 0; w < Math.max(500, iterations / 2); w++) {
+            request.run();
+        }
+
+        List<Long> nanos = new ArrayList<>(iterations);
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            request.run();
+            nanos.add(System.nanoTime() - start);
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Map<String, Object> result = percentiles(nanos);
+        if (allocatedBefore >= 0) {
+            // Includes the latency list, which is small next to a token parse
+            result.put("allocatedBytesPerRequest", allocated / iterations);
+        }
+        return result;
+    }
+
+    // iterations requests per thread, all threads released together
+    private Map<String, Object> measureConcurrent(int iterations, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    List<String> tokens = new ArrayList<>();
+                    for (int c = 0; c < 16; c++) {
+                        tokens.add(jwtUtils.generateTokenFromUsername("benchmark-user-" + c, UUID.randomUUID()));
+                    }
+                    for (int w = 0; w < Math.max(500, iterations / 2); w++) {
+                        jwtVerifier.verify(tokens.get(w % tokens.size()));
+                    }
+                    ready.countDown();
+                    start.await();
+
+                    long[] nanos = new long[iterations];
+                    for (int i = 0; i < iterations; i++) {
+                        long begin = System.nanoTime();
+                        jwtVerifier.verify(tokens.get(i % tokens.size()));
+                        nanos[i] = System.nanoTime() - begin;
+                    }
+                    return nanos;
+                }));
+            }
+            ready.await();
+            long begin = System.nanoTime();
+            start.countDown();
+
+            List<Long> nanos = new ArrayList<>(iterations * threads);
+            for (Future<long[]> result : results) {
+                for (long n : result.get()) {
+                    nanos.add(n);
+                }
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            Map<String, Object> result = percentiles(nanos);
+            result.put("requestsPerSecond", Math.round(nanos.size() * 1e9 / elapsed));
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean allocationSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    private static long allocatedBytes() {
+        if (!allocationSupported()) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static Object p50(Map<String, Object> report, String variant) {
+        return ((Map<?, ?>) report.get(variant)).get("p50");
+    }
+
+    private static Map<String, Object> percentiles(List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sorted.size());
+        if (sorted.isEmpty()) {
+            return result;
+        }
+        result.put("p50", percentile(sorted, 0.50));
+        result.put("p95", percentile(sorted, 0.95));
+        result.put("p99", percentile(sorted, 0.99));
+        result.put("max", sorted.get(sorted.size() - 1));
+        return result;
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
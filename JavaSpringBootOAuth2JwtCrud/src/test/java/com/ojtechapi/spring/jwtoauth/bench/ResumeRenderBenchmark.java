@@ -0,0 +1,169 @@
+package com.ojtechapi.spring.jwtoauth.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.service.interfaces.CVService;
+import com.ojtechapi.spring.jwtoauth.services.ResumeHtmlGeneratorService;
+import com.ojtechapi.spring.jwtoauth.services.resume.ResumeFixtures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the compiled resume templates on a synthetic resume (ResumeFixtures), without
+ * touching the database. That their output is unchanged from the StringBuilder renderers
+ * they replaced is checked by ResumeRenderTest against golden files.
+ *
+ * Both renderers are measured: parsed resume JSON (ResumeHtmlGeneratorService, including
+ * the JSON parse) and the CV built from a student profile (CVService). The resume has
+ * `entries` experiences, projects and certifications. Each variant is warmed up, then
+ * timed per render:
+ *
+ * - template: the compiled template, to a String
+ * - templateStream: the compiled template written to a discarding OutputStream, as a
+ *   streamed response does
+ *
+ * For each the report has latency p50/p95/p99 (microseconds) and bytes allocated per
+ * render (when the JVM can measure per-thread allocation), plus the output size and
+ * whether the streamed output is identical to the String output.
+ *
+ * Not part of the regular test run (only *Test classes are). Run it with
+ * mvn test -Dtest=ResumeRenderBenchmark [-Dbench.iterations=2000] [-Dbench.entries=5];
+ * the report is logged.
+ */
+@SpringBootTest(classes = OJTechApiApplication.class)
+public class ResumeRenderBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumeRenderBenchmark.class);
+
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    @Autowired
+    private ResumeHtmlGeneratorService resumeHtmlGeneratorService;
+
+    @Autowired
+    private CVService cvService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private interface Render {
+        void run() throws Exception;
+    }
+
+    @Test
+    void benchmark() throws Exception {
+        Map<String, Object> report = run(Integer.getInteger("bench.iterations", 2000),
+                Integer.getInteger("bench.entries", 5));
+        logger.info("Resume render benchmark report: {}", objectMapper.writeValueAsString(report));
+    }
+
+    private Map<String, Object> run(int iterations, int entries) throws Exception {
+        String json = ResumeFixtures.resumeJson(entries);
+        StudentProfile profile = ResumeFixtures.profile(entries);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("iterations", iterations);
+        report.put("entries", entries);
+        report.put("allocationMeasured", allocationSupported());
+
+        String templateResume = resumeHtmlGeneratorService.generateResumeHtml(json);
+        ByteArrayOutputStream streamedResume = new ByteArrayOutputStream();
+        resumeHtmlGeneratorService.writeResumeHtml(json, streamedResume);
+        Map<String, Object> resume = new LinkedHashMap<>();
+        resume.put("outputBytes", templateResume.getBytes(StandardCharsets.UTF_8).length);
+        resume.put("identicalOutput", templateResume.equals(streamedResume.toString(StandardCharsets.UTF_8)));
+        resume.put("template", measure(iterations, () -> resumeHtmlGeneratorService.generateResumeHtml(json)));
+        resume.put("templateStream", measure(iterations, () -> resumeHtmlGeneratorService.writeResumeHtml(json, DISCARD)));
+        report.put("jsonResume", resume);
+
+        String templateCv = cvService.generateCVContent(profile);
+        ByteArrayOutputStream streamedCv = new ByteArrayOutputStream();
+        cvService.writeCVContent(profile, streamedCv);
+        Map<String, Object> cv = new LinkedHashMap<>();
+        cv.put("outputBytes", templateCv.getBytes(StandardCharsets.UTF_8).length);
+        cv.put("identicalOutput", templateCv.equals(streamedCv.toString(StandardCharsets.UTF_8)));
+        cv.put("template", measure(iterations, () -> cvService.generateCVContent(profile)));
+        cv.put("templateStream", measure(iterations, () -> cvService.writeCVContent(profile, DISCARD)));
+        report.put("profileCv", cv);
+
+        logger.info("Resume render benchmark ({} entries): JSON resume template p50 {} us, streamed p50 {} us; "
+                        + "profile CV template p50 {} us, streamed p50 {} us",
+                entries, p50(resume, "template"), p50(resume, "templateStream"),
+                p50(cv, "template"), p50(cv, "templateStream"));
+        return report;
+    }
+
+    private Map<String, Object> measure(int iterations, Render render) throws Exception {
+        // Warm up so the measured renders do not include JIT compilation
+        for (int w = 0; w < Math.max(200, iterations / 2); w++) {
+            render.run();
+        }
+
+        List<Long> nanos = new ArrayList<>(iterations);
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            render.run();
+            nanos.add(System.nanoTime() - start);
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Map<String, Object> result = percentiles(nanos);
+        if (allocatedBefore >= 0) {
+            // Includes the latency list, which is small next to a rendered resume
+            result.put("allocatedBytesPerRender", allocated / iterations);
+        }
+        return result;
+    }
+
+    private static boolean allocationSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    private static long allocatedBytes() {
+        if (!allocationSupported()) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static Object p50(Map<String, Object> variants, String variant) {
+        return ((Map<?, ?>) variants.get(variant)).get("p50");
+    }
+
+    private static Map<String, Object> percentiles(List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sorted.size());
+        if (sorted.isEmpty()) {
+            return result;
+        }
+        result.put("p50", percentile(sorted, 0.50));
+        result.put("p95", percentile(sorted, 0.95));
+        result.put("p99", percentile(sorted, 0.99));
+        result.put("max", TimeUnit.NANOSECONDS.toMicros(sorted.get(sorted.size() - 1)));
+        return result;
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted.get(Math.max(0, index)));
+    }
+}
@@ -0,0 +1,230 @@
+package com.ojtechapi.spring.jwtoauth.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.services.similarity.JobFeatures;
+import com.ojtechapi.spring.jwtoauth.services.similarity.MinHashLshIndex;
+import com.ojtechapi.spring.jwtoauth.services.similarity.SimilarJobIndex;
+import com.ojtechapi.spring.jwtoauth.services.skills.SkillTaxonomy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the similar-jobs index on a synthetic catalog, without touching the database.
+ *
+ * Jobs are generated in families of about 50 that share a skill set and description with
+ * small edits (skills dropped or added, words replaced), which is what re-posted and
+ * templated listings look like. The catalog is indexed with the configured LSH parameters
+ * and a sample of jobs is queried both through the index and by brute force over exact
+ * Jaccard similarity. The report has:
+ *
+ * - index build time
+ * - lookup latency p50/p95/p99 (microseconds) against the brute-force scan
+ * - recall@limit: share of the exact top results (similarity at least min-similarity)
+ *   that the index also returned
+ * - candidate recall: share of the exact top results that shared an LSH bucket with the
+ *   query at all; the gap to recall@limit comes from ranking by estimated similarity
+ *
+ * Not part of the regular test run (only *Test classes are). Run it with
+ * mvn test -Dtest=SimilarJobBenchmark [-Dbench.jobs=100000] [-Dbench.queries=100]
+ * [-Dbench.limit=10] [-Dbench.seed=42]; the report is logged.
+ */
+@SpringBootTest(classes = OJTechApiApplication.class)
+public class SimilarJobBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarJobBenchmark.class);
+
+    private static final int FAMILY_SIZE = 50;
+    private static final int DESCRIPTION_WORDS = 80;
+    private static final int VOCABULARY = 5000;
+
+    @Autowired
+    private SimilarJobIndex similarJobIndex;
+
+    @Test
+    void benchmark() throws Exception {
+        Map<String, Object> report = run(Integer.getInteger("bench.jobs", 100_000),
+                Integer.getInteger("bench.queries", 100), Integer.getInteger("bench.limit", 10),
+                Long.getLong("bench.seed", 42L));
+        logger.info("Similar-jobs benchmark report: {}", new ObjectMapper().writeValueAsString(report));
+    }
+
+    private Map<String, Object> run(int jobs, int queries, int limit, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> skills = new ArrayList<>(SkillTaxonomy.terms());
+
+        long start = System.nanoTime();
+        UUID[] ids = new UUID[jobs];
+        long[][] features = new long[jobs][];
+        List<String> familySkills = null;
+        List<String> familyWords = null;
+        for (int i = 0; i < jobs; i++) {
+            if (i % FAMILY_SIZE == 0) {
+                familySkills = randomSkills(skills, 6 + random.nextInt(5), random);
+                familyWords = randomWords(DESCRIPTION_WORDS, random);
+            }
+            ids[i] = new UUID(seed, i);
+            features[i] = JobFeatures.of(String.join(", ", variantSkills(familySkills, skills, random)),
+                    String.join(" ", variantWords(familyWords, random)));
+        }
+        long generatedNanos = System.nanoTime() - start;
+
+        MinHashLshIndex index = similarJobIndex.newIndex();
+        start = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            index.put(ids[i], features[i]);
+        }
+        long buildNanos = System.nanoTime() - start;
+
+        double minSimilarity = similarJobIndex.getMinSimilarity();
+        // Warm up so the first measured lookups do not include JIT compilation
+        for (int w = 0; w < Math.min(jobs, 500); w++) {
+            index.similarTo(ids[random.nextInt(jobs)], limit, minSimilarity);
+        }
+
+        List<Long> lookupNanos = new ArrayList<>(queries);
+        List<Long> scanNanos = new ArrayList<>(queries);
+        int relevant = 0;
+        int found = 0;
+        int candidates = 0;
+        for (int q = 0; q < queries; q++) {
+            int target = random.nextInt(jobs);
+
+            start = System.nanoTime();
+            List<MinHashLshIndex.Match> matches = index.similarTo(ids[target], limit, minSimilarity);
+            lookupNanos.add(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            List<UUID> exact = exactTop(ids, features, target, limit, minSimilarity);
+            scanNanos.add(System.nanoTime() - start);
+
+            Set<UUID> returned = new HashSet<>();
+            matches.forEach(match -> returned.add(match.getId()));
+            Set<UUID> bucketed = new HashSet<>();
+            index.similarTo(ids[target], Integer.MAX_VALUE, 0.0).forEach(match -> bucketed.add(match.getId()));
+            relevant += exact.size();
+            for (UUID id : exact) {
+                if (returned.contains(id)) {
+                    found++;
+                }
+                if (bucketed.contains(id)) {
+                    candidates++;
+                }
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jobs", jobs);
+        report.put("queries", queries);
+        report.put("limit", limit);
+        report.put("bands", index.getBands());
+        report.put("rows", index.getRows());
+        report.put("lshThreshold", round(index.getThreshold()));
+        report.put("minSimilarity", minSimilarity);
+        report.put("catalogGenerationMs", TimeUnit.NANOSECONDS.toMillis(generatedNanos));
+        report.put("indexBuildMs", TimeUnit.NANOSECONDS.toMillis(buildNanos));
+        report.put("lookupMicros", percentiles(lookupNanos));
+        report.put("bruteForceMicros", percentiles(scanNanos));
+        report.put("recallAtLimit", relevant == 0 ? null : round((double) found / relevant));
+        report.put("candidateRecall", relevant == 0 ? null : round((double) candidates / relevant));
+        logger.info("Similar-jobs benchmark over {} jobs: lookup p50 {} us, brute force p50 {} us, recall {}",
+                jobs, ((Map<?, ?>) report.get("lookupMicros")).get("p50"),
+                ((Map<?, ?>) report.get("bruteForceMicros")).get("p50"), report.get("recallAtLimit"));
+        return report;
+    }
+
+    private static List<UUID> exactTop(UUID[] ids, long[][] features, int target, int limit, double minSimilarity) {
+        List<Object[]> scored = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (i == target) {
+                continue;
+            }
+            double similarity = JobFeatures.jaccard(features[target], features[i]);
+            if (similarity >= minSimilarity) {
+                scored.add(new Object[]{ids[i], similarity});
+            }
+        }
+        scored.sort(Comparator.comparingDouble((Object[] row) -> (Double) row[1]).reversed());
+        List<UUID> top = new ArrayList<>(limit);
+        for (int i = 0; i < Math.min(limit, scored.size()); i++) {
+            top.add((UUID) scored.get(i)[0]);
+        }
+        return top;
+    }
+
+    private static List<String> randomSkills(List<String> skills, int count, SplittableRandom random) {
+        Set<String> picked = new HashSet<>();
+        while (picked.size() < count) {
+            picked.add(skills.get(random.nextInt(skills.size())));
+        }
+        return new ArrayList<>(picked);
+    }
+
+    private static List<String> variantSkills(List<String> family, List<String> skills, SplittableRandom random) {
+        List<String> variant = new ArrayList<>(family);
+        for (int drop = random.nextInt(3); drop > 0 && variant.size() > 3; drop--) {
+            variant.remove(random.nextInt(variant.size()));
+        }
+        for (int add = random.nextInt(3); add > 0; add--) {
+            variant.add(skills.get(random.nextInt(skills.size())));
+        }
+        return variant;
+    }
+
+    private static List<String> randomWords(int count, SplittableRandom random) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add("w" + random.nextInt(VOCABULARY));
+        }
+        return words;
+    }
+
+    private static List<String> variantWords(List<String> family, SplittableRandom random) {
+        List<String> variant = new ArrayList<>(family);
+        for (int i = 0; i < variant.size(); i++) {
+            if (random.nextInt(10) == 0) {
+                variant.set(i, "w" + random.nextInt(VOCABULARY));
+            }
+        }
+        return variant;
+    }
+
+    private static Map<String, Object> percentiles(List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sorted.size());
+        if (sorted.isEmpty()) {
+            return result;
+        }
+        result.put("p50", percentile(sorted, 0.50));
+        result.put("p95", percentile(sorted, 0.95));
+        result.put("p99", percentile(sorted, 0.99));
+        result.put("max", TimeUnit.NANOSECONDS.toMicros(sorted.get(sorted.size() - 1)));
+        return result;
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted.get(Math.max(0, index)));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
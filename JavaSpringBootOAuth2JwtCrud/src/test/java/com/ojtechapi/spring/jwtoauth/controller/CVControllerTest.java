@@ -0,0 +1,334 @@
+package com.ojtechapi.spring.jwtoauth.controller;
+
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.entities.Certification;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.entities.User;
+import com.ojtechapi.spring.jwtoauth.entities.UserRole;
+import com.ojtechapi.spring.jwtoauth.entities.WorkExperience;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.UserRepository;
+import com.ojtechapi.spring.jwtoauth.security.services.UserDetailsImpl;
+import com.ojtechapi.spring.jwtoauth.services.JobMatchService;
+import com.ojtechapi.spring.jwtoauth.services.ResumeHtmlGeneratorService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * CV lists against the test database, counting the SQL statements each request runs, CV
+ * revisions (every edit is its own revision here) and rendered CVs
+ */
+@SpringBootTest(classes = OJTechApiApplication.class,
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                "cv.revisions.coalesce-seconds=0"})
+@AutoConfigureMockMvc
+@Transactional
+public class CVControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+
+    @Autowired
+    private CVRepository cvRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ResumeHtmlGeneratorService resumeHtmlGeneratorService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @MockBean
+    private JobMatchService jobMatchService;
+
+    private StudentProfile studentProfile;
+
+    @BeforeEach
+    void setUp() {
+        String username = "student_" + UUID.randomUUID().toString().substring(0, 8);
+
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@test.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+
+        studentProfile = new StudentProfile();
+        studentProfile.setUser(user);
+        studentProfile.setRole(UserRole.STUDENT);
+        studentProfile.setFirstName("Test");
+        studentProfile.setLastName("Student");
+        studentProfile = studentProfileRepository.save(studentProfile);
+
+        UserDetailsImpl userDetails = new UserDetailsImpl(
+                user.getId(),
+                username,
+                user.getEmail(),
+                "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_STUDENT"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    private void createCVs(int count) {
+        for (int i = 0; i < count; i++) {
+            createCV(i);
+        }
+    }
+
+    private CV createCV(int i) {
+        CV cv = new CV();
+        cv.setStudent(studentProfile);
+        cv.setTemplate("modern");
+        cv.setParsedResume("{\"contactInfo\":{\"name\":\"Test Student\"}}");
+        cv.setHtmlContent("<html><body>CV " + i + "</body></html>");
+        for (int j = 0; j < 2; j++) {
+            Certification certification = new Certification();
+            certification.setName("Certification " + j);
+            certification.setIssuer("Issuer");
+            certification.setDateReceived(LocalDate.of(2025, 1, 15));
+            certification.setCv(cv);
+            cv.getCertifications().add(certification);
+
+            WorkExperience experience = new WorkExperience();
+            experience.setTitle("Intern " + j);
+            experience.setCompany("Company");
+            experience.setStartDate(LocalDate.of(2024, 6, 1));
+            experience.setDescription("Description");
+            experience.setCv(cv);
+            cv.getExperiences().add(experience);
+        }
+        return cvRepository.save(cv);
+    }
+
+    // Statements run by one GET, starting with nothing loaded
+    private long statementsFor(String url) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    public void testListCVsRunsSameQueriesForAnyNumberOfCVs() throws Exception {
+        createCVs(1);
+        long oneCV = statementsFor("/api/cvs");
+
+        createCVs(4);
+        long fiveCVs = statementsFor("/api/cvs");
+
+        assertEquals(oneCV, fiveCVs);
+    }
+
+    @Test
+    public void testListMyCVsRunsSameQueriesForAnyNumberOfCVs() throws Exception {
+        createCVs(1);
+        long oneCV = statementsFor("/api/cvs/me");
+
+        createCVs(4);
+        long fiveCVs = statementsFor("/api/cvs/me");
+
+        assertEquals(oneCV, fiveCVs);
+    }
+
+    @Test
+    public void testListStudentProfileCVsRunsSameQueriesForAnyNumberOfCVs() throws Exception {
+        createCVs(1);
+        long oneCV = statementsFor("/api/student-profiles/cvs");
+
+        createCVs(4);
+        long fiveCVs = statementsFor("/api/student-profiles/cvs");
+
+        assertEquals(oneCV, fiveCVs);
+    }
+
+    @Test
+    public void testListCVsReturnsSummariesWithoutContent() throws Exception {
+        createCVs(2);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/cvs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].template").value("modern"))
+                .andExpect(jsonPath("$[0].certificationCount").value(2))
+                .andExpect(jsonPath("$[0].experienceCount").value(2))
+                .andExpect(jsonPath("$[0].parsedResume").doesNotExist())
+                .andExpect(jsonPath("$[0].htmlContent").doesNotExist())
+                .andExpect(jsonPath("$[0].certifications").doesNotExist());
+    }
+
+    @Test
+    public void testHtmlEditsAreRecordedAsRevisionsAndCanBeRolledBack() throws Exception {
+        CV cv = createCV(0);
+        String original = cv.getHtmlContent();
+        String firstEdit = "<html><body>CV 0, edited</body></html>";
+        String secondEdit = "<html><body>CV 0, edited twice</body></html>";
+
+        mockMvc.perform(put("/api/cvs/" + cv.getId() + "/html").contentType(MediaType.TEXT_PLAIN).content(firstEdit))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/cvs/" + cv.getId() + "/html").contentType(MediaType.TEXT_PLAIN).content(secondEdit))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.htmlContent").value(secondEdit));
+
+        // The content before the first edit, then one small delta per edit
+        mockMvc.perform(get("/api/cvs/" + cv.getId() + "/revisions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].revisionNumber").value(3))
+                .andExpect(jsonPath("$[0].base").value(false))
+                .andExpect(jsonPath("$[0].storedChars").value(6))
+                .andExpect(jsonPath("$[0].htmlContent").doesNotExist())
+                .andExpect(jsonPath("$[2].base").value(true));
+
+        mockMvc.perform(get("/api/cvs/" + cv.getId() + "/revisions/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.htmlContent").value(firstEdit));
+
+        mockMvc.perform(post("/api/cvs/" + cv.getId() + "/revisions/1/rollback"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.htmlContent").value(original));
+
+        mockMvc.perform(get("/api/cvs/" + cv.getId() + "/revisions"))
+                .andExpect(jsonPath("$.length()").value(4));
+    }
+
+    @Test
+    public void testUnchangedEditIsNotRecorded() throws Exception {
+        CV cv = createCV(0);
+
+        mockMvc.perform(put("/api/cvs/" + cv.getId() + "/html").contentType(MediaType.TEXT_PLAIN)
+                        .content(cv.getHtmlContent()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/cvs/" + cv.getId() + "/revisions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void testUnknownRevisionIsNotFound() throws Exception {
+        CV cv = createCV(0);
+
+        mockMvc.perform(get("/api/cvs/" + cv.getId() + "/revisions/7"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testRenderIsStreamedThenServedFromTheCache() throws Exception {
+        CV cv = createCV(0);
+        cv.setHtmlContent(null);
+        cv = cvRepository.save(cv);
+        String expected = resumeHtmlGeneratorService.generateResumeHtml(cv.getParsedResume());
+
+        for (String acceptEncoding : new String[]{"identity", "gzip, deflate, br"}) {
+            boolean gzip = acceptEncoding.startsWith("gzip");
+            Statistics statistics = clearedStatistics();
+            MvcResult streamed = render(cv, acceptEncoding);
+            assertTrue(statistics.getEntityLoadCount() > 0);
+            assertEquals(expected, body(streamed, gzip));
+
+            // Rendered once: the next request for the same version and coding skips the CV
+            statistics = clearedStatistics();
+            MvcResult cached = render(cv, acceptEncoding);
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(expected, body(cached, gzip));
+            assertEquals(streamed.getResponse().getHeader(HttpHeaders.ETAG),
+                    cached.getResponse().getHeader(HttpHeaders.ETAG));
+        }
+    }
+
+    @Test
+    public void testRenderWithoutContentIsNotFound() throws Exception {
+        CV cv = createCV(0);
+        cv.setHtmlContent(null);
+        cv.setParsedResume(null);
+        cv = cvRepository.save(cv);
+
+        mockMvc.perform(get("/api/cvs/" + cv.getId() + "/render"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Statistics clearedStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private MvcResult render(CV cv, String acceptEncoding) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/cvs/" + cv.getId() + "/render")
+                        .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/html;charset=UTF-8"))
+                .andReturn();
+    }
+
+    private static String body(MvcResult result, boolean gzip) throws IOException {
+        byte[] body = result.getResponse().getContentAsByteArray();
+        if (!gzip) {
+            assertNull(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        assertEquals("gzip", result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
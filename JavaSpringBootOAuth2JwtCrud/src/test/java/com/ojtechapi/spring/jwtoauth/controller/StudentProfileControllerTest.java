@@ -2,6 +2,7 @@ package com.ojtechapi.spring.jwtoauth.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.dtos.CVSummaryDto;
 import com.ojtechapi.spring.jwtoauth.entities.CV;
 import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
 import com.ojtechapi.spring.jwtoauth.entities.User;
@@ -200,27 +201,22 @@ public class StudentProfileControllerTest {
     @Test
     public void testGetStudentCVs() throws Exception {
         // Setup
-        List<CV> cvList = new ArrayList<>();
-        
-        CV cv1 = new CV();
-        cv1.setId(UUID.randomUUID());
-        cv1.setStudent(studentProfile);
-        cv1.setParsedResume("{\"fileName\":\"cv1.pdf\",\"fileUrl\":\"https://example.com/cv1.pdf\"}");
-        cvList.add(cv1);
+        List<CVSummaryDto> cvList = new ArrayList<>();
+        cvList.add(new CVSummaryDto(UUID.randomUUID(), "modern", true, true, LocalDateTime.now(),
+                LocalDateTime.now(), LocalDateTime.now(), 2, 1));
+        cvList.add(new CVSummaryDto(UUID.randomUUID(), "classic", false, false, LocalDateTime.now(),
+                LocalDateTime.now(), LocalDateTime.now(), 0, 0));
         
-        CV cv2 = new CV();
-        cv2.setId(UUID.randomUUID());
-        cv2.setStudent(studentProfile);
-        cv2.setParsedResume("{\"fileName\":\"cv2.pdf\",\"fileUrl\":\"https://example.com/cv2.pdf\"}");
-        cvList.add(cv2);
+        when(studentProfileRepository.findIdByUserId(userId)).thenReturn(Optional.of(profileId));
+        when(cvRepository.findSummariesByStudentId(profileId)).thenReturn(cvList);
         
-        when(cvRepository.findByStudent(studentProfile)).thenReturn(cvList);
-        
-        // Execute and Verify
+        // Execute and Verify: summaries, without the CV content
         mockMvc.perform(get("/api/student-profiles/cvs"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].parsedResume").exists())
-                .andExpect(jsonPath("$[1].parsedResume").exists());
+                .andExpect(jsonPath("$[0].template").value("modern"))
+                .andExpect(jsonPath("$[0].certificationCount").value(2))
+                .andExpect(jsonPath("$[0].parsedResume").doesNotExist())
+                .andExpect(jsonPath("$[1].active").value(false));
     }
 
     @Test
@@ -0,0 +1,157 @@
+package com.ojtechapi.spring.jwtoauth.controller;
+
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.dtos.CVContentVersion;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.repositories.CVEncodedContentRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.CVRepository;
+import com.ojtechapi.spring.jwtoauth.services.resume.PublicCVService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = OJTechApiApplication.class)
+@AutoConfigureMockMvc
+public class ViewPublicCVTest {
+
+    private static final String RESUME = "{\"contactInfo\":{\"name\":\"Test Student\"}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PublicCVService publicCVService;
+
+    @MockBean
+    private CVRepository cvRepository;
+
+    @MockBean
+    private CVEncodedContentRepository encodedContentRepository;
+
+    private UUID cvId;
+    private String contentHash;
+    private CV cv;
+
+    @BeforeEach
+    void setUp() {
+        // A new CV per test, so nothing is cached from other tests
+        cvId = UUID.randomUUID();
+        contentHash = CV.contentHash(null, RESUME);
+
+        cv = new CV();
+        cv.setId(cvId);
+        cv.setActive(true);
+        cv.setParsedResume(RESUME);
+
+        when(cvRepository.findById(cvId)).thenReturn(Optional.of(cv));
+        when(encodedContentRepository.findByCvIdAndContentHash(any(), any())).thenReturn(Optional.empty());
+        when(encodedContentRepository.findContentHashByCvId(any())).thenReturn(Optional.empty());
+    }
+
+    private void mockVersion(boolean active) {
+        when(cvRepository.findContentVersionById(cvId)).thenReturn(Optional.of(
+                new CVContentVersion(cvId, UUID.randomUUID(), active, LocalDateTime.now(), contentHash)));
+    }
+
+    @Test
+    public void testPublicCVRedirectsToCurrentVersion() throws Exception {
+        mockVersion(true);
+
+        mockMvc.perform(get("/api/public/cvs/" + cvId + "/data"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION,
+                        endsWith("/api/public/cvs/" + cvId + "/v/" + contentHash.substring(0, 16) + "/data")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=60")));
+    }
+
+    @Test
+    public void testVersionedPublicCVIsImmutableAndServedFromMemory() throws Exception {
+        mockVersion(true);
+        String url = "/api/public/cvs/" + cvId + "/v/" + contentHash.substring(0, 16) + "/data";
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")))
+                    .andExpect(content().string(RESUME));
+        }
+
+        // Only the first request reads the database
+        verify(cvRepository, times(1)).findContentVersionById(cvId);
+        verify(cvRepository, times(1)).findById(cvId);
+    }
+
+    @Test
+    public void testOutdatedVersionRedirectsToCurrentVersion() throws Exception {
+        mockVersion(true);
+
+        mockMvc.perform(get("/api/public/cvs/" + cvId + "/v/0123456789abcdef"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION,
+                        endsWith("/api/public/cvs/" + cvId + "/v/" + contentHash.substring(0, 16))));
+    }
+
+    @Test
+    public void testInactiveCVIsNotPublic() throws Exception {
+        mockVersion(false);
+
+        mockMvc.perform(get("/api/public/cvs/" + cvId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testEmailLinkIsServedFromPreparedVersion() throws Exception {
+        // As the application emails do before sending the link to the viewer page, /cv/{id}
+        publicCVService.prepare(cv);
+
+        // The viewer page behind the link, and older copies of it, fetch the CV data
+        String location = mockMvc.perform(get("/api/cvs/" + cvId + "/data"))
+                .andExpect(status().isMovedPermanently())
+                .andExpect(header().string(HttpHeaders.LOCATION, endsWith("/api/public/cvs/" + cvId + "/data")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        String versioned = mockMvc.perform(get(location))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION,
+                        endsWith("/api/public/cvs/" + cvId + "/v/" + contentHash.substring(0, 16) + "/data")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        byte[] body = mockMvc.perform(get(versioned).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(RESUME, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // Served from what prepare remembered and rendered
+        verify(cvRepository, never()).findContentVersionById(cvId);
+        verify(cvRepository, never()).findById(cvId);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ojtechapi.spring.jwtoauth.service.impl;
+
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.entities.Job;
+import com.ojtechapi.spring.jwtoauth.entities.JobMatch;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
+import com.ojtechapi.spring.jwtoauth.repositories.ArchivedJobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.ArchivedJobRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobMatchRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
+import com.ojtechapi.spring.jwtoauth.repositories.StudentProfileRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = OJTechApiApplication.class)
+public class JobArchiveServiceTest {
+
+    @Autowired
+    private JobArchiveService jobArchiveService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobMatchRepository jobMatchRepository;
+
+    @Autowired
+    private StudentProfileRepository studentProfileRepository;
+
+    @Autowired
+    private ArchivedJobRepository archivedJobRepository;
+
+    @Autowired
+    private ArchivedJobMatchRepository archivedJobMatchRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testArchiveAndRestoreJob() {
+        StudentProfile student = new StudentProfile();
+        student.setFirstName("Archive");
+        student.setLastName("Student");
+        student = studentProfileRepository.save(student);
+
+        UUID oldJobId = saveJob("Old inactive job", false, 200);
+        UUID recentJobId = saveJob("Recently closed job", false, 10);
+        UUID activeJobId = saveJob("Active job", true, 200);
+        for (UUID jobId : List.of(oldJobId, recentJobId, activeJobId)) {
+            jobMatchRepository.save(new JobMatch(jobRepository.findById(jobId).orElseThrow(), student, 0.8));
+        }
+
+        jobArchiveService.run(true);
+
+        assertFalse(jobRepository.existsById(oldJobId));
+        assertTrue(archivedJobRepository.existsById(oldJobId));
+        assertEquals(1, archivedJobMatchRepository.countByJobId(oldJobId));
+        assertTrue(jobMatchRepository.findByJobIdOrderByMatchScoreDesc(oldJobId).isEmpty());
+        // Only jobs inactive for longer than archive.jobs.inactive-days are archived
+        assertTrue(jobRepository.existsById(recentJobId));
+        assertTrue(jobRepository.existsById(activeJobId));
+        assertEquals("COMPLETED", jobArchiveService.getStatus().getStatus());
+
+        Map<String, Object> restored = jobArchiveService.restore(oldJobId);
+        assertEquals(1, restored.get("jobs"));
+        assertEquals(1, restored.get("matches"));
+
+        Job job = jobRepository.findById(oldJobId).orElseThrow();
+        assertEquals("Old inactive job", job.getTitle());
+        assertFalse(job.isActive());
+        // Restored with a fresh updated_at so the next run does not archive it again
+        assertTrue(job.getUpdatedAt().isAfter(LocalDateTime.now().minusDays(1)));
+        assertEquals(1, jobMatchRepository.findByJobIdOrderByMatchScoreDesc(oldJobId).size());
+        assertFalse(archivedJobRepository.existsById(oldJobId));
+        assertEquals(0, archivedJobMatchRepository.countByJobId(oldJobId));
+
+        assertThrows(ResourceNotFoundException.class, () -> jobArchiveService.restore(oldJobId));
+    }
+
+    private UUID saveJob(String title, boolean active, int daysSinceUpdate) {
+        Job job = new Job();
+        job.setTitle(title);
+        job.setDescription(title + " description");
+        job.setActive(active);
+        UUID jobId = jobRepository.save(job).getId();
+        // updated_at is set on every save; backdate it directly
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jobRepository.touch(jobId, LocalDateTime.now().minusDays(daysSinceUpdate)));
+        return jobId;
+    }
+}
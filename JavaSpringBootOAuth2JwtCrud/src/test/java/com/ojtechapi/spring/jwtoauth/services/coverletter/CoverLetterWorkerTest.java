@@ -0,0 +1,250 @@
+package com.ojtechapi.spring.jwtoauth.services.coverletter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.entities.CoverLetterStatus;
+import com.ojtechapi.spring.jwtoauth.repositories.JobApplicationRepository;
+import com.ojtechapi.spring.jwtoauth.services.CoverLetterService;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiClient;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiPrompt;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiPromptBuilder;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiRecording;
+import com.ojtechapi.spring.jwtoauth.services.llm.GeminiReplayStore;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmCallType;
+import com.ojtechapi.spring.jwtoauth.services.llm.PiiRedactor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Gemini is answered from a recording, streamed in small fragments; the letter status is
+// polled rarely so that only the worker sends the final event
+@SpringBootTest(classes = OJTechApiApplication.class, properties = {
+        "gemini.recording.redaction-salt=replay-test-salt",
+        "gemini.replay.latency-scale=1.0",
+        "gemini.replay.stream.chunk-chars=12",
+        "cover-letter.sse.status-poll-ms=60000"})
+public class CoverLetterWorkerTest {
+
+    private static final String SALT = "replay-test-salt";
+    private static final String LETTER = "Dear Hiring Manager, I am applying for the Java internship. "
+            + "I built REST services with Spring Boot and PostgreSQL during my studies. Sincerely, Juan";
+
+    private static final Path RECORDINGS;
+
+    static {
+        try {
+            RECORDINGS = Files.createTempDirectory("gemini-replay");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void replayPath(DynamicPropertyRegistry registry) {
+        registry.add("gemini.replay.path", RECORDINGS::toString);
+    }
+
+    @Autowired
+    private CoverLetterWorker coverLetterWorker;
+
+    @Autowired
+    private GeminiClient geminiClient;
+
+    @Autowired
+    private GeminiPromptBuilder promptBuilder;
+
+    @Autowired
+    private GeminiReplayStore replayStore;
+
+    @MockBean
+    private CoverLetterService coverLetterService;
+
+    @MockBean
+    private JobApplicationRepository jobApplicationRepository;
+
+    private GeminiPrompt prompt;
+    private MockMvc mockMvc;
+
+    // Serves the worker's SSE stream the way JobApplicationController does
+    @RestController
+    static class CoverLetterEvents {
+        private final CoverLetterWorker worker;
+
+        CoverLetterEvents(CoverLetterWorker worker) {
+            this.worker = worker;
+        }
+
+        @GetMapping("/cover-letters/{id}/events")
+        SseEmitter events(@PathVariable UUID id) {
+            return worker.subscribe(id);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        prompt = promptBuilder.newPrompt(LlmCallType.COVER_LETTER)
+                .text("Write a cover letter for " + UUID.randomUUID() + "\n")
+                .build();
+        record(prompt, LETTER, 300);
+        mockMvc = MockMvcBuilders.standaloneSetup(new CoverLetterEvents(coverLetterWorker)).build();
+    }
+
+    @Test
+    public void testReplayStreamsRecordedTextInFragments() {
+        List<String> chunks = new ArrayList<>();
+        String text = geminiClient.generateStream(prompt, chunks::add);
+
+        assertEquals(LETTER, text);
+        assertEquals(LETTER, String.join("", chunks));
+        assertTrue(chunks.size() > 5, chunks.toString());
+    }
+
+    @Test
+    public void testSubscribersGetChunksInOrderThenTheLetter() throws Exception {
+        UUID applicationId = UUID.randomUUID();
+        when(jobApplicationRepository.findCoverLetterStatus(applicationId))
+                .thenReturn(Optional.of(CoverLetterStatus.PENDING));
+        when(jobApplicationRepository.leaseCoverLetter(eq(applicationId), eq(CoverLetterStatus.PENDING), any(), any()))
+                .thenReturn(1);
+
+        // Generation stops after the first fragment until the late subscriber is in
+        CountDownLatch firstChunk = new CountDownLatch(1);
+        CountDownLatch lateSubscribed = new CountDownLatch(1);
+        when(coverLetterService.generate(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<String> relay = invocation.getArgument(3);
+            String text = geminiClient.generateStream(prompt, chunk -> {
+                relay.accept(chunk);
+                if (firstChunk.getCount() > 0) {
+                    firstChunk.countDown();
+                    await(lateSubscribed);
+                }
+            });
+            return new CoverLetterService.GeneratedCoverLetter(text.trim(), false);
+        });
+
+        MvcResult early = subscribe(applicationId);
+        coverLetterWorker.submit(applicationId, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        await(firstChunk);
+        MvcResult late = subscribe(applicationId);
+        lateSubscribed.countDown();
+
+        List<JsonNode[]> earlyEvents = events(early);
+        List<JsonNode[]> lateEvents = events(late);
+
+        assertEquals(LETTER, chunkText(earlyEvents));
+        assertTrue(earlyEvents.size() > 5);
+        // The late subscriber first gets everything streamed so far, in one event
+        assertEquals(LETTER, chunkText(lateEvents));
+        assertEquals(LETTER.substring(0, earlyEvents.get(0)[1].get("text").asText().length()),
+                lateEvents.get(0)[1].get("text").asText());
+        assertEquals(earlyEvents.size(), lateEvents.size());
+
+        for (List<JsonNode[]> events : List.of(earlyEvents, lateEvents)) {
+            JsonNode[] last = events.get(events.size() - 1);
+            assertEquals("cover-letter", last[0].asText());
+            assertEquals("READY", last[1].get("status").asText());
+            assertEquals(LETTER, last[1].get("coverLetter").asText());
+            assertEquals(applicationId.toString(), last[1].get("applicationId").asText());
+        }
+        verify(jobApplicationRepository).updateCoverLetter(applicationId, LETTER, CoverLetterStatus.READY);
+    }
+
+    private MvcResult subscribe(UUID applicationId) throws Exception {
+        return mockMvc.perform(get("/cover-letters/{id}/events", applicationId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // Event name and data of every event, once the stream has completed
+    private static List<JsonNode[]> events(MvcResult result) throws IOException {
+        result.getAsyncResult(10_000);
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode[]> events = new ArrayList<>();
+        for (String block : result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n\n")) {
+            String name = null;
+            String data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data = line.substring(5);
+                }
+            }
+            if (name != null) {
+                events.add(new JsonNode[]{mapper.getNodeFactory().textNode(name), mapper.readTree(data)});
+            }
+        }
+        return events;
+    }
+
+    // Text of the chunk events, which must all come before the final event
+    private static String chunkText(List<JsonNode[]> events) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < events.size() - 1; i++) {
+            assertEquals("chunk", events.get(i)[0].asText());
+            text.append(events.get(i)[1].get("text").asText());
+        }
+        return text.toString();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Writes a recording of prompt answered with response, as GeminiTrafficRecorder does, and reloads
+    private void record(GeminiPrompt prompt, String response, long latencyMs) throws IOException {
+        String redacted = PiiRedactor.redact(GeminiRecording.promptText(prompt.getBody()), SALT,
+                prompt.getPersonalValues());
+        GeminiRecording recording = new GeminiRecording();
+        recording.setCallType(prompt.getCallType().name());
+        recording.setRequestKey(GeminiRecording.requestKey(prompt.getCallType(), redacted));
+        recording.setPrompt(redacted);
+        recording.setOutcome("success");
+        recording.setLatencyMs(latencyMs);
+        recording.setResponse(response);
+        Path file = RECORDINGS.resolve(UUID.randomUUID() + ".jsonl");
+        Files.writeString(file, new ObjectMapper().writeValueAsString(recording) + "\n");
+        ReflectionTestUtils.setField(replayStore, "replayPath", file.toString());
+        ReflectionTestUtils.invokeMethod(replayStore, "load");
+    }
+}
@@ -0,0 +1,89 @@
+package com.ojtechapi.spring.jwtoauth.services.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PiiRedactorTest {
+
+    private static final String SALT = "test-salt";
+
+    @Test
+    public void testEmptyTextIsUnchanged() {
+        assertNull(PiiRedactor.redact(null, SALT));
+        assertEquals("", PiiRedactor.redact("", SALT));
+        assertEquals("Java, Spring Boot and SQL", PiiRedactor.redact("Java, Spring Boot and SQL", SALT));
+    }
+
+    @Test
+    public void testEmailAndPhoneAreRedacted() {
+        String redacted = PiiRedactor.redact("Reach me at maria.santos@example.com or 0917 123 4567 "
+                + "or +63 917 123 4567.", SALT);
+        assertFalse(redacted.contains("maria.santos@example.com"), redacted);
+        assertFalse(redacted.contains("123 4567"), redacted);
+        assertTrue(redacted.contains("[EMAIL:"), redacted);
+        assertTrue(redacted.contains("[PHONE:"), redacted);
+    }
+
+    @Test
+    public void testPlaceholdersAreStableAndSalted() {
+        String text = "Email: maria.santos@example.com";
+        assertEquals(PiiRedactor.redact(text, SALT), PiiRedactor.redact(text, SALT));
+        assertNotEquals(PiiRedactor.redact(text, SALT), PiiRedactor.redact(text, "other-salt"));
+    }
+
+    @Test
+    public void testUrlPathIsRedactedAndHostKept() {
+        String redacted = PiiRedactor.redact("Portfolio: https://github.com/msantos/projects", SALT);
+        assertTrue(redacted.contains("https://github.com/[PATH:"), redacted);
+        assertFalse(redacted.contains("msantos"), redacted);
+    }
+
+    @Test
+    public void testKnownValuesAreRedactedAsWholeWords() {
+        String text = "Dear Ms. Reyes,\n\nI am Maria Santos. Maria has an Annual award.\n\nSincerely,\nMaria Santos";
+        String redacted = PiiRedactor.redact(text, SALT, List.of("Maria Santos", "Maria", "Ann", "Reyes"));
+        assertFalse(redacted.contains("Maria"), redacted);
+        assertFalse(redacted.contains("Reyes"), redacted);
+        // Only whole words: "Ann" is not taken out of "Annual"
+        assertTrue(redacted.contains("Annual award"), redacted);
+    }
+
+    @Test
+    public void testKnownValuesIgnoreCaseAndBlanks() {
+        String redacted = PiiRedactor.redact("MARIA SANTOS applied", SALT, List.of("Maria Santos", " ", "x"));
+        assertFalse(redacted.contains("MARIA"), redacted);
+        assertTrue(redacted.endsWith(" applied"), redacted);
+    }
+
+    @Test
+    public void testSalutationIsRedactedExceptHiringManager() {
+        assertFalse(PiiRedactor.redact("Dear Mr. Cruz,\nThank you", SALT).contains("Cruz"));
+        assertEquals("Dear Hiring Manager,\nThank you", PiiRedactor.redact("Dear Hiring Manager,\nThank you", SALT));
+    }
+
+    @Test
+    public void testLabelledLinesAreRedacted() {
+        String redacted = PiiRedactor.redact("- Student Name: Juan Dela Cruz\n- Skills: Java", SALT);
+        assertFalse(redacted.contains("Juan"), redacted);
+        assertTrue(redacted.contains("- Skills: Java"), redacted);
+    }
+
+    @Test
+    public void testCvJsonPersonalFieldsAreRedacted() {
+        String json = "{\"contactInfo\":{\"name\":\"Juan Dela Cruz\",\"location\":\"Cebu City\"},"
+                + "\"firstName\":\"Juan\",\"linkedinUrl\":\"in/jdc\",\"skills\":[\"Java\"],\"title\":\"Intern\"}";
+        String redacted = PiiRedactor.redact(json, SALT);
+        assertFalse(redacted.contains("Juan"), redacted);
+        assertFalse(redacted.contains("Cebu City"), redacted);
+        assertFalse(redacted.contains("in/jdc"), redacted);
+        assertTrue(redacted.contains("\"skills\":[\"Java\"]"), redacted);
+        assertTrue(redacted.contains("\"title\":\"Intern\""), redacted);
+    }
+}
@@ -0,0 +1,165 @@
+package com.ojtechapi.spring.jwtoauth.services.queue;
+
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTask;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskStatus;
+import com.ojtechapi.spring.jwtoauth.entities.MatchTaskType;
+import com.ojtechapi.spring.jwtoauth.repositories.MatchTaskRepository;
+import com.ojtechapi.spring.jwtoauth.services.llm.LlmLane;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The worker is off so that it does not claim the tasks these tests set up
+@SpringBootTest(classes = OJTechApiApplication.class, properties = "matching.queue.worker.enabled=false")
+public class MatchTaskQueueTest {
+
+    @Autowired
+    private MatchTaskQueue matchTaskQueue;
+
+    @Autowired
+    private MatchTaskRepository matchTaskRepository;
+
+    @Test
+    public void testOnlyOneWorkerClaimsAPendingTask() {
+        MatchTask task = matchTaskRepository.save(new MatchTask(MatchTaskType.MATCH_STUDENT, UUID.randomUUID(),
+                LlmLane.BACKGROUND, 3));
+        LocalDateTime leaseUntil = LocalDateTime.now().plusMinutes(5);
+
+        assertEquals(1, matchTaskRepository.claimIfPending(task.getId(), MatchTaskStatus.PENDING,
+                MatchTaskStatus.RUNNING, "node-a", leaseUntil));
+        assertEquals(0, matchTaskRepository.claimIfPending(task.getId(), MatchTaskStatus.PENDING,
+                MatchTaskStatus.RUNNING, "node-b", leaseUntil));
+
+        MatchTask claimed = reload(task);
+        assertEquals(MatchTaskStatus.RUNNING, claimed.getStatus());
+        assertEquals("node-a", claimed.getLeaseOwner());
+        assertEquals(1, claimed.getAttempts());
+    }
+
+    @Test
+    public void testClaimLeasesTasksToTheCaller() {
+        MatchTask task = matchTaskRepository.save(new MatchTask(MatchTaskType.MATCH_STUDENT, UUID.randomUUID(),
+                LlmLane.BACKGROUND, 3));
+        List<MatchTask> claimed = matchTaskQueue.claim(100, "node-a", LocalDateTime.now().plusMinutes(5));
+        assertTrue(claimed.stream().anyMatch(t -> t.getId().equals(task.getId())));
+        assertTrue(claimed.stream().allMatch(t -> "node-a".equals(t.getLeaseOwner())));
+        assertEquals(MatchTaskStatus.RUNNING, reload(task).getStatus());
+    }
+
+    @Test
+    public void testCompleteNeedsTheLease() {
+        MatchTask task = running("node-a", LocalDateTime.now().plusMinutes(5), 1, 3);
+
+        assertFalse(matchTaskQueue.complete(task.getId(), "node-b"));
+        assertEquals(MatchTaskStatus.RUNNING, reload(task).getStatus());
+
+        assertTrue(matchTaskQueue.complete(task.getId(), "node-a"));
+        MatchTask done = reload(task);
+        assertEquals(MatchTaskStatus.DONE, done.getStatus());
+        assertNotNull(done.getCompletedAt());
+        assertNull(done.getLeaseOwner());
+        assertNull(done.getLeaseExpiresAt());
+
+        // Finishing twice does nothing
+        assertFalse(matchTaskQueue.complete(task.getId(), "node-a"));
+    }
+
+    @Test
+    public void testExpiredLeaseCannotBeFinished() {
+        MatchTask task = running("node-a", LocalDateTime.now().minusSeconds(1), 1, 3);
+
+        assertFalse(matchTaskQueue.complete(task.getId(), "node-a"));
+        assertFalse(matchTaskQueue.fail(task.getId(), "node-a", "boom"));
+        assertFalse(matchTaskQueue.release(task.getId(), "node-a"));
+
+        MatchTask unchanged = reload(task);
+        assertEquals(MatchTaskStatus.RUNNING, unchanged.getStatus());
+        assertEquals("node-a", unchanged.getLeaseOwner());
+        assertEquals(1, unchanged.getAttempts());
+    }
+
+    @Test
+    public void testExpiredLeaseIsReturnedToTheQueue() {
+        MatchTask task = running("node-a", LocalDateTime.now().minusSeconds(1), 1, 3);
+
+        assertTrue(matchTaskQueue.expireLeases() >= 1);
+        MatchTask expired = reload(task);
+        assertEquals(MatchTaskStatus.PENDING, expired.getStatus());
+        assertNull(expired.getLeaseOwner());
+        assertEquals("lease expired", expired.getLastError());
+    }
+
+    @Test
+    public void testFailSchedulesRetryWithBackoff() {
+        MatchTask task = running("node-a", LocalDateTime.now().plusMinutes(5), 1, 3);
+        LocalDateTime before = LocalDateTime.now();
+
+        assertTrue(matchTaskQueue.fail(task.getId(), "node-a", "Gemini unavailable"));
+        MatchTask retry = reload(task);
+        assertEquals(MatchTaskStatus.PENDING, retry.getStatus());
+        assertEquals("Gemini unavailable", retry.getLastError());
+        assertTrue(retry.getAvailableAt().isAfter(before));
+        assertNull(retry.getLeaseOwner());
+        assertNull(retry.getCompletedAt());
+    }
+
+    @Test
+    public void testFailOnLastAttemptMarksTaskFailed() {
+        MatchTask task = running("node-a", LocalDateTime.now().plusMinutes(5), 3, 3);
+
+        assertTrue(matchTaskQueue.fail(task.getId(), "node-a", "Gemini unavailable"));
+        MatchTask failed = reload(task);
+        assertEquals(MatchTaskStatus.FAILED, failed.getStatus());
+        assertNotNull(failed.getCompletedAt());
+        assertNull(failed.getLeaseOwner());
+    }
+
+    @Test
+    public void testReleaseDoesNotCountTheAttempt() {
+        MatchTask task = running("node-a", LocalDateTime.now().plusMinutes(5), 2, 3);
+
+        assertFalse(matchTaskQueue.release(task.getId(), "node-b"));
+        assertTrue(matchTaskQueue.release(task.getId(), "node-a"));
+        MatchTask released = reload(task);
+        assertEquals(MatchTaskStatus.PENDING, released.getStatus());
+        assertEquals(1, released.getAttempts());
+        assertNull(released.getLeaseOwner());
+    }
+
+    @Test
+    public void testRenewLeasesOnlyForTheOwner() {
+        LocalDateTime leaseUntil = LocalDateTime.now().plusMinutes(5);
+        MatchTask task = running("node-a", leaseUntil, 1, 3);
+        LocalDateTime renewed = leaseUntil.plusMinutes(5);
+
+        matchTaskQueue.renewLeases(List.of(task.getId()), "node-b", renewed.plusMinutes(5));
+        matchTaskQueue.renewLeases(List.of(task.getId()), "node-a", renewed);
+        assertEquals(renewed.withNano(0), reload(task).getLeaseExpiresAt().withNano(0));
+    }
+
+    // A task claimed by owner, as claim leaves it
+    private MatchTask running(String owner, LocalDateTime leaseUntil, int attempts, int maxAttempts) {
+        MatchTask task = new MatchTask(MatchTaskType.MATCH_STUDENT, UUID.randomUUID(), LlmLane.BACKGROUND,
+                maxAttempts);
+        task.setStatus(MatchTaskStatus.RUNNING);
+        task.setLeaseOwner(owner);
+        task.setLeaseExpiresAt(leaseUntil);
+        task.setAttempts(attempts);
+        return matchTaskRepository.save(task);
+    }
+
+    private MatchTask reload(MatchTask task) {
+        return matchTaskRepository.findById(task.getId()).orElseThrow();
+    }
+}
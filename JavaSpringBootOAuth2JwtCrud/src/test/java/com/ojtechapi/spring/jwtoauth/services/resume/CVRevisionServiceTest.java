@@ -0,0 +1,125 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.OJTechApiApplication;
+import com.ojtechapi.spring.jwtoauth.dtos.CVRevisionDto;
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import com.ojtechapi.spring.jwtoauth.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Short chains and history so that bases and compaction come up after a few edits
+@SpringBootTest(classes = OJTechApiApplication.class,
+        properties = {"cv.revisions.base-every=4", "cv.revisions.keep=3"})
+public class CVRevisionServiceTest {
+
+    private static final String RESUME = "{\"skills\":[\"Java\"]}";
+
+    @Autowired
+    private CVRevisionService cvRevisionService;
+
+    @Test
+    public void testEveryRevisionRebuildsFromItsBase() {
+        CV cv = newCv(html(-1));
+        List<String> contents = edit(cv, 6);
+
+        List<CVRevisionDto> revisions = cvRevisionService.listRevisions(cv.getId());
+        assertEquals(7, revisions.size());
+        // A base for the content before the first edit; at most 3 deltas follow a base
+        assertTrue(revision(revisions, 1).isBase());
+        assertFalse(revision(revisions, 2).isBase());
+        assertFalse(revision(revisions, 4).isBase());
+        assertTrue(revision(revisions, 5).isBase());
+        assertTrue(revision(revisions, 2).getStoredChars() < revision(revisions, 2).getContentChars());
+
+        for (int number = 1; number <= 7; number++) {
+            CVRevisionDto revision = cvRevisionService.getRevision(cv.getId(), number);
+            assertEquals(contents.get(number - 1), revision.getHtmlContent(), "revision " + number);
+            assertEquals(RESUME, revision.getParsedResume());
+        }
+    }
+
+    @Test
+    public void testEditsBySameAuthorAreCoalesced() {
+        CV cv = newCv(html(-1));
+        UUID author = UUID.randomUUID();
+
+        assertTrue(cvRevisionService.update(cv, html(1), RESUME, author));
+        assertTrue(cvRevisionService.update(cv, html(2), RESUME, author));
+
+        assertEquals(2, cvRevisionService.listRevisions(cv.getId()).size());
+        assertEquals(html(2), cvRevisionService.getRevision(cv.getId(), 2).getHtmlContent());
+        assertEquals(html(-1), cvRevisionService.getRevision(cv.getId(), 1).getHtmlContent());
+        assertEquals(html(2), cv.getHtmlContent());
+    }
+
+    @Test
+    public void testUnchangedContentIsNotRecorded() {
+        CV cv = newCv(html(-1));
+        assertFalse(cvRevisionService.update(cv, html(-1), RESUME, UUID.randomUUID()));
+        assertTrue(cvRevisionService.listRevisions(cv.getId()).isEmpty());
+    }
+
+    @Test
+    public void testCompactionKeepsLastRevisionsRebuildable() {
+        CV cv = newCv(html(-1));
+        List<String> contents = edit(cv, 7);
+
+        cvRevisionService.compact();
+
+        List<CVRevisionDto> revisions = cvRevisionService.listRevisions(cv.getId());
+        assertEquals(3, revisions.size());
+        // Revision 6 was a delta on base 5; it is now a base itself
+        assertTrue(revision(revisions, 6).isBase());
+        for (int number = 6; number <= 8; number++) {
+            assertEquals(contents.get(number - 1), cvRevisionService.getRevision(cv.getId(), number).getHtmlContent());
+        }
+        assertThrows(ResourceNotFoundException.class, () -> cvRevisionService.getRevision(cv.getId(), 5));
+
+        assertTrue(cvRevisionService.rollback(cv, 7, UUID.randomUUID()));
+        assertEquals(contents.get(6), cv.getHtmlContent());
+        assertEquals(contents.get(6), cvRevisionService.getRevision(cv.getId(), 9).getHtmlContent());
+    }
+
+    // Makes edits by different authors, so none is coalesced; returns the content of each revision
+    private List<String> edit(CV cv, int edits) {
+        List<String> contents = new ArrayList<>();
+        contents.add(cv.getHtmlContent());
+        for (int i = 0; i < edits; i++) {
+            String html = html(i);
+            assertTrue(cvRevisionService.update(cv, html, RESUME, UUID.randomUUID()));
+            contents.add(html);
+        }
+        return contents;
+    }
+
+    private static CV newCv(String html) {
+        CV cv = new CV();
+        cv.setId(UUID.randomUUID());
+        cv.setHtmlContent(html);
+        cv.setParsedResume(RESUME);
+        return cv;
+    }
+
+    // A CV with one skill edited (or none for -1), so each edit is a small part of it
+    private static String html(int edited) {
+        StringBuilder html = new StringBuilder("<html><body><h1>Skills</h1><ul>");
+        for (int i = 0; i < 20; i++) {
+            html.append("<li>Skill ").append(i).append(i == edited ? " (edited)" : "").append("</li>");
+        }
+        return html.append("</ul></body></html>").toString();
+    }
+
+    private static CVRevisionDto revision(List<CVRevisionDto> revisions, int number) {
+        return revisions.stream().filter(r -> r.getRevisionNumber() == number).findFirst().orElseThrow();
+    }
+}
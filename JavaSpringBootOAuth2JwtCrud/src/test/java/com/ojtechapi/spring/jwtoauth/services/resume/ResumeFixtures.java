@@ -0,0 +1,140 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ojtechapi.spring.jwtoauth.entities.Certification;
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.entities.WorkExperience;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Synthetic resumes for ResumeRenderTest and ResumeRenderBenchmark: parsed resume JSON and
+ * student profiles with `entries` experiences, projects and certifications, with text that
+ * needs escaping and non-ASCII characters, and minimal ones that leave most sections out.
+ */
+public final class ResumeFixtures {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ResumeFixtures() {
+    }
+
+    public static String resumeJson(int entries) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode contact = root.putObject("contactInfo");
+        contact.put("name", "María José \"MJ\" Dela Cruz");
+        contact.put("email", "mj.delacruz@example.com");
+        contact.put("phone", "+63 (912) 345-6789");
+        contact.put("location", "Cebu City, Philippines");
+        contact.put("linkedin", "linkedin.com/in/mjdelacruz");
+        contact.put("github", "github.com/mjdelacruz");
+        contact.put("portfolio", "mjdelacruz.dev");
+
+        ObjectNode skills = root.putObject("skills");
+        skills.putArray("programmingLanguages").add("Java").add("TypeScript").add("Python").add("C#");
+        skills.putArray("webFrameworks").add("Spring Boot").add("React").add("Next.js");
+        skills.putArray("toolsTechnologies").add("PostgreSQL").add("Docker").add("Git & GitHub");
+        skills.putArray("coreConcepts").add("REST APIs").add("OOP").add("CI/CD");
+
+        ObjectNode education = root.putObject("education");
+        education.put("university", "Cebu Institute of Technology – University");
+        education.put("major", "BS Computer Science");
+        education.put("graduationYear", "2026");
+
+        ArrayNode certifications = root.putObject("certifications").putArray("certificationsList");
+        ArrayNode summary = root.putObject("professionalSummary").putArray("summaryPoints");
+        ArrayNode experiences = root.putObject("experience").putArray("experiences");
+        ArrayNode projects = root.putObject("projects").putArray("projectsList");
+        for (int i = 0; i < entries; i++) {
+            certifications.addObject()
+                    .put("name", "Certification " + i + " – Cloud & DevOps")
+                    .put("issuer", "Issuer " + i)
+                    .put("dateReceived", "2025-0" + (1 + i % 9) + "-15");
+            summary.add("Built <component " + i + "> services used by 1,000+ students & employers");
+
+            ObjectNode experience = experiences.addObject()
+                    .put("title", "Software Engineering Intern " + i)
+                    .put("company", "Company " + i + " Inc.")
+                    .put("location", "Cebu City")
+                    .put("dateRange", "Jun 2024 – Aug 2024");
+            ArrayNode achievements = experience.putArray("achievements");
+            for (int a = 0; a < 4; a++) {
+                achievements.add("Reduced p95 latency of endpoint " + a + " by 40% using \"batching\" & caching");
+            }
+
+            ObjectNode project = projects.addObject()
+                    .put("name", "Project " + i)
+                    .put("technologies", "Java, Spring Boot, React");
+            ArrayNode highlights = project.putArray("highlights");
+            for (int h = 0; h < 3; h++) {
+                highlights.add("Highlight " + h + " with <markup> that must be escaped");
+            }
+        }
+        return objectMapper.writeValueAsString(root);
+    }
+
+    // Older parser output: personalInfo, a flat skills list, a summary text and no entries
+    public static String minimalResumeJson() throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.putObject("personalInfo").put("name", "Juan <Dela> Cruz").put("email", "juan@example.com");
+        root.putArray("skills").add("Java").add("SQL & NoSQL");
+        root.putObject("education").put("university", "University of San Carlos").put("major", "BS IT");
+        root.putObject("professionalSummary").put("text", "Aspiring \"backend\" developer.");
+        root.putObject("experience").putArray("experiences");
+        return objectMapper.writeValueAsString(root);
+    }
+
+    public static StudentProfile profile(int entries) {
+        StudentProfile profile = new StudentProfile();
+        profile.setFirstName("María José");
+        profile.setLastName("Dela Cruz");
+        profile.setEmail("mj.delacruz@example.com");
+        profile.setPhoneNumber("+63 912 345 6789");
+        profile.setLocation("Cebu City, Philippines");
+        profile.setLinkedinUrl("https://linkedin.com/in/mjdelacruz");
+        profile.setGithubUrl("https://github.com/mjdelacruz");
+        profile.setPortfolioUrl("https://mjdelacruz.dev");
+        profile.setSkills("Java, Spring Boot, React, TypeScript, PostgreSQL, Docker, Git & GitHub, REST APIs");
+        profile.setUniversity("Cebu Institute of Technology – University");
+        profile.setMajor("BS Computer Science");
+        profile.setGraduationYear(2026);
+        profile.setBio("Computer science student who builds <full-stack> applications & enjoys \"hard\" problems.");
+
+        Set<Certification> certifications = new LinkedHashSet<>();
+        Set<WorkExperience> experiences = new LinkedHashSet<>();
+        for (int i = 0; i < entries; i++) {
+            Certification certification = new Certification();
+            certification.setName("Certification " + i + " – Cloud & DevOps");
+            certification.setIssuer("Issuer " + i);
+            certification.setDateReceived(LocalDate.of(2025, 1 + i % 12, 15));
+            certifications.add(certification);
+
+            WorkExperience experience = new WorkExperience();
+            experience.setTitle("Software Engineering Intern " + i);
+            experience.setCompany("Company " + i + " Inc.");
+            experience.setLocation("Cebu City");
+            experience.setStartDate(LocalDate.of(2024, 6, 1));
+            experience.setEndDate(i == 0 ? null : LocalDate.of(2024, 8, 31));
+            experience.setDescription("Reduced p95 latency by 40% using \"batching\" & caching in <service " + i + ">.");
+            experiences.add(experience);
+        }
+        profile.setCertifications(certifications);
+        profile.setExperiences(experiences);
+        return profile;
+    }
+
+    // A profile just created: a name and an email, nothing else filled in
+    public static StudentProfile minimalProfile() {
+        StudentProfile profile = new StudentProfile();
+        profile.setFirstName("Juan");
+        profile.setLastName("Dela Cruz");
+        profile.setEmail("juan@example.com");
+        profile.setBio("  ");
+        return profile;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import com.ojtechapi.spring.jwtoauth.entities.StudentProfile;
+import com.ojtechapi.spring.jwtoauth.service.impl.CVServiceImpl;
+import com.ojtechapi.spring.jwtoauth.services.ResumeHtmlGeneratorService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The golden files are the output of the StringBuilder renderers the templates replaced
+public class ResumeRenderTest {
+
+    private final ResumeHtmlGeneratorService resumeHtmlGeneratorService = new ResumeHtmlGeneratorService();
+
+    // Rendering uses none of the repositories or services
+    private final CVServiceImpl cvService = new CVServiceImpl(null, null, null, null, null, null);
+
+    @Test
+    public void testJsonResumeMatchesGolden() throws IOException {
+        assertJsonResume("json-resume.html", ResumeFixtures.resumeJson(2));
+    }
+
+    @Test
+    public void testMinimalJsonResumeMatchesGolden() throws IOException {
+        assertJsonResume("json-resume-minimal.html", ResumeFixtures.minimalResumeJson());
+    }
+
+    @Test
+    public void testProfileCvMatchesGolden() throws IOException {
+        assertProfileCv("profile-cv.html", ResumeFixtures.profile(2));
+    }
+
+    @Test
+    public void testMinimalProfileCvMatchesGolden() throws IOException {
+        assertProfileCv("profile-cv-minimal.html", ResumeFixtures.minimalProfile());
+    }
+
+    @Test
+    public void testMalformedJsonRendersTheErrorPage() throws IOException {
+        String html = resumeHtmlGeneratorService.generateResumeHtml("{\"contactInfo\":");
+        assertTrue(html.contains("<h1>Error Loading Resume</h1>"), html);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resumeHtmlGeneratorService.writeResumeHtml("{\"contactInfo\":", out);
+        assertEquals(html, out.toString(StandardCharsets.UTF_8));
+    }
+
+    private void assertJsonResume(String golden, String json) throws IOException {
+        String expected = golden(golden);
+        assertEquals(expected, resumeHtmlGeneratorService.generateResumeHtml(json));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resumeHtmlGeneratorService.writeResumeHtml(json, out);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    private void assertProfileCv(String golden, StudentProfile profile) throws IOException {
+        String expected = golden(golden);
+        assertEquals(expected, cvService.generateCVContent(profile));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cvService.writeCVContent(profile, out);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String golden(String name) throws IOException {
+        try (InputStream in = ResumeRenderTest.class.getResourceAsStream("/golden/resume/" + name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
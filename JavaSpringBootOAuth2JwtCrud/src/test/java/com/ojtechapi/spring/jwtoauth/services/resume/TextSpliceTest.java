@@ -0,0 +1,133 @@
+package com.ojtechapi.spring.jwtoauth.services.resume;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextSpliceTest {
+
+    private static final String GRINNING = "😀";
+    private static final String BEAMING = "😁";
+    // Same low surrogate as GRINNING, different high surrogate
+    private static final String SQUARED = "🈀";
+
+    @Test
+    public void testRoundTrip() {
+        String[][] pairs = {
+                {"", ""},
+                {"", "abc"},
+                {"abc", ""},
+                {"abc", "abc"},
+                {"hello world", "hello brave world"},
+                {"hello brave world", "hello world"},
+                {"abc", "xabc"},
+                {"abc", "abcx"},
+                {"aaaa", "aaaaa"},
+                {"<p>Java</p>", "<p>Kotlin</p>"},
+        };
+        for (String[] pair : pairs) {
+            TextSplice splice = TextSplice.between(pair[0], pair[1]);
+            assertEquals(pair[1], splice.applyTo(pair[0]), pair[0] + " -> " + pair[1]);
+            assertTrue(splice.prefix() + splice.suffix() <= Math.min(pair[0].length(), pair[1].length()));
+        }
+    }
+
+    @Test
+    public void testInsertIsSmall() {
+        TextSplice splice = TextSplice.between("hello world", "hello brave world");
+        assertEquals(6, splice.prefix());
+        assertEquals(5, splice.suffix());
+        assertEquals("brave ", splice.insert());
+    }
+
+    @Test
+    public void testPrefixDoesNotSplitSurrogatePair() {
+        // The emojis share their high surrogate
+        TextSplice splice = TextSplice.between("a" + GRINNING + "b", "a" + BEAMING + "b");
+        assertEquals(1, splice.prefix());
+        assertEquals(1, splice.suffix());
+        assertEquals(BEAMING, splice.insert());
+        assertEquals("a" + BEAMING + "b", splice.applyTo("a" + GRINNING + "b"));
+    }
+
+    @Test
+    public void testSuffixDoesNotSplitSurrogatePair() {
+        // The emojis share their low surrogate
+        TextSplice splice = TextSplice.between("a" + GRINNING, "a" + SQUARED);
+        assertEquals(1, splice.prefix());
+        assertEquals(0, splice.suffix());
+        assertEquals(SQUARED, splice.insert());
+    }
+
+    @Test
+    public void testThenComposesTwoSplices() {
+        String first = "The quick brown fox";
+        String second = "The quick red fox";
+        String third = "The slow red fox";
+        TextSplice combined = TextSplice.between(first, second).then(TextSplice.between(second, third), third);
+        assertEquals(third, combined.applyTo(first));
+    }
+
+    @Test
+    public void testRandomEditsRoundTripAndCompose() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            String first = randomText(random, random.nextInt(12));
+            String second = edit(random, first);
+            String third = edit(random, second);
+
+            TextSplice one = TextSplice.between(first, second);
+            TextSplice two = TextSplice.between(second, third);
+            assertEquals(second, one.applyTo(first));
+            assertEquals(third, two.applyTo(second));
+            assertValidText(one.insert());
+            assertValidText(two.insert());
+
+            TextSplice both = one.then(two, third);
+            assertEquals(third, both.applyTo(first), first + " -> " + second + " -> " + third);
+            assertValidText(both.insert());
+        }
+    }
+
+    @Test
+    public void testApplyToShorterTextFails() {
+        TextSplice splice = TextSplice.between("abcdef", "abcXdef");
+        assertThrows(IllegalStateException.class, () -> splice.applyTo("ab"));
+    }
+
+    // Replaces, inserts or deletes one random span
+    private static String edit(Random random, String text) {
+        int codePoints = text.codePointCount(0, text.length());
+        int start = random.nextInt(codePoints + 1);
+        int end = Math.min(codePoints, start + random.nextInt(3));
+        return text.substring(0, text.offsetByCodePoints(0, start)) + randomText(random, random.nextInt(3))
+                + text.substring(text.offsetByCodePoints(0, end));
+    }
+
+    // Few distinct characters so that edits often match their surroundings
+    private static String randomText(Random random, int length) {
+        String[] alphabet = {"a", "b", GRINNING, BEAMING, SQUARED};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        return text.toString();
+    }
+
+    private static void assertValidText(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c)) {
+                assertTrue(i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)),
+                        "unpaired high surrogate in " + text);
+                i++;
+            } else {
+                assertTrue(!Character.isLowSurrogate(c), "unpaired low surrogate in " + text);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.ojtechapi.spring.jwtoauth.services.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MinHashLshIndexTest {
+
+    private static MinHashLshIndex newIndex(int maxBucketScan) {
+        return new MinHashLshIndex(32, 4, maxBucketScan, 42L);
+    }
+
+    // Features from..to-1, so two ranges overlap by a known Jaccard similarity
+    private static long[] features(long from, long to) {
+        return LongStream.range(from, to).toArray();
+    }
+
+    @Test
+    public void testPutRemoveAndPutAgain() {
+        MinHashLshIndex index = newIndex(100);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.put(first, features(0, 100));
+        index.put(second, features(0, 100));
+
+        List<MinHashLshIndex.Match> similar = index.similarTo(first, 10, 0.2);
+        assertEquals(1, similar.size());
+        assertEquals(second, similar.get(0).getId());
+        assertEquals(1.0, similar.get(0).getSimilarity());
+
+        index.remove(second);
+        assertEquals(1, index.size());
+        assertTrue(index.similarTo(first, 10, 0.2).isEmpty());
+        assertTrue(index.similarTo(second, 10, 0.2).isEmpty());
+        // Removing an unknown item does nothing
+        index.remove(UUID.randomUUID());
+        assertEquals(1, index.size());
+
+        // Putting again replaces the previous signature and buckets
+        index.put(second, features(1000, 1100));
+        assertTrue(index.similarTo(first, 10, 0.2).isEmpty());
+        index.put(second, features(0, 100));
+        assertEquals(List.of(second), ids(index.similarTo(first, 10, 0.2)));
+        assertEquals(2, index.size());
+
+        // No features, nothing to compare: the item is dropped
+        index.put(second, new long[0]);
+        assertEquals(1, index.size());
+        assertTrue(index.similarTo(first, 10, 0.2).isEmpty());
+    }
+
+    @Test
+    public void testMinSimilarityFiltersCandidates() {
+        MinHashLshIndex index = newIndex(100);
+        UUID item = UUID.randomUUID();
+        UUID close = UUID.randomUUID();
+        UUID unrelated = UUID.randomUUID();
+        index.put(item, features(0, 100));
+        // Jaccard similarity 90/110, about 0.82
+        index.put(close, features(10, 110));
+        index.put(unrelated, features(5000, 5100));
+
+        List<MinHashLshIndex.Match> similar = index.similarTo(item, 10, 0.5);
+        assertEquals(List.of(close), ids(similar));
+        assertEquals(0.82, similar.get(0).getSimilarity(), 0.1);
+        assertTrue(index.similarTo(item, 10, 0.95).isEmpty());
+        assertEquals(List.of(item, close), ids(index.query(features(0, 100), 10, 0.5)));
+    }
+
+    @Test
+    public void testThresholdFollowsBandsAndRows() {
+        MinHashLshIndex index = newIndex(100);
+        assertEquals(Math.pow(1.0 / 32, 1.0 / 4), index.getThreshold(), 1e-9);
+        assertEquals(0.42, index.getThreshold(), 0.01);
+        assertEquals(Math.pow(1.0 / 16, 1.0 / 8), new MinHashLshIndex(16, 8, 100, 42L).getThreshold(), 1e-9);
+    }
+
+    @Test
+    public void testLookupScansAtMostMaxBucketScanPerBucket() {
+        long[] features = features(0, 100);
+        MinHashLshIndex limited = newIndex(3);
+        MinHashLshIndex unlimited = newIndex(100);
+        for (int i = 0; i < 10; i++) {
+            UUID id = UUID.randomUUID();
+            limited.put(id, features);
+            unlimited.put(id, features);
+        }
+
+        // Identical items share every bucket, so the same first 3 are read in each band
+        assertEquals(3, limited.query(features, 100, 0.0).size());
+        assertEquals(10, unlimited.query(features, 100, 0.0).size());
+        assertEquals(5, unlimited.query(features, 5, 0.0).size());
+    }
+
+    private static List<UUID> ids(List<MinHashLshIndex.Match> matches) {
+        return matches.stream().map(MinHashLshIndex.Match::getId).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ojtechapi.spring.jwtoauth.services.similarity;
+
+import com.ojtechapi.spring.jwtoauth.entities.Job;
+import com.ojtechapi.spring.jwtoauth.repositories.JobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SimilarJobIndexTest {
+
+    private static final String SKILLS = "Java, Spring Boot, PostgreSQL, Docker";
+    private static final String DESCRIPTION = "Build REST services for our internship matching platform";
+
+    private JobRepository jobRepository;
+    private SimilarJobIndex similarJobIndex;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(JobRepository.class);
+        similarJobIndex = new SimilarJobIndex();
+        ReflectionTestUtils.setField(similarJobIndex, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(similarJobIndex, "enabled", true);
+        ReflectionTestUtils.setField(similarJobIndex, "bands", 32);
+        ReflectionTestUtils.setField(similarJobIndex, "rows", 4);
+        ReflectionTestUtils.setField(similarJobIndex, "maxBucketScan", 100);
+        ReflectionTestUtils.setField(similarJobIndex, "minSimilarity", 0.2);
+    }
+
+    @Test
+    public void testRemovalDuringRebuildIsNotUndone() {
+        Job first = job(SKILLS, DESCRIPTION);
+        Job second = job(SKILLS, DESCRIPTION);
+        // The page was read before the deactivation committed, which then arrives mid-build
+        pageDuringWhich(List.of(first, second), () -> similarJobIndex.remove(second.getId()));
+
+        similarJobIndex.rebuild();
+
+        assertTrue(similarJobIndex.similarTo(first.getId(), 10).isEmpty());
+        assertTrue(similarJobIndex.similarTo(second.getId(), 10).isEmpty());
+    }
+
+    @Test
+    public void testUpdateDuringRebuildIsNotUndone() {
+        Job first = job(SKILLS, DESCRIPTION);
+        Job second = job("Figma, Illustrator", "Design marketing banners for the student council");
+        pageDuringWhich(List.of(first, second),
+                () -> similarJobIndex.update(second.getId(), true, SKILLS, DESCRIPTION));
+
+        similarJobIndex.rebuild();
+
+        List<MinHashLshIndex.Match> similar = similarJobIndex.similarTo(first.getId(), 10);
+        assertEquals(1, similar.size());
+        assertEquals(second.getId(), similar.get(0).getId());
+    }
+
+    @Test
+    public void testChangesAfterRebuildApplyToIndex() {
+        Job first = job(SKILLS, DESCRIPTION);
+        Job second = job(SKILLS, DESCRIPTION);
+        pageDuringWhich(List.of(first, second), () -> { });
+        similarJobIndex.rebuild();
+        assertEquals(1, similarJobIndex.similarTo(first.getId(), 10).size());
+
+        similarJobIndex.update(second.getId(), false, SKILLS, DESCRIPTION);
+        assertTrue(similarJobIndex.similarTo(first.getId(), 10).isEmpty());
+    }
+
+    // Serves jobs as the only page of active jobs, running change while the page is read
+    private void pageDuringWhich(List<Job> jobs, Runnable change) {
+        when(jobRepository.findByActive(eq(true), any(Pageable.class))).thenAnswer(invocation -> {
+            change.run();
+            return new PageImpl<>(jobs, invocation.getArgument(1), jobs.size());
+        });
+    }
+
+    private static Job job(String requiredSkills, String description) {
+        Job job = new Job();
+        ReflectionTestUtils.setField(job, "id", UUID.randomUUID());
+        job.setRequiredSkills(requiredSkills);
+        job.setDescription(description);
+        job.setActive(true);
+        return job;
+    }
+}
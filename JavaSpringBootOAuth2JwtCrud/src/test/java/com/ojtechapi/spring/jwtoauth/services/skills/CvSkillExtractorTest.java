@@ -0,0 +1,117 @@
+package com.ojtechapi.spring.jwtoauth.services.skills;
+
+import com.ojtechapi.spring.jwtoauth.entities.CV;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CvSkillExtractorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CvSkillExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        extractor = new CvSkillExtractor();
+        ReflectionTestUtils.setField(extractor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(extractor, "enabled", true);
+        ReflectionTestUtils.setField(extractor, "minEvidence", 1);
+        ReflectionTestUtils.setField(extractor, "cacheSize", 100);
+        extractor.init();
+    }
+
+    @Test
+    public void testHtmlTextIsScannedWithoutTagsScriptsOrStyles() {
+        CV cv = cv(null, "<html><head><style>.vue { color: red }</style></head><body>"
+                + "<div class=\"docker\"><h2>Skills</h2><ul><li>Java</li><li>Spring&nbsp;Boot</li><li>C&#35;</li></ul>"
+                + "<script>const react = 1;</script></div></body></html>");
+
+        Map<String, Integer> evidence = extractor.extract(cv).getEvidence();
+        assertEquals(Map.of("java", 1, "spring boot", 1, "spring", 1, "c#", 1), evidence);
+    }
+
+    @Test
+    public void testOnlyJsonStringValuesAreScanned() {
+        CV cv = cv("{\"java\":\"Python developer\",\"skills\":[\"Docker\",\"Python\"],\"kotlin\":3,\"react\":true}", null);
+
+        Map<String, Integer> evidence = extractor.extract(cv).getEvidence();
+        assertEquals(Map.of("python", 2, "docker", 1), evidence);
+        // Most mentioned first
+        assertEquals(List.of("python", "docker"), extractor.extract(cv).skillsWithEvidence(1));
+    }
+
+    @Test
+    public void testResumeThatIsNotJsonIsScannedAsText() {
+        CV cv = cv("Skills: Kotlin, {Django", null);
+        assertEquals(Map.of("kotlin", 1, "django", 1), extractor.extract(cv).getEvidence());
+    }
+
+    @Test
+    public void testGenericTermsAreNotExtracted() {
+        CV cv = cv("{\"summary\":\"Built a web API and a UI with a cache, in Go and JS, using Angular\"}", null);
+        assertEquals(Map.of("angular", 1), extractor.extract(cv).getEvidence());
+    }
+
+    @Test
+    public void testCachedUntilTheCvChanges() {
+        CV cv = cv("{\"skills\":[\"Java\"]}", null);
+        ExtractedSkills first = extractor.extract(cv);
+        assertSame(first, extractor.extract(cv));
+
+        // Content is not compared, only the version
+        cv.setParsedResume("{\"skills\":[\"Java\",\"Kotlin\"]}");
+        assertSame(first, extractor.extract(cv));
+
+        cv.setLastUpdated(cv.getLastUpdated().plusMinutes(1));
+        ExtractedSkills updated = extractor.extract(cv);
+        assertNotSame(first, updated);
+        assertEquals(Map.of("java", 1, "kotlin", 1), updated.getEvidence());
+
+        assertEquals(2.0, meterRegistry.counter("cv.skills.extraction", "result", "hit").count());
+        assertEquals(2.0, meterRegistry.counter("cv.skills.extraction", "result", "miss").count());
+    }
+
+    @Test
+    public void testMergeAddsOnlyNewSkills() {
+        CV cv = cv("{\"skills\":[\"Java\",\"Docker\",\"PostgreSQL\"]}", null);
+        List<String> merged = extractor.mergeInto(List.of("JAVA", "React"), cv);
+        assertEquals(List.of("JAVA", "React", "docker", "postgresql"), merged);
+
+        assertNull(extractor.extract(null));
+        assertEquals(List.of("Java"), extractor.mergeInto(List.of("Java"), null));
+
+        ReflectionTestUtils.setField(extractor, "enabled", false);
+        List<String> profileSkills = List.of("Java");
+        assertSame(profileSkills, extractor.mergeInto(profileSkills, cv));
+    }
+
+    @Test
+    public void testNoContent() {
+        ExtractedSkills extracted = extractor.extract(cv(null, "  "));
+        assertTrue(extracted.getEvidence().isEmpty());
+        assertFalse(extracted.getCvVersion().isEmpty());
+    }
+
+    private static CV cv(String parsedResume, String htmlContent) {
+        CV cv = new CV();
+        cv.setId(UUID.randomUUID());
+        cv.setParsedResume(parsedResume);
+        cv.setHtmlContent(htmlContent);
+        cv.setLastUpdated(LocalDateTime.of(2026, 10, 1, 9, 0));
+        return cv;
+    }
+}
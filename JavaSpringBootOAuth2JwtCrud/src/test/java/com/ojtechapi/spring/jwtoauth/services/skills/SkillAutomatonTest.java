@@ -0,0 +1,45 @@
+package com.ojtechapi.spring.jwtoauth.services.skills;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SkillAutomatonTest {
+
+    @Test
+    public void testOverlappingTermsAreAllCounted() {
+        SkillAutomaton automaton = new SkillAutomaton(List.of("spring", "spring boot", "boot", "ruby on rails", "rails"));
+        assertEquals(Map.of("spring", 1, "spring boot", 1, "boot", 1), automaton.count("spring boot"));
+        assertEquals(Map.of("ruby on rails", 1, "rails", 1), automaton.count("ruby on rails"));
+    }
+
+    @Test
+    public void testTermInsideLongerWordIsNotCounted() {
+        SkillAutomaton automaton = new SkillAutomaton(List.of("java", "react", "spring boot", "boot"));
+        assertTrue(automaton.count("javascript, reactive and preact").isEmpty());
+        assertEquals(Map.of("java", 2, "react", 1), automaton.count("java, (react) and java8 java."));
+        // The longer match fails at its end; the scan carries on to the later occurrence
+        assertEquals(Map.of("boot", 1), automaton.count("spring bootcamp then boot"));
+    }
+
+    @Test
+    public void testTermsWithPunctuationAtTheirEdges() {
+        SkillAutomaton automaton = new SkillAutomaton(List.of("c#", ".net", "node.js", "js"));
+        assertEquals(Map.of("c#", 2), automaton.count("c#, (c#)"));
+        // A term edge that is not a letter or digit needs no boundary on that side
+        assertEquals(Map.of(".net", 2), automaton.count("asp.net and vb.net"));
+        assertEquals(Map.of("node.js", 1, "js", 1), automaton.count("node.js"));
+        // but one that is still does
+        assertTrue(automaton.count("abc# jsx").isEmpty());
+    }
+
+    @Test
+    public void testEmptyTextAndNoTerms() {
+        assertTrue(new SkillAutomaton(List.of("java")).count("").isEmpty());
+        assertTrue(new SkillAutomaton(List.of()).count("java").isEmpty());
+    }
+}
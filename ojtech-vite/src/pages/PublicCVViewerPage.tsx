@@ -82,7 +82,7 @@ export default function PublicCVViewerPage() {
     const fetchCV = async () => {
       try {
         setLoading(true);
-        const response = await fetch(`${import.meta.env.VITE_API_URL}/cvs/${cvId}/data`);
+        const response = await fetch(`${import.meta.env.VITE_API_URL}/public/cvs/${cvId}/data`);
         
         if (!response.ok) {
           throw new Error('CV not found');
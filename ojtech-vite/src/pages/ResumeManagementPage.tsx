@@ -1183,6 +1183,19 @@ export class ResumeManagementPage extends Component<ResumeManagementPageProps, R
     }
   };
   
+  // Load one CV with its content (parsedResume), which the CV list leaves out
+  fetchFullCV = async (id: string, token: string) => {
+    try {
+      const response = await apiClient.get(`/cvs/${id}`, {
+        headers: { 'Authorization': `Bearer ${token}` }
+      });
+      return response.data;
+    } catch (error) {
+      console.error('Error loading CV:', error);
+      return null;
+    }
+  };
+
   // Load resume data
   loadResumeData = async (token: string | null) => {
     if (!token) {
@@ -1198,7 +1211,9 @@ export class ResumeManagementPage extends Component<ResumeManagementPageProps, R
       console.log('Resume data loaded:', response.data);
       
       if (response.data && response.data.length > 0) {
-        const cvData = response.data[0]; // Get the first CV if array
+        const summary = response.data[0]; // Get the first CV if array
+        // The list only has CV summaries; editing and the raw JSON view need the full CV
+        const cvData = (summary.id && await this.fetchFullCV(summary.id, token)) || summary;
         this.setState({ 
           cvData: cvData,
           hasResume: true
@@ -2292,8 +2307,23 @@ export class ResumeManagementPage extends Component<ResumeManagementPageProps, R
   };
 
   // Add new methods for handling edit mode
-  handleEditClick = () => {
-    const { cvData } = this.state;
+  handleEditClick = async () => {
+    let { cvData } = this.state;
+    if (cvData && cvData.id && cvData.parsedResume === undefined) {
+      // Never open the editor on a CV summary: saving would replace the resume with an empty one
+      const token = this.getAuthToken();
+      const fullCV = token ? await this.fetchFullCV(cvData.id, token) : null;
+      if (!fullCV) {
+        this.showToast({
+          title: "Error",
+          description: "Could not load your resume for editing",
+          variant: "destructive"
+        });
+        return;
+      }
+      cvData = fullCV;
+      this.setState({ cvData: fullCV });
+    }
     if (cvData) {
       let parsedData: ResumeData;
       try {